@@ -45,11 +45,70 @@ public abstract class KonfigurationSchluessel {
      */
     public static final String PROPERTY_BATCHRAHMEN_ERGEBNIS_DATEI = "Batchrahmen.Ergebnisdatei";
 
+    /**
+     * Property-Name fuer die Anzahl der Meldungen, nach denen die Ergebnisdatei geflusht wird. Standard ist 1
+     * (Flush nach jeder Meldung). Bei 0 wird nur zeitgesteuert, an Checkpunkten und am Ende geflusht.
+     */
+    public static final String PROPERTY_BATCHRAHMEN_ERGEBNIS_FLUSH_ANZAHL =
+        "Batchrahmen.Ergebnisdatei.FlushAnzahl";
+
+    /**
+     * Property-Name fuer das Intervall in Sekunden, nach dem gepufferte Meldungen spaetestens in die
+     * Ergebnisdatei geflusht werden. Standard ist 0 (kein zeitgesteuerter Flush).
+     */
+    public static final String PROPERTY_BATCHRAHMEN_ERGEBNIS_FLUSH_INTERVALL =
+        "Batchrahmen.Ergebnisdatei.FlushIntervall";
+
+    /**
+     * Property-Name fuer das Flag, ob die Ergebnisdatei GZIP-komprimiert geschrieben wird. Standard ist
+     * false.
+     */
+    public static final String PROPERTY_BATCHRAHMEN_ERGEBNIS_KOMPRIMIERT =
+        "Batchrahmen.Ergebnisdatei.Komprimiert";
+
+    /**
+     * Property-Name fuer die unkomprimierte Groesse in Zeichen, ab der die Ergebnisdatei rotiert wird. Die
+     * rotierten Dateien erhalten die Endungen .1, .2 usw. Standard ist 0 (keine Rotation).
+     */
+    public static final String PROPERTY_BATCHRAHMEN_ERGEBNIS_MAXIMALE_GROESSE =
+        "Batchrahmen.Ergebnisdatei.MaximaleGroesse";
+
     /**
      * Property-Name fuer das Clear-Intervall (clearen des Hibernate Sssion-Caches).
      */
     public static final String PROPERTY_BATCHRAHMEN_CLEAR_INTERVALL = "Batchrahmen.ClearIntervall";
 
+    /**
+     * Property-Name fuer die Anzahl der Threads, mit denen die Partitionen eines partitionierten Batches
+     * verarbeitet werden. Standard ist die Anzahl der verfügbaren Prozessoren.
+     */
+    public static final String PROPERTY_BATCHRAHMEN_ANZAHL_THREADS = "Batchrahmen.AnzahlThreads";
+
+    /**
+     * Property-Name fuer die Anzahl der Saetze, die ein chunk-orientierter Batch je Chunk liest und schreibt.
+     * Standard ist das Commit-Intervall bzw. 100, falls kein Commit-Intervall konfiguriert ist.
+     */
+    public static final String PROPERTY_BATCHRAHMEN_CHUNK_GROESSE = "Batchrahmen.ChunkGroesse";
+
+    /**
+     * Property-Name fuer das Intervall in Sekunden, in dem im Hintergrund geprueft wird, ob der Abbruch des
+     * Batches ueber den Status-Satz angefordert wurde. Standard ist 0 (keine Pruefung).
+     */
+    public static final String PROPERTY_BATCHRAHMEN_ABBRUCH_PRUEFINTERVALL =
+        "Batchrahmen.AbbruchPruefIntervall";
+
+    /**
+     * Property-Name fuer die Strategie, nach der je Satz eine Korrelations-ID erzeugt wird: UUID (Standard),
+     * SEQUENZ (BatchId und Satznummer) oder KEINE.
+     */
+    public static final String PROPERTY_BATCHRAHMEN_SATZ_KORRELATIONS_ID = "Batchrahmen.SatzKorrelationsId";
+
+    /**
+     * Property-Name fuer das Intervall in Saetzen, in dem der Schluessel und der Zeitpunkt des letzten Satzes
+     * in der JMX-Bean aktualisiert werden. Standard ist 1 (jeder Satz).
+     */
+    public static final String PROPERTY_BATCHRAHMEN_JMX_ABTASTINTERVALL = "Batchrahmen.JmxAbtastIntervall";
+
     /** Property-Name fuer den Namen der Ausfuehrungs-Bean. */
     public static final String PROPERTY_AUSFUEHRUNGSBEAN = "AusfuehrungsBean";
 
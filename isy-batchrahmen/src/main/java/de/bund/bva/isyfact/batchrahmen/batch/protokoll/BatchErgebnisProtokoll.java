@@ -107,6 +107,13 @@ public interface BatchErgebnisProtokoll {
      */
     public void batchStart(BatchKonfiguration konfiguration, String[] args);
     
+    /**
+     * Schreibt die gepufferten Meldungen in die Ergebnisdatei. Wird vom Batchrahmen an jedem Checkpunkt
+     * aufgerufen. Die Standardimplementierung tut nichts und eignet sich für Protokolle, die nicht puffern.
+     */
+    public default void flusheProtokoll() {
+    }
+
     /**
      * Protokolliert das Batchende.
      */
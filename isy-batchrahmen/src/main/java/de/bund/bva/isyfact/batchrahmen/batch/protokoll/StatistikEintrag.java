@@ -59,7 +59,7 @@ public class StatistikEintrag implements Comparable<StatistikEintrag> {
      * Aktueller Wert dieser Statistik.
      * @return aktuellen Wert
      */
-    public int getWert() {
+    public synchronized int getWert() {
         return wert;
     }
     
@@ -67,14 +67,14 @@ public class StatistikEintrag implements Comparable<StatistikEintrag> {
      * Setzt den Wert dieser Statistik.
      * @param neuerWert Neuer Wert.
      */
-    public void setWert(int neuerWert) {
+    public synchronized void setWert(int neuerWert) {
         wert = neuerWert;
     }
     
     /**
      * Erhöht den Wert der Statistik um eins.
      */
-    public void erhoeheWert() {
+    public synchronized void erhoeheWert() {
         wert++;
     }
 
@@ -0,0 +1,93 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch.rahmen;
+
+/**
+ * Eine Partition der zu verarbeitenden Datensätze eines {@link PartitionierteBatchAusfuehrungsBean}.
+ * <p>
+ * Eine Partition wird über ihre ID identifiziert. Unter dieser ID wird der Fortschritt der Partition in
+ * der Status-Tabelle vermerkt, damit ein Restart jede Partition an ihrem letzten Checkpunkt fortsetzen
+ * kann. Die ID muss daher bei jedem Lauf des Batches für dieselbe Partition gleich bleiben. Optional kann
+ * die Partition einen Schlüsselbereich beschreiben, den die Verarbeitung der Partition auswertet.
+ */
+public final class BatchPartition {
+
+    /** Die ID der Partition. */
+    private final String id;
+
+    /** Der erste Schlüssel der Partition (inklusive) oder <code>null</code>. */
+    private final String schluesselVon;
+
+    /** Der letzte Schlüssel der Partition (exklusive) oder <code>null</code>. */
+    private final String schluesselBis;
+
+    /**
+     * Erzeugt eine Partition ohne Schlüsselbereich.
+     *
+     * @param id
+     *            die ID der Partition.
+     */
+    public BatchPartition(String id) {
+        this(id, null, null);
+    }
+
+    /**
+     * Erzeugt eine Partition für einen Schlüsselbereich.
+     *
+     * @param id
+     *            die ID der Partition.
+     * @param schluesselVon
+     *            der erste Schlüssel der Partition (inklusive) oder <code>null</code>.
+     * @param schluesselBis
+     *            der letzte Schlüssel der Partition (exklusive) oder <code>null</code>.
+     */
+    public BatchPartition(String id, String schluesselVon, String schluesselBis) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Die ID einer Partition darf nicht leer sein.");
+        }
+        this.id = id;
+        this.schluesselVon = schluesselVon;
+        this.schluesselBis = schluesselBis;
+    }
+
+    /**
+     * @return die ID der Partition.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return der erste Schlüssel der Partition (inklusive) oder <code>null</code>.
+     */
+    public String getSchluesselVon() {
+        return schluesselVon;
+    }
+
+    /**
+     * @return der letzte Schlüssel der Partition (exklusive) oder <code>null</code>.
+     */
+    public String getSchluesselBis() {
+        return schluesselBis;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchPartition [id=" + id + ", schluesselVon=" + schluesselVon + ", schluesselBis="
+            + schluesselBis + "]";
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch.rahmen;
+
+import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
+
+/**
+ * Die Verarbeitung einer {@link BatchPartition}. Jede Partition wird in einem eigenen Thread mit eigener
+ * Transaktion verarbeitet, die Methoden einer Instanz werden daher immer vom selben Thread aufgerufen.
+ */
+public interface BatchPartitionsVerarbeitung {
+
+    /**
+     * Initialisiert die Verarbeitung der Partition: Öffnet z.B. einen Datenbank-Cursor für den
+     * Schlüsselbereich der Partition und liest bei einem Restart bis zum angegebenen Satz bzw.
+     * Datenbankschlüssel vor.
+     *
+     * @param satzNummer
+     *            die Satznummer der Partition, bis zu der bei einem Restart vorgelesen werden soll.
+     * @param dbKey
+     *            der Datenbankschlüssel der Partition, ab dem bei einem Restart Werte ausgelesen werden
+     *            sollen.
+     * @param startTyp
+     *            der Starttyp der Partition (Start bzw. Restart).
+     * @throws BatchAusfuehrungsException
+     *             Falls ein Fehler auftritt.
+     */
+    public void initialisieren(long satzNummer, String dbKey, BatchStartTyp startTyp)
+        throws BatchAusfuehrungsException;
+
+    /**
+     * Verarbeitet den nächsten Satz der Partition.
+     *
+     * @return das Verarbeitungsergebnis des Satzes, siehe {@link BatchAusfuehrungsBean#verarbeiteSatz()}.
+     * @throws BatchAusfuehrungsException
+     *             Falls ein Fehler auftritt.
+     */
+    public VerarbeitungsErgebnis verarbeiteSatz() throws BatchAusfuehrungsException;
+
+    /**
+     * Ein Checkpunkt der Partition wurde geschrieben. Die Transaktion der Partition wurde beendet und eine
+     * neue gestartet.
+     *
+     * @param satzNummer
+     *            die für die Partition in die Status-Tabelle geschriebene Satznummer.
+     * @throws BatchAusfuehrungsException
+     *             Falls ein Fehler auftritt.
+     */
+    public void checkpointGeschrieben(long satzNummer) throws BatchAusfuehrungsException;
+}
@@ -0,0 +1,57 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch.rahmen;
+
+/**
+ * Bean für den Batchrahmen, deren Sätze chunkweise gelesen, verarbeitet und geschrieben werden. Den
+ * Lebenszyklus teilt sie mit der {@link BatchAusfuehrungsBean}, verarbeitet ihre Sätze aber nicht über
+ * {@link BatchAusfuehrungsBean#verarbeiteSatz()}.
+ * <p>
+ * Der Batchrahmen liest je Chunk bis zu {@code Batchrahmen.ChunkGroesse} Sätze über den {@link ChunkLeser},
+ * übergibt jeden Satz an den {@link ChunkVerarbeiter} und die Ergebnisse gemeinsam an den
+ * {@link ChunkSchreiber}. Nach einem Chunk wird ein Checkpunkt geschrieben, sobald das Commit-Intervall
+ * erreicht ist. Als Schlüssel des Checkpunkts wird der Datenbankschlüssel des letzten gelesenen Satzes
+ * vermerkt.
+ *
+ * @param <E>
+ *            der Typ der gelesenen Sätze.
+ * @param <A>
+ *            der Typ der zu schreibenden Sätze.
+ */
+public interface ChunkBatchAusfuehrungsBean<E, A> extends BatchLebenszyklus {
+
+    /**
+     * Liefert den Leser des Batches. Wird nach der Initialisierung aufgerufen.
+     *
+     * @return der Leser.
+     */
+    public ChunkLeser<E> getLeser();
+
+    /**
+     * Liefert den Verarbeiter des Batches. Wird nach der Initialisierung aufgerufen.
+     *
+     * @return der Verarbeiter.
+     */
+    public ChunkVerarbeiter<E, A> getVerarbeiter();
+
+    /**
+     * Liefert den Schreiber des Batches. Wird nach der Initialisierung aufgerufen.
+     *
+     * @return der Schreiber.
+     */
+    public ChunkSchreiber<A> getSchreiber();
+}
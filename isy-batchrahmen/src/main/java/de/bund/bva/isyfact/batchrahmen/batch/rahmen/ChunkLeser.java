@@ -0,0 +1,54 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch.rahmen;
+
+import java.util.List;
+
+import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
+
+/**
+ * Liest die Sätze eines {@link ChunkBatchAusfuehrungsBean} chunkweise, z.B. über eine seitenweise Abfrage
+ * mit dem Schlüssel des zuletzt gelesenen Satzes als Untergrenze (Keyset-Paging).
+ *
+ * @param <E>
+ *            der Typ der gelesenen Sätze.
+ */
+public interface ChunkLeser<E> {
+
+    /**
+     * Liest die nächsten Sätze.
+     *
+     * @param anzahl
+     *            die maximale Anzahl zu lesender Sätze.
+     * @return die gelesenen Sätze, höchstens <code>anzahl</code> viele. Eine leere Liste zeigt an, dass
+     *         alle Sätze gelesen wurden.
+     * @throws BatchAusfuehrungsException
+     *             Falls ein Fehler auftritt.
+     */
+    public List<E> leseSaetze(int anzahl) throws BatchAusfuehrungsException;
+
+    /**
+     * Liefert den Datenbankschlüssel eines gelesenen Satzes. Der Schlüssel des letzten Satzes vor einem
+     * Checkpunkt wird in der Status-Tabelle vermerkt und bei einem Restart an
+     * {@link BatchAusfuehrungsBean#initialisieren} übergeben.
+     *
+     * @param satz
+     *            der gelesene Satz.
+     * @return der Datenbankschlüssel des Satzes.
+     */
+    public String getDatenbankSchluessel(E satz);
+}
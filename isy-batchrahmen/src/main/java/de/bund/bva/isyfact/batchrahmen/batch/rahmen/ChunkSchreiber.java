@@ -0,0 +1,42 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch.rahmen;
+
+import java.util.List;
+
+import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
+
+/**
+ * Schreibt die verarbeiteten Sätze eines Chunks eines {@link ChunkBatchAusfuehrungsBean} gemeinsam, z.B.
+ * über JDBC- oder JPA-Batch-Inserts.
+ *
+ * @param <A>
+ *            der Typ der zu schreibenden Sätze.
+ */
+public interface ChunkSchreiber<A> {
+
+    /**
+     * Schreibt die Sätze eines Chunks. Die Sätze werden in der Transaktion des Batchrahmens geschrieben und
+     * mit dem nächsten Checkpunkt festgeschrieben.
+     *
+     * @param saetze
+     *            die zu schreibenden Sätze, niemals leer.
+     * @throws BatchAusfuehrungsException
+     *             Falls ein Fehler auftritt.
+     */
+    public void schreibeSaetze(List<A> saetze) throws BatchAusfuehrungsException;
+}
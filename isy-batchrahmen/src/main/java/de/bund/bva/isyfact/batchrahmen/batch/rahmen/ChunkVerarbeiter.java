@@ -0,0 +1,41 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch.rahmen;
+
+import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
+
+/**
+ * Führt die fachliche Verarbeitung eines gelesenen Satzes eines {@link ChunkBatchAusfuehrungsBean} durch.
+ *
+ * @param <E>
+ *            der Typ der gelesenen Sätze.
+ * @param <A>
+ *            der Typ der zu schreibenden Sätze.
+ */
+public interface ChunkVerarbeiter<E, A> {
+
+    /**
+     * Verarbeitet einen gelesenen Satz.
+     *
+     * @param satz
+     *            der gelesene Satz.
+     * @return der zu schreibende Satz oder <code>null</code>, falls der Satz nicht geschrieben werden soll.
+     * @throws BatchAusfuehrungsException
+     *             Falls ein Fehler auftritt.
+     */
+    public A verarbeiteSatz(E satz) throws BatchAusfuehrungsException;
+}
@@ -0,0 +1,65 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch.rahmen;
+
+import java.util.List;
+
+import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
+import de.bund.bva.isyfact.batchrahmen.batch.konfiguration.BatchKonfiguration;
+
+/**
+ * Bean für den Batchrahmen, deren Datensätze in Partitionen aufgeteilt und parallel verarbeitet werden. Den
+ * Lebenszyklus teilt sie mit der {@link BatchAusfuehrungsBean}, verarbeitet ihre Sätze aber nicht über
+ * {@link BatchAusfuehrungsBean#verarbeiteSatz()}.
+ * <p>
+ * Nach der Initialisierung fragt der Batchrahmen die Partitionen ab und verarbeitet jede Partition in einem
+ * eigenen Thread mit eigenem EntityManager und eigener Transaktion. Checkpunkte werden je Partition in der
+ * Status-Tabelle vermerkt. Bei einem Restart werden bereits beendete Partitionen übersprungen und alle
+ * übrigen Partitionen an ihrem letzten Checkpunkt fortgesetzt. Die Sätze einer Partition werden über
+ * {@link BatchPartitionsVerarbeitung#verarbeiteSatz()} verarbeitet.
+ * <p>
+ * Die Anzahl der Threads wird über den Konfigurationsparameter
+ * {@code Batchrahmen.AnzahlThreads} festgelegt. Die Datenquelle muss genügend Verbindungen für alle Threads
+ * und die Transaktion des Batchrahmens bereitstellen. Von mehreren Partitionen gemeinsam genutzte Objekte,
+ * z.B. das Ergebnis-Protokoll, müssen threadsicher verwendet werden.
+ */
+public interface PartitionierteBatchAusfuehrungsBean extends BatchLebenszyklus {
+
+    /**
+     * Liefert die Partitionen des Batches. Wird nach der Initialisierung aufgerufen.
+     *
+     * @param konfiguration
+     *            die Konfiguration des Batches.
+     * @return die Partitionen mit eindeutigen IDs.
+     * @throws BatchAusfuehrungsException
+     *             Falls ein Fehler auftritt.
+     */
+    public List<BatchPartition> getPartitionen(BatchKonfiguration konfiguration)
+        throws BatchAusfuehrungsException;
+
+    /**
+     * Erzeugt die Verarbeitung für eine Partition. Wird im Thread der Partition aufgerufen.
+     *
+     * @param partition
+     *            die zu verarbeitende Partition.
+     * @return die Verarbeitung der Partition.
+     * @throws BatchAusfuehrungsException
+     *             Falls ein Fehler auftritt.
+     */
+    public BatchPartitionsVerarbeitung erzeugeVerarbeitung(BatchPartition partition)
+        throws BatchAusfuehrungsException;
+}
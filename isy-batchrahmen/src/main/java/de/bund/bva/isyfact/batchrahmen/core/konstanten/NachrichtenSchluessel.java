@@ -36,6 +36,9 @@ public abstract class NachrichtenSchluessel {
     /** Batch-Bean muss konfiguriert werden. */
     public static final String ERR_KONF_BEAN_PFLICHT = "BAT130";
 
+    /** Partition ist mehrfach vorhanden. */
+    public static final String ERR_KONF_PARTITION_DOPPELT = "BAT140";
+
     // **** Fehler in den Kommandozeilenparametern ****
     /** Kommandozeilenparameter ungültig. */
     public static final String ERR_KOMMANDO_PARAMETER_UNGUELTIG = "BAT200";
@@ -75,6 +78,12 @@ public abstract class NachrichtenSchluessel {
     /** Fehler bei der Verarbeitung des Ergebnis-Protokolls. */
     public static final String ERR_BATCH_PROTOKOLL = "BAT410";
 
+    /** Die Verarbeitung der Partitionen wurde unterbrochen. */
+    public static final String ERR_BATCH_PARTITIONEN_UNTERBROCHEN = "BAT420";
+
+    /** Der Checkpunkt konnte nicht geschrieben werden, da der Status-Satz veraendert wurde. */
+    public static final String ERR_BATCH_CHECKPUNKT_KONFLIKT = "BAT430";
+
     // **** Nachrichten fuer ReturnCodes ****
     /** OK. */
     public static final String MSG_RC_OK = "RC_OK";
@@ -126,7 +126,7 @@ public class BatchLauncher {
                 rahmenKonfiguration.getAsString(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_ERGEBNIS_DATEI,
                     null);
             initialisiereLogback(rahmenKonfiguration);
-            protokoll = new DefaultBatchErgebnisProtokoll(ergebnisDatei);
+            protokoll = new DefaultBatchErgebnisProtokoll(ergebnisDatei, rahmenKonfiguration);
             protokoll.batchStart(rahmenKonfiguration, args);
 
             log = IsyLoggerFactory.getLogger(BatchLauncher.class);
@@ -16,7 +16,6 @@
  */
 package de.bund.bva.isyfact.batchrahmen.core.protokoll;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -24,11 +23,15 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.transform.TransformerConfigurationException;
 
 import de.bund.bva.isyfact.batchrahmen.batch.konfiguration.BatchKonfiguration;
 import de.bund.bva.isyfact.batchrahmen.batch.konstanten.BatchRahmenEreignisSchluessel;
+import de.bund.bva.isyfact.batchrahmen.batch.konstanten.KonfigurationSchluessel;
 import de.bund.bva.isyfact.batchrahmen.batch.protokoll.BatchErgebnisProtokoll;
 import de.bund.bva.isyfact.batchrahmen.batch.protokoll.MeldungTyp;
 import de.bund.bva.isyfact.batchrahmen.batch.protokoll.StatistikEintrag;
@@ -44,7 +47,13 @@ import de.bund.bva.isyfact.logging.LogKategorie;
 
 /**
  * Standardimplementierung eines {@link BatchErgebnisProtokoll}.
- *
+ * <p>
+ * Die Meldungen werden gepuffert in die Ergebnisdatei geschrieben. Wann die Datei geflusht wird, ist über
+ * die Anzahl der Meldungen ({@link KonfigurationSchluessel#PROPERTY_BATCHRAHMEN_ERGEBNIS_FLUSH_ANZAHL})
+ * und ein Zeitintervall ({@link KonfigurationSchluessel#PROPERTY_BATCHRAHMEN_ERGEBNIS_FLUSH_INTERVALL})
+ * konfigurierbar. Das Zeitintervall wird bei jeder Meldung und zusätzlich im Hintergrund geprüft, sodass
+ * gepufferte Meldungen auch dann spätestens nach Ablauf des Intervalls geschrieben werden, wenn keine
+ * weiteren Meldungen folgen. Zusätzlich wird an jedem Checkpunkt und am Ende des Batches geflusht.
  *
  */
 public class DefaultBatchErgebnisProtokoll implements BatchErgebnisProtokoll {
@@ -104,13 +113,53 @@ public class DefaultBatchErgebnisProtokoll implements BatchErgebnisProtokoll {
     private boolean maximaleLaufzeitUeberschritten;
 
     /**
-     * Erzeugt ein neues ErgebnisProtokoll.
+     * Anzahl der Meldungen, nach denen geflusht wird, oder 0 für keinen Flush nach Anzahl.
+     */
+    private long flushAnzahl = 1;
+
+    /**
+     * Intervall in Millisekunden, nach dem geflusht wird, oder 0 für keinen zeitgesteuerten Flush.
+     */
+    private long flushIntervall;
+
+    /**
+     * Anzahl der Meldungen seit dem letzten Flush.
+     */
+    private long meldungenSeitFlush;
+
+    /**
+     * Zeitpunkt des letzten Flush.
+     */
+    private long letzterFlush = System.currentTimeMillis();
+
+    /**
+     * Prüft im Hintergrund, ob das Protokoll zeitgesteuert geflusht werden muss, oder <code>null</code>.
+     */
+    private ScheduledExecutorService flushPruefung;
+
+    /**
+     * Erzeugt ein neues ErgebnisProtokoll, das nach jeder Meldung geflusht wird.
      * @param ergebnisDatei
      *            Ausgabedatei
      * @throws IOException
      *             Falls die temporäre Datei für die Meldungen nicht angelegt werden kann.
      */
     public DefaultBatchErgebnisProtokoll(String ergebnisDatei) throws IOException {
+        this(ergebnisDatei, null);
+    }
+
+    /**
+     * Erzeugt ein neues ErgebnisProtokoll. Flush-Verhalten, Komprimierung und Rotation der Ausgabedatei
+     * werden aus der Konfiguration gelesen.
+     * @param ergebnisDatei
+     *            Ausgabedatei
+     * @param konfiguration
+     *            die Konfiguration des Batches oder <code>null</code> für die Standardwerte
+     * @throws IOException
+     *             Falls die temporäre Datei für die Meldungen nicht angelegt werden kann.
+     */
+    public DefaultBatchErgebnisProtokoll(String ergebnisDatei, BatchKonfiguration konfiguration)
+        throws IOException {
         // Keine statische Logger konfiguration, da der Batchrahmen Logback erst zur Laufzeit konfiguriert.
         this.log = IsyLoggerFactory.getLogger(DefaultBatchErgebnisProtokoll.class);
 
@@ -119,9 +168,22 @@ public class DefaultBatchErgebnisProtokoll implements BatchErgebnisProtokoll {
                 this.log.info(LogKategorie.JOURNAL, BatchRahmenEreignisSchluessel.EPLBAT00001,
                     "Erstelle Ergebnisprotokoll '{}' und XMLProtokollGenerator...", ergebnisDatei);
             }
+            boolean komprimiert = false;
+            long maximaleGroesse = 0;
+            if (konfiguration != null) {
+                this.flushAnzahl = konfiguration
+                    .getAsLong(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_ERGEBNIS_FLUSH_ANZAHL, 1);
+                this.flushIntervall = 1000 * konfiguration
+                    .getAsLong(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_ERGEBNIS_FLUSH_INTERVALL, 0);
+                komprimiert = konfiguration
+                    .getAsBoolean(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_ERGEBNIS_KOMPRIMIERT, false);
+                maximaleGroesse = konfiguration
+                    .getAsLong(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_ERGEBNIS_MAXIMALE_GROESSE, 0);
+            }
             try {
                 // ProtokollGenerator erstellen
-                this.protokollGenerator = new XmlProtokollGenerator(new FileOutputStream(ergebnisDatei));
+                this.protokollGenerator = new XmlProtokollGenerator(
+                    new ProtokollDatei(ergebnisDatei, komprimiert), maximaleGroesse);
             } catch (TransformerConfigurationException e) {
                 throw new BatchrahmenProtokollException(NachrichtenSchluessel.ERR_BATCH_PROTOKOLL, e);
             } catch (SAXException e) {
@@ -140,7 +202,7 @@ public class DefaultBatchErgebnisProtokoll implements BatchErgebnisProtokoll {
     /**
      * {@inheritDoc}
      */
-    public void registriereStatistikEintrag(StatistikEintrag initialEintrag) {
+    public synchronized void registriereStatistikEintrag(StatistikEintrag initialEintrag) {
         if (initialEintrag.getReihenfolge() == 0) {
             initialEintrag.setReihenfolge(ermittleMaximaleReihenfolge() + 1);
         }
@@ -162,7 +224,7 @@ public class DefaultBatchErgebnisProtokoll implements BatchErgebnisProtokoll {
     /**
      * {@inheritDoc}
      */
-    public StatistikEintrag getStatistikEintrag(String id) {
+    public synchronized StatistikEintrag getStatistikEintrag(String id) {
         return this.statistik.get(id);
     }
 
@@ -170,13 +232,77 @@ public class DefaultBatchErgebnisProtokoll implements BatchErgebnisProtokoll {
      * {@inheritDoc}
      * @throws BatchProtokollException
      */
-    public void ergaenzeMeldung(VerarbeitungsMeldung meldung) {
+    public synchronized void ergaenzeMeldung(VerarbeitungsMeldung meldung) {
         if (meldung.getTyp().equals(MeldungTyp.FEHLER)) {
             this.enthaeltFehlermeldung = true;
         }
         if (this.protokollGenerator != null) {
             this.protokollGenerator.erzeugeMeldung(meldung);
+            this.meldungenSeitFlush++;
+            if ((this.flushAnzahl > 0 && this.meldungenSeitFlush >= this.flushAnzahl)
+                || (this.flushIntervall > 0
+                    && System.currentTimeMillis() - this.letzterFlush >= this.flushIntervall)) {
+                flusheProtokoll();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void flusheProtokoll() {
+        if (this.protokollGenerator != null && this.meldungenSeitFlush > 0) {
             this.protokollGenerator.flusheOutput();
+            this.meldungenSeitFlush = 0;
+            this.letzterFlush = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Startet die Prüfung im Hintergrund, ob das Protokoll zeitgesteuert geflusht werden muss, falls ein
+     * Flush-Intervall konfiguriert ist.
+     */
+    private void starteFlushPruefung() {
+        if (this.protokollGenerator == null || this.flushIntervall <= 0) {
+            return;
+        }
+        this.flushPruefung = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Batchrahmen-Protokoll-Flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flushPruefung.scheduleWithFixedDelay(this::flusheFaelligesProtokoll, this.flushIntervall,
+            this.flushIntervall, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flusht das Protokoll, falls seit dem letzten Flush das Flush-Intervall abgelaufen ist. Fehler werden
+     * geloggt und ignoriert, da sie beim nächsten Flush im Batch erneut auftreten.
+     */
+    private synchronized void flusheFaelligesProtokoll() {
+        try {
+            if (System.currentTimeMillis() - this.letzterFlush >= this.flushIntervall) {
+                flusheProtokoll();
+            }
+        } catch (RuntimeException e) {
+            if (this.log != null) {
+                this.log.error(BatchRahmenEreignisSchluessel.EPLBAT00001, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Beendet die Prüfung, ob das Protokoll zeitgesteuert geflusht werden muss, und wartet auf das Ende
+     * einer laufenden Prüfung.
+     */
+    private void beendeFlushPruefung() {
+        if (this.flushPruefung != null && !this.flushPruefung.isShutdown()) {
+            this.flushPruefung.shutdownNow();
+            try {
+                this.flushPruefung.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
@@ -283,12 +409,16 @@ public class DefaultBatchErgebnisProtokoll implements BatchErgebnisProtokoll {
      * {@inheritDoc}.
      */
     public void batchEnde() {
-        setEndeDatum(new Date());
-        if (this.protokollGenerator != null) {
-            this.protokollGenerator.erzeugeStatistik(this);
-            this.protokollGenerator.erzeugeEndeInfoElement(this);
-            this.protokollGenerator.erzeugeReturnCodeElement(this);
-            this.protokollGenerator.close();
+        // Außerhalb der Synchronisierung, da eine laufende Prüfung auf die Sperre wartet.
+        beendeFlushPruefung();
+        synchronized (this) {
+            setEndeDatum(new Date());
+            if (this.protokollGenerator != null) {
+                this.protokollGenerator.erzeugeStatistik(this);
+                this.protokollGenerator.erzeugeEndeInfoElement(this);
+                this.protokollGenerator.erzeugeReturnCodeElement(this);
+                this.protokollGenerator.close();
+            }
         }
     }
 
@@ -304,6 +434,7 @@ public class DefaultBatchErgebnisProtokoll implements BatchErgebnisProtokoll {
         if (this.protokollGenerator != null) {
             this.protokollGenerator.erzeugeStartInfoElement(this);
         }
+        starteFlushPruefung();
     }
 
     /**
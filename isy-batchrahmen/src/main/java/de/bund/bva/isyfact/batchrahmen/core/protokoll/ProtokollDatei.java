@@ -0,0 +1,150 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.core.protokoll;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Die Ausgabedatei eines Ergebnis-Protokolls. Die Datei wird gepuffert, in UTF-8 und optional
+ * GZIP-komprimiert geschrieben. Die Anzahl der geschriebenen Zeichen wird vor Pufferung und Komprimierung
+ * mitgezaehlt, damit die Datei bei Erreichen einer maximalen Groesse rotiert werden kann.
+ * <p>
+ * Beim Rotieren wird die aktuelle Datei in {@code <Dateiname>.1}, {@code <Dateiname>.2} usw. umbenannt,
+ * sodass die zuletzt geschriebene Datei immer unter dem konfigurierten Namen zu finden ist.
+ */
+class ProtokollDatei {
+
+    /** Groesse des Schreibpuffers in Bytes. */
+    private static final int PUFFER_GROESSE = 64 * 1024;
+
+    /** Name der Ausgabedatei. */
+    private final String dateiname;
+
+    /** Flag, ob die Datei GZIP-komprimiert geschrieben wird. */
+    private final boolean komprimiert;
+
+    /** Der Zaehler der in die aktuelle Datei geschriebenen Zeichen. */
+    private ZaehlenderWriter zaehler;
+
+    /** Anzahl der bisher rotierten Dateien. */
+    private int anzahlRotationen;
+
+    /**
+     * Erzeugt eine neue Ausgabedatei.
+     * @param dateiname
+     *            Name der Ausgabedatei
+     * @param komprimiert
+     *            true, wenn die Datei GZIP-komprimiert geschrieben werden soll
+     */
+    ProtokollDatei(String dateiname, boolean komprimiert) {
+        this.dateiname = dateiname;
+        this.komprimiert = komprimiert;
+    }
+
+    /**
+     * Oeffnet die Ausgabedatei zum Schreiben. Eine vorhandene Datei wird ueberschrieben.
+     * @return der gepufferte Writer zur Datei.
+     * @throws IOException
+     *             Falls die Datei nicht geoeffnet werden kann.
+     */
+    Writer oeffne() throws IOException {
+        OutputStream out = new FileOutputStream(this.dateiname);
+        if (this.komprimiert) {
+            // Sync-Flush, damit ein Flush des Protokolls auch die komprimierten Daten in die Datei schreibt.
+            out = new GZIPOutputStream(out, PUFFER_GROESSE, true);
+        }
+        this.zaehler = new ZaehlenderWriter(
+            new OutputStreamWriter(new BufferedOutputStream(out, PUFFER_GROESSE), StandardCharsets.UTF_8));
+        return this.zaehler;
+    }
+
+    /**
+     * Liefert die Anzahl der Zeichen, die bisher in die aktuelle Datei geschrieben wurden. Sie entspricht
+     * der unkomprimierten Dateigroesse in Bytes, solange nur ASCII-Zeichen geschrieben werden.
+     * @return Anzahl der geschriebenen Zeichen.
+     */
+    long getGeschriebeneZeichen() {
+        return this.zaehler == null ? 0 : this.zaehler.getAnzahl();
+    }
+
+    /**
+     * Benennt die geschlossene aktuelle Datei in {@code <Dateiname>.<n>} um. Danach kann mit
+     * {@link #oeffne()} eine neue Datei unter dem konfigurierten Namen geoeffnet werden.
+     * @throws IOException
+     *             Falls die Datei nicht umbenannt werden kann.
+     */
+    void rotiere() throws IOException {
+        this.anzahlRotationen++;
+        Files.move(Paths.get(this.dateiname), Paths.get(this.dateiname + "." + this.anzahlRotationen),
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writer, der die Anzahl der geschriebenen Zeichen zaehlt.
+     */
+    private static final class ZaehlenderWriter extends FilterWriter {
+
+        /** Anzahl der geschriebenen Zeichen. */
+        private long anzahl;
+
+        /**
+         * Erzeugt einen neuen zaehlenden Writer.
+         * @param out
+         *            der zugrundeliegende Writer
+         */
+        private ZaehlenderWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            this.out.write(c);
+            this.anzahl++;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            this.out.write(cbuf, off, len);
+            this.anzahl += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            this.out.write(str, off, len);
+            this.anzahl += len;
+        }
+
+        /**
+         * Liefert die Anzahl der geschriebenen Zeichen.
+         * @return Anzahl der Zeichen
+         */
+        private long getAnzahl() {
+            return this.anzahl;
+        }
+    }
+}
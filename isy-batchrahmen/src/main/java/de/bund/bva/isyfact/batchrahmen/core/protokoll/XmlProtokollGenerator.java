@@ -21,7 +21,9 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
 
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
@@ -42,13 +44,24 @@ import org.xml.sax.helpers.AttributesImpl;
 
 /**
  * Erzeugt eine XML-Darstellung für ein {@link BatchErgebnisProtokoll}.
- * 
+ * <p>
+ * Wird der Generator mit einer {@link ProtokollDatei} und einer maximalen Dateigröße erzeugt, wird die
+ * Datei nach einer Meldung rotiert, sobald die Größe erreicht ist. Jede rotierte Datei ist ein
+ * vollständiges XML-Dokument mit derselben Struktur wie die abschließende Datei: Start-Element, die bis
+ * dahin geschriebenen Meldungen, die Statistik zum Zeitpunkt der Rotation, ein Ende-Element mit dem
+ * Zeitpunkt der Rotation und der vorläufige Return-Code (siehe {@link #ermittleVorlaeufigenReturnCode}).
  * 
  */
 public class XmlProtokollGenerator implements ProtokollGenerator {
 
     private static final String ENCODING_UTF_8 = "UTF-8";
 
+    /** Format für Attribute mit Datum (thread-sicher). */
+    private static final DateTimeFormatter DATUM_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /** Format für Attribute mit Uhrzeit (thread-sicher). */
+    private static final DateTimeFormatter UHRZEIT_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
     /** Attribut-Name. */
     private static final String ATTR_DATUM = "Datum";
 
@@ -111,6 +124,18 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
     /** Der Outputstream zur Datei. **/
     private Writer writer;
 
+    /** Die Ausgabedatei, falls die Datei rotiert werden soll. **/
+    private ProtokollDatei datei;
+
+    /** Die unkomprimierte Dateigröße, ab der die Datei rotiert wird, oder 0 für keine Rotation. **/
+    private long maximaleGroesse;
+
+    /** Das Protokoll, dessen Start-Element in jede rotierte Datei geschrieben wird. **/
+    private BatchErgebnisProtokoll startProtokoll;
+
+    /** Flag, ob das Meldungen-Element gerade geöffnet ist. **/
+    private boolean meldungenGeoeffnet;
+
     /**
      * Konstruktor. Setzt den Outputstream.
      * @param outStream
@@ -125,14 +150,49 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
     public XmlProtokollGenerator(OutputStream outStream) throws SAXException,
         TransformerConfigurationException, UnsupportedEncodingException {
         super();
+        // Eignenen Writer setzen, auf dem Flush aufgerufen werden kann.
+        // Flush für Outputstream führt leider nicht dazu, dass Ausgaben direkt geschrieben werden.
+        oeffneDokument(new OutputStreamWriter(outStream, ENCODING_UTF_8));
+    }
+
+    /**
+     * Konstruktor. Öffnet die Ausgabedatei, die bei Erreichen der maximalen Größe rotiert wird.
+     * @param datei
+     *            die Ausgabedatei
+     * @param maximaleGroesse
+     *            die unkomprimierte Dateigröße in Zeichen, ab der die Datei rotiert wird, oder 0 für keine
+     *            Rotation
+     * @exception SAXException
+     *                Probleme beim XML parsen
+     * @exception TransformerConfigurationException
+     *                Probleme beim XML parsen
+     * @throws IOException
+     *             Falls die Datei nicht geöffnet werden kann.
+     */
+    XmlProtokollGenerator(ProtokollDatei datei, long maximaleGroesse) throws SAXException,
+        TransformerConfigurationException, IOException {
+        super();
+        this.datei = datei;
+        this.maximaleGroesse = maximaleGroesse;
+        oeffneDokument(datei.oeffne());
+    }
+
+    /**
+     * Öffnet ein neues XML-Dokument auf dem übergebenen Writer und schreibt das Wurzel-Element.
+     * @param ausgabe
+     *            Writer zur Datei
+     * @exception SAXException
+     *                Probleme beim XML parsen
+     * @exception TransformerConfigurationException
+     *                Probleme beim XML parsen
+     */
+    private void oeffneDokument(Writer ausgabe) throws SAXException, TransformerConfigurationException {
         SAXTransformerFactory transformerFactory =
             (SAXTransformerFactory) SAXTransformerFactory.newInstance();
         handler = transformerFactory.newTransformerHandler();
         Transformer serializer = handler.getTransformer();
         serializer.setOutputProperty(OutputKeys.INDENT, "yes");
-        // Eignenen Writer setzen, auf dem Flush aufgerufen werden kann.
-        // Flush für Outputstream führt leider nicht dazu, dass Ausgaben direkt geschrieben werden.
-        this.writer = new OutputStreamWriter(outStream, ENCODING_UTF_8);
+        this.writer = ausgabe;
         handler.setResult(new StreamResult(writer));
         handler.startDocument();
         handler.startElement("", "", ELEM_BATCH_ERGEBNIS, null);
@@ -157,9 +217,7 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
      *            Das BatchProtokoll
      */
     public void erzeugeStartInfoElement(BatchErgebnisProtokoll protokoll) {
-        SimpleDateFormat uhrzeitFormat = new SimpleDateFormat("HH:mm:ss");
-        SimpleDateFormat datumFormat = new SimpleDateFormat("yyyy-MM-dd");
-
+        this.startProtokoll = protokoll;
         // Start-Tag
         String parameters = "";
         for (String parameter : protokoll.getParameter()) {
@@ -168,8 +226,8 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
         parameters = parameters.substring(0, parameters.length() - 1);
         AttributesImpl atts = new AttributesImpl();
         atts.addAttribute("", "", ATTR_BATCH_ID, "", nullSafeGet(protokoll.getBatchId()));
-        atts.addAttribute("", "", ATTR_DATUM, "", datumFormat.format((protokoll.getStartDatum())));
-        atts.addAttribute("", "", ATTR_UHRZEIT, "", uhrzeitFormat.format((protokoll.getStartDatum())));
+        atts.addAttribute("", "", ATTR_DATUM, "", formatiere(DATUM_FORMAT, protokoll.getStartDatum()));
+        atts.addAttribute("", "", ATTR_UHRZEIT, "", formatiere(UHRZEIT_FORMAT, protokoll.getStartDatum()));
         atts.addAttribute("", "", ATTR_BATCH_ID, "", protokoll.getBatchId());
         atts.addAttribute("", "", ATTR_PARAMETER, "", parameters);
         try {
@@ -178,6 +236,7 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
 
             // Öffnendes Meldungen-Tag
             handler.startElement("", "", ELEM_MELDUNGEN, null);
+            meldungenGeoeffnet = true;
         } catch (SAXException e) {
             throw new BatchrahmenProtokollException(NachrichtenSchluessel.ERR_BATCH_PROTOKOLL, e);
         }
@@ -190,21 +249,29 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
      *            Das BatchProtokoll
      */
     public void erzeugeEndeInfoElement(BatchErgebnisProtokoll protokoll) {
-        SimpleDateFormat uhrzeitFormat = new SimpleDateFormat("HH:mm:ss");
-        SimpleDateFormat datumFormat = new SimpleDateFormat("yyyy-MM-dd");
-
-        // End-Tag
-        AttributesImpl atts = new AttributesImpl();
-        atts.addAttribute("", "", ATTR_DATUM, "", datumFormat.format((protokoll.getEndeDatum())));
-        atts.addAttribute("", "", ATTR_UHRZEIT, "", uhrzeitFormat.format((protokoll.getEndeDatum())));
         try {
-            handler.startElement("", "", ELEM_BATCH_ENDE, atts);
-            handler.endElement("", "", ELEM_BATCH_ENDE);
+            schreibeEnde(protokoll.getEndeDatum());
         } catch (SAXException e) {
             throw new BatchrahmenProtokollException(NachrichtenSchluessel.ERR_BATCH_PROTOKOLL, e);
         }
     }
 
+    /**
+     * Schreibt das Ende-Element.
+     * @param endeDatum
+     *            das Datum des Endes
+     * @exception SAXException
+     *                Probleme beim XML schreiben
+     */
+    private void schreibeEnde(Date endeDatum) throws SAXException {
+        // End-Tag
+        AttributesImpl atts = new AttributesImpl();
+        atts.addAttribute("", "", ATTR_DATUM, "", formatiere(DATUM_FORMAT, endeDatum));
+        atts.addAttribute("", "", ATTR_UHRZEIT, "", formatiere(UHRZEIT_FORMAT, endeDatum));
+        handler.startElement("", "", ELEM_BATCH_ENDE, atts);
+        handler.endElement("", "", ELEM_BATCH_ENDE);
+    }
+
     /**
      * Erzeugt den Abschnitt, der alle Meldungen ({@link VerarbeitungsMeldung}) des Protokolls enthält.
      * @param meldung
@@ -226,6 +293,48 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
         } catch (SAXException e) {
             throw new BatchrahmenProtokollException(NachrichtenSchluessel.ERR_BATCH_PROTOKOLL, e);
         }
+        if (maximaleGroesse > 0 && meldungenGeoeffnet && datei.getGeschriebeneZeichen() >= maximaleGroesse) {
+            rotiere();
+        }
+    }
+
+    /**
+     * Schließt das aktuelle XML-Dokument mit Statistik, Ende-Element und vorläufigem Return-Code ab,
+     * rotiert die Datei und beginnt ein neues Dokument mit dem Start-Element des Protokolls.
+     */
+    private void rotiere() {
+        try {
+            handler.endElement("", "", ELEM_MELDUNGEN);
+            schreibeStatistik(startProtokoll);
+            schreibeEnde(new Date());
+            schreibeReturnCode(ermittleVorlaeufigenReturnCode(startProtokoll));
+            handler.endElement("", "", ELEM_BATCH_ERGEBNIS);
+            handler.endDocument();
+            writer.close();
+            datei.rotiere();
+            oeffneDokument(datei.oeffne());
+        } catch (SAXException | TransformerConfigurationException | IOException e) {
+            throw new BatchrahmenProtokollException(NachrichtenSchluessel.ERR_BATCH_PROTOKOLL, e);
+        }
+        erzeugeStartInfoElement(startProtokoll);
+    }
+
+    /**
+     * Ermittelt den Return-Code für eine rotierte Datei. Da der Batch noch läuft, ist dies der bereits
+     * gesetzte Return-Code oder, falls noch keiner gesetzt ist, der Return-Code, der sich aus den bisherigen
+     * Meldungen ergibt.
+     * @param protokoll
+     *            Das ErgebnisProtokoll.
+     * @return der vorläufige Return-Code.
+     */
+    private static BatchReturnCode ermittleVorlaeufigenReturnCode(BatchErgebnisProtokoll protokoll) {
+        if (protokoll.getReturnCode() != null) {
+            return protokoll.getReturnCode();
+        }
+        if (protokoll.enthaeltFehlerNachrichten()) {
+            return BatchReturnCode.FEHLER_AUSGEFUEHRT;
+        }
+        return BatchReturnCode.OK;
     }
 
     /**
@@ -236,24 +345,36 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
     public void erzeugeStatistik(BatchErgebnisProtokoll protokoll) {
         try {
             handler.endElement("", "", ELEM_MELDUNGEN);
-            handler.startElement("", "", ELEM_STATISTIK, null);
-            AttributesImpl atts = new AttributesImpl();
-            for (StatistikEintrag statistikEintrag : protokoll.getStatistikEintraege()) {
-                atts.clear();
-                atts.addAttribute("", "", ATTR_ID, ATTR_TYPE_CDATA, nullSafeGet(statistikEintrag.getId()));
-                atts
-                    .addAttribute("", "", ATTR_TEXT, ATTR_TYPE_CDATA, nullSafeGet(statistikEintrag.getText()));
-                atts.addAttribute("", "", ATTR_WERT, ATTR_TYPE_CDATA, Integer.toString(statistikEintrag
-                    .getWert()));
-                handler.startElement("", "", ELEM_STATISTIK_EINTRAG, atts);
-                handler.endElement("", "", ELEM_STATISTIK_EINTRAG);
-            }
-            handler.endElement("", "", ELEM_STATISTIK);
+            meldungenGeoeffnet = false;
+            schreibeStatistik(protokoll);
         } catch (SAXException e) {
             throw new BatchrahmenProtokollException(NachrichtenSchluessel.ERR_BATCH_PROTOKOLL, e);
         }
     }
 
+    /**
+     * Schreibt das Statistik-Element mit den aktuellen Statistik-Einträgen des Protokolls.
+     * @param protokoll
+     *            Das ErgebnisProtokoll.
+     * @exception SAXException
+     *                Probleme beim XML schreiben
+     */
+    private void schreibeStatistik(BatchErgebnisProtokoll protokoll) throws SAXException {
+        handler.startElement("", "", ELEM_STATISTIK, null);
+        AttributesImpl atts = new AttributesImpl();
+        for (StatistikEintrag statistikEintrag : protokoll.getStatistikEintraege()) {
+            atts.clear();
+            atts.addAttribute("", "", ATTR_ID, ATTR_TYPE_CDATA, nullSafeGet(statistikEintrag.getId()));
+            atts
+                .addAttribute("", "", ATTR_TEXT, ATTR_TYPE_CDATA, nullSafeGet(statistikEintrag.getText()));
+            atts.addAttribute("", "", ATTR_WERT, ATTR_TYPE_CDATA, Integer.toString(statistikEintrag
+                .getWert()));
+            handler.startElement("", "", ELEM_STATISTIK_EINTRAG, atts);
+            handler.endElement("", "", ELEM_STATISTIK_EINTRAG);
+        }
+        handler.endElement("", "", ELEM_STATISTIK);
+    }
+
     /**
      * Erzeugt den Abschnitt, der den ReturnCode beschreibt ({@link BatchReturnCode}) des Protokolls enthält.
      * @param protokoll
@@ -261,18 +382,39 @@ public class XmlProtokollGenerator implements ProtokollGenerator {
      */
     public void erzeugeReturnCodeElement(BatchErgebnisProtokoll protokoll) {
         try {
-            AttributesImpl atts = new AttributesImpl();
-            atts.addAttribute("", "", "RC", ATTR_TYPE_CDATA, Integer.toString(protokoll.getReturnCode()
-                .getWert()));
-            atts.addAttribute("", "", ATTR_TEXT, ATTR_TYPE_CDATA, nullSafeGet(protokoll.getReturnCode()
-                .getText()));
-            handler.startElement("", "", ELEM_RETURN_CODE, atts);
-            handler.endElement("", "", ELEM_RETURN_CODE);
+            schreibeReturnCode(protokoll.getReturnCode());
         } catch (SAXException e) {
             throw new BatchrahmenProtokollException(NachrichtenSchluessel.ERR_BATCH_PROTOKOLL, e);
         }
     }
 
+    /**
+     * Schreibt das Return-Code-Element.
+     * @param returnCode
+     *            der Return-Code
+     * @exception SAXException
+     *                Probleme beim XML schreiben
+     */
+    private void schreibeReturnCode(BatchReturnCode returnCode) throws SAXException {
+        AttributesImpl atts = new AttributesImpl();
+        atts.addAttribute("", "", "RC", ATTR_TYPE_CDATA, Integer.toString(returnCode.getWert()));
+        atts.addAttribute("", "", ATTR_TEXT, ATTR_TYPE_CDATA, nullSafeGet(returnCode.getText()));
+        handler.startElement("", "", ELEM_RETURN_CODE, atts);
+        handler.endElement("", "", ELEM_RETURN_CODE);
+    }
+
+    /**
+     * Formatiert ein Datum mit dem übergebenen Format in der Standard-Zeitzone.
+     * @param format
+     *            das Format
+     * @param datum
+     *            das Datum
+     * @return das formatierte Datum.
+     */
+    private static String formatiere(DateTimeFormatter format, Date datum) {
+        return format.format(datum.toInstant().atZone(ZoneId.systemDefault()));
+    }
+
     /**
      * Liefert "" zurück, falls der angegebene String <code>null</code> ist. Ansonsten wird der String direkt
      * zurückgegeben;
@@ -16,8 +16,21 @@
  */
 package de.bund.bva.isyfact.batchrahmen.core.rahmen.impl;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
 
 import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
@@ -26,16 +39,26 @@ import de.bund.bva.isyfact.batchrahmen.batch.konstanten.BatchRahmenEreignisSchlu
 import de.bund.bva.isyfact.batchrahmen.batch.konstanten.KonfigurationSchluessel;
 import de.bund.bva.isyfact.batchrahmen.batch.protokoll.BatchErgebnisProtokoll;
 import de.bund.bva.isyfact.batchrahmen.batch.protokoll.MeldungTyp;
+import de.bund.bva.isyfact.batchrahmen.batch.protokoll.StatistikEintrag;
 import de.bund.bva.isyfact.batchrahmen.batch.protokoll.VerarbeitungsMeldung;
 import de.bund.bva.isyfact.batchrahmen.batch.rahmen.AuthenticationCredentials;
 import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchAusfuehrungsBean;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchLebenszyklus;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchPartition;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchPartitionsVerarbeitung;
 import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchStartTyp;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.ChunkBatchAusfuehrungsBean;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.ChunkLeser;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.ChunkSchreiber;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.ChunkVerarbeiter;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.PartitionierteBatchAusfuehrungsBean;
 import de.bund.bva.isyfact.batchrahmen.batch.rahmen.VerarbeitungsErgebnis;
 import de.bund.bva.isyfact.batchrahmen.core.exception.BatchrahmenAbbruchException;
 import de.bund.bva.isyfact.batchrahmen.core.exception.BatchrahmenKonfigurationException;
 import de.bund.bva.isyfact.batchrahmen.core.konstanten.NachrichtenSchluessel;
 import de.bund.bva.isyfact.batchrahmen.core.rahmen.Batchrahmen;
 import de.bund.bva.isyfact.batchrahmen.core.rahmen.jmx.BatchRahmenMBean;
+import de.bund.bva.isyfact.batchrahmen.persistence.rahmen.BatchPartitionStatus;
 import de.bund.bva.isyfact.batchrahmen.persistence.rahmen.BatchStatus;
 import de.bund.bva.isyfact.logging.IsyLogger;
 import de.bund.bva.isyfact.logging.IsyLoggerFactory;
@@ -58,6 +81,11 @@ import org.springframework.transaction.support.DefaultTransactionDefinition;
 /**
  * Implementierung der Batchrahmen-Funktionalitaet.
  * <p>
+ * Die Saetze werden standardmaessig sequenziell in einer Transaktion je Checkpunkt verarbeitet. Ist die
+ * Ausfuehrungs-Bean eine {@link PartitionierteBatchAusfuehrungsBean}, werden ihre Partitionen parallel
+ * verarbeitet. Die Saetze einer {@link ChunkBatchAusfuehrungsBean} werden chunkweise gelesen, verarbeitet und
+ * geschrieben.
+ * <p>
  * T ist der Typ des zu verwendenden AufrufKontextes.
  *
  *
@@ -68,6 +96,9 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
     /** Der Logger. */
     private static final IsyLogger LOG = IsyLoggerFactory.getLogger(BatchrahmenImpl.class);
 
+    /** Standard-Groesse eines Chunks, falls weder Chunk-Groesse noch Commit-Intervall konfiguriert sind. */
+    private static final int STANDARD_CHUNK_GROESSE = 100;
+
     /** Referenz auf den TransaktionsManager. */
     private JpaTransactionManager transactionManager;
 
@@ -87,7 +118,7 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
     private volatile boolean batchLaeuft;
 
     /* Flag ob die maximale Laufzeit überschritten wurde. */
-    private boolean maximaleLaufzeitUeberschritten;
+    private volatile boolean maximaleLaufzeitUeberschritten;
 
     /** Sichert den vorigen BatchStatus. **/
     private String vorigerBatchStatus;
@@ -113,6 +144,7 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
     public void runBatch(BatchKonfiguration konfiguration, BatchErgebnisProtokoll protokoll)
         throws BatchAusfuehrungsException {
         VerarbeitungsInformationen verarbInfo = new VerarbeitungsInformationen(konfiguration);
+        verarbInfo.setProtokoll(protokoll);
         boolean erfolgreich = false;
         boolean initErfolgreich = false;
 
@@ -137,6 +169,7 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
             }
         }
         erfolgreich = false;
+        ScheduledExecutorService abbruchPruefung = null;
 
         try {
             MdcHelper.pushKorrelationsId(UUID.randomUUID().toString());
@@ -159,50 +192,24 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
             initialisiereBatch(verarbInfo, protokoll);
 
             initErfolgreich = true;
+            abbruchPruefung = starteAbbruchPruefung(konfiguration);
 
             LOG.info(LogKategorie.JOURNAL, BatchRahmenEreignisSchluessel.EPLBAT00001,
                 "Beginne Batch-Satzverarbeitung...");
-            // Transaktion starten
-            verarbInfo.setTransactionStatus(starteTransaktion());
-            VerarbeitungsErgebnis ergebnis = null;
-            // Ausfuehren, bis Bean keine Datensaetze mehr verarbeitet.
-            while ((ergebnis == null || !ergebnis.isAlleSaetzeVerarbeitet())
-                && !(verarbInfo.getLetzterDatensatzNummer() != 0 && verarbInfo.getLetzterDatensatzNummer() == verarbInfo
-                    .getSatzNummer()) && !this.batchAbgebrochen
-                && !(this.maximaleLaufzeitUeberschritten = istMaximaleLaufzeitUeberschritten(verarbInfo))) {
-                verarbInfo.incSatzNummer();
-
-                MdcHelper.pushKorrelationsId(UUID.randomUUID().toString());
-
-                ergebnis = verarbInfo.getBean().verarbeiteSatz();
-
-                MdcHelper.entferneKorrelationsId();
-
-                this.jmxBean.satzVerarbeitet(ergebnis.getDatenbankSchluessel());
-                if ((verarbInfo.getCommitIntervall() > 0)
-                    && (verarbInfo.getSatzNummer() % verarbInfo.getCommitIntervall() == 0)) {
-                    // Checkpunkt verarbeiten
-                    verarbeiteCheckpunkt(verarbInfo, ergebnis.getDatenbankSchluessel());
-                }
-                if ((verarbInfo.getClearIntervall() > 0)
-                    && (verarbInfo.getSatzNummer() % verarbInfo.getClearIntervall() == 0)) {
-                    // Den aktuellen EntityManager holen
-                    EntityManager entityManager =
-                        EntityManagerFactoryUtils.getTransactionalEntityManager(this.transactionManager
-                            .getEntityManagerFactory());
-                    // Session-Cache clearen
-                    entityManager.flush();
-                    entityManager.clear();
-                }
+            String dbschl;
+            if (verarbInfo.getBean() instanceof PartitionierteBatchAusfuehrungsBean) {
+                dbschl = verarbeitePartitioniert(verarbInfo);
+            } else if (verarbInfo.getBean() instanceof ChunkBatchAusfuehrungsBean) {
+                dbschl = verarbeiteChunks(verarbInfo,
+                    (ChunkBatchAusfuehrungsBean<?, ?>) verarbInfo.getBean(), protokoll);
+            } else {
+                dbschl = verarbeiteSequenziell(verarbInfo);
             }
             if (verarbInfo.getLetzterDatensatzNummer() != 0
                 && verarbInfo.getLetzterDatensatzNummer() == verarbInfo.getSatzNummer()) {
                 throw new BatchrahmenAbbruchException(NachrichtenSchluessel.ERR_BATCH_UNVOLLSTAENDIG);
             }
-            String dbschl = null;
-            if (ergebnis != null) {
-                dbschl = ergebnis.getDatenbankSchluessel();
-            }
+            beendeAbbruchPruefung(abbruchPruefung);
             beendeBatch(verarbInfo, protokoll, dbschl);
             erfolgreich = true;
         } finally {
@@ -220,12 +227,364 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
                     setzeStatusSatzAufAbbruch();
                 }
             } finally {
+                beendeAbbruchPruefung(abbruchPruefung);
                 this.batchLaeuft = false;
                 MdcHelper.entferneKorrelationsId();
             }
         }
     }
 
+    /**
+     * Verarbeitet die Saetze der Ausfuehrungs-Bean sequenziell im Thread des Batchrahmens.
+     *
+     * @param verarbInfo
+     *            die Verarbeitungs-Informationen des Batches
+     * @return der Datenbank-Schluessel des zuletzt verarbeiteten Satzes.
+     * @throws BatchAusfuehrungsException
+     *             bei Fehlern der Ausfuehrungs-Bean.
+     */
+    private String verarbeiteSequenziell(VerarbeitungsInformationen verarbInfo)
+        throws BatchAusfuehrungsException {
+        BatchAusfuehrungsBean bean = (BatchAusfuehrungsBean) verarbInfo.getBean();
+        // Transaktion starten
+        verarbInfo.setTransactionStatus(starteTransaktion());
+        VerarbeitungsErgebnis ergebnis = null;
+        // Ausfuehren, bis Bean keine Datensaetze mehr verarbeitet.
+        while ((ergebnis == null || !ergebnis.isAlleSaetzeVerarbeitet())
+            && !(verarbInfo.getLetzterDatensatzNummer() != 0 && verarbInfo.getLetzterDatensatzNummer() == verarbInfo
+                .getSatzNummer()) && !this.batchAbgebrochen
+            && !(this.maximaleLaufzeitUeberschritten = istMaximaleLaufzeitUeberschritten(verarbInfo))) {
+            verarbInfo.incSatzNummer();
+
+            boolean satzKorrelationsId =
+                pusheSatzKorrelationsId(verarbInfo, verarbInfo.getBatchId(), verarbInfo.getSatzNummer());
+
+            ergebnis = bean.verarbeiteSatz();
+
+            if (satzKorrelationsId) {
+                MdcHelper.entferneKorrelationsId();
+            }
+
+            this.jmxBean.satzVerarbeitet(verarbInfo.getSatzNummer(), ergebnis.getDatenbankSchluessel());
+            if ((verarbInfo.getCommitIntervall() > 0)
+                && (verarbInfo.getSatzNummer() % verarbInfo.getCommitIntervall() == 0)) {
+                // Checkpunkt verarbeiten
+                verarbeiteCheckpunkt(verarbInfo, ergebnis.getDatenbankSchluessel());
+            }
+            if ((verarbInfo.getClearIntervall() > 0)
+                && (verarbInfo.getSatzNummer() % verarbInfo.getClearIntervall() == 0)) {
+                // Den aktuellen EntityManager holen
+                EntityManager entityManager =
+                    EntityManagerFactoryUtils.getTransactionalEntityManager(this.transactionManager
+                        .getEntityManagerFactory());
+                // Session-Cache clearen
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        if (ergebnis != null) {
+            return ergebnis.getDatenbankSchluessel();
+        }
+        return null;
+    }
+
+    /**
+     * Verarbeitet die Saetze einer {@link ChunkBatchAusfuehrungsBean} chunkweise: Je Chunk werden die Saetze
+     * gelesen, einzeln verarbeitet und gemeinsam geschrieben. Ein Checkpunkt wird nach dem Chunk
+     * geschrieben, in dem das Commit-Intervall erreicht wurde.
+     *
+     * @param verarbInfo
+     *            die Verarbeitungs-Informationen des Batches
+     * @param bean
+     *            die Ausfuehrungs-Bean
+     * @param protokoll
+     *            das Ergebnis-Protokoll, in dem die Anzahl gelesener und geschriebener Saetze vermerkt wird
+     * @return der Datenbank-Schluessel des zuletzt gelesenen Satzes.
+     * @throws BatchAusfuehrungsException
+     *             bei Fehlern der Ausfuehrungs-Bean.
+     */
+    private <E, A> String verarbeiteChunks(VerarbeitungsInformationen verarbInfo,
+        ChunkBatchAusfuehrungsBean<E, A> bean, BatchErgebnisProtokoll protokoll)
+        throws BatchAusfuehrungsException {
+        ChunkLeser<E> leser = bean.getLeser();
+        ChunkVerarbeiter<E, A> verarbeiter = bean.getVerarbeiter();
+        ChunkSchreiber<A> schreiber = bean.getSchreiber();
+
+        long commitIntervall = verarbInfo.getCommitIntervall();
+        long clearIntervall = verarbInfo.getClearIntervall();
+        int chunkGroesse =
+            (int) verarbInfo.getKonfiguration().getAsLong(
+                KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_CHUNK_GROESSE,
+                commitIntervall > 0 ? commitIntervall : STANDARD_CHUNK_GROESSE);
+
+        StatistikEintrag gelesen = registriereStatistik(protokoll, "CHUNK_GELESEN", "Gelesene Sätze");
+        StatistikEintrag geschrieben =
+            registriereStatistik(protokoll, "CHUNK_GESCHRIEBEN", "Geschriebene Sätze");
+
+        // Transaktion starten
+        verarbInfo.setTransactionStatus(starteTransaktion());
+        String dbschl = null;
+        boolean alleSaetzeGelesen = false;
+        while (!alleSaetzeGelesen
+            && !(verarbInfo.getLetzterDatensatzNummer() != 0
+                && verarbInfo.getLetzterDatensatzNummer() == verarbInfo.getSatzNummer())
+            && !this.batchAbgebrochen
+            && !(this.maximaleLaufzeitUeberschritten = istMaximaleLaufzeitUeberschritten(verarbInfo))) {
+            int anzahl = chunkGroesse;
+            if (verarbInfo.getLetzterDatensatzNummer() != 0) {
+                anzahl = (int) Math.min(anzahl,
+                    verarbInfo.getLetzterDatensatzNummer() - verarbInfo.getSatzNummer());
+            }
+
+            boolean satzKorrelationsId =
+                pusheSatzKorrelationsId(verarbInfo, verarbInfo.getBatchId(), verarbInfo.getSatzNummer() + 1);
+            List<E> saetze;
+            try {
+                saetze = leser.leseSaetze(anzahl);
+                List<A> ausgaben = new ArrayList<>(saetze.size());
+                for (E satz : saetze) {
+                    A ausgabe = verarbeiter.verarbeiteSatz(satz);
+                    if (ausgabe != null) {
+                        ausgaben.add(ausgabe);
+                    }
+                }
+                if (!ausgaben.isEmpty()) {
+                    schreiber.schreibeSaetze(ausgaben);
+                }
+                geschrieben.setWert(geschrieben.getWert() + ausgaben.size());
+            } finally {
+                if (satzKorrelationsId) {
+                    MdcHelper.entferneKorrelationsId();
+                }
+            }
+
+            if (saetze.isEmpty()) {
+                alleSaetzeGelesen = true;
+                continue;
+            }
+            long satzNummerVorher = verarbInfo.getSatzNummer();
+            verarbInfo.setSatzNummer(satzNummerVorher + saetze.size());
+            dbschl = leser.getDatenbankSchluessel(saetze.get(saetze.size() - 1));
+            gelesen.setWert(gelesen.getWert() + saetze.size());
+            this.jmxBean.saetzeVerarbeitet(saetze.size(), dbschl);
+
+            if (commitIntervall > 0
+                && verarbInfo.getSatzNummer() / commitIntervall > satzNummerVorher / commitIntervall) {
+                // Checkpunkt verarbeiten
+                verarbeiteCheckpunkt(verarbInfo, dbschl);
+            }
+            if (clearIntervall > 0
+                && verarbInfo.getSatzNummer() / clearIntervall > satzNummerVorher / clearIntervall) {
+                EntityManager entityManager =
+                    EntityManagerFactoryUtils.getTransactionalEntityManager(this.transactionManager
+                        .getEntityManagerFactory());
+                // Session-Cache clearen
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return dbschl;
+    }
+
+    /**
+     * Liefert einen Statistik-Eintrag des Ergebnis-Protokolls und registriert ihn, falls er noch nicht
+     * existiert.
+     *
+     * @param protokoll
+     *            das Ergebnis-Protokoll
+     * @param id
+     *            die ID des Eintrags
+     * @param text
+     *            der Text des Eintrags
+     * @return der Statistik-Eintrag.
+     */
+    private StatistikEintrag registriereStatistik(BatchErgebnisProtokoll protokoll, String id, String text) {
+        StatistikEintrag eintrag = protokoll.getStatistikEintrag(id);
+        if (eintrag == null) {
+            eintrag = new StatistikEintrag(id, text);
+            protokoll.registriereStatistikEintrag(eintrag);
+        }
+        return eintrag;
+    }
+
+    /**
+     * Verarbeitet die Partitionen einer {@link PartitionierteBatchAusfuehrungsBean} parallel. Jede noch nicht
+     * beendete Partition wird von einem {@link PartitionsVerarbeiter} mit eigener Transaktion verarbeitet.
+     * Schlaegt die Verarbeitung einer Partition fehl, werden die uebrigen Partitionen an ihrem naechsten
+     * Satz angehalten und der erste Fehler weitergeworfen.
+     *
+     * @param verarbInfo
+     *            die Verarbeitungs-Informationen des Batches
+     * @return immer <code>null</code>, da die Datenbank-Schluessel je Partition vermerkt werden.
+     * @throws BatchAusfuehrungsException
+     *             bei Fehlern der Ausfuehrungs-Bean.
+     */
+    private String verarbeitePartitioniert(VerarbeitungsInformationen verarbInfo)
+        throws BatchAusfuehrungsException {
+        PartitionierteBatchAusfuehrungsBean bean = (PartitionierteBatchAusfuehrungsBean) verarbInfo.getBean();
+        List<BatchPartition> partitionen = bean.getPartitionen(verarbInfo.getKonfiguration());
+
+        verarbInfo.setTransactionStatus(starteTransaktion());
+        List<BatchPartition> offenePartitionen =
+            this.statusHandler.partitionStatusInitialisieren(partitionen, verarbInfo.getStartTyp());
+        this.transactionManager.commit(verarbInfo.getTransactionStatus());
+
+        this.maximaleLaufzeitUeberschritten = false;
+        long satzLimit = 0;
+        if (verarbInfo.getLetzterDatensatzNummer() != 0) {
+            satzLimit = verarbInfo.getLetzterDatensatzNummer() - verarbInfo.getSatzNummer();
+        }
+        PartitionsSteuerung steuerung = new PartitionsSteuerung(satzLimit);
+
+        if (!offenePartitionen.isEmpty()) {
+            int anzahlThreads =
+                (int) Math.min(offenePartitionen.size(), verarbInfo.getKonfiguration().getAsLong(
+                    KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_ANZAHL_THREADS,
+                    Runtime.getRuntime().availableProcessors()));
+            LOG.info(LogKategorie.JOURNAL, BatchRahmenEreignisSchluessel.EPLBAT00001,
+                "Verarbeite {} von {} Partitionen mit {} Threads.", offenePartitionen.size(),
+                partitionen.size(), anzahlThreads);
+            ExecutorService executor =
+                Executors.newFixedThreadPool(Math.max(1, anzahlThreads), new PartitionsThreadFactory());
+            try {
+                CompletionService<Long> completionService = new ExecutorCompletionService<>(executor);
+                String korrelationsId = MdcHelper.liesKorrelationsId();
+                T aufrufKontext = this.aufrufKontextVerwalter.getAufrufKontext();
+                for (BatchPartition partition : offenePartitionen) {
+                    completionService.submit(new PartitionsVerarbeiter(verarbInfo, bean, partition, steuerung,
+                        korrelationsId, aufrufKontext));
+                }
+                warteAufPartitionen(completionService, offenePartitionen.size(), steuerung);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Transaktion fuer das Beenden des Batches starten
+        verarbInfo.setTransactionStatus(starteTransaktion());
+        long satzNummer = 0;
+        for (BatchPartition partition : partitionen) {
+            satzNummer += this.statusHandler.leseBatchPartitionStatus(partition.getId())
+                .getSatzNummerLetztesCommit();
+        }
+        verarbInfo.setSatzNummer(satzNummer);
+        if (steuerung.istSatzLimitErreicht()) {
+            throw new BatchrahmenAbbruchException(NachrichtenSchluessel.ERR_BATCH_UNVOLLSTAENDIG);
+        }
+        return null;
+    }
+
+    /**
+     * Wartet auf das Ende aller Partitionen. Nach dem ersten Fehler werden die uebrigen Partitionen
+     * angehalten. Der erste Fehler wird geworfen, nachdem alle Partitionen beendet sind.
+     *
+     * @param completionService
+     *            der CompletionService, an den die Partitionen uebergeben wurden.
+     * @param anzahlPartitionen
+     *            die Anzahl der uebergebenen Partitionen.
+     * @param steuerung
+     *            die gemeinsame Steuerung der Partitionen.
+     * @throws BatchAusfuehrungsException
+     *             falls die Verarbeitung einer Partition fehlgeschlagen ist.
+     */
+    private void warteAufPartitionen(CompletionService<Long> completionService, int anzahlPartitionen,
+        PartitionsSteuerung steuerung) throws BatchAusfuehrungsException {
+        Throwable ersterFehler = null;
+        for (int i = 0; i < anzahlPartitionen; i++) {
+            try {
+                completionService.take().get();
+            } catch (ExecutionException e) {
+                steuerung.setFehlerAufgetreten();
+                if (ersterFehler == null) {
+                    ersterFehler = e.getCause();
+                } else {
+                    LOG.error(BatchRahmenEreignisSchluessel.EPLBAT00001, e.getCause().getMessage(),
+                        e.getCause());
+                }
+            } catch (InterruptedException e) {
+                steuerung.setFehlerAufgetreten();
+                Thread.currentThread().interrupt();
+                throw new BatchrahmenAbbruchException(
+                    NachrichtenSchluessel.ERR_BATCH_PARTITIONEN_UNTERBROCHEN, e);
+            }
+        }
+        if (ersterFehler instanceof BatchAusfuehrungsException) {
+            throw (BatchAusfuehrungsException) ersterFehler;
+        } else if (ersterFehler instanceof RuntimeException) {
+            throw (RuntimeException) ersterFehler;
+        } else if (ersterFehler instanceof Error) {
+            throw (Error) ersterFehler;
+        } else if (ersterFehler != null) {
+            throw new BatchrahmenAbbruchException(
+                NachrichtenSchluessel.ERR_BATCH_PARTITIONEN_UNTERBROCHEN, ersterFehler);
+        }
+    }
+
+    /**
+     * Startet die Pruefung im Hintergrund, ob der Abbruch des Batches ueber den Status-Satz angefordert
+     * wurde, falls ein Pruef-Intervall konfiguriert ist. Der Abbruch gilt als angefordert, sobald der
+     * Status-Satz nicht mehr den Status "laeuft" hat.
+     *
+     * @param konfiguration
+     *            die Konfiguration des Batches.
+     * @return der Executor der Pruefung oder <code>null</code>, falls keine Pruefung konfiguriert ist.
+     */
+    private ScheduledExecutorService starteAbbruchPruefung(BatchKonfiguration konfiguration) {
+        long intervall =
+            konfiguration.getAsLong(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_ABBRUCH_PRUEFINTERVALL, 0);
+        if (intervall <= 0) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Batchrahmen-Abbruchpruefung");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::pruefeAbbruchAngefordert, intervall, intervall,
+            TimeUnit.SECONDS);
+        return executor;
+    }
+
+    /**
+     * Liest den Status-Satz ohne Sperre und vermerkt den Abbruch des Batches, falls der Status-Satz nicht
+     * mehr den Status "laeuft" hat. Fehler werden geloggt und ignoriert.
+     */
+    private void pruefeAbbruchAngefordert() {
+        TransactionStatus transactionStatus = null;
+        try {
+            transactionStatus = starteTransaktion();
+            BatchStatus status = this.statusHandler.leseBatchStatusOhneSperre();
+            if (status != null && !BatchStatusTyp.LAEUFT.getName().equals(status.getBatchStatus())) {
+                LOG.info(LogKategorie.JOURNAL, BatchRahmenEreignisSchluessel.EPLBAT00001,
+                    "Abbruch des Batches wurde über den Status-Satz angefordert (Status {}).",
+                    status.getBatchStatus());
+                this.batchAbgebrochen = true;
+            }
+        } catch (Throwable t) {
+            LOG.error(BatchRahmenEreignisSchluessel.EPLBAT00001, t.getMessage(), t);
+        } finally {
+            rollbackTransaction(transactionStatus, null);
+        }
+    }
+
+    /**
+     * Beendet die Pruefung, ob der Abbruch des Batches angefordert wurde, und wartet auf das Ende einer
+     * laufenden Pruefung.
+     *
+     * @param abbruchPruefung
+     *            der Executor der Pruefung oder <code>null</code>.
+     */
+    private void beendeAbbruchPruefung(ScheduledExecutorService abbruchPruefung) {
+        if (abbruchPruefung != null && !abbruchPruefung.isShutdown()) {
+            abbruchPruefung.shutdownNow();
+            try {
+                abbruchPruefung.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Prüft, ob die Laufzeit überschritten wurde, falls die Laufzeit konfiguriert ist.
      * @return true, wenn die Laufzeit konfiguriert ist und überschritten wurde; sonst false
@@ -238,9 +597,43 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
     }
 
     /**
-     * Logik fuer die Verarbeitung eines Checkpunkts: Der Status-Datenbanksatz wird aktualisiert, die
-     * Transaktion beendet, eine neue gestartet, der Status-Satz neu geladen und die Ausfuehrungs-Bean
-     * informiert.
+     * Vermerkt eine Ueberschreitung der maximalen Laufzeit. Wird von den Threads der Partitionen aufgerufen,
+     * ein einmal gesetztes Kennzeichen wird daher nicht zurueckgesetzt.
+     * @return true, wenn die maximale Laufzeit ueberschritten wurde; sonst false
+     */
+    private boolean vermerkeMaximaleLaufzeit(VerarbeitungsInformationen verarbInfo) {
+        if (istMaximaleLaufzeitUeberschritten(verarbInfo)) {
+            this.maximaleLaufzeitUeberschritten = true;
+        }
+        return this.maximaleLaufzeitUeberschritten;
+    }
+
+    /**
+     * Setzt die Korrelations-ID fuer die Verarbeitung eines Satzes gemaess der konfigurierten Strategie.
+     *
+     * @param verarbInfo
+     *            die Verarbeitungs-Informationen des Batches
+     * @param praefix
+     *            das Praefix fuer fortlaufende Korrelations-IDs
+     * @param satzNummer
+     *            die Nummer des Satzes
+     * @return <code>true</code>, wenn eine Korrelations-ID gesetzt wurde, die nach der Verarbeitung des
+     *         Satzes wieder zu entfernen ist.
+     */
+    private static boolean pusheSatzKorrelationsId(VerarbeitungsInformationen verarbInfo, String praefix,
+        long satzNummer) {
+        String korrelationsId = verarbInfo.getSatzKorrelationsId().erzeuge(praefix, satzNummer);
+        if (korrelationsId == null) {
+            return false;
+        }
+        MdcHelper.pushKorrelationsId(korrelationsId);
+        return true;
+    }
+
+    /**
+     * Logik fuer die Verarbeitung eines Checkpunkts: Der Status-Datenbanksatz wird mit einem gezielten
+     * Update aktualisiert, ohne ihn erneut zu lesen und zu sperren. Anschliessend wird die Transaktion
+     * beendet, eine neue gestartet, das Ergebnis-Protokoll geflusht und die Ausfuehrungs-Bean informiert.
      *
      * @param verarbInfo
      *            die Verarbeitungs-Informationen des Batches
@@ -255,15 +648,16 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
     private void verarbeiteCheckpunkt(VerarbeitungsInformationen verarbInfo, String dbSchluessel)
         throws BatchAusfuehrungsException {
         // Status-Tabelle aktualisieren
-        BatchStatus status = this.statusHandler.leseBatchStatus();
-        status.setSatzNummerLetztesCommit(verarbInfo.getSatzNummer());
-        status.setSchluesselLetztesCommit(dbSchluessel);
+        this.statusHandler.schreibeCheckpunkt(verarbInfo.getSatzNummerLetztesCommit(),
+            verarbInfo.getSatzNummer(), dbSchluessel);
 
         // Neue Transaktion beginnen, Cache leeren.
         // Bean über anstehenden Checkpunkt informieren.
         verarbInfo.getBean().vorCheckpointGeschrieben(verarbInfo.getSatzNummer());
         this.transactionManager.commit(verarbInfo.getTransactionStatus());
+        verarbInfo.setSatzNummerLetztesCommit(verarbInfo.getSatzNummer());
         verarbInfo.setTransactionStatus(starteTransaktion());
+        verarbInfo.getProtokoll().flusheProtokoll();
 
         // Bean ueber Checkpunkt informieren.
         verarbInfo.getBean().checkpointGeschrieben(verarbInfo.getSatzNummer());
@@ -308,6 +702,7 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
         LOG.info(LogKategorie.JOURNAL, BatchRahmenEreignisSchluessel.EPLBAT00001,
             "Batch Initialisierungsphase beendet.");
         verarbInfo.setSatzNummer(status.getSatzNummerLetztesCommit());
+        verarbInfo.setSatzNummerLetztesCommit(status.getSatzNummerLetztesCommit());
         long anzahlDatensaetze =
             verarbInfo.getKonfiguration().getAsLong(
                 KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_ZU_VERARBEITENDE_DATENSAETZE_ANZAHL, -1);
@@ -318,6 +713,7 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
         }
 
         this.jmxBean.init(anzSaetze, verarbInfo.getSatzNummer(), status.getBatchId(), status.getBatchName());
+        this.jmxBean.setAbtastIntervall(verarbInfo.getJmxAbtastIntervall());
         // Transaktion beenden.
         this.transactionManager.commit(verarbInfo.getTransactionStatus());
     }
@@ -417,7 +813,7 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
      * @param batchBean
      *            (optional) die Batch-Bean, welcher das Zurückrollen mitgeteilt werden soll.
      */
-    private void rollbackTransaction(TransactionStatus transactionStatus, BatchAusfuehrungsBean batchBean) {
+    private void rollbackTransaction(TransactionStatus transactionStatus, BatchLebenszyklus batchBean) {
         if (transactionStatus != null && !transactionStatus.isCompleted()) {
             try {
                 if (batchBean != null) {
@@ -436,20 +832,20 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
 
     /**
      * liest einen Beannamen aus Property {@link BatchKonfiguration.PROPERTY_AUSFUEHRUNGSBEAN} und liest die
-     * Bean mit diesem Namen aus dem Kontext. Die Bean wird auf das {@link BatchAusfuehrungsBean} Interface
+     * Bean mit diesem Namen aus dem Kontext. Die Bean wird auf das {@link BatchLebenszyklus} Interface
      * gecastet und zurueckgegeben.
      *
      * @param konfig
      *            die Konfiguration
      * @return die Bean.
      */
-    private BatchAusfuehrungsBean getBatchAusfuehrer(BatchKonfiguration konfig) {
+    private BatchLebenszyklus getBatchAusfuehrer(BatchKonfiguration konfig) {
         String beanName = konfig.getAsString(KonfigurationSchluessel.PROPERTY_AUSFUEHRUNGSBEAN);
         if (beanName == null || beanName.length() == 0) {
             throw new BatchrahmenKonfigurationException(NachrichtenSchluessel.ERR_KONF_PARAMETER_FEHLT,
                 KonfigurationSchluessel.PROPERTY_AUSFUEHRUNGSBEAN);
         }
-        BatchAusfuehrungsBean bean = (BatchAusfuehrungsBean) this.applicationContext.getBean(beanName);
+        BatchLebenszyklus bean = (BatchLebenszyklus) this.applicationContext.getBean(beanName);
         if (bean == null) {
             throw new BatchrahmenKonfigurationException(NachrichtenSchluessel.ERR_KONF_BEAN_PFLICHT, beanName);
         }
@@ -526,4 +922,179 @@ public class BatchrahmenImpl<T extends AufrufKontext> implements Batchrahmen, In
         this.aufrufKontextFactory = aufrufKontextFactory;
     }
 
+    /**
+     * Von allen Partitionen eines Laufs gemeinsam genutzter Zustand.
+     */
+    private static final class PartitionsSteuerung {
+
+        /** Maximale Anzahl zu verarbeitender Saetze ueber alle Partitionen, 0 falls unbegrenzt. */
+        private final long satzLimit;
+
+        /** Anzahl der in diesem Lauf begonnenen Saetze ueber alle Partitionen. */
+        private final AtomicLong begonneneSaetze = new AtomicLong();
+
+        /** Kennzeichen, ob in einer Partition ein Fehler aufgetreten ist. */
+        private volatile boolean fehlerAufgetreten;
+
+        private PartitionsSteuerung(long satzLimit) {
+            this.satzLimit = satzLimit;
+        }
+
+        /**
+         * Reserviert einen Satz fuer die Verarbeitung.
+         * @return <code>false</code>, falls das Satz-Limit bereits erreicht ist.
+         */
+        private boolean reserviereSatz() {
+            return this.satzLimit <= 0 || this.begonneneSaetze.incrementAndGet() <= this.satzLimit;
+        }
+
+        private boolean istSatzLimitErreicht() {
+            return this.satzLimit > 0 && this.begonneneSaetze.get() >= this.satzLimit;
+        }
+
+        private boolean isFehlerAufgetreten() {
+            return this.fehlerAufgetreten;
+        }
+
+        private void setFehlerAufgetreten() {
+            this.fehlerAufgetreten = true;
+        }
+    }
+
+    /**
+     * Erzeugt benannte Threads fuer die Verarbeitung von Partitionen.
+     */
+    private static final class PartitionsThreadFactory implements ThreadFactory {
+
+        /** Zaehler fuer die Namen der Threads. */
+        private final AtomicInteger threadNummer = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread =
+                new Thread(runnable, "Batchrahmen-Partition-" + this.threadNummer.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Verarbeitet eine Partition in einem eigenen Thread. Der Thread erhaelt vom Transaktionsmanager eine
+     * eigene Transaktion mit eigenem EntityManager. Checkpunkte werden im Status-Satz der Partition
+     * vermerkt.
+     */
+    private final class PartitionsVerarbeiter implements Callable<Long> {
+
+        /** Die Verarbeitungs-Informationen des Batches. */
+        private final VerarbeitungsInformationen verarbInfo;
+
+        /** Die Ausfuehrungs-Bean. */
+        private final PartitionierteBatchAusfuehrungsBean bean;
+
+        /** Die zu verarbeitende Partition. */
+        private final BatchPartition partition;
+
+        /** Die gemeinsame Steuerung aller Partitionen. */
+        private final PartitionsSteuerung steuerung;
+
+        /** Die Korrelations-ID des Batches. */
+        private final String korrelationsId;
+
+        /** Der AufrufKontext des Batches. */
+        private final T aufrufKontext;
+
+        private PartitionsVerarbeiter(VerarbeitungsInformationen verarbInfo,
+            PartitionierteBatchAusfuehrungsBean bean, BatchPartition partition, PartitionsSteuerung steuerung,
+            String korrelationsId, T aufrufKontext) {
+            this.verarbInfo = verarbInfo;
+            this.bean = bean;
+            this.partition = partition;
+            this.steuerung = steuerung;
+            this.korrelationsId = korrelationsId;
+            this.aufrufKontext = aufrufKontext;
+        }
+
+        /**
+         * Verarbeitet die Partition.
+         * @return die Satznummer der Partition nach der Verarbeitung.
+         * @throws BatchAusfuehrungsException
+         *             bei Fehlern der Ausfuehrungs-Bean.
+         */
+        @Override
+        public Long call() throws BatchAusfuehrungsException {
+            MdcHelper.pushKorrelationsId(this.korrelationsId);
+            aufrufKontextVerwalter.setAufrufKontext(this.aufrufKontext);
+            TransactionStatus transactionStatus = null;
+            try {
+                transactionStatus = starteTransaktion();
+                BatchPartitionStatus status = statusHandler.leseBatchPartitionStatus(this.partition.getId());
+                long satzNummer = status.getSatzNummerLetztesCommit();
+                long satzNummerLetztesCommit = satzNummer;
+                String dbSchluessel = status.getSchluesselLetztesCommit();
+                status.setBatchStatus(BatchStatusTyp.LAEUFT.getName());
+
+                BatchPartitionsVerarbeitung verarbeitung = this.bean.erzeugeVerarbeitung(this.partition);
+                verarbeitung.initialisieren(satzNummer, dbSchluessel, this.verarbInfo.getStartTyp());
+                String korrelationsPraefix = this.verarbInfo.getBatchId() + '-' + this.partition.getId();
+
+                VerarbeitungsErgebnis ergebnis = null;
+                while ((ergebnis == null || !ergebnis.isAlleSaetzeVerarbeitet()) && !batchAbgebrochen
+                    && !this.steuerung.isFehlerAufgetreten()
+                    && !vermerkeMaximaleLaufzeit(this.verarbInfo)
+                    && this.steuerung.reserviereSatz()) {
+                    satzNummer++;
+
+                    boolean satzKorrelationsId =
+                        pusheSatzKorrelationsId(this.verarbInfo, korrelationsPraefix, satzNummer);
+                    try {
+                        ergebnis = verarbeitung.verarbeiteSatz();
+                    } finally {
+                        if (satzKorrelationsId) {
+                            MdcHelper.entferneKorrelationsId();
+                        }
+                    }
+                    dbSchluessel = ergebnis.getDatenbankSchluessel();
+
+                    jmxBean.satzVerarbeitet(satzNummer, dbSchluessel);
+                    if ((this.verarbInfo.getCommitIntervall() > 0)
+                        && (satzNummer % this.verarbInfo.getCommitIntervall() == 0)) {
+                        // Checkpunkt der Partition verarbeiten
+                        statusHandler.schreibePartitionCheckpunkt(this.partition.getId(),
+                            satzNummerLetztesCommit, satzNummer, dbSchluessel);
+                        transactionManager.commit(transactionStatus);
+                        satzNummerLetztesCommit = satzNummer;
+                        transactionStatus = starteTransaktion();
+                        this.verarbInfo.getProtokoll().flusheProtokoll();
+                        verarbeitung.checkpointGeschrieben(satzNummer);
+                    }
+                    if ((this.verarbInfo.getClearIntervall() > 0)
+                        && (satzNummer % this.verarbInfo.getClearIntervall() == 0)) {
+                        EntityManager entityManager = EntityManagerFactoryUtils
+                            .getTransactionalEntityManager(transactionManager.getEntityManagerFactory());
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+
+                if (this.steuerung.isFehlerAufgetreten()) {
+                    // Die Partition wird mit dem Stand des letzten Checkpunkts fortgesetzt.
+                    rollbackTransaction(transactionStatus, null);
+                    return satzNummer;
+                }
+                status = statusHandler.leseBatchPartitionStatus(this.partition.getId());
+                status.setSatzNummerLetztesCommit(satzNummer);
+                status.setSchluesselLetztesCommit(dbSchluessel);
+                if (ergebnis != null && ergebnis.isAlleSaetzeVerarbeitet()) {
+                    status.setBatchStatus(BatchStatusTyp.BEENDET.getName());
+                } else {
+                    status.setBatchStatus(BatchStatusTyp.ABGEBROCHEN.getName());
+                }
+                transactionManager.commit(transactionStatus);
+                return satzNummer;
+            } finally {
+                rollbackTransaction(transactionStatus, null);
+                MdcHelper.entferneKorrelationsId();
+            }
+        }
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.core.rahmen.impl;
+
+import de.bund.bva.isyfact.batchrahmen.batch.konstanten.KonfigurationSchluessel;
+
+/**
+ * Strategien, nach denen der Batchrahmen fuer die Verarbeitung eines Satzes eine eigene Korrelations-ID
+ * erzeugt. Die Korrelations-ID des Satzes wird an die Korrelations-ID des Batches angehaengt. Die
+ * Strategie wird ueber {@link KonfigurationSchluessel#PROPERTY_BATCHRAHMEN_SATZ_KORRELATIONS_ID}
+ * konfiguriert.
+ */
+public enum SatzKorrelationsId {
+
+    /** Eine zufaellige UUID je Satz (Standard). */
+    UUID {
+        @Override
+        String erzeuge(String praefix, long satzNummer) {
+            return java.util.UUID.randomUUID().toString();
+        }
+    },
+
+    /** Eine fortlaufende ID aus BatchId und Satznummer, z.B. "meinBatch-1-4711". */
+    SEQUENZ {
+        @Override
+        String erzeuge(String praefix, long satzNummer) {
+            return praefix + '-' + satzNummer;
+        }
+    },
+
+    /** Keine eigene Korrelations-ID je Satz. Die Saetze werden unter der ID des Batches verarbeitet. */
+    KEINE {
+        @Override
+        String erzeuge(String praefix, long satzNummer) {
+            return null;
+        }
+    };
+
+    /**
+     * Erzeugt die Korrelations-ID fuer einen Satz.
+     * @param praefix
+     *            die BatchId, bei partitionierten Batches ergaenzt um die ID der Partition
+     * @param satzNummer
+     *            die Nummer des Satzes
+     * @return die Korrelations-ID oder <code>null</code>, falls keine erzeugt werden soll.
+     */
+    abstract String erzeuge(String praefix, long satzNummer);
+}
@@ -17,15 +17,23 @@
 package de.bund.bva.isyfact.batchrahmen.core.rahmen.impl;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.persistence.EntityManagerFactory;
 
 import de.bund.bva.isyfact.batchrahmen.batch.konfiguration.BatchKonfiguration;
 import de.bund.bva.isyfact.batchrahmen.batch.konstanten.KonfigurationSchluessel;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchPartition;
 import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchStartTyp;
 import de.bund.bva.isyfact.batchrahmen.core.konstanten.NachrichtenSchluessel;
+import de.bund.bva.isyfact.batchrahmen.persistence.rahmen.BatchPartitionStatus;
 import de.bund.bva.isyfact.batchrahmen.persistence.rahmen.BatchStatus;
 import de.bund.bva.isyfact.batchrahmen.persistence.rahmen.BatchStatusDao;
+import de.bund.bva.isyfact.batchrahmen.core.exception.BatchrahmenAbbruchException;
+import de.bund.bva.isyfact.batchrahmen.core.exception.BatchrahmenKonfigurationException;
 import de.bund.bva.isyfact.batchrahmen.core.exception.BatchrahmenParameterException;
 
 /**
@@ -107,6 +115,104 @@ public class StatusHandler {
         return this.batchStatusDao.leseBatchStatus(this.batchId);
     }
 
+    /**
+     * Liest den Status-Satz für den Batch, ohne ihn zu sperren.
+     * @return Status-Satz des Batches oder <code>null</code> falls keiner existiert.
+     */
+    public BatchStatus leseBatchStatusOhneSperre() {
+        return this.batchStatusDao.leseBatchStatusOhneSperre(this.batchId);
+    }
+
+    /**
+     * Schreibt einen Checkpunkt in den Status-Satz des Batches, ohne den Satz vorher zu lesen und zu
+     * sperren.
+     * @param satzNummerVorher
+     *            die Satznummer des vorigen Checkpunkts.
+     * @param satzNummer
+     *            die Satznummer des Checkpunkts.
+     * @param schluessel
+     *            der Datenbank-Schluessel des Checkpunkts.
+     * @throws BatchrahmenAbbruchException
+     *             falls der Status-Satz nicht mehr die Satznummer des vorigen Checkpunkts enthaelt.
+     */
+    public void schreibeCheckpunkt(long satzNummerVorher, long satzNummer, String schluessel) {
+        if (!this.batchStatusDao.schreibeCheckpunkt(this.batchId, satzNummerVorher, satzNummer, schluessel)) {
+            throw new BatchrahmenAbbruchException(NachrichtenSchluessel.ERR_BATCH_CHECKPUNKT_KONFLIKT,
+                this.batchId);
+        }
+    }
+
+    /**
+     * Schreibt einen Checkpunkt in den Status-Satz einer Partition, ohne den Satz vorher zu lesen und zu
+     * sperren.
+     * @param partitionId
+     *            die ID der Partition.
+     * @param satzNummerVorher
+     *            die Satznummer des vorigen Checkpunkts der Partition.
+     * @param satzNummer
+     *            die Satznummer des Checkpunkts.
+     * @param schluessel
+     *            der Datenbank-Schluessel des Checkpunkts.
+     * @throws BatchrahmenAbbruchException
+     *             falls der Status-Satz nicht mehr die Satznummer des vorigen Checkpunkts enthaelt.
+     */
+    public void schreibePartitionCheckpunkt(String partitionId, long satzNummerVorher, long satzNummer,
+        String schluessel) {
+        if (!this.batchStatusDao.schreibePartitionCheckpunkt(this.batchId, partitionId, satzNummerVorher,
+            satzNummer, schluessel)) {
+            throw new BatchrahmenAbbruchException(NachrichtenSchluessel.ERR_BATCH_CHECKPUNKT_KONFLIKT,
+                this.batchId + "/" + partitionId);
+        }
+    }
+
+    /**
+     * Initialisiert die Status-Saetze der Partitionen eines partitionierten Batches. Bei einem Start werden
+     * die Status-Saetze eines vorigen Laufs geloescht. Bei einem Restart bleiben sie erhalten, damit jede
+     * Partition an ihrem letzten Checkpunkt fortgesetzt wird. Fehlende Status-Saetze werden angelegt.
+     *
+     * @param partitionen
+     *            die Partitionen des Batches.
+     * @param startTyp
+     *            der Starttyp des Batches.
+     * @return die Partitionen, die noch nicht beendet sind.
+     */
+    public List<BatchPartition> partitionStatusInitialisieren(List<BatchPartition> partitionen,
+        BatchStartTyp startTyp) {
+        if (BatchStartTyp.START.equals(startTyp)) {
+            this.batchStatusDao.loescheBatchPartitionStatus(this.batchId);
+        }
+        Set<String> partitionIds = new HashSet<>();
+        List<BatchPartition> offenePartitionen = new ArrayList<>();
+        for (BatchPartition partition : partitionen) {
+            if (!partitionIds.add(partition.getId())) {
+                throw new BatchrahmenKonfigurationException(NachrichtenSchluessel.ERR_KONF_PARTITION_DOPPELT,
+                    partition.getId());
+            }
+            BatchPartitionStatus status = leseBatchPartitionStatus(partition.getId());
+            if (status == null) {
+                status = new BatchPartitionStatus();
+                status.setBatchId(this.batchId);
+                status.setPartitionId(partition.getId());
+                status.setBatchStatus(BatchStatusTyp.NEU.getName());
+                this.batchStatusDao.createBatchPartitionStatus(status);
+            } else if (BatchStatusTyp.BEENDET.getName().equals(status.getBatchStatus())) {
+                continue;
+            }
+            offenePartitionen.add(partition);
+        }
+        return offenePartitionen;
+    }
+
+    /**
+     * Liest den Status-Satz einer Partition des Batches.
+     * @param partitionId
+     *            die ID der Partition.
+     * @return Status-Satz der Partition oder <code>null</code> falls keiner existiert.
+     */
+    public BatchPartitionStatus leseBatchPartitionStatus(String partitionId) {
+        return this.batchStatusDao.leseBatchPartitionStatus(this.batchId, partitionId);
+    }
+
     /**
      * prueft, ob die Parameter fuer das Starten bzw. Restarten des Batches mit dem Status in der Datenbank
      * zusammenpassen.
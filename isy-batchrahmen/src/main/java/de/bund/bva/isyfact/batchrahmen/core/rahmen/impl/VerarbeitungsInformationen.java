@@ -23,8 +23,11 @@ import org.springframework.transaction.TransactionStatus;
 
 import de.bund.bva.isyfact.batchrahmen.batch.konfiguration.BatchKonfiguration;
 import de.bund.bva.isyfact.batchrahmen.batch.konstanten.KonfigurationSchluessel;
-import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchAusfuehrungsBean;
+import de.bund.bva.isyfact.batchrahmen.batch.protokoll.BatchErgebnisProtokoll;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchLebenszyklus;
 import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchStartTyp;
+import de.bund.bva.isyfact.batchrahmen.core.exception.BatchrahmenKonfigurationException;
+import de.bund.bva.isyfact.batchrahmen.core.konstanten.NachrichtenSchluessel;
 
 /**
  * Informationen zur aktuellen Verarbeitunsstand des Batches. Dieses Objekt wird
@@ -47,7 +50,10 @@ public class VerarbeitungsInformationen {
     private TransactionStatus transactionStatus;
 
     /** Ausfuehrungsbean des Batches. */
-    private BatchAusfuehrungsBean bean;
+    private BatchLebenszyklus bean;
+
+    /** Ergebnis-Protokoll des Batches. */
+    private BatchErgebnisProtokoll protokoll;
 
     /** Commit-Intervall des Batches. */
     final private long commitIntervall;
@@ -55,11 +61,23 @@ public class VerarbeitungsInformationen {
     /** Clear-Intervall des Batches (Session-Cache clearen). */
     final private long clearIntervall;
 
+    /** ID des Batches. */
+    final private String batchId;
+
+    /** Strategie fuer die Korrelations-ID je Satz. */
+    final private SatzKorrelationsId satzKorrelationsId;
+
+    /** Intervall in Saetzen, in dem die JMX-Bean den letzten Satz vermerkt. */
+    final private long jmxAbtastIntervall;
+
     /** Nummer des letzten verarbeiteten Satzes. */
     private long satzNummer;
 
     /** Nummer des letzten Datensatzes. */
     private long letzterDatensatzNummer;
+
+    /** Satznummer des letzten Commits, wie sie in der Status-Tabelle steht. */
+    private long satzNummerLetztesCommit;
     
     /** Zeitstempel vom Begin des Batches als long ( System.currentTimeMillis() ) */
     final private long zeitstempelBegin;
@@ -79,6 +97,18 @@ public class VerarbeitungsInformationen {
                 konfiguration.getAsLong(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_COMMIT_INTERVALL);
         clearIntervall =
                 konfiguration.getAsLong(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_CLEAR_INTERVALL);
+        batchId = konfiguration.getAsString(KonfigurationSchluessel.PROPERTY_BATCH_ID, null);
+        String strategie = konfiguration.getAsString(
+            KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_SATZ_KORRELATIONS_ID,
+            SatzKorrelationsId.UUID.name());
+        try {
+            satzKorrelationsId = SatzKorrelationsId.valueOf(strategie.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BatchrahmenKonfigurationException(NachrichtenSchluessel.ERR_KONF_PARAMETER_UNGUELTIG,
+                strategie, KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_SATZ_KORRELATIONS_ID);
+        }
+        jmxAbtastIntervall = Math.max(1,
+            konfiguration.getAsLong(KonfigurationSchluessel.PROPERTY_BATCHRAHMEN_JMX_ABTASTINTERVALL, 1));
         zeitstempelBegin = System.currentTimeMillis();
         maximaleLaufzeitLimitInMinuten =
             konfiguration.getAsLong(KonfigurationSchluessel.KOMMANDO_PARAM_LAUFZEIT, -1);
@@ -136,7 +166,7 @@ public class VerarbeitungsInformationen {
     /**
      * @return the bean
      */
-    public BatchAusfuehrungsBean getBean() {
+    public BatchLebenszyklus getBean() {
         return bean;
     }
 
@@ -144,7 +174,7 @@ public class VerarbeitungsInformationen {
      * @param bean
      *            the bean to set
      */
-    public void setBean(BatchAusfuehrungsBean bean) {
+    public void setBean(BatchLebenszyklus bean) {
         this.bean = bean;
     }
 
@@ -177,6 +207,23 @@ public class VerarbeitungsInformationen {
         this.satzNummer = satzNummer;
     }
 
+    /**
+     * Liefert die Satznummer des letzten Commits, wie sie in der Status-Tabelle steht.
+     * @return die Satznummer des letzten Commits.
+     */
+    public long getSatzNummerLetztesCommit() {
+        return satzNummerLetztesCommit;
+    }
+
+    /**
+     * Setzt die Satznummer des letzten Commits, wie sie in der Status-Tabelle steht.
+     * @param satzNummerLetztesCommit
+     *            die Satznummer des letzten Commits.
+     */
+    public void setSatzNummerLetztesCommit(long satzNummerLetztesCommit) {
+        this.satzNummerLetztesCommit = satzNummerLetztesCommit;
+    }
+
     /**
      * @return the clearIntervall
      */
@@ -217,5 +264,39 @@ public class VerarbeitungsInformationen {
     public long getMaximaleLaufzeitLimitInMinuten() {
         return maximaleLaufzeitLimitInMinuten;
     }
-    
+
+    /**
+     * @return das Ergebnis-Protokoll des Batches
+     */
+    public BatchErgebnisProtokoll getProtokoll() {
+        return protokoll;
+    }
+
+    /**
+     * @param protokoll das Ergebnis-Protokoll des Batches
+     */
+    public void setProtokoll(BatchErgebnisProtokoll protokoll) {
+        this.protokoll = protokoll;
+    }
+
+    /**
+     * @return die ID des Batches
+     */
+    public String getBatchId() {
+        return batchId;
+    }
+
+    /**
+     * @return die Strategie fuer die Korrelations-ID je Satz
+     */
+    public SatzKorrelationsId getSatzKorrelationsId() {
+        return satzKorrelationsId;
+    }
+
+    /**
+     * @return das Intervall in Saetzen, in dem die JMX-Bean den letzten Satz vermerkt
+     */
+    public long getJmxAbtastIntervall() {
+        return jmxAbtastIntervall;
+    }
 }
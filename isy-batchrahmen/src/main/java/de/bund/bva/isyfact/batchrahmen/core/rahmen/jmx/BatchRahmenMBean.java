@@ -16,6 +16,8 @@
  */
 package de.bund.bva.isyfact.batchrahmen.core.rahmen.jmx;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedResource;
 
@@ -30,6 +32,8 @@ import org.springframework.jmx.export.annotation.ManagedResource;
  * <li> DB-Schluessel des letzten verarbeiteten Satzes
  * <li> Zeitraum seit letztem verarbeiteten Satz
  * </ul>
+ * Schluessel und Zeitpunkt des letzten Satzes werden nur in dem konfigurierten Abtast-Intervall
+ * aktualisiert, die Anzahl verarbeiteter Saetze bei jedem Satz.
  * 
  *
  */
@@ -39,15 +43,17 @@ public class BatchRahmenMBean {
     /** Gesamt-Anzahl Sätze. */
     private long saetzeGesamt;
     /** Anzahl verarbeiteter Saetze. */
-    private long saetzeVerarbeitet;
+    private final LongAdder saetzeVerarbeitet = new LongAdder();
     /** DB-Schluessel des letzten verarbeiteten Satzes. */
-    private String schluesselLetzterSatz;
+    private volatile String schluesselLetzterSatz;
     /** Zeitpunkt der Verarbeitung des letzten Satzes. */
-    private long zeitpunktLetzterSatz;
+    private volatile long zeitpunktLetzterSatz;
     /** Name des Batches. */
     private String batchName;
     /** ID des Batches. */
     private String batchId;
+    /** Intervall in Saetzen, in dem Schluessel und Zeitpunkt des letzten Satzes aktualisiert werden. */
+    private volatile long abtastIntervall = 1;
 
     
     /**
@@ -65,7 +71,7 @@ public class BatchRahmenMBean {
     @ManagedAttribute(
             description = "Liefert die Anzahl bisher verarbeiteter Saetze.")
     public long getSaetzeVerarbeitet() {
-        return saetzeVerarbeitet;
+        return saetzeVerarbeitet.sum();
     }
 
     /**
@@ -96,7 +102,8 @@ public class BatchRahmenMBean {
      */
     public void init(long saetzeGesamt, long saetzeVerarbeitet, String batchId, String batchName) {
         this.saetzeGesamt = saetzeGesamt;
-        this.saetzeVerarbeitet = saetzeVerarbeitet;
+        this.saetzeVerarbeitet.reset();
+        this.saetzeVerarbeitet.add(saetzeVerarbeitet);
         this.batchId = batchId;
         this.batchName = batchName;
     }
@@ -108,10 +115,46 @@ public class BatchRahmenMBean {
      */
     public void satzVerarbeitet(String dbSchluessel) {
         this.schluesselLetzterSatz = dbSchluessel;
-        saetzeVerarbeitet++;
+        saetzeVerarbeitet.increment();
         zeitpunktLetzterSatz = System.currentTimeMillis();
     }
 
+    /**
+     * gibt an, dass gerade ein Satz verarbeitet wurde. Schluessel und Zeitpunkt werden nur vermerkt, wenn
+     * die Satznummer auf das Abtast-Intervall faellt.
+     * 
+     * @param satzNummer die Nummer des verarbeiteten Satzes.
+     * @param dbSchluessel der Datenbank-Schluessel des verarbeiteten Satzes.
+     */
+    public void satzVerarbeitet(long satzNummer, String dbSchluessel) {
+        saetzeVerarbeitet.increment();
+        if (satzNummer % abtastIntervall == 0) {
+            this.schluesselLetzterSatz = dbSchluessel;
+            zeitpunktLetzterSatz = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * gibt an, dass gerade mehrere Saetze gemeinsam verarbeitet wurden.
+     * 
+     * @param anzahl Anzahl der verarbeiteten Saetze.
+     * @param dbSchluessel der Datenbank-Schluessel des letzten verarbeiteten Satzes.
+     */
+    public void saetzeVerarbeitet(long anzahl, String dbSchluessel) {
+        this.schluesselLetzterSatz = dbSchluessel;
+        saetzeVerarbeitet.add(anzahl);
+        zeitpunktLetzterSatz = System.currentTimeMillis();
+    }
+
+    /**
+     * setzt das Intervall in Saetzen, in dem Schluessel und Zeitpunkt des letzten Satzes aktualisiert werden.
+     * 
+     * @param abtastIntervall das Abtast-Intervall (mindestens 1).
+     */
+    public void setAbtastIntervall(long abtastIntervall) {
+        this.abtastIntervall = Math.max(1, abtastIntervall);
+    }
+
     /**
      * @return the batchName
      */
@@ -0,0 +1,118 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.persistence.rahmen;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+
+/**
+ * Der Status einer Partition eines partitionierten Batches. Jede Partition vermerkt ihren letzten Checkpunkt
+ * in einem eigenen Datensatz, damit die Partitionen ihre Checkpunkte unabhängig voneinander schreiben und bei
+ * einem Restart unabhängig voneinander fortgesetzt werden können.
+ */
+@Entity
+@IdClass(BatchPartitionStatusSchluessel.class)
+public class BatchPartitionStatus {
+
+    /** Die ID des Batches. */
+    @Id
+    private String batchId;
+
+    /** Die ID der Partition. */
+    @Id
+    private String partitionId;
+
+    /** Der Status der Partition. Einer der Werte "neu", "laeuft", "abgebrochen", "beendet". */
+    private String batchStatus;
+
+    /** Die Satznummer der Partition, bei welcher der letzte Commit durchgeführt wurde. */
+    private long satzNummerLetztesCommit;
+
+    /** Der Datenbank-Schluessel der Partition, bei dem der letzte Commit durchgefuehrt wurde. */
+    private String schluesselLetztesCommit;
+
+    /**
+     * @return the batchId
+     */
+    public String getBatchId() {
+        return batchId;
+    }
+
+    /**
+     * @param batchId the batchId to set
+     */
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    /**
+     * @return the partitionId
+     */
+    public String getPartitionId() {
+        return partitionId;
+    }
+
+    /**
+     * @param partitionId the partitionId to set
+     */
+    public void setPartitionId(String partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    /**
+     * @return the batchStatus
+     */
+    public String getBatchStatus() {
+        return batchStatus;
+    }
+
+    /**
+     * @param batchStatus the batchStatus to set
+     */
+    public void setBatchStatus(String batchStatus) {
+        this.batchStatus = batchStatus;
+    }
+
+    /**
+     * @return the satzNummerLetztesCommit
+     */
+    public long getSatzNummerLetztesCommit() {
+        return satzNummerLetztesCommit;
+    }
+
+    /**
+     * @param satzNummerLetztesCommit the satzNummerLetztesCommit to set
+     */
+    public void setSatzNummerLetztesCommit(long satzNummerLetztesCommit) {
+        this.satzNummerLetztesCommit = satzNummerLetztesCommit;
+    }
+
+    /**
+     * @return the schluesselLetztesCommit
+     */
+    public String getSchluesselLetztesCommit() {
+        return schluesselLetztesCommit;
+    }
+
+    /**
+     * @param schluesselLetztesCommit the schluesselLetztesCommit to set
+     */
+    public void setSchluesselLetztesCommit(String schluesselLetztesCommit) {
+        this.schluesselLetztesCommit = schluesselLetztesCommit;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.persistence.rahmen;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Der zusammengesetzte Schlüssel eines {@link BatchPartitionStatus}.
+ */
+public class BatchPartitionStatusSchluessel implements Serializable {
+
+    /** Die Versions-ID. */
+    private static final long serialVersionUID = 1L;
+
+    /** Die ID des Batches. */
+    private String batchId;
+
+    /** Die ID der Partition. */
+    private String partitionId;
+
+    /**
+     * Konstruktor fuer Hibernate.
+     */
+    public BatchPartitionStatusSchluessel() {
+        super();
+    }
+
+    /**
+     * Konstruktor mit allen Werten.
+     *
+     * @param batchId
+     *            die ID des Batches.
+     * @param partitionId
+     *            die ID der Partition.
+     */
+    public BatchPartitionStatusSchluessel(String batchId, String partitionId) {
+        this.batchId = batchId;
+        this.partitionId = partitionId;
+    }
+
+    /**
+     * @return die ID des Batches.
+     */
+    public String getBatchId() {
+        return batchId;
+    }
+
+    /**
+     * @param batchId
+     *            die ID des Batches.
+     */
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    /**
+     * @return die ID der Partition.
+     */
+    public String getPartitionId() {
+        return partitionId;
+    }
+
+    /**
+     * @param partitionId
+     *            die ID der Partition.
+     */
+    public void setPartitionId(String partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(batchId, partitionId);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        BatchPartitionStatusSchluessel other = (BatchPartitionStatusSchluessel) obj;
+        return Objects.equals(batchId, other.batchId) && Objects.equals(partitionId, other.partitionId);
+    }
+}
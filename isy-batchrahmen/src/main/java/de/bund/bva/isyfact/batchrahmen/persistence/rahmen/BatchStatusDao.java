@@ -58,6 +58,43 @@ public class BatchStatusDao {
             batchId, LockModeType.PESSIMISTIC_WRITE);
     }
 
+    /**
+     * liest einen Datensatz anhand eines Schluessels aus, ohne ihn zu sperren.
+     *
+     * @param batchId
+     *            die ID des Batches.
+     * @return der gelesene Batch-Datensatz.
+     */
+    public BatchStatus leseBatchStatusOhneSperre(String batchId) {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(this.factory).find(BatchStatus.class,
+            batchId);
+    }
+
+    /**
+     * schreibt einen Checkpunkt mit einem gezielten Update, ohne den Datensatz vorher zu lesen. Der
+     * Datensatz wird nur aktualisiert, wenn er noch die Satznummer des vorigen Checkpunkts enthaelt.
+     *
+     * @param batchId
+     *            die ID des Batches.
+     * @param satzNummerVorher
+     *            die Satznummer des vorigen Checkpunkts.
+     * @param satzNummer
+     *            die Satznummer des Checkpunkts.
+     * @param schluessel
+     *            der Datenbank-Schluessel des Checkpunkts.
+     * @return <code>true</code>, falls der Datensatz aktualisiert wurde.
+     */
+    public boolean schreibeCheckpunkt(String batchId, long satzNummerVorher, long satzNummer,
+        String schluessel) {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(this.factory)
+            .createQuery("update BatchStatus s set s.satzNummerLetztesCommit = :satzNummer, "
+                + "s.schluesselLetztesCommit = :schluessel "
+                + "where s.batchId = :batchId and s.satzNummerLetztesCommit = :satzNummerVorher")
+            .setParameter("satzNummer", satzNummer).setParameter("schluessel", schluessel)
+            .setParameter("batchId", batchId).setParameter("satzNummerVorher", satzNummerVorher)
+            .executeUpdate() == 1;
+    }
+
     /**
      * persistiert den gegebenen Batch-Datensatz.
      *
@@ -72,4 +109,69 @@ public class BatchStatusDao {
         EntityManagerFactoryUtils.getTransactionalEntityManager(this.factory).persist(status);
     }
 
+    /**
+     * liest den Status-Datensatz einer Partition aus.
+     *
+     * @param batchId
+     *            die ID des Batches.
+     * @param partitionId
+     *            die ID der Partition.
+     * @return der gelesene Status-Datensatz der Partition oder <code>null</code>.
+     */
+    public BatchPartitionStatus leseBatchPartitionStatus(String batchId, String partitionId) {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(this.factory).find(
+            BatchPartitionStatus.class, new BatchPartitionStatusSchluessel(batchId, partitionId),
+            LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * persistiert den gegebenen Status-Datensatz einer Partition.
+     *
+     * @param status
+     *            der neue Datensatz.
+     */
+    public void createBatchPartitionStatus(BatchPartitionStatus status) {
+        EntityManagerFactoryUtils.getTransactionalEntityManager(this.factory).persist(status);
+    }
+
+    /**
+     * schreibt einen Checkpunkt einer Partition mit einem gezielten Update, ohne den Datensatz vorher zu
+     * lesen. Der Datensatz wird nur aktualisiert, wenn er noch die Satznummer des vorigen Checkpunkts
+     * enthaelt.
+     *
+     * @param batchId
+     *            die ID des Batches.
+     * @param partitionId
+     *            die ID der Partition.
+     * @param satzNummerVorher
+     *            die Satznummer des vorigen Checkpunkts.
+     * @param satzNummer
+     *            die Satznummer des Checkpunkts.
+     * @param schluessel
+     *            der Datenbank-Schluessel des Checkpunkts.
+     * @return <code>true</code>, falls der Datensatz aktualisiert wurde.
+     */
+    public boolean schreibePartitionCheckpunkt(String batchId, String partitionId, long satzNummerVorher,
+        long satzNummer, String schluessel) {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(this.factory)
+            .createQuery("update BatchPartitionStatus s set s.satzNummerLetztesCommit = :satzNummer, "
+                + "s.schluesselLetztesCommit = :schluessel where s.batchId = :batchId "
+                + "and s.partitionId = :partitionId and s.satzNummerLetztesCommit = :satzNummerVorher")
+            .setParameter("satzNummer", satzNummer).setParameter("schluessel", schluessel)
+            .setParameter("batchId", batchId).setParameter("partitionId", partitionId)
+            .setParameter("satzNummerVorher", satzNummerVorher).executeUpdate() == 1;
+    }
+
+    /**
+     * loescht die Status-Datensaetze aller Partitionen eines Batches.
+     *
+     * @param batchId
+     *            die ID des Batches.
+     */
+    public void loescheBatchPartitionStatus(String batchId) {
+        EntityManagerFactoryUtils.getTransactionalEntityManager(this.factory)
+            .createQuery("delete from BatchPartitionStatus s where s.batchId = :batchId")
+            .setParameter("batchId", batchId).executeUpdate();
+    }
+
 }
@@ -25,3 +25,11 @@ CREATE TABLE IF NOT EXISTS BATCHSTATUS (
 		DATUMLETZTERERFOLG TIMESTAMP,
 		CONSTRAINT BATCHSTATUS_PK PRIMARY KEY (BATCHID)
 	);
+CREATE TABLE IF NOT EXISTS BATCHPARTITIONSTATUS (
+		BATCHID VARCHAR2(255) NOT NULL,
+		PARTITIONID VARCHAR2(255) NOT NULL,
+		BATCHSTATUS VARCHAR2(255),
+		SATZNUMMERLETZTESCOMMIT BIGINT,
+		SCHLUESSELLETZTESCOMMIT VARCHAR2(255),
+		CONSTRAINT BATCHPARTITIONSTATUS_PK PRIMARY KEY (BATCHID, PARTITIONID)
+	);
@@ -18,12 +18,19 @@ package de.bund.bva.isyfact.batchrahmen;
 
 import java.io.File;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
 
+import de.bund.bva.isyfact.batchrahmen.batch.ChunkTestBatch;
+import de.bund.bva.isyfact.batchrahmen.batch.NoOpTestBatch;
+import de.bund.bva.isyfact.batchrahmen.batch.PartitionierterTestBatch;
 import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchReturnCode;
 import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchStartTyp;
 import de.bund.bva.isyfact.batchrahmen.core.launcher.BatchLauncher;
 import de.bund.bva.isyfact.batchrahmen.test.BatchProtokollTester;
 import de.bund.bva.isyfact.batchrahmen.test.TestBatchLauchner;
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -43,6 +50,9 @@ import static org.junit.Assert.*;
 @ContextConfiguration(classes = AnwendungTestConfig.class)
 public class BatchrahmenTest {
 
+    /** Logger. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(BatchrahmenTest.class);
+
     /** Datei für das Batch-Protokoll. Wird in {@link #init()} gesetzt. */
     private static String ERGEBNIS_DATEI;
 
@@ -56,6 +66,11 @@ public class BatchrahmenTest {
             + "SATZNUMMERLETZTESCOMMIT BIGINT," + "SCHLUESSELLETZTESCOMMIT VARCHAR2(255),"
             + "DATUMLETZTERSTART TIMESTAMP," + "DATUMLETZTERABBRUCH TIMESTAMP,"
             + "DATUMLETZTERERFOLG TIMESTAMP," + "CONSTRAINT BATCHSTATUS_PK PRIMARY KEY (BATCHID));");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS BATCHPARTITIONSTATUS;"
+            + "CREATE TABLE IF NOT EXISTS BATCHPARTITIONSTATUS (" + "BATCHID VARCHAR2(255) NOT NULL,"
+            + "PARTITIONID VARCHAR2(255) NOT NULL," + "BATCHSTATUS VARCHAR2(255),"
+            + "SATZNUMMERLETZTESCOMMIT BIGINT," + "SCHLUESSELLETZTESCOMMIT VARCHAR2(255),"
+            + "CONSTRAINT BATCHPARTITIONSTATUS_PK PRIMARY KEY (BATCHID, PARTITIONID));");
         //jdbcTemplate.execute("DELETE FROM batchstatus");
 
         try {
@@ -292,6 +307,227 @@ public class BatchrahmenTest {
         assertEquals(4, batchLauncher.starteBatch(BatchStartTyp.START, new String[] { "-laufzeit", "ABC" }));
     }
 
+    /**
+     * Testet, dass ein laufender Batch anhält, wenn sein Abbruch über den Status-Satz angefordert wird.
+     */
+    @Test
+    public void testAbbruchUeberStatusSatz() throws Exception {
+        Thread abbruch = new Thread(() -> {
+            try {
+                long ende = System.currentTimeMillis() + 30000;
+                while (System.currentTimeMillis() < ende && jdbcTemplate.update(
+                    "UPDATE batchstatus SET batchstatus = 'abgebrochen' "
+                        + "WHERE batchid = ? AND batchstatus = ?",
+                    "infiniteTestBatch-1", "laeuft") == 0) {
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        abbruch.start();
+
+        BatchLauncher.run(new String[] { "-start", "-cfg",
+            "/resources/batch/infinite-test-batch-1-config.properties", "-Batchrahmen.AbbruchPruefIntervall",
+            "1", "-Batchrahmen.Ergebnisdatei", ERGEBNIS_DATEI });
+        abbruch.join();
+
+        assertEquals("abgebrochen", getBatchStatus("infiniteTestBatch-1"));
+        BatchProtokollTester bpt = new BatchProtokollTester(ERGEBNIS_DATEI);
+        assertTrue(bpt.enthaeltMeldungsId("BENUTZERABBRUCH"));
+    }
+
+    /**
+     * Testet die parallele Verarbeitung eines partitionierten Batches.
+     */
+    @Test
+    public void testPartitionierterBatch() throws Exception {
+        int anzahlSaetze =
+            PartitionierterTestBatch.ANZAHL_PARTITIONEN * PartitionierterTestBatch.SAETZE_JE_PARTITION;
+        assertEquals(0, BatchLauncher.run(new String[] { "-start", "-cfg",
+            "/resources/batch/partitionierter-test-batch-1-config.properties" }));
+        assertEquals("beendet", getBatchStatus("partitionierterTestBatch-1"));
+        assertEquals(anzahlSaetze, PartitionierterTestBatch.VERARBEITETE_SAETZE.get());
+        for (int i = 1; i <= PartitionierterTestBatch.ANZAHL_PARTITIONEN; i++) {
+            assertEquals("beendet", getPartitionStatus("partitionierterTestBatch-1", "p" + i));
+            assertEquals(PartitionierterTestBatch.SAETZE_JE_PARTITION,
+                getPartitionSatzNummer("partitionierterTestBatch-1", "p" + i));
+        }
+        assertEquals(anzahlSaetze, getSatzNummer("partitionierterTestBatch-1"));
+    }
+
+    /**
+     * Testet, dass nach einem Abbruch eines partitionierten Batches jede Partition an ihrem letzten
+     * Checkpunkt fortgesetzt wird und beendete Partitionen nicht erneut verarbeitet werden.
+     */
+    @Test
+    public void testPartitionierterBatchRestart() throws Exception {
+        assertEquals(2, BatchLauncher.run(new String[] { "-start", "-cfg",
+            "/resources/batch/partitionierter-test-batch-1-config.properties", "-laufError", "true" }));
+        assertEquals("abgebrochen", getBatchStatus("partitionierterTestBatch-1"));
+        // Checkpunkt nach 3 Sätzen, Abbruch bei Satz 5
+        assertEquals(3, getPartitionSatzNummer("partitionierterTestBatch-1",
+            PartitionierterTestBatch.FEHLER_PARTITION));
+
+        assertEquals(0, BatchLauncher.run(new String[] { "-restart", "-cfg",
+            "/resources/batch/partitionierter-test-batch-1-config.properties", "-laufError", "false" }));
+        assertEquals("beendet", getBatchStatus("partitionierterTestBatch-1"));
+        assertEquals(Long.valueOf(3),
+            PartitionierterTestBatch.START_SATZNUMMERN.get(PartitionierterTestBatch.FEHLER_PARTITION));
+        int ausstehendeSaetze = 0;
+        for (int i = 1; i <= PartitionierterTestBatch.ANZAHL_PARTITIONEN; i++) {
+            assertEquals("beendet", getPartitionStatus("partitionierterTestBatch-1", "p" + i));
+            Long startSatzNummer = PartitionierterTestBatch.START_SATZNUMMERN.get("p" + i);
+            if (startSatzNummer != null) {
+                ausstehendeSaetze += PartitionierterTestBatch.SAETZE_JE_PARTITION - startSatzNummer;
+            }
+        }
+        // Im Restart wurden nur die ausstehenden Sätze der nicht beendeten Partitionen verarbeitet.
+        assertEquals(ausstehendeSaetze, PartitionierterTestBatch.VERARBEITETE_SAETZE.get());
+    }
+
+    /**
+     * Vergleicht die Strategien für die Korrelations-ID je Satz und das Abtast-Intervall der JMX-Bean. Die
+     * Anzahl verarbeiteter Sätze zählt die JMX-Bean unabhängig vom Abtast-Intervall bei jedem Satz.
+     */
+    @Test
+    public void testSatzKorrelationsIdUndJmxAbtastung() throws Exception {
+        starteNoOpBatch("UUID", "1");
+        String praefix = NoOpTestBatch.batchKorrelationsId + ";";
+        assertTrue(NoOpTestBatch.ersteSatzKorrelationsId.startsWith(praefix));
+        assertTrue(NoOpTestBatch.letzteSatzKorrelationsId.startsWith(praefix));
+        assertNotEquals(NoOpTestBatch.ersteSatzKorrelationsId, NoOpTestBatch.letzteSatzKorrelationsId);
+        // Bei jedem Satz aktualisiert
+        assertEquals(String.valueOf(NoOpTestBatch.ANZAHL_SAETZE), NoOpTestBatch.jmxSchluesselLetzterSatz);
+
+        starteNoOpBatch("SEQUENZ", "1000");
+        praefix = NoOpTestBatch.batchKorrelationsId + ";noOpTestBatch-1-";
+        assertEquals(praefix + 1, NoOpTestBatch.ersteSatzKorrelationsId);
+        assertEquals(praefix + NoOpTestBatch.ANZAHL_SAETZE, NoOpTestBatch.letzteSatzKorrelationsId);
+        // Nur jeder tausendste Satz aktualisiert den Schlüssel
+        assertEquals("2000", NoOpTestBatch.jmxSchluesselLetzterSatz);
+
+        starteNoOpBatch("KEINE", "1000");
+        assertEquals(NoOpTestBatch.batchKorrelationsId, NoOpTestBatch.ersteSatzKorrelationsId);
+        assertEquals(NoOpTestBatch.batchKorrelationsId, NoOpTestBatch.letzteSatzKorrelationsId);
+    }
+
+    private void starteNoOpBatch(String satzKorrelationsId, String jmxAbtastIntervall) {
+        assertEquals(0, BatchLauncher.run(new String[] { "-start", "-cfg",
+            "/resources/batch/noop-test-batch-1-config.properties", "-Batchrahmen.SatzKorrelationsId",
+            satzKorrelationsId, "-Batchrahmen.JmxAbtastIntervall", jmxAbtastIntervall }));
+        assertEquals("beendet", getBatchStatus("noOpTestBatch-1"));
+        assertEquals(NoOpTestBatch.ANZAHL_SAETZE, getSatzNummer("noOpTestBatch-1"));
+        assertEquals(NoOpTestBatch.ANZAHL_SAETZE, NoOpTestBatch.jmxSaetzeVerarbeitet);
+    }
+
+    /**
+     * Testet den Durchsatz eines chunk-orientierten Batches, der seitenweise liest und per Batch-Insert
+     * schreibt.
+     */
+    @Test
+    public void testChunkBatchDurchsatz() throws Exception {
+        int anzahlSaetze = 10000;
+        erzeugeChunkTabellen(anzahlSaetze);
+
+        long start = System.nanoTime();
+        assertEquals(0, BatchLauncher.run(new String[] { "-start", "-cfg",
+            "/resources/batch/chunk-test-batch-1-config.properties", "-Batchrahmen.Ergebnisdatei",
+            ERGEBNIS_DATEI }));
+        long dauerMs = Math.max(1, (System.nanoTime() - start) / 1000000);
+        LOG.debug("Chunk-Batch: {} Sätze in {} ms ({} Sätze/s)", anzahlSaetze, dauerMs,
+            anzahlSaetze * 1000L / dauerMs);
+
+        assertEquals("beendet", getBatchStatus("chunkTestBatch-1"));
+        assertEquals(anzahlSaetze, getSatzNummer("chunkTestBatch-1"));
+        // Jeder zehnte Satz wird gefiltert
+        assertEquals(Integer.valueOf(anzahlSaetze - anzahlSaetze / 10),
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CHUNKZIEL", Integer.class));
+        assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM CHUNKZIEL z JOIN CHUNKQUELLE q ON z.ID = q.ID WHERE z.WERT <> 2 * q.WERT",
+            Integer.class));
+        BatchProtokollTester bpt = new BatchProtokollTester(ERGEBNIS_DATEI);
+        assertEquals(anzahlSaetze, bpt.getStatistikwert("CHUNK_GELESEN"));
+    }
+
+    /**
+     * Testet, dass ein chunk-orientierter Batch nach einem Abbruch am Schlüssel des letzten Checkpunkts
+     * fortgesetzt wird.
+     */
+    @Test
+    public void testChunkBatchRestart() throws Exception {
+        int anzahlSaetze = 5000;
+        erzeugeChunkTabellen(anzahlSaetze);
+
+        assertEquals(2, BatchLauncher.run(new String[] { "-start", "-cfg",
+            "/resources/batch/chunk-test-batch-1-config.properties", "-laufError", "true" }));
+        assertEquals("abgebrochen", getBatchStatus("chunkTestBatch-1"));
+        // Der letzte Checkpunkt liegt vor dem Chunk mit dem fehlerhaften Satz
+        assertEquals(ChunkTestBatch.FEHLER_ID - 1, getSatzNummer("chunkTestBatch-1"));
+        assertEquals(String.valueOf(ChunkTestBatch.FEHLER_ID - 1), jdbcTemplate.queryForObject(
+            "SELECT schluesselletztescommit FROM batchstatus WHERE batchid = ?", String.class,
+            "chunkTestBatch-1"));
+
+        // Der Restart darf bereits geschriebene Sätze nicht erneut schreiben (Primärschlüssel)
+        assertEquals(0, BatchLauncher.run(new String[] { "-restart", "-cfg",
+            "/resources/batch/chunk-test-batch-1-config.properties", "-laufError", "false" }));
+        assertEquals("beendet", getBatchStatus("chunkTestBatch-1"));
+        assertEquals(Integer.valueOf(anzahlSaetze - anzahlSaetze / 10),
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CHUNKZIEL", Integer.class));
+    }
+
+    /**
+     * Erzeugt die Quell- und Zieltabelle des chunk-orientierten Test-Batches und befüllt die Quelltabelle.
+     *
+     * @param anzahlSaetze Anzahl der Sätze in der Quelltabelle
+     */
+    private void erzeugeChunkTabellen(int anzahlSaetze) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS CHUNKQUELLE;" + "DROP TABLE IF EXISTS CHUNKZIEL;"
+            + "CREATE TABLE CHUNKQUELLE (ID BIGINT PRIMARY KEY, WERT BIGINT);"
+            + "CREATE TABLE CHUNKZIEL (ID BIGINT PRIMARY KEY, WERT BIGINT);");
+        List<Object[]> saetze = new ArrayList<>(anzahlSaetze);
+        for (long id = 1; id <= anzahlSaetze; id++) {
+            saetze.add(new Object[] { id, id * 3 });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO CHUNKQUELLE (ID, WERT) VALUES (?, ?)", saetze);
+    }
+
+    /**
+     * Liest den Status einer Partition.
+     *
+     * @param batchId Id des Batches
+     * @param partitionId Id der Partition
+     * @return Den Status der Partition
+     */
+    private String getPartitionStatus(String batchId, String partitionId) {
+        String sql = "SELECT batchstatus FROM batchpartitionstatus WHERE batchid = ? AND partitionid = ?";
+        return jdbcTemplate.queryForObject(sql, String.class, batchId, partitionId);
+    }
+
+    /**
+     * Liest die Satznummer des letzten Commits einer Partition.
+     *
+     * @param batchId Id des Batches
+     * @param partitionId Id der Partition
+     * @return Die Satznummer des letzten Commits der Partition
+     */
+    private long getPartitionSatzNummer(String batchId, String partitionId) {
+        String sql =
+            "SELECT satznummerletztescommit FROM batchpartitionstatus WHERE batchid = ? AND partitionid = ?";
+        return jdbcTemplate.queryForObject(sql, Long.class, batchId, partitionId);
+    }
+
+    /**
+     * Liest die Satznummer des letzten Commits eines Batches.
+     *
+     * @param batchId Id des Batches
+     * @return Die Satznummer des letzten Commits
+     */
+    private long getSatzNummer(String batchId) {
+        String sql = "SELECT satznummerletztescommit FROM batchstatus WHERE batchid = ?";
+        return jdbcTemplate.queryForObject(sql, Long.class, batchId);
+    }
+
     /**
      * Liest den BatchStatus mit der angegebenen Id in einer eigenen Transaktion.
      *
@@ -1,10 +1,13 @@
 package de.bund.bva.isyfact.batchrahmen;
 
 import de.bund.bva.isyfact.batchrahmen.batch.BasicTestBatch;
+import de.bund.bva.isyfact.batchrahmen.batch.ChunkTestBatch;
 import de.bund.bva.isyfact.batchrahmen.batch.ErrorTestBatch;
 import de.bund.bva.isyfact.batchrahmen.batch.GesicherterTestBatch;
 import de.bund.bva.isyfact.batchrahmen.batch.GesicherterTestBatch2;
 import de.bund.bva.isyfact.batchrahmen.batch.InfiniteTestBatch;
+import de.bund.bva.isyfact.batchrahmen.batch.NoOpTestBatch;
+import de.bund.bva.isyfact.batchrahmen.batch.PartitionierterTestBatch;
 import de.bund.bva.isyfact.batchrahmen.batch.ReturnCodeTestBatch;
 import de.bund.bva.isyfact.batchrahmen.core.rahmen.Batchrahmen;
 import de.bund.bva.isyfact.batchrahmen.core.rahmen.impl.BatchrahmenImpl;
@@ -13,6 +16,7 @@ import de.bund.bva.isyfact.aufrufkontext.AufrufKontextFactory;
 import de.bund.bva.isyfact.aufrufkontext.AufrufKontextVerwalter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 
 @Configuration
@@ -63,4 +67,21 @@ public class BatchrahmenTestConfig {
     public ReturnCodeTestBatch returnCodeTestBatch() {
         return new ReturnCodeTestBatch();
     }
+
+    @Bean
+    public PartitionierterTestBatch partitionierterTestBatch() {
+        return new PartitionierterTestBatch();
+    }
+
+    @Bean
+    public NoOpTestBatch noOpTestBatch() {
+        NoOpTestBatch noOpTestBatch = new NoOpTestBatch();
+        noOpTestBatch.setJmxBean(batchRahmenMBean());
+        return noOpTestBatch;
+    }
+
+    @Bean
+    public ChunkTestBatch chunkTestBatch(JdbcTemplate jdbcTemplate) {
+        return new ChunkTestBatch(jdbcTemplate);
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
+import de.bund.bva.isyfact.batchrahmen.batch.konfiguration.BatchKonfiguration;
+import de.bund.bva.isyfact.batchrahmen.batch.protokoll.BatchErgebnisProtokoll;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.AuthenticationCredentials;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchStartTyp;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.ChunkBatchAusfuehrungsBean;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.ChunkLeser;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.ChunkSchreiber;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.ChunkVerarbeiter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Chunk-orientierter Test-Batch. Liest die Tabelle CHUNKQUELLE seitenweise über die ID, verdoppelt die Werte
+ * und schreibt sie per Batch-Insert in die Tabelle CHUNKZIEL. Sätze mit einer durch 10 teilbaren ID werden
+ * gefiltert. Mit dem Flag 'laufError' bricht der Batch beim Schreiben des Satzes mit der ID
+ * {@link #FEHLER_ID} ab.
+ */
+public class ChunkTestBatch implements ChunkBatchAusfuehrungsBean<Map<String, Object>, Object[]>,
+    ChunkLeser<Map<String, Object>>, ChunkVerarbeiter<Map<String, Object>, Object[]>,
+    ChunkSchreiber<Object[]> {
+
+    /** Die ID, bei der der Batch mit dem Flag 'laufError' abbricht. */
+    public static final long FEHLER_ID = 2501;
+
+    /** Zugriff auf die Datenbank. */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Die ID des zuletzt gelesenen Satzes. */
+    private long letzteId;
+
+    /** Kennzeichen, ob beim Schreiben ein Abbruch simuliert wird. */
+    private boolean laufError;
+
+    public ChunkTestBatch(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int initialisieren(BatchKonfiguration konfiguration, long satzNummer, String dbKey,
+        BatchStartTyp startTyp, Date datumLetzterErfolg, BatchErgebnisProtokoll protokoll)
+        throws BatchAusfuehrungsException {
+        this.laufError = konfiguration.getAsBoolean("laufError", false);
+        this.letzteId = dbKey == null ? 0 : Long.parseLong(dbKey);
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CHUNKQUELLE", Integer.class);
+    }
+
+    @Override
+    public ChunkLeser<Map<String, Object>> getLeser() {
+        return this;
+    }
+
+    @Override
+    public ChunkVerarbeiter<Map<String, Object>, Object[]> getVerarbeiter() {
+        return this;
+    }
+
+    @Override
+    public ChunkSchreiber<Object[]> getSchreiber() {
+        return this;
+    }
+
+    @Override
+    public List<Map<String, Object>> leseSaetze(int anzahl) {
+        List<Map<String, Object>> saetze = this.jdbcTemplate.queryForList(
+            "SELECT ID, WERT FROM CHUNKQUELLE WHERE ID > ? ORDER BY ID LIMIT ?", this.letzteId, anzahl);
+        if (!saetze.isEmpty()) {
+            this.letzteId = ((Number) saetze.get(saetze.size() - 1).get("ID")).longValue();
+        }
+        return saetze;
+    }
+
+    @Override
+    public String getDatenbankSchluessel(Map<String, Object> satz) {
+        return String.valueOf(satz.get("ID"));
+    }
+
+    @Override
+    public Object[] verarbeiteSatz(Map<String, Object> satz) {
+        long id = ((Number) satz.get("ID")).longValue();
+        if (id % 10 == 0) {
+            return null;
+        }
+        return new Object[] { id, ((Number) satz.get("WERT")).longValue() * 2 };
+    }
+
+    @Override
+    public void schreibeSaetze(List<Object[]> saetze) {
+        if (this.laufError) {
+            for (Object[] satz : saetze) {
+                if (((Long) satz[0]) == FEHLER_ID) {
+                    throw new RuntimeException("Abbruch beim Schreiben");
+                }
+            }
+        }
+        this.jdbcTemplate.batchUpdate("INSERT INTO CHUNKZIEL (ID, WERT) VALUES (?, ?)", saetze);
+    }
+
+    @Override
+    public void batchBeendet() {
+    }
+
+    @Override
+    public void checkpointGeschrieben(long satzNummer) throws BatchAusfuehrungsException {
+    }
+
+    @Override
+    public void vorCheckpointGeschrieben(long satzNummer) throws BatchAusfuehrungsException {
+    }
+
+    @Override
+    public void rollbackDurchgefuehrt() {
+    }
+
+    @Override
+    public void vorRollbackDurchgefuehrt() {
+    }
+
+    /**
+     * Dieser Batch verwendet keine Sicherung. {@inheritDoc}
+     */
+    @Override
+    public AuthenticationCredentials getAuthenticationCredentials(BatchKonfiguration konfiguration) {
+        return null;
+    }
+}
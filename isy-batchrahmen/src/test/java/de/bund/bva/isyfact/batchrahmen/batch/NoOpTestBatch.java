@@ -0,0 +1,122 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch;
+
+import java.util.Date;
+
+import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
+import de.bund.bva.isyfact.batchrahmen.batch.konfiguration.BatchKonfiguration;
+import de.bund.bva.isyfact.batchrahmen.batch.protokoll.BatchErgebnisProtokoll;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.AuthenticationCredentials;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchAusfuehrungsBean;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchStartTyp;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.VerarbeitungsErgebnis;
+import de.bund.bva.isyfact.batchrahmen.core.rahmen.jmx.BatchRahmenMBean;
+import de.bund.bva.isyfact.logging.util.MdcHelper;
+
+/**
+ * Test-Batch ohne fachliche Verarbeitung. Merkt sich die Korrelations-IDs, unter denen der erste und der
+ * letzte Satz verarbeitet wurden, sowie den Stand der JMX-Bean am Ende des Laufs. Der Datenbankschlüssel
+ * eines Satzes ist seine Satznummer.
+ */
+public class NoOpTestBatch implements BatchAusfuehrungsBean {
+
+    /** Die Anzahl der zu verarbeitenden Sätze. */
+    public static final int ANZAHL_SAETZE = 2500;
+
+    /** Die Korrelations-ID des Batches im letzten Lauf. */
+    public static volatile String batchKorrelationsId;
+
+    /** Die Korrelations-ID bei der Verarbeitung des ersten Satzes im letzten Lauf. */
+    public static volatile String ersteSatzKorrelationsId;
+
+    /** Die Korrelations-ID bei der Verarbeitung des letzten Satzes im letzten Lauf. */
+    public static volatile String letzteSatzKorrelationsId;
+
+    /** Die Anzahl verarbeiteter Sätze laut JMX-Bean am Ende des letzten Laufs. */
+    public static volatile long jmxSaetzeVerarbeitet;
+
+    /** Der Schlüssel des letzten Satzes laut JMX-Bean am Ende des letzten Laufs. */
+    public static volatile String jmxSchluesselLetzterSatz;
+
+    /** Die JMX-Bean des Batchrahmens. */
+    private BatchRahmenMBean jmxBean;
+
+    /** Nummer des zuletzt verarbeiteten Satzes. */
+    private int satzNummer;
+
+    /** {@inheritDoc} */
+    public int initialisieren(BatchKonfiguration konfiguration, long satzNummer, String dbKey,
+        BatchStartTyp startTyp, Date datumLetzterErfolg, BatchErgebnisProtokoll protokoll)
+        throws BatchAusfuehrungsException {
+        this.satzNummer = 0;
+        batchKorrelationsId = MdcHelper.liesKorrelationsId();
+        return ANZAHL_SAETZE;
+    }
+
+    /** {@inheritDoc} */
+    public VerarbeitungsErgebnis verarbeiteSatz() throws BatchAusfuehrungsException {
+        this.satzNummer++;
+        if (this.satzNummer == 1) {
+            ersteSatzKorrelationsId = MdcHelper.liesKorrelationsId();
+        }
+        boolean letzterSatz = this.satzNummer == ANZAHL_SAETZE;
+        if (letzterSatz) {
+            letzteSatzKorrelationsId = MdcHelper.liesKorrelationsId();
+        }
+        return new VerarbeitungsErgebnis(String.valueOf(this.satzNummer), letzterSatz);
+    }
+
+    /** {@inheritDoc} */
+    public void batchBeendet() {
+        jmxSaetzeVerarbeitet = this.jmxBean.getSaetzeVerarbeitet();
+        jmxSchluesselLetzterSatz = this.jmxBean.getSchluesselLetzterSatz();
+    }
+
+    /** {@inheritDoc} */
+    public void checkpointGeschrieben(long satzNummer) throws BatchAusfuehrungsException {
+        // leer
+    }
+
+    /** {@inheritDoc} */
+    public void rollbackDurchgefuehrt() {
+        // leer
+    }
+
+    /**
+     * Dieser Batch verwendet keine Sicherung. {@inheritDoc}
+     */
+    public AuthenticationCredentials getAuthenticationCredentials(BatchKonfiguration konfiguration) {
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void vorCheckpointGeschrieben(long satzNummer) throws BatchAusfuehrungsException {
+        // leer
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void vorRollbackDurchgefuehrt() {
+        // leer
+    }
+
+    public void setJmxBean(BatchRahmenMBean jmxBean) {
+        this.jmxBean = jmxBean;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.batch;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.bund.bva.isyfact.batchrahmen.batch.exception.BatchAusfuehrungsException;
+import de.bund.bva.isyfact.batchrahmen.batch.konfiguration.BatchKonfiguration;
+import de.bund.bva.isyfact.batchrahmen.batch.protokoll.BatchErgebnisProtokoll;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.AuthenticationCredentials;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchPartition;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchPartitionsVerarbeitung;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchStartTyp;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.PartitionierteBatchAusfuehrungsBean;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.VerarbeitungsErgebnis;
+
+/**
+ * Partitionierter Test-Batch. Jede Partition zählt bis {@link #SAETZE_JE_PARTITION}. Mit dem Flag
+ * 'laufError' bricht die Partition {@link #FEHLER_PARTITION} nach einigen Sätzen ab.
+ */
+public class PartitionierterTestBatch implements PartitionierteBatchAusfuehrungsBean {
+
+    /** Die Anzahl der Partitionen. */
+    public static final int ANZAHL_PARTITIONEN = 4;
+
+    /** Die Anzahl der Sätze je Partition. */
+    public static final int SAETZE_JE_PARTITION = 10;
+
+    /** Die Partition, die mit dem Flag 'laufError' abbricht. */
+    public static final String FEHLER_PARTITION = "p2";
+
+    /** Der Satz, bei dem die Partition {@link #FEHLER_PARTITION} abbricht. */
+    public static final int FEHLER_SATZ = 5;
+
+    /** Die Satznummer, mit der die Partitionen im letzten Lauf initialisiert wurden. */
+    public static final Map<String, Long> START_SATZNUMMERN = new ConcurrentHashMap<>();
+
+    /** Die Anzahl der im letzten Lauf verarbeiteten Sätze. */
+    public static final AtomicInteger VERARBEITETE_SAETZE = new AtomicInteger();
+
+    private BatchKonfiguration konfiguration;
+
+    @Override
+    public int initialisieren(BatchKonfiguration konfiguration, long satzNummer, String dbKey,
+        BatchStartTyp startTyp, Date datumLetzterErfolg, BatchErgebnisProtokoll protokoll)
+        throws BatchAusfuehrungsException {
+        this.konfiguration = konfiguration;
+        START_SATZNUMMERN.clear();
+        VERARBEITETE_SAETZE.set(0);
+        return ANZAHL_PARTITIONEN * SAETZE_JE_PARTITION;
+    }
+
+    @Override
+    public List<BatchPartition> getPartitionen(BatchKonfiguration konfiguration) {
+        List<BatchPartition> partitionen = new ArrayList<>();
+        for (int i = 1; i <= ANZAHL_PARTITIONEN; i++) {
+            partitionen.add(new BatchPartition("p" + i));
+        }
+        return partitionen;
+    }
+
+    @Override
+    public BatchPartitionsVerarbeitung erzeugeVerarbeitung(final BatchPartition partition) {
+        final boolean laufError =
+            this.konfiguration.getAsBoolean("laufError", false) && FEHLER_PARTITION.equals(partition.getId());
+        return new BatchPartitionsVerarbeitung() {
+
+            private long count;
+
+            @Override
+            public void initialisieren(long satzNummer, String dbKey, BatchStartTyp startTyp) {
+                START_SATZNUMMERN.put(partition.getId(), satzNummer);
+                this.count = satzNummer;
+            }
+
+            @Override
+            public VerarbeitungsErgebnis verarbeiteSatz() {
+                this.count++;
+                if (laufError && this.count == FEHLER_SATZ) {
+                    throw new RuntimeException("Abbruch in Partition " + partition.getId());
+                }
+                VERARBEITETE_SAETZE.incrementAndGet();
+                return new VerarbeitungsErgebnis(partition.getId() + "-" + this.count,
+                    this.count == SAETZE_JE_PARTITION);
+            }
+
+            @Override
+            public void checkpointGeschrieben(long satzNummer) {
+            }
+        };
+    }
+
+    @Override
+    public void batchBeendet() {
+    }
+
+    @Override
+    public void checkpointGeschrieben(long satzNummer) throws BatchAusfuehrungsException {
+    }
+
+    @Override
+    public void vorCheckpointGeschrieben(long satzNummer) throws BatchAusfuehrungsException {
+    }
+
+    @Override
+    public void rollbackDurchgefuehrt() {
+    }
+
+    @Override
+    public void vorRollbackDurchgefuehrt() {
+    }
+
+    /**
+     * Dieser Batch verwendet keine Sicherung. {@inheritDoc}
+     */
+    @Override
+    public AuthenticationCredentials getAuthenticationCredentials(BatchKonfiguration konfiguration) {
+        return null;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.batchrahmen.core.protokoll;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import de.bund.bva.isyfact.batchrahmen.batch.konfiguration.BatchKonfiguration;
+import de.bund.bva.isyfact.batchrahmen.batch.protokoll.MeldungTyp;
+import de.bund.bva.isyfact.batchrahmen.batch.protokoll.VerarbeitungsMeldung;
+import de.bund.bva.isyfact.batchrahmen.batch.rahmen.BatchReturnCode;
+import de.bund.bva.isyfact.batchrahmen.test.BatchProtokollTester;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultBatchErgebnisProtokollTest {
+
+    private static final String KONFIGURATION = "/resources/batch/basic-test-batch-1-config.properties";
+
+    private String ergebnisDatei;
+
+    @Before
+    public void setUp() {
+        File verzeichnis = new File("target/protokoll-test");
+        verzeichnis.mkdirs();
+        for (File datei : verzeichnis.listFiles()) {
+            datei.delete();
+        }
+        ergebnisDatei = new File(verzeichnis, "ergebnis.xml").getAbsolutePath();
+    }
+
+    @Test
+    public void testGepuffertesProtokoll() throws Exception {
+        schreibeProtokoll(3, "-Batchrahmen.Ergebnisdatei.FlushAnzahl", "100");
+
+        BatchProtokollTester tester = new BatchProtokollTester(ergebnisDatei);
+        assertEquals(3, tester.getAnzahlFehler("FEHLER"));
+        assertEquals(1, tester.getNodeListFromXpath("/Batch-Ergebnis/Return-Code").getLength());
+    }
+
+    @Test
+    public void testVerzoegertesSchreiben() throws Exception {
+        DefaultBatchErgebnisProtokoll protokoll =
+            starteProtokoll("-Batchrahmen.Ergebnisdatei.FlushAnzahl", "3");
+
+        ergaenzeMeldungen(protokoll, 0, 2);
+        assertFalse(liesErgebnisDatei().contains("Meldung 0"));
+
+        // Die dritte Meldung erreicht die Flush-Anzahl.
+        ergaenzeMeldungen(protokoll, 2, 3);
+        assertTrue(liesErgebnisDatei().contains("Meldung 2"));
+
+        ergaenzeMeldungen(protokoll, 3, 4);
+        assertFalse(liesErgebnisDatei().contains("Meldung 3"));
+
+        // Am Checkpunkt wird unabhängig von der Anzahl geflusht.
+        protokoll.flusheProtokoll();
+        assertTrue(liesErgebnisDatei().contains("Meldung 3"));
+
+        beendeProtokoll(protokoll);
+        assertEquals(4, new BatchProtokollTester(ergebnisDatei).getAnzahlFehler("FEHLER"));
+    }
+
+    @Test
+    public void testZeitgesteuerterFlush() throws Exception {
+        DefaultBatchErgebnisProtokoll protokoll = starteProtokoll("-Batchrahmen.Ergebnisdatei.FlushAnzahl",
+            "0", "-Batchrahmen.Ergebnisdatei.FlushIntervall", "1");
+
+        ergaenzeMeldungen(protokoll, 0, 1);
+        assertFalse(liesErgebnisDatei().contains("Meldung 0"));
+
+        // Ohne weitere Meldungen und Checkpunkte wird die Meldung nach Ablauf des Intervalls geschrieben.
+        long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!liesErgebnisDatei().contains("Meldung 0")) {
+            assertTrue("Meldung nicht innerhalb von 10 s geschrieben.", System.nanoTime() < ende);
+            Thread.sleep(50);
+        }
+
+        beendeProtokoll(protokoll);
+        assertEquals(1, new BatchProtokollTester(ergebnisDatei).getAnzahlFehler("FEHLER"));
+    }
+
+    @Test
+    public void testRotation() throws Exception {
+        schreibeProtokoll(3, "-Batchrahmen.Ergebnisdatei.MaximaleGroesse", "1");
+
+        for (int i = 1; i <= 3; i++) {
+            BatchProtokollTester rotiert = new BatchProtokollTester(ergebnisDatei + "." + i);
+            assertEquals(1, rotiert.getAnzahlFehler("FEHLER"));
+            assertEquals(1, rotiert.getNodeListFromXpath("/Batch-Ergebnis/Start").getLength());
+            // Jede rotierte Datei hat dieselbe Struktur wie die abschließende Datei.
+            assertEquals(1, rotiert.getNodeListFromXpath("/Batch-Ergebnis/Statistik").getLength());
+            assertEquals(1, rotiert.getNodeListFromXpath("/Batch-Ergebnis/Ende").getLength());
+            assertEquals(String.valueOf(BatchReturnCode.FEHLER_AUSGEFUEHRT.getWert()), rotiert
+                .getNodeListFromXpath("/Batch-Ergebnis/Return-Code/@RC").item(0).getNodeValue());
+        }
+        assertFalse(new File(ergebnisDatei + ".4").exists());
+
+        BatchProtokollTester aktuell = new BatchProtokollTester(ergebnisDatei);
+        assertEquals(0, aktuell.getAnzahlFehler("FEHLER"));
+        assertEquals(1, aktuell.getNodeListFromXpath("/Batch-Ergebnis/Return-Code").getLength());
+    }
+
+    @Test
+    public void testKomprimiertesProtokoll() throws Exception {
+        schreibeProtokoll(3, "-Batchrahmen.Ergebnisdatei.Komprimiert", "true");
+
+        try (InputStream in = new GZIPInputStream(new FileInputStream(ergebnisDatei))) {
+            Document dokument = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+            assertEquals(3, dokument.getElementsByTagName("Meldung").getLength());
+            assertEquals(1, dokument.getElementsByTagName("Return-Code").getLength());
+        }
+    }
+
+    private void schreibeProtokoll(int anzahlMeldungen, String... parameter) throws Exception {
+        DefaultBatchErgebnisProtokoll protokoll = starteProtokoll(parameter);
+        ergaenzeMeldungen(protokoll, 0, anzahlMeldungen);
+        beendeProtokoll(protokoll);
+    }
+
+    private DefaultBatchErgebnisProtokoll starteProtokoll(String... parameter) throws Exception {
+        String[] args = new String[parameter.length + 5];
+        args[0] = "-start";
+        args[1] = "-cfg";
+        args[2] = KONFIGURATION;
+        args[3] = "-Batchrahmen.Ergebnisdatei";
+        args[4] = ergebnisDatei;
+        System.arraycopy(parameter, 0, args, 5, parameter.length);
+        BatchKonfiguration konfiguration = new BatchKonfiguration(args);
+
+        DefaultBatchErgebnisProtokoll protokoll =
+            new DefaultBatchErgebnisProtokoll(ergebnisDatei, konfiguration);
+        protokoll.batchStart(konfiguration, args);
+        return protokoll;
+    }
+
+    private static void ergaenzeMeldungen(DefaultBatchErgebnisProtokoll protokoll, int von, int bis) {
+        for (int i = von; i < bis; i++) {
+            protokoll.ergaenzeMeldung(new VerarbeitungsMeldung("FEHLER", MeldungTyp.FEHLER, "Meldung " + i));
+        }
+    }
+
+    private static void beendeProtokoll(DefaultBatchErgebnisProtokoll protokoll) {
+        protokoll.setReturnCode(BatchReturnCode.FEHLER_AUSGEFUEHRT);
+        protokoll.batchEnde();
+    }
+
+    private String liesErgebnisDatei() throws Exception {
+        return new String(Files.readAllBytes(Paths.get(ergebnisDatei)), StandardCharsets.UTF_8);
+    }
+}
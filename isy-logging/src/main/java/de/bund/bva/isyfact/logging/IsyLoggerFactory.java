@@ -23,8 +23,8 @@ package de.bund.bva.isyfact.logging;
  * #L%
  */
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,7 +52,18 @@ public final class IsyLoggerFactory {
      * Map mit allen erstellten loggern als simpler Cache. Verhindert, dass Logger zu einer Klasse mehrfach
      * erzeugt werden.
      */
-    private static final Map<String, IsyLogger> LOGGER_CACHE = new HashMap<>();
+    private static final ConcurrentMap<String, IsyLogger> LOGGER_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Cache der Logger je Klasse. Der Zugriff auf bereits bekannte Klassen erfolgt ohne Sperren und ohne
+     * Objekterzeugung, neue Logger werden über {@link #LOGGER_CACHE} erzeugt.
+     */
+    private static final ClassValue<IsyLogger> LOGGER_JE_KLASSE = new ClassValue<IsyLogger>() {
+        @Override
+        protected IsyLogger computeValue(Class<?> klasse) {
+            return LOGGER_CACHE.computeIfAbsent(klasse.getName(), IsyLoggerFactory::erzeugeLogger);
+        }
+    };
 
     /**
      * Erstellt einen Logger für die übergebene Klasse. Als Name, wird der absolute Pfad der Klasse verwendet.
@@ -62,20 +73,21 @@ public final class IsyLoggerFactory {
      * @return der erstellte Logger.
      */
     public static IsyLogger getLogger(Class<?> klasse) {
+        return LOGGER_JE_KLASSE.get(klasse);
+    }
 
-        String klassenName = klasse.getName();
-
-        IsyLogger isyLogger = LOGGER_CACHE.get(klassenName);
-        if (isyLogger != null) {
-            return isyLogger;
-        } else {
-            Logger logger = LoggerFactory.getLogger(klassenName);
-            pruefeLoggerImplementierung(logger);
-            LocationAwareLogger locationAwareLogger = (LocationAwareLogger) logger;
-            isyLogger = new IsyLocationAwareLoggerImpl(locationAwareLogger);
-            LOGGER_CACHE.put(klassenName, isyLogger);
-            return isyLogger;
-        }
+    /**
+     * Erzeugt einen neuen Logger mit dem übergebenen Namen.
+     * 
+     * @param klassenName
+     *            Name des Loggers.
+     * @return der erzeugte Logger.
+     */
+    private static IsyLogger erzeugeLogger(String klassenName) {
+        Logger logger = LoggerFactory.getLogger(klassenName);
+        pruefeLoggerImplementierung(logger);
+        LocationAwareLogger locationAwareLogger = (LocationAwareLogger) logger;
+        return new IsyLocationAwareLoggerImpl(locationAwareLogger);
     }
 
     /**
@@ -0,0 +1,537 @@
+package de.bund.bva.isyfact.logging.appender;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import de.bund.bva.isyfact.logging.IsyMarker;
+import de.bund.bva.isyfact.logging.LogKategorie;
+import de.bund.bva.isyfact.logging.impl.MarkerSchluessel;
+
+/**
+ * Asynchroner Appender, der Log-Events in einem begrenzten Ringpuffer sammelt und in einem eigenen Thread in
+ * Batches an die angehängten Appender weitergibt. Aufrufende Threads warten dadurch nicht auf die Ein- und
+ * Ausgabe.
+ * <p>
+ * Bei angehängten {@link OutputStreamAppender}n (z.B. mit dem
+ * {@link de.bund.bva.isyfact.logging.layout.IsyJsonLayout}) wird das sofortige Flushen nach jedem Log-Event
+ * abgeschaltet. Stattdessen flusht der Worker-Thread diese Appender höchstens einmal je Flush-Intervall:
+ * Geschriebene Log-Events werden spätestens nach Ablauf des Flush-Intervalls geflusht, auch wenn keine
+ * weiteren Log-Events folgen. Liegen keine Log-Events vor, wartet der Worker-Thread höchstens das
+ * Flush-Intervall auf weitere Log-Events. Beim Stoppen wird immer geflusht.
+ * <p>
+ * Ist der Puffer voll, wird je Log-Event entschieden, ob es verworfen werden darf oder ob der aufrufende
+ * Thread warten muss, bis wieder Platz im Puffer ist:
+ * <ul>
+ * <li>Log-Events mit Level WARN oder höher und Log-Events der Kategorie {@link LogKategorie#JOURNAL} werden
+ * nie verworfen.</li>
+ * <li>Log-Events mit einer der konfigurierten verwerfbaren Kategorien werden verworfen.</li>
+ * <li>Log-Events ohne Kategorie werden verworfen, wenn ihr Level höchstens dem konfigurierten Level
+ * entspricht (Standard: DEBUG).</li>
+ * </ul>
+ * Die Zähler des Appenders werden über JMX unter dem Namen
+ * {@code de.bund.bva.isyfact.logging:type=IsyAsyncAppender,name=<Name des Appenders>} bereitgestellt.
+ * <p>
+ * Die angehängten Appender sollten ausschließlich über diesen Appender verwendet werden.
+ */
+public class IsyAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+    implements AppenderAttachable<ILoggingEvent> {
+
+    /** Standardkapazität des Puffers. */
+    public static final int STANDARD_KAPAZITAET = 8192;
+
+    /** Standardgröße eines Batches. */
+    public static final int STANDARD_BATCH_GROESSE = 512;
+
+    /** Standardintervall zwischen zwei Flushes in Millisekunden. */
+    public static final long STANDARD_FLUSH_INTERVALL = 200;
+
+    /** Standardzeit in Millisekunden, die beim Stoppen auf das Schreiben der Log-Events gewartet wird. */
+    public static final long STANDARD_MAX_FLUSH_ZEIT = 1000;
+
+    /** Wartezeit eines blockierten Threads, bevor er erneut versucht, ein Log-Event abzulegen. */
+    private static final long WARTEZEIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** Die angehängten Appender. */
+    private final AppenderAttachableImpl<ILoggingEvent> appender = new AppenderAttachableImpl<>();
+
+    /** Kapazität des Puffers. */
+    private int kapazitaet = STANDARD_KAPAZITAET;
+
+    /** Maximale Größe eines Batches. */
+    private int batchGroesse = STANDARD_BATCH_GROESSE;
+
+    /** Mindestabstand zwischen zwei Flushes der angehängten Appender in Millisekunden. */
+    private long flushIntervall = STANDARD_FLUSH_INTERVALL;
+
+    /** Maximale Zeit in Millisekunden, die beim Stoppen auf das Schreiben der Log-Events gewartet wird. */
+    private long maxFlushZeit = STANDARD_MAX_FLUSH_ZEIT;
+
+    /** Log-Events ohne Kategorie bis zu diesem Level dürfen verworfen werden. */
+    private Level verwerfbarBisLevel = Level.DEBUG;
+
+    /** Kommaseparierte Liste der Kategorien, deren Log-Events verworfen werden dürfen. */
+    private String verwerfbareKategorien = "";
+
+    /** Gibt an, ob die Aufruferdaten (Klasse, Methode, Zeile) vor dem Puffern ermittelt werden. */
+    private boolean includeCallerData;
+
+    /** Gibt an, ob die Zähler über JMX bereitgestellt werden. */
+    private boolean jmx = true;
+
+    /** Die Kategorien, deren Log-Events verworfen werden dürfen. */
+    private Set<LogKategorie> verwerfbar = EnumSet.noneOf(LogKategorie.class);
+
+    /** Der Puffer der Log-Events. */
+    private MpscRingPuffer<ILoggingEvent> puffer;
+
+    /** Die Zähler des Appenders. */
+    private IsyAsyncAppenderStatistik statistik;
+
+    /** Der Name, unter dem die Zähler über JMX bereitgestellt werden. */
+    private ObjectName jmxName;
+
+    /** Der Thread, der die Log-Events an die angehängten Appender weitergibt. */
+    private Thread worker;
+
+    /** Angehängte Appender, die höchstens einmal je Flush-Intervall geflusht werden. */
+    private final List<OutputStreamAppender<ILoggingEvent>> zuFlushendeAppender = new ArrayList<>();
+
+    /** Gibt an, ob der Worker-Thread weiter auf Log-Events wartet. */
+    private volatile boolean laeuft;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appender.iteratorForAppenders().hasNext()) {
+            addError("Es ist kein Appender an den Appender [" + getName() + "] angehängt.");
+            return;
+        }
+        if (batchGroesse < 1) {
+            addError("Ungültige Batchgröße " + batchGroesse + " für den Appender [" + getName() + "].");
+            return;
+        }
+        if (flushIntervall < 1) {
+            addError(
+                "Ungültiges Flush-Intervall " + flushIntervall + " für den Appender [" + getName() + "].");
+            return;
+        }
+        try {
+            puffer = new MpscRingPuffer<>(kapazitaet);
+        } catch (IllegalArgumentException e) {
+            addError("Ungültige Kapazität " + kapazitaet + " für den Appender [" + getName() + "].", e);
+            return;
+        }
+        verwerfbar = leseVerwerfbareKategorien();
+        statistik = new IsyAsyncAppenderStatistik(puffer);
+        konfiguriereFlush();
+
+        laeuft = true;
+        worker = new Thread(this::verarbeite, "IsyAsyncAppender-" + getName());
+        worker.setDaemon(true);
+        worker.start();
+
+        if (jmx) {
+            registriereJmx();
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+
+        laeuft = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushZeit);
+            if (worker.isAlive()) {
+                addWarn("Der Appender [" + getName() + "] konnte die gepufferten Log-Events nicht innerhalb von "
+                    + maxFlushZeit + " ms schreiben.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError("Unterbrochen beim Warten auf den Worker-Thread des Appenders [" + getName() + "].", e);
+        }
+
+        if (jmxName != null) {
+            deregistriereJmx();
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Daten, die vom aufrufenden Thread abhängen (z.B. MDC), müssen vor dem Puffern ermittelt werden.
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        statistik.angenommen.increment();
+
+        if (puffer.anbieten(event)) {
+            if (puffer.getGroesse() >= batchGroesse) {
+                LockSupport.unpark(worker);
+            }
+            return;
+        }
+
+        if (istVerwerfbar(event)) {
+            statistik.verworfen.increment();
+            return;
+        }
+
+        // Warten, bis der Worker-Thread wieder Platz im Puffer geschaffen hat.
+        statistik.blockiert.increment();
+        do {
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(this, WARTEZEIT_NANOS);
+            if (!laeuft) {
+                statistik.verworfen.increment();
+                return;
+            }
+        } while (!puffer.anbieten(event));
+    }
+
+    /**
+     * Entnimmt die Log-Events aus dem Puffer und gibt sie in Batches an die angehängten Appender weiter. Die
+     * Appender werden höchstens einmal je Flush-Intervall geflusht. Wird im Worker-Thread ausgeführt.
+     */
+    private void verarbeite() {
+        long flushIntervallNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervall);
+        List<ILoggingEvent> batch = new ArrayList<>(batchGroesse);
+        // Der erste Batch wird sofort geflusht.
+        long letzterFlush = System.nanoTime() - flushIntervallNanos;
+        boolean ungeflusht = false;
+        while (laeuft) {
+            if (puffer.entnehmen(batch, batchGroesse) > 0) {
+                schreibe(batch);
+                ungeflusht = true;
+            }
+            long bisZumFlush = letzterFlush + flushIntervallNanos - System.nanoTime();
+            if (ungeflusht && bisZumFlush <= 0) {
+                flushe();
+                letzterFlush = System.nanoTime();
+                ungeflusht = false;
+            } else if (puffer.getGroesse() == 0) {
+                // Auf weitere Log-Events warten, höchstens aber bis zum fälligen Flush.
+                LockSupport.parkNanos(this, ungeflusht ? bisZumFlush : flushIntervallNanos);
+            }
+        }
+
+        // Die restlichen Log-Events im Puffer schreiben.
+        while (puffer.entnehmen(batch, batchGroesse) > 0) {
+            schreibe(batch);
+        }
+        flushe();
+        appender.detachAndStopAllAppenders();
+    }
+
+    /**
+     * Gibt einen Batch an die angehängten Appender weiter.
+     *
+     * @param batch
+     *            der Batch.
+     */
+    private void schreibe(List<ILoggingEvent> batch) {
+        for (ILoggingEvent event : batch) {
+            appender.appendLoopOnAppenders(event);
+        }
+        statistik.geschrieben.add(batch.size());
+        statistik.batches.increment();
+        batch.clear();
+    }
+
+    /**
+     * Flusht die angehängten Appender, deren sofortiges Flushen abgeschaltet wurde.
+     */
+    private void flushe() {
+        for (OutputStreamAppender<ILoggingEvent> outputStreamAppender : zuFlushendeAppender) {
+            OutputStream outputStream = outputStreamAppender.getOutputStream();
+            if (outputStream != null) {
+                try {
+                    outputStream.flush();
+                } catch (IOException e) {
+                    addError("Fehler beim Flushen des Appenders [" + outputStreamAppender.getName() + "].",
+                        e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prüft, ob ein Log-Event bei vollem Puffer verworfen werden darf.
+     *
+     * @param event
+     *            das Log-Event.
+     * @return {@code true}, falls das Log-Event verworfen werden darf.
+     */
+    private boolean istVerwerfbar(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return false;
+        }
+        String kategorie = ermittleKategorie(event.getMarker());
+        if (kategorie == null) {
+            return verwerfbarBisLevel.isGreaterOrEqual(event.getLevel());
+        }
+        for (LogKategorie logKategorie : verwerfbar) {
+            if (logKategorie.name().equals(kategorie)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ermittelt die Kategorie eines Log-Events aus seinen Markern.
+     *
+     * @param marker
+     *            der Marker des Log-Events.
+     * @return die Kategorie oder {@code null}, falls das Log-Event keine Kategorie besitzt.
+     */
+    private static String ermittleKategorie(Marker marker) {
+        if (marker == null) {
+            return null;
+        }
+        if (marker instanceof IsyMarker && MarkerSchluessel.KATEGORIE.getWert().equals(marker.getName())) {
+            return ((IsyMarker) marker).getValue();
+        }
+        Iterator<Marker> referenzen = marker.iterator();
+        while (referenzen.hasNext()) {
+            String kategorie = ermittleKategorie(referenzen.next());
+            if (kategorie != null) {
+                return kategorie;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Liest die konfigurierten verwerfbaren Kategorien. Die Kategorie JOURNAL wird dabei nie übernommen.
+     *
+     * @return die verwerfbaren Kategorien.
+     */
+    private Set<LogKategorie> leseVerwerfbareKategorien() {
+        Set<LogKategorie> kategorien = EnumSet.noneOf(LogKategorie.class);
+        if (verwerfbareKategorien == null) {
+            return kategorien;
+        }
+        for (String name : verwerfbareKategorien.split(",")) {
+            String kategorie = name.trim();
+            if (kategorie.isEmpty()) {
+                continue;
+            }
+            try {
+                LogKategorie logKategorie = LogKategorie.valueOf(kategorie);
+                if (logKategorie == LogKategorie.JOURNAL) {
+                    addWarn("Log-Events der Kategorie JOURNAL werden nie verworfen.");
+                } else {
+                    kategorien.add(logKategorie);
+                }
+            } catch (IllegalArgumentException e) {
+                addWarn("Unbekannte Kategorie [" + kategorie + "] wird ignoriert.");
+            }
+        }
+        return kategorien;
+    }
+
+    /**
+     * Schaltet das sofortige Flushen der angehängten Appender ab, damit diese je Flush-Intervall geflusht
+     * werden können.
+     */
+    @SuppressWarnings("unchecked")
+    private void konfiguriereFlush() {
+        zuFlushendeAppender.clear();
+        Iterator<Appender<ILoggingEvent>> iterator = appender.iteratorForAppenders();
+        while (iterator.hasNext()) {
+            Appender<ILoggingEvent> angehaengterAppender = iterator.next();
+            if (angehaengterAppender instanceof OutputStreamAppender) {
+                OutputStreamAppender<ILoggingEvent> outputStreamAppender =
+                    (OutputStreamAppender<ILoggingEvent>) angehaengterAppender;
+                outputStreamAppender.setImmediateFlush(false);
+                zuFlushendeAppender.add(outputStreamAppender);
+            }
+        }
+    }
+
+    /**
+     * Stellt die Zähler des Appenders über JMX bereit.
+     */
+    private void registriereJmx() {
+        try {
+            jmxName = new ObjectName(
+                "de.bund.bva.isyfact.logging:type=IsyAsyncAppender,name=" + ObjectName.quote(getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(statistik, jmxName);
+        } catch (JMException | RuntimeException e) {
+            jmxName = null;
+            addWarn("Die Zähler des Appenders [" + getName()
+                + "] konnten nicht über JMX bereitgestellt werden.", e);
+        }
+    }
+
+    /**
+     * Entfernt die Zähler des Appenders aus JMX.
+     */
+    private void deregistriereJmx() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(jmxName);
+        } catch (JMException | RuntimeException e) {
+            addWarn("Die Zähler des Appenders [" + getName() + "] konnten nicht aus JMX entfernt werden.", e);
+        }
+        jmxName = null;
+    }
+
+    /**
+     * Liefert die Zähler des Appenders.
+     *
+     * @return die Zähler oder {@code null}, falls der Appender noch nicht gestartet wurde.
+     */
+    public IsyAsyncAppenderMXBean getStatistik() {
+        return statistik;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appender.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appender.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appender.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> eAppender) {
+        return appender.isAttached(eAppender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appender.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> eAppender) {
+        return appender.detachAppender(eAppender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appender.detachAppender(name);
+    }
+
+    public int getKapazitaet() {
+        return kapazitaet;
+    }
+
+    public void setKapazitaet(int kapazitaet) {
+        this.kapazitaet = kapazitaet;
+    }
+
+    public int getBatchGroesse() {
+        return batchGroesse;
+    }
+
+    public void setBatchGroesse(int batchGroesse) {
+        this.batchGroesse = batchGroesse;
+    }
+
+    public long getFlushIntervall() {
+        return flushIntervall;
+    }
+
+    public void setFlushIntervall(long flushIntervall) {
+        this.flushIntervall = flushIntervall;
+    }
+
+    public long getMaxFlushZeit() {
+        return maxFlushZeit;
+    }
+
+    public void setMaxFlushZeit(long maxFlushZeit) {
+        this.maxFlushZeit = maxFlushZeit;
+    }
+
+    public Level getVerwerfbarBisLevel() {
+        return verwerfbarBisLevel;
+    }
+
+    public void setVerwerfbarBisLevel(Level verwerfbarBisLevel) {
+        this.verwerfbarBisLevel = verwerfbarBisLevel;
+    }
+
+    public String getVerwerfbareKategorien() {
+        return verwerfbareKategorien;
+    }
+
+    public void setVerwerfbareKategorien(String verwerfbareKategorien) {
+        this.verwerfbareKategorien = verwerfbareKategorien;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public boolean isJmx() {
+        return jmx;
+    }
+
+    public void setJmx(boolean jmx) {
+        this.jmx = jmx;
+    }
+}
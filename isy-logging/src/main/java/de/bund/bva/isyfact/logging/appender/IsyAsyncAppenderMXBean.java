@@ -0,0 +1,79 @@
+package de.bund.bva.isyfact.logging.appender;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+/**
+ * JMX-Schnittstelle mit den Zählern eines {@link IsyAsyncAppender}.
+ */
+public interface IsyAsyncAppenderMXBean {
+
+    /**
+     * Liefert die Anzahl der vom Appender angenommenen Log-Events.
+     *
+     * @return die Anzahl angenommener Log-Events.
+     */
+    long getAnzahlAngenommen();
+
+    /**
+     * Liefert die Anzahl der an die angehängten Appender weitergegebenen Log-Events.
+     *
+     * @return die Anzahl geschriebener Log-Events.
+     */
+    long getAnzahlGeschrieben();
+
+    /**
+     * Liefert die Anzahl der Log-Events, die wegen eines vollen Puffers verworfen wurden.
+     *
+     * @return die Anzahl verworfener Log-Events.
+     */
+    long getAnzahlVerworfen();
+
+    /**
+     * Liefert die Anzahl der Log-Events, deren aufrufender Thread wegen eines vollen Puffers warten musste.
+     *
+     * @return die Anzahl blockierter Aufrufe.
+     */
+    long getAnzahlBlockiert();
+
+    /**
+     * Liefert die Anzahl der geschriebenen Batches.
+     *
+     * @return die Anzahl der Batches.
+     */
+    long getAnzahlBatches();
+
+    /**
+     * Liefert die aktuelle Anzahl der Log-Events im Puffer.
+     *
+     * @return die Anzahl der Log-Events im Puffer.
+     */
+    int getFuellstand();
+
+    /**
+     * Liefert die Kapazität des Puffers.
+     *
+     * @return die Kapazität des Puffers.
+     */
+    int getKapazitaet();
+}
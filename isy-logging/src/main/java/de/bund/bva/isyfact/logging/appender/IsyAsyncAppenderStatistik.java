@@ -0,0 +1,95 @@
+package de.bund.bva.isyfact.logging.appender;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zähler eines {@link IsyAsyncAppender}, die über JMX bereitgestellt werden.
+ */
+final class IsyAsyncAppenderStatistik implements IsyAsyncAppenderMXBean {
+
+    /** Anzahl angenommener Log-Events. */
+    final LongAdder angenommen = new LongAdder();
+
+    /** Anzahl geschriebener Log-Events. */
+    final LongAdder geschrieben = new LongAdder();
+
+    /** Anzahl verworfener Log-Events. */
+    final LongAdder verworfen = new LongAdder();
+
+    /** Anzahl blockierter Aufrufe. */
+    final LongAdder blockiert = new LongAdder();
+
+    /** Anzahl geschriebener Batches. */
+    final LongAdder batches = new LongAdder();
+
+    /** Der Puffer des Appenders. */
+    private final MpscRingPuffer<?> puffer;
+
+    /**
+     * Konstruktor der Klasse.
+     *
+     * @param puffer
+     *            der Puffer des Appenders.
+     */
+    IsyAsyncAppenderStatistik(MpscRingPuffer<?> puffer) {
+        this.puffer = puffer;
+    }
+
+    @Override
+    public long getAnzahlAngenommen() {
+        return angenommen.sum();
+    }
+
+    @Override
+    public long getAnzahlGeschrieben() {
+        return geschrieben.sum();
+    }
+
+    @Override
+    public long getAnzahlVerworfen() {
+        return verworfen.sum();
+    }
+
+    @Override
+    public long getAnzahlBlockiert() {
+        return blockiert.sum();
+    }
+
+    @Override
+    public long getAnzahlBatches() {
+        return batches.sum();
+    }
+
+    @Override
+    public int getFuellstand() {
+        return puffer.getGroesse();
+    }
+
+    @Override
+    public int getKapazitaet() {
+        return puffer.getKapazitaet();
+    }
+}
@@ -0,0 +1,156 @@
+package de.bund.bva.isyfact.logging.appender;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Begrenzter, lock-freier Ringpuffer für mehrere Produzenten und einen einzelnen Konsumenten.
+ * <p>
+ * Jeder Platz des Puffers besitzt eine Sequenznummer, über die Produzenten und Konsument erkennen, ob der
+ * Platz frei oder belegt ist. Produzenten reservieren einen Platz per CAS auf die Schreibposition, der
+ * Konsument liest ohne Synchronisation, da nur ein Thread entnimmt.
+ *
+ * @param <E>
+ *            Typ der Elemente.
+ */
+final class MpscRingPuffer<E> {
+
+    /** Maske zur Berechnung des Index aus einer Position. */
+    private final int maske;
+
+    /** Die Elemente. */
+    private final AtomicReferenceArray<E> elemente;
+
+    /** Die Sequenznummern der Plätze. */
+    private final AtomicLongArray sequenzen;
+
+    /** Die nächste zu reservierende Schreibposition. */
+    private final AtomicLong schreibPosition = new AtomicLong();
+
+    /** Die nächste Leseposition. Wird nur vom Konsumenten geschrieben. */
+    private volatile long lesePosition;
+
+    /**
+     * Erzeugt einen Ringpuffer. Die Kapazität wird auf die nächste Zweierpotenz aufgerundet.
+     *
+     * @param kapazitaet
+     *            die minimale Kapazität.
+     */
+    MpscRingPuffer(int kapazitaet) {
+        if (kapazitaet < 1 || kapazitaet > 1 << 30) {
+            throw new IllegalArgumentException("Ungültige Kapazität: " + kapazitaet);
+        }
+        int groesse = Integer.highestOneBit(kapazitaet);
+        if (groesse < kapazitaet) {
+            groesse <<= 1;
+        }
+        maske = groesse - 1;
+        elemente = new AtomicReferenceArray<>(groesse);
+        sequenzen = new AtomicLongArray(groesse);
+        for (int i = 0; i < groesse; i++) {
+            sequenzen.set(i, i);
+        }
+    }
+
+    /**
+     * Fügt ein Element hinzu, falls ein Platz frei ist.
+     *
+     * @param element
+     *            das Element.
+     * @return {@code true}, falls das Element hinzugefügt wurde, {@code false}, falls der Puffer voll ist.
+     */
+    boolean anbieten(E element) {
+        long position = schreibPosition.get();
+        while (true) {
+            int index = (int) position & maske;
+            long differenz = sequenzen.get(index) - position;
+            if (differenz == 0) {
+                if (schreibPosition.compareAndSet(position, position + 1)) {
+                    elemente.lazySet(index, element);
+                    // Gibt den Platz für den Konsumenten frei
+                    sequenzen.lazySet(index, position + 1);
+                    return true;
+                }
+                position = schreibPosition.get();
+            } else if (differenz < 0) {
+                // Der Platz wurde vom Konsumenten noch nicht freigegeben: Puffer ist voll
+                return false;
+            } else {
+                // Ein anderer Produzent hat den Platz bereits reserviert
+                position = schreibPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Entnimmt bis zu der angegebenen Anzahl Elemente. Darf nur vom Konsumenten aufgerufen werden.
+     *
+     * @param ziel
+     *            die Collection, in die die Elemente übernommen werden.
+     * @param maxAnzahl
+     *            die maximale Anzahl zu entnehmender Elemente.
+     * @return die Anzahl der entnommenen Elemente.
+     */
+    int entnehmen(Collection<? super E> ziel, int maxAnzahl) {
+        long position = lesePosition;
+        int anzahl = 0;
+        while (anzahl < maxAnzahl) {
+            int index = (int) position & maske;
+            if (sequenzen.get(index) != position + 1) {
+                // Puffer ist leer oder das Element ist noch nicht vollständig geschrieben
+                break;
+            }
+            ziel.add(elemente.get(index));
+            elemente.lazySet(index, null);
+            // Gibt den Platz für die nächste Runde der Produzenten frei
+            sequenzen.lazySet(index, position + maske + 1);
+            position++;
+            anzahl++;
+        }
+        lesePosition = position;
+        return anzahl;
+    }
+
+    /**
+     * Liefert die ungefähre Anzahl der Elemente im Puffer.
+     *
+     * @return die Anzahl der Elemente.
+     */
+    int getGroesse() {
+        return (int) Math.max(0, schreibPosition.get() - lesePosition);
+    }
+
+    /**
+     * Liefert die Kapazität des Puffers.
+     *
+     * @return die Kapazität.
+     */
+    int getKapazitaet() {
+        return maske + 1;
+    }
+}
@@ -49,9 +49,9 @@ public class IsyLocationAwareLoggerImpl implements IsyLogger {
 
     private static final Throwable DEFAULT_THROWABLE = null;
 
-    private static final IsyMarker[] FACHDATEN_MARKER = { new FachdatenMarker() };
+    private static final IsyMarker FACHDATEN_MARKER = new FachdatenMarker();
 
-    private static final IsyMarker[] TECHNIKDATEN_MARKER = { new TechnikdatenMarker() };
+    private static final IsyMarker TECHNIKDATEN_MARKER = new TechnikdatenMarker();
 
     /**
      * Gekapselter LocationAwareLogger. Es wird der LocationAwareLogger verwendet, da dieser die Hilfsmethode
@@ -221,8 +221,8 @@ public class IsyLocationAwareLoggerImpl implements IsyLogger {
      *            der Level des Logeintrags als int gemäß LocationAwareLogger
      * @param kategorie
      *            die Kategorie des Logeintrags
-     * @param expliziteMarker
-     *            Explizite Marker der Nachricht
+     * @param expliziterMarker
+     *            Expliziter Marker der Nachricht
      * @param nachricht
      *            die eigentliche Lognachricht
      * @param werte
@@ -230,9 +230,9 @@ public class IsyLocationAwareLoggerImpl implements IsyLogger {
      * @param exception
      *            zu loggende Ausnahme
      */
-    private void logException(int level, String kategorie, IsyMarker[] expliziteMarker, String nachricht,
+    private void logException(int level, String kategorie, IsyMarker expliziterMarker, String nachricht,
         Object[] werte, BaseException exception) {
-        log(level, kategorie, expliziteMarker, exception.getAusnahmeId(), nachricht, werte, exception);
+        log(level, kategorie, expliziterMarker, exception.getAusnahmeId(), nachricht, werte, exception);
     }
 
     /**
@@ -242,8 +242,8 @@ public class IsyLocationAwareLoggerImpl implements IsyLogger {
      *            der Level des Logeintrags als int gemäß LocationAwareLogger
      * @param kategorie
      *            die Kategorie des Logeintrags
-     * @param expliziteMarker
-     *            Explizite Marker der Nachricht
+     * @param expliziterMarker
+     *            Expliziter Marker der Nachricht
      * @param nachricht
      *            die eigentliche Lognachricht
      * @param werte
@@ -251,9 +251,9 @@ public class IsyLocationAwareLoggerImpl implements IsyLogger {
      * @param exception
      *            zu loggende Ausnahme
      */
-    private void logTechnicalRuntimeException(int level, String kategorie, IsyMarker[] expliziteMarker,
+    private void logTechnicalRuntimeException(int level, String kategorie, IsyMarker expliziterMarker,
         String nachricht, Object[] werte, TechnicalRuntimeException exception) {
-        log(level, kategorie, expliziteMarker, exception.getAusnahmeId(), nachricht, werte, exception);
+        log(level, kategorie, expliziterMarker, exception.getAusnahmeId(), nachricht, werte, exception);
     }
 
     /**
@@ -269,41 +269,45 @@ public class IsyLocationAwareLoggerImpl implements IsyLogger {
      *            die eigentliche Lognachricht.
      * @param werte
      *            Werte zum Ersetzen der Platzhalter in der Nachricht.
-     * @param expliziteMarker
-     *            Explizite Marker der Nachricht.
+     * @param expliziterMarker
+     *            Expliziter Marker der Nachricht.
      * @param t
      *            zu loggende Exception.
      */
-    private void log(int level, String kategorie, IsyMarker[] expliziteMarker, String schluessel,
+    private void log(int level, String kategorie, IsyMarker expliziterMarker, String schluessel,
         String nachricht, Object[] werte, Throwable t) {
 
-        IsyMarker rootMarker = IsyMarkerImpl.createRootMarker();
-
-        if (kategorie == null) {
-            if (pruefeIstKategoriePflicht(level)) {
-                throw new FehlerhafterLogeintrag(FehlerSchluessel.FEHLERHAFTER_EINTRAG_KEINE_KATEGORIE,
-                    ermittleLevelString(level), logger.getName());
-            }
-        } else {
-            rootMarker.add(new IsyMarkerImpl(MarkerSchluessel.KATEGORIE, kategorie));
+        if (kategorie == null && pruefeIstKategoriePflicht(level)) {
+            throw new FehlerhafterLogeintrag(FehlerSchluessel.FEHLERHAFTER_EINTRAG_KEINE_KATEGORIE,
+                ermittleLevelString(level), logger.getName());
         }
 
         // Bei einer Exception wird der Schlüssel immer ungeprüft übernommen, auch wenn er NULL ist. Dies kann
         // nur der Fall sein, wenn eine Exception ohne Ausnahme-ID übergeben wurde. Dies soll die
         // Erstellung des Logeintrags nicht verhindern.
-        if (t != null || schluessel != null) {
-            rootMarker.add(new IsyMarkerImpl(MarkerSchluessel.SCHLUESSEL, schluessel));
-        } else {
-            if (pruefeIstSchluesselPflicht(level)) {
-                throw new FehlerhafterLogeintrag(FehlerSchluessel.FEHLERHAFTER_EINTRAG_KEIN_SCHLUESSEL,
-                    ermittleLevelString(level), logger.getName());
-            }
+        boolean schluesselUebernehmen = t != null || schluessel != null;
+        if (!schluesselUebernehmen && pruefeIstSchluesselPflicht(level)) {
+            throw new FehlerhafterLogeintrag(FehlerSchluessel.FEHLERHAFTER_EINTRAG_KEIN_SCHLUESSEL,
+                ermittleLevelString(level), logger.getName());
         }
 
-        if (expliziteMarker != null) {
-            for (IsyMarker isyMarker : expliziteMarker) {
-                rootMarker.add(isyMarker);
-            }
+        // Ist das Level nicht aktiv, wird der Logeintrag verworfen, bevor Marker erzeugt werden.
+        if (!pruefeIstLevelAktiv(level)) {
+            return;
+        }
+
+        IsyMarker rootMarker = IsyMarkerImpl.createRootMarker();
+
+        if (kategorie != null) {
+            rootMarker.add(IsyMarkerCache.getKategorieMarker(kategorie));
+        }
+
+        if (schluesselUebernehmen) {
+            rootMarker.add(IsyMarkerCache.getSchluesselMarker(schluessel));
+        }
+
+        if (expliziterMarker != null) {
+            rootMarker.add(expliziterMarker);
         }
 
         // SLF4J erlaubt es grundsätzlich, dass beliebige Objekte zur Ersetzung der Platzhalter in der
@@ -345,6 +349,28 @@ public class IsyLocationAwareLoggerImpl implements IsyLogger {
         }
     }
 
+    /**
+     * Prüft, ob das Loglevel für diesen Logger aktiv ist.
+     *
+     * @param level
+     *            das zu prüfende Loglevel.
+     * @return <code>true</code> falls das Loglevel aktiv ist, <code>false</code> sonst.
+     */
+    private boolean pruefeIstLevelAktiv(int level) {
+        switch (level) {
+        case LocationAwareLogger.TRACE_INT:
+            return logger.isTraceEnabled();
+        case LocationAwareLogger.DEBUG_INT:
+            return logger.isDebugEnabled();
+        case LocationAwareLogger.INFO_INT:
+            return logger.isInfoEnabled();
+        case LocationAwareLogger.WARN_INT:
+            return logger.isWarnEnabled();
+        default:
+            return logger.isErrorEnabled();
+        }
+    }
+
     /**
      * Prüft ob für das Loglevel eine Log-Kategorie angegeben werden muss.
      *
@@ -690,117 +716,117 @@ public class IsyLocationAwareLoggerImpl implements IsyLogger {
 
     @Override
     public void trace(IsyDatentypMarker typ, String nachricht, Object... werte) {
-        log(LocationAwareLogger.TRACE_INT, null, new IsyMarker[] { typ }, null, nachricht, werte,
+        log(LocationAwareLogger.TRACE_INT, null, typ, null, nachricht, werte,
             DEFAULT_THROWABLE);
     }
 
     @Override
     public void debug(IsyDatentypMarker typ, String nachricht, Object... werte) {
-        log(LocationAwareLogger.DEBUG_INT, null, new IsyMarker[] { typ }, null, nachricht, werte,
+        log(LocationAwareLogger.DEBUG_INT, null, typ, null, nachricht, werte,
             DEFAULT_THROWABLE);
     }
 
     @Override
     public void info(LogKategorie kategorie, IsyDatentypMarker typ, String schluessel, String nachricht,
         Object... werte) {
-        log(LocationAwareLogger.INFO_INT, kategorie.name(), new IsyMarker[] { typ }, schluessel, nachricht, werte,
+        log(LocationAwareLogger.INFO_INT, kategorie.name(), typ, schluessel, nachricht, werte,
             DEFAULT_THROWABLE);
     }
 
     @Override
     public void info(LogKategorie kategorie, IsyDatentypMarker typ, String nachricht, BaseException exception,
         Object... werte) {
-        logException(LocationAwareLogger.INFO_INT, kategorie.name(), new IsyMarker[] { typ }, nachricht, werte,
+        logException(LocationAwareLogger.INFO_INT, kategorie.name(), typ, nachricht, werte,
             exception);
     }
 
     @Override
     public void info(LogKategorie kategorie, IsyDatentypMarker typ, String nachricht,
         TechnicalRuntimeException exception, Object... werte) {
-        logTechnicalRuntimeException(LocationAwareLogger.INFO_INT, kategorie.name(), new IsyMarker[] { typ },
+        logTechnicalRuntimeException(LocationAwareLogger.INFO_INT, kategorie.name(), typ,
             nachricht, werte, exception);
     }
 
     @Override
     public void info(LogKategorie kategorie, IsyDatentypMarker typ, String schluessel, String nachricht,
         Throwable t, Object... werte) {
-        log(LocationAwareLogger.INFO_INT, kategorie.name(), new IsyMarker[] { typ }, schluessel, nachricht, werte, t);
+        log(LocationAwareLogger.INFO_INT, kategorie.name(), typ, schluessel, nachricht, werte, t);
     }
 
     @Override
     public void warn(IsyDatentypMarker typ, String schluessel, String nachricht, Object... werte) {
-        log(LocationAwareLogger.WARN_INT, null, new IsyMarker[] { typ }, schluessel, nachricht, werte,
+        log(LocationAwareLogger.WARN_INT, null, typ, schluessel, nachricht, werte,
             DEFAULT_THROWABLE);
     }
 
     @Override
     public void warn(IsyDatentypMarker typ, String nachricht, BaseException exception, Object... werte) {
-        logException(LocationAwareLogger.WARN_INT, null, new IsyMarker[] { typ }, nachricht, werte,
+        logException(LocationAwareLogger.WARN_INT, null, typ, nachricht, werte,
             exception);
     }
 
     @Override
     public void warn(IsyDatentypMarker typ, String nachricht, TechnicalRuntimeException exception,
         Object... werte) {
-        logTechnicalRuntimeException(LocationAwareLogger.WARN_INT, null, new IsyMarker[] { typ },
+        logTechnicalRuntimeException(LocationAwareLogger.WARN_INT, null, typ,
             nachricht, werte, exception);
     }
 
     @Override
     public void warn(IsyDatentypMarker typ, String schluessel, String nachricht, Throwable t,
         Object... werte) {
-        log(LocationAwareLogger.WARN_INT, null, new IsyMarker[] { typ }, schluessel, nachricht, werte, t);
+        log(LocationAwareLogger.WARN_INT, null, typ, schluessel, nachricht, werte, t);
     }
 
     @Override
     public void error(IsyDatentypMarker typ, String nachricht, BaseException exception, Object... werte) {
         logException(LocationAwareLogger.ERROR_INT, LogErrorKategorie.ERROR.name(),
-            new IsyMarker[] { typ }, nachricht, werte, exception);
+            typ, nachricht, werte, exception);
     }
 
     @Override
     public void error(IsyDatentypMarker typ, String nachricht, TechnicalRuntimeException exception,
         Object... werte) {
         logTechnicalRuntimeException(LocationAwareLogger.ERROR_INT, LogErrorKategorie.ERROR.name(),
-            new IsyMarker[] { typ }, nachricht, werte, exception);
+            typ, nachricht, werte, exception);
     }
 
     @Override
     public void error(IsyDatentypMarker typ, String schluessel, String nachricht, Throwable t,
         Object... werte) {
-        log(LocationAwareLogger.ERROR_INT, LogErrorKategorie.ERROR.name(), new IsyMarker[] { typ },
+        log(LocationAwareLogger.ERROR_INT, LogErrorKategorie.ERROR.name(), typ,
             schluessel, nachricht, werte, t);
     }
 
     @Override
     public void error(IsyDatentypMarker typ, String schluessel, String nachricht, Object... werte) {
-        log(LocationAwareLogger.ERROR_INT, LogErrorKategorie.ERROR.name(), new IsyMarker[] { typ },
+        log(LocationAwareLogger.ERROR_INT, LogErrorKategorie.ERROR.name(), typ,
             schluessel, nachricht, werte, DEFAULT_THROWABLE);
     }
 
     @Override
     public void fatal(IsyDatentypMarker typ, String nachricht, BaseException exception, Object... werte) {
         logException(LocationAwareLogger.ERROR_INT, LogErrorKategorie.FATAL.name(),
-            new IsyMarker[] { typ }, nachricht, werte, exception);
+            typ, nachricht, werte, exception);
     }
 
     @Override
     public void fatal(IsyDatentypMarker typ, String nachricht, TechnicalRuntimeException exception,
         Object... werte) {
         logTechnicalRuntimeException(LocationAwareLogger.ERROR_INT, LogErrorKategorie.FATAL.name(),
-            new IsyMarker[] { typ }, nachricht, werte, exception);
+            typ, nachricht, werte, exception);
     }
 
     @Override
     public void fatal(IsyDatentypMarker typ, String schluessel, String nachricht, Throwable t,
         Object... werte) {
-        log(LocationAwareLogger.ERROR_INT, LogErrorKategorie.FATAL.name(), new IsyMarker[] { typ },
+        log(LocationAwareLogger.ERROR_INT, LogErrorKategorie.FATAL.name(), typ,
             schluessel, nachricht, werte, t);
     }
 
     @Override
     public void fatal(IsyDatentypMarker typ, String schluessel, String nachricht, Object... werte) {
-        log(LocationAwareLogger.ERROR_INT, LogErrorKategorie.FATAL.name(), new IsyMarker[] { typ },
+        log(LocationAwareLogger.ERROR_INT, LogErrorKategorie.FATAL.name(), typ,
             schluessel, nachricht, werte, DEFAULT_THROWABLE);
     }
 }
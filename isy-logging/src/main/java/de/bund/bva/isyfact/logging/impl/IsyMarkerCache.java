@@ -0,0 +1,150 @@
+package de.bund.bva.isyfact.logging.impl;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.bund.bva.isyfact.logging.IsyMarker;
+import de.bund.bva.isyfact.logging.LogKategorie;
+import org.slf4j.Marker;
+
+/**
+ * Cache für die Marker zu Kategorie und Ereignisschlüssel eines Logeintrags. Diese Marker werden für jeden
+ * Logeintrag benötigt, enthalten aber nur Name und Wert. Sie werden daher einmalig als unveränderliche
+ * Marker erzeugt und von allen Logeinträgen gemeinsam genutzt.
+ * 
+ */
+final class IsyMarkerCache {
+
+    /** Maximale Anzahl der zwischengespeicherten Schlüssel-Marker. */
+    private static final int MAX_ANZAHL_SCHLUESSEL = 4096;
+
+    /** Marker aller bekannten Kategorien. Die Map wird nach der Initialisierung nicht mehr verändert. */
+    private static final Map<String, IsyMarker> KATEGORIE_MARKER = new HashMap<>();
+
+    /** Marker der bisher verwendeten Ereignisschlüssel. */
+    private static final ConcurrentMap<String, IsyMarker> SCHLUESSEL_MARKER = new ConcurrentHashMap<>();
+
+    /** Marker für einen Logeintrag ohne Ereignisschlüssel (z.B. bei Exceptions ohne Ausnahme-ID). */
+    private static final IsyMarker LEERER_SCHLUESSEL_MARKER =
+        new UnveraenderlicherMarker(MarkerSchluessel.SCHLUESSEL, null);
+
+    static {
+        for (LogKategorie kategorie : LogKategorie.values()) {
+            KATEGORIE_MARKER.put(kategorie.name(),
+                new UnveraenderlicherMarker(MarkerSchluessel.KATEGORIE, kategorie.name()));
+        }
+        for (LogErrorKategorie kategorie : LogErrorKategorie.values()) {
+            KATEGORIE_MARKER.put(kategorie.name(),
+                new UnveraenderlicherMarker(MarkerSchluessel.KATEGORIE, kategorie.name()));
+        }
+    }
+
+    /**
+     * Privater Konstruktor der Klasse. Verhindert, dass Instanzen der Klasse angelegt werden.
+     */
+    private IsyMarkerCache() {
+    }
+
+    /**
+     * Liefert den Marker für eine Kategorie.
+     * 
+     * @param kategorie
+     *            die Kategorie.
+     * @return der Marker der Kategorie.
+     */
+    static IsyMarker getKategorieMarker(String kategorie) {
+        IsyMarker marker = KATEGORIE_MARKER.get(kategorie);
+        if (marker == null) {
+            marker = new IsyMarkerImpl(MarkerSchluessel.KATEGORIE, kategorie);
+        }
+        return marker;
+    }
+
+    /**
+     * Liefert den Marker für einen Ereignisschlüssel. Ist die maximale Anzahl zwischengespeicherter Marker
+     * erreicht, wird für neue Schlüssel jeweils ein neuer Marker erzeugt.
+     * 
+     * @param schluessel
+     *            der Ereignisschlüssel (kann <code>null</code> sein).
+     * @return der Marker des Ereignisschlüssels.
+     */
+    static IsyMarker getSchluesselMarker(String schluessel) {
+        if (schluessel == null) {
+            return LEERER_SCHLUESSEL_MARKER;
+        }
+        IsyMarker marker = SCHLUESSEL_MARKER.get(schluessel);
+        if (marker == null) {
+            marker = new UnveraenderlicherMarker(MarkerSchluessel.SCHLUESSEL, schluessel);
+            if (SCHLUESSEL_MARKER.size() < MAX_ANZAHL_SCHLUESSEL) {
+                IsyMarker vorhandenerMarker = SCHLUESSEL_MARKER.putIfAbsent(schluessel, marker);
+                if (vorhandenerMarker != null) {
+                    marker = vorhandenerMarker;
+                }
+            }
+        }
+        return marker;
+    }
+
+    /**
+     * Marker, der keine Referenzen auf weitere Marker aufnehmen kann. Dadurch kann er gefahrlos von mehreren
+     * Logeinträgen gemeinsam genutzt werden.
+     */
+    private static final class UnveraenderlicherMarker extends IsyMarkerImpl {
+
+        /** Eindeutige UID. */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Konstruktor der Klasse.
+         * 
+         * @param name
+         *            Name des Markers.
+         * @param value
+         *            Wert des Markers.
+         */
+        private UnveraenderlicherMarker(MarkerSchluessel name, String value) {
+            super(name, value);
+        }
+
+        @Override
+        public void add(Marker reference) {
+            throw new UnsupportedOperationException("Gemeinsam genutzte Marker sind unveränderlich.");
+        }
+
+        @Override
+        public void addAll(Collection<Marker> markerReferences) {
+            throw new UnsupportedOperationException("Gemeinsam genutzte Marker sind unveränderlich.");
+        }
+
+        @Override
+        public boolean remove(Marker reference) {
+            throw new UnsupportedOperationException("Gemeinsam genutzte Marker sind unveränderlich.");
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.slf4j.Marker;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -54,8 +55,8 @@ public class IsyMarkerImpl implements IsyMarker {
     /** Gibt an, ob es sich um einen Root-Marker handelt. */
     private final boolean root;
 
-    /** Referenzen auf enthaltene Marker. */
-    private final List<Marker> references = new ArrayList<>();
+    /** Referenzen auf enthaltene Marker. Die Liste wird erst beim Hinzufügen der ersten Referenz angelegt. */
+    private List<Marker> references;
 
     /**
      * Konstruktor der Klasse. Er initialisiert die übergebenen Klassenattribute.
@@ -118,7 +119,7 @@ public class IsyMarkerImpl implements IsyMarker {
      * @see Marker#remove(Marker)
      */
     public boolean remove(Marker reference) {
-        return references.remove(reference);
+        return references != null && references.remove(reference);
     }
 
     /**
@@ -135,7 +136,7 @@ public class IsyMarkerImpl implements IsyMarker {
      * @see Marker#hasReferences()
      */
     public boolean hasReferences() {
-        return !references.isEmpty();
+        return references != null && !references.isEmpty();
     }
 
     /**
@@ -144,6 +145,9 @@ public class IsyMarkerImpl implements IsyMarker {
      * @see Marker#iterator()
      */
     public Iterator<Marker> iterator() {
+        if (references == null) {
+            return Collections.emptyIterator();
+        }
         return references.iterator();
     }
 
@@ -155,7 +159,7 @@ public class IsyMarkerImpl implements IsyMarker {
     public boolean contains(String markerName) {
         if (this.name.equals(markerName)) {
             return true;
-        } else {
+        } else if (references != null) {
             for (Marker reference : references) {
                 if (reference.contains(markerName)) {
                     return true;
@@ -171,7 +175,7 @@ public class IsyMarkerImpl implements IsyMarker {
      * @see Marker#add(Marker)
      */
     public void add(Marker reference) {
-        references.add(reference);
+        getOrCreateReferences().add(reference);
     }
 
     /**
@@ -180,7 +184,7 @@ public class IsyMarkerImpl implements IsyMarker {
      * @see Marker#contains(Marker)
      */
     public boolean contains(Marker other) {
-        return references.contains(other);
+        return references != null && references.contains(other);
     }
 
     /**
@@ -247,9 +251,21 @@ public class IsyMarkerImpl implements IsyMarker {
     public void addAll(Collection<Marker> markerReferences) {
         if (markerReferences != null) {
             for (Marker marker : markerReferences) {
-                this.references.add(marker);
+                getOrCreateReferences().add(marker);
             }
         }
     }
 
+    /**
+     * Liefert die Liste der Referenzen und legt sie bei Bedarf an.
+     * 
+     * @return die Liste der Referenzen.
+     */
+    private List<Marker> getOrCreateReferences() {
+        if (references == null) {
+            references = new ArrayList<>();
+        }
+        return references;
+    }
+
 }
@@ -23,14 +23,20 @@ package de.bund.bva.isyfact.logging.layout;
  * #L%
  */
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.contrib.jackson.JacksonJsonFormatter;
 import ch.qos.logback.contrib.json.JsonFormatter;
 import ch.qos.logback.contrib.json.classic.JsonLayout;
 import ch.qos.logback.core.CoreConstants;
@@ -59,13 +65,13 @@ public class IsyJsonLayout extends JsonLayout {
     private static final String ZEITSTEMPEL_ATTR_NAME = "zeitstempel";
 
     /** Attributname der Parameter einer Log-Nachricht. */
-    private static final String PARAMETER_ATTR_NAME = "parameter";
+    static final String PARAMETER_ATTR_NAME = "parameter";
 
     /** Attributname der Log-Nachricht. */
-    private static final String NACHRICHT_ATTR_NAME = "nachricht";
+    static final String NACHRICHT_ATTR_NAME = "nachricht";
 
     /** Attributname der Log-Nachricht. */
-    private static final String EXCEPTION_ATTR_NAME = "exception";
+    static final String EXCEPTION_ATTR_NAME = "exception";
 
     /** Attributname der Korrelations-Id. */
     private static final String KORRELATIONSID_ATTR_NAME = "korrelationsid";
@@ -74,11 +80,14 @@ public class IsyJsonLayout extends JsonLayout {
     private static final String MARKER_ATTR_NAME = "marker";
 
     /** Attributname für gekürzte Log-Nachrichten. */
-    private static final String GEKUERZT_ATTR_NAME = "gekuerzt";
+    static final String GEKUERZT_ATTR_NAME = "gekuerzt";
 
     /** Maximale Groesse eines Loeintrags in Byte. */
     private int maxLength = 32000;
 
+    /** Je Thread wiederverwendeter Schreiber für die Serialisierung der Logeinträge. */
+    private final ThreadLocal<IsyJsonSchreiber> schreiber = new ThreadLocal<>();
+
 
     /**
      * Konstruktor der Klasse.
@@ -109,15 +118,57 @@ public class IsyJsonLayout extends JsonLayout {
         if (map == null || map.isEmpty()) {
             return "";
         }
-        String result = getStringFromFormatter(map);
-        if (result == null || result.isEmpty()) {
-            return "";
+        String result = schreibeJson(map, event);
+        if (result == null) {
+            // Rückfallebene: Serialisierung und Kürzung über den konfigurierten JsonFormatter
+            result = getStringFromFormatter(map);
+            if (result == null || result.isEmpty()) {
+                return "";
+            }
+            result = pruefeGroesse(map, result, event);
         }
-        result = pruefeGroesse(map, result, event);
 
         return isAppendLineSeparator() ? result + CoreConstants.LINE_SEPARATOR : result;
     }
 
+    /**
+     * Schreibt die Map des Log-Events mit einem {@link IsyJsonSchreiber} als JSON. Der Logeintrag wird dabei
+     * in einem Durchgang auf die maximale Größe gekürzt (siehe {@link #pruefeGroesse}). Dies ist nur möglich,
+     * wenn ein {@link JacksonJsonFormatter} ohne formatierte Ausgabe konfiguriert ist.
+     *
+     * @param map   die Map mit den Rohdaten des Log-Events
+     * @param event das Log-Event
+     * @return der Logeintrag als String oder {@code null}, falls der Logeintrag über den JsonFormatter
+     * geschrieben werden muss.
+     */
+    private String schreibeJson(Map<String, Object> map, ILoggingEvent event) {
+        JsonFormatter formatter = getJsonFormatter();
+        if (!(formatter instanceof JacksonJsonFormatter)) {
+            return null;
+        }
+        JacksonJsonFormatter jacksonFormatter = (JacksonJsonFormatter) formatter;
+        ObjectMapper mapper = jacksonFormatter.getObjectMapper();
+        if (jacksonFormatter.isPrettyPrint() || mapper == null
+            || mapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+            return null;
+        }
+
+        IsyJsonSchreiber jsonSchreiber = schreiber.get();
+        if (jsonSchreiber == null || !jsonSchreiber.verwendet(mapper)) {
+            jsonSchreiber = new IsyJsonSchreiber(mapper);
+            schreiber.set(jsonSchreiber);
+        }
+
+        // Nur Lognachrichten kürzen, die Level INFO oder höher besitzen
+        int maxLaenge = event.getLevel().isGreaterOrEqual(Level.INFO) ? maxLength : 0;
+        try {
+            return jsonSchreiber.schreibe(map, maxLaenge);
+        } catch (IOException | RuntimeException e) {
+            // Die Fehlerbehandlung erfolgt beim Schreiben über den JsonFormatter.
+            return null;
+        }
+    }
+
     private String getStringFromFormatter(Map<String, Object> map) {
         JsonFormatter formatter = getJsonFormatter();
         if (formatter == null) {
@@ -173,8 +224,10 @@ public class IsyJsonLayout extends JsonLayout {
             jsonMap.put(NACHRICHT_ATTR_NAME, msg);
         }
 
-        // korrelationsid
-        String korrelationsId = MdcHelper.liesKorrelationsId();
+        // korrelationsid: Der MDC wird aus dem Log-Event gelesen, da das Event ggf. asynchron in einem anderen
+        // Thread geschrieben wird.
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        String korrelationsId = mdc == null ? null : mdc.get(MdcHelper.MDC_KORRELATIONS_ID);
         if (korrelationsId == null) {
             korrelationsId = LEERE_KORRELATIONSID;
         }
@@ -201,7 +254,8 @@ public class IsyJsonLayout extends JsonLayout {
         }
 
         // Fachdaten in MDC: Dadurch kann der Wert des Markers "Fachdaten" nochmals überschrieben werden.
-        boolean enthaeltFachlicheDaten = MdcHelper.liesMarkerFachdaten();
+        boolean enthaeltFachlicheDaten =
+            mdc != null && LoggingKonstanten.TRUE.equals(mdc.get(MdcHelper.MDC_FACHDATEN));
         if (enthaeltFachlicheDaten) {
             // Hierdurch wird der bisherige Datentyp des Logeintrags überschrieben!
             processMarker(new FachdatenMarker(), jsonMap, standardMarker);
@@ -267,7 +321,7 @@ public class IsyJsonLayout extends JsonLayout {
             event.getLevel().isGreaterOrEqual(Level.INFO) && // Nur Lognachrichten in Betracht ziehen, die Level INFO oder höher besitzen
             logeintrag.length() >= (maxLength / 2.0)) { // Prüfen, ob die Lognachricht die maximale Größe in Bytes überhaupt mit ihrer Länge erreichen kann
 
-            byte[] zeichen = logeintrag.getBytes();
+            byte[] zeichen = logeintrag.getBytes(StandardCharsets.UTF_8);
             int tatsaechlicheLaenge = zeichen.length;
             if (tatsaechlicheLaenge > maxLength) {
                 // Zunächst alle Parameter des Logeintrags entfernen
@@ -342,7 +396,7 @@ public class IsyJsonLayout extends JsonLayout {
      */
     private int berechneUeberhang(Map<String, Object> map) {
         String logeintrag = getStringFromFormatter(map);
-        int tatsaechlicheLaenge = logeintrag.getBytes().length;
+        int tatsaechlicheLaenge = logeintrag.getBytes(StandardCharsets.UTF_8).length;
 
         // Anzahl der abzuschneidenden Zeichen ermitteln (
         // Berechne Bytes pro Zeichen
@@ -0,0 +1,457 @@
+package de.bund.bva.isyfact.logging.layout;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.bund.bva.isyfact.logging.impl.Ereignisschluessel;
+import de.bund.bva.isyfact.logging.util.LoggingKonstanten;
+
+/**
+ * Schreibt die Attribute eines Logeintrags mit einem {@link JsonGenerator} in einen wiederverwendbaren
+ * Puffer und zählt dabei die Größe des Logeintrags in Byte (UTF-8). Übersteigt der Logeintrag die maximale
+ * Größe, wird er in einem Durchgang anhand der beim Schreiben gemerkten Feldgrenzen gekürzt, ohne ihn erneut
+ * zu serialisieren.
+ * <p>
+ * Die Ausgabe entspricht für nicht gekürzte Logeinträge Zeichen für Zeichen der Ausgabe des
+ * {@link ch.qos.logback.contrib.jackson.JacksonJsonFormatter} mit demselben {@link ObjectMapper}.
+ * <p>
+ * Instanzen sind nicht thread-sicher und werden je Thread verwendet.
+ */
+final class IsyJsonSchreiber {
+
+    /** Anfangsgröße des Puffers in Zeichen. */
+    private static final int PUFFER_GROESSE = 1024;
+
+    /** Maximale Größe des Puffers in Zeichen, die nach dem Schreiben eines Logeintrags behalten wird. */
+    private static final int MAX_BEHALTENE_PUFFER_GROESSE = 64 * 1024;
+
+    /** Der für die Serialisierung der Werte verwendete ObjectMapper. */
+    private final ObjectMapper objectMapper;
+
+    /** Puffer, in den der Logeintrag geschrieben wird. */
+    private final ZaehlenderPuffer puffer = new ZaehlenderPuffer();
+
+    /** Die Schlüssel der geschriebenen Felder. */
+    private String[] schluessel = new String[16];
+
+    /** Position des Feldbeginns (inkl. Komma) im Puffer, in Zeichen. */
+    private int[] feldBeginn = new int[16];
+
+    /** Position des Wertbeginns (inkl. Doppelpunkt) im Puffer, in Zeichen. */
+    private int[] wertBeginn = new int[16];
+
+    /** Position des Wertendes im Puffer, in Zeichen. */
+    private int[] wertEnde = new int[16];
+
+    /** Größe der Werte (inkl. Doppelpunkt) in Byte. */
+    private int[] wertBytes = new int[16];
+
+    /** Serialisierter Wert für gekürzte Felder (inkl. Doppelpunkt). */
+    private String gekuerztWert;
+
+    /** Serialisierter Wert für das Kennzeichen gekürzter Logeinträge (inkl. Doppelpunkt). */
+    private String kennzeichenWert;
+
+    /** Serialisiertes Feld für das Kennzeichen gekürzter Logeinträge (inkl. Komma). */
+    private String kennzeichenFeld;
+
+    /**
+     * Konstruktor der Klasse.
+     *
+     * @param objectMapper
+     *            der für die Serialisierung der Werte zu verwendende ObjectMapper.
+     */
+    IsyJsonSchreiber(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Prüft, ob dieser Schreiber den übergebenen ObjectMapper verwendet.
+     *
+     * @param mapper
+     *            der ObjectMapper.
+     * @return {@code true}, falls der Schreiber den ObjectMapper verwendet.
+     */
+    boolean verwendet(ObjectMapper mapper) {
+        return objectMapper == mapper;
+    }
+
+    /**
+     * Schreibt die Attribute eines Logeintrags als JSON. Ist der Logeintrag größer als die maximale Größe,
+     * wird er nach folgendem Ablauf gekürzt:
+     * 1. Alle Parameter aus dem Logeintrag entfernen.
+     * 2. Feld Exception kürzen, falls vorhanden
+     * 3. Feld Nachricht kürzen
+     *
+     * @param map
+     *            die Attribute des Logeintrags.
+     * @param maxLaenge
+     *            die maximale Größe des Logeintrags in Byte, bei 0 wird nicht gekürzt.
+     * @return der Logeintrag als JSON.
+     * @throws IOException
+     *             falls ein Wert nicht serialisiert werden kann.
+     */
+    String schreibe(Map<String, Object> map, int maxLaenge) throws IOException {
+        puffer.zuruecksetzen();
+        try {
+            int anzahlFelder = schreibeFelder(map);
+            if (maxLaenge <= 0 || puffer.bytes <= maxLaenge) {
+                return puffer.toString();
+            }
+            return kuerze(anzahlFelder, maxLaenge);
+        } finally {
+            puffer.begrenze();
+        }
+    }
+
+    /**
+     * Schreibt die Attribute in den Puffer und merkt sich dabei die Grenzen der Felder.
+     *
+     * @param map
+     *            die Attribute des Logeintrags.
+     * @return die Anzahl der geschriebenen Felder.
+     * @throws IOException
+     *             falls ein Wert nicht serialisiert werden kann.
+     */
+    private int schreibeFelder(Map<String, Object> map) throws IOException {
+        int anzahlFelder = map.size();
+        if (schluessel.length < anzahlFelder) {
+            int neueGroesse = Math.max(anzahlFelder, schluessel.length * 2);
+            schluessel = Arrays.copyOf(schluessel, neueGroesse);
+            feldBeginn = Arrays.copyOf(feldBeginn, neueGroesse);
+            wertBeginn = Arrays.copyOf(wertBeginn, neueGroesse);
+            wertEnde = Arrays.copyOf(wertEnde, neueGroesse);
+            wertBytes = Arrays.copyOf(wertBytes, neueGroesse);
+        }
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(puffer)) {
+            generator.writeStartObject();
+            int i = 0;
+            for (Map.Entry<String, Object> eintrag : map.entrySet()) {
+                generator.flush();
+                schluessel[i] = eintrag.getKey();
+                feldBeginn[i] = puffer.laenge;
+                generator.writeFieldName(eintrag.getKey());
+                generator.flush();
+                wertBeginn[i] = puffer.laenge;
+                int bytesVorWert = puffer.bytes;
+
+                Object wert = eintrag.getValue();
+                if (wert instanceof String) {
+                    generator.writeString((String) wert);
+                } else {
+                    objectMapper.writeValue(generator, wert);
+                }
+                generator.flush();
+                wertEnde[i] = puffer.laenge;
+                wertBytes[i] = puffer.bytes - bytesVorWert;
+                i++;
+            }
+            generator.writeEndObject();
+        }
+        return anzahlFelder;
+    }
+
+    /**
+     * Kürzt den Logeintrag im Puffer anhand der gemerkten Feldgrenzen auf die maximale Größe. Sollte der
+     * Logeintrag nach dem Kürzen immer noch zu lang sein, wird er trotzdem zurückgegeben.
+     *
+     * @param anzahlFelder
+     *            die Anzahl der geschriebenen Felder.
+     * @param maxLaenge
+     *            die maximale Größe des Logeintrags in Byte.
+     * @return der gekürzte Logeintrag.
+     * @throws IOException
+     *             falls die Werte für gekürzte Felder nicht serialisiert werden können.
+     */
+    private String kuerze(int anzahlFelder, int maxLaenge) throws IOException {
+        initialisiereKuerzungswerte();
+
+        String[] ersetzungen = new String[anzahlFelder];
+        int ueberhang = puffer.bytes - maxLaenge;
+        int kennzeichen = -1;
+        int exception = -1;
+        int nachricht = -1;
+
+        for (int i = 0; i < anzahlFelder; i++) {
+            if (schluessel[i].startsWith(IsyJsonLayout.PARAMETER_ATTR_NAME)) {
+                // Zunächst alle Parameter des Logeintrags entfernen
+                ueberhang += ersetze(ersetzungen, i, gekuerztWert);
+            } else if (IsyJsonLayout.GEKUERZT_ATTR_NAME.equals(schluessel[i])) {
+                kennzeichen = i;
+                ueberhang += ersetze(ersetzungen, i, kennzeichenWert);
+            } else if (IsyJsonLayout.EXCEPTION_ATTR_NAME.equals(schluessel[i])) {
+                exception = i;
+            } else if (IsyJsonLayout.NACHRICHT_ATTR_NAME.equals(schluessel[i])) {
+                nachricht = i;
+            }
+        }
+        if (kennzeichen < 0) {
+            ueberhang += utf8Laenge(kennzeichenFeld);
+        }
+
+        // Zuerst Exception kürzen, falls vorhanden, dann Nachricht, falls noch zu lang
+        int gekuerztesFeld = -1;
+        int gekuerztBis = -1;
+        for (int feld : new int[] { exception, nachricht }) {
+            if (ueberhang <= 0 || feld < 0 || !istZeichenkette(feld)) {
+                continue;
+            }
+            int inhaltBytes = wertBytes[feld] - 3;
+            if (ueberhang >= inhaltBytes) {
+                ueberhang += ersetze(ersetzungen, feld, gekuerztWert);
+            } else {
+                gekuerztesFeld = feld;
+                gekuerztBis = ermittleKuerzungsposition(wertBeginn[feld] + 2, inhaltBytes - ueberhang);
+                ueberhang = 0;
+            }
+        }
+
+        // Logeintrag in einem Durchgang aus dem Puffer und den Ersetzungen zusammensetzen
+        char[] zeichen = puffer.zeichen;
+        StringBuilder ergebnis = new StringBuilder(puffer.laenge + kennzeichenFeld.length());
+        int kopiertBis = 0;
+        for (int i = 0; i < anzahlFelder; i++) {
+            if (i == gekuerztesFeld) {
+                ergebnis.append(zeichen, kopiertBis, gekuerztBis - kopiertBis).append('"');
+                kopiertBis = wertEnde[i];
+            } else if (ersetzungen[i] != null) {
+                ergebnis.append(zeichen, kopiertBis, wertBeginn[i] - kopiertBis).append(ersetzungen[i]);
+                kopiertBis = wertEnde[i];
+            }
+        }
+        if (kennzeichen < 0) {
+            int letztesWertEnde = wertEnde[anzahlFelder - 1];
+            ergebnis.append(zeichen, kopiertBis, letztesWertEnde - kopiertBis).append(kennzeichenFeld);
+            kopiertBis = letztesWertEnde;
+        }
+        ergebnis.append(zeichen, kopiertBis, puffer.laenge - kopiertBis);
+        return ergebnis.toString();
+    }
+
+    /**
+     * Merkt einen Ersatzwert für ein Feld vor.
+     *
+     * @param ersetzungen
+     *            die vorgemerkten Ersatzwerte.
+     * @param feld
+     *            der Index des Felds.
+     * @param ersatzwert
+     *            der serialisierte Ersatzwert (inkl. Doppelpunkt).
+     * @return die Veränderung der Größe des Logeintrags in Byte.
+     */
+    private int ersetze(String[] ersetzungen, int feld, String ersatzwert) {
+        ersetzungen[feld] = ersatzwert;
+        return utf8Laenge(ersatzwert) - wertBytes[feld];
+    }
+
+    /**
+     * Prüft, ob der Wert eines Felds als JSON-Zeichenkette geschrieben wurde.
+     *
+     * @param feld
+     *            der Index des Felds.
+     * @return {@code true}, falls der Wert eine Zeichenkette ist.
+     */
+    private boolean istZeichenkette(int feld) {
+        char[] zeichen = puffer.zeichen;
+        return wertEnde[feld] - wertBeginn[feld] >= 3 && zeichen[wertBeginn[feld]] == ':'
+            && zeichen[wertBeginn[feld] + 1] == '"' && zeichen[wertEnde[feld] - 1] == '"';
+    }
+
+    /**
+     * Ermittelt, bis zu welcher Position der Inhalt einer serialisierten Zeichenkette übernommen werden kann,
+     * ohne die verfügbare Anzahl Byte zu überschreiten. Escape-Sequenzen und Surrogat-Paare werden dabei
+     * nicht getrennt.
+     *
+     * @param beginn
+     *            die Position des ersten Zeichens des Inhalts im Puffer.
+     * @param verfuegbareBytes
+     *            die verfügbare Anzahl Byte.
+     * @return die Position hinter dem letzten zu übernehmenden Zeichen.
+     */
+    private int ermittleKuerzungsposition(int beginn, int verfuegbareBytes) {
+        char[] zeichen = puffer.zeichen;
+        int position = beginn;
+        int bytes = 0;
+        while (true) {
+            char c = zeichen[position];
+            int anzahlZeichen;
+            int anzahlBytes;
+            if (c == '\\') {
+                anzahlZeichen = zeichen[position + 1] == 'u' ? 6 : 2;
+                anzahlBytes = anzahlZeichen;
+            } else if (Character.isHighSurrogate(c) && Character.isLowSurrogate(zeichen[position + 1])) {
+                anzahlZeichen = 2;
+                anzahlBytes = 4;
+            } else {
+                anzahlZeichen = 1;
+                anzahlBytes = utf8Laenge(c);
+            }
+            if (bytes + anzahlBytes > verfuegbareBytes) {
+                return position;
+            }
+            bytes += anzahlBytes;
+            position += anzahlZeichen;
+        }
+    }
+
+    /**
+     * Serialisiert die Werte, die beim Kürzen in den Logeintrag übernommen werden.
+     *
+     * @throws IOException
+     *             falls die Werte nicht serialisiert werden können.
+     */
+    private void initialisiereKuerzungswerte() throws IOException {
+        if (kennzeichenFeld == null) {
+            gekuerztWert =
+                ':' + objectMapper.writeValueAsString(Ereignisschluessel.DEBUG_LOG_GEKUERZT.getNachricht());
+            kennzeichenWert = ':' + objectMapper.writeValueAsString(LoggingKonstanten.TRUE);
+            kennzeichenFeld =
+                ',' + objectMapper.writeValueAsString(IsyJsonLayout.GEKUERZT_ATTR_NAME) + kennzeichenWert;
+        }
+    }
+
+    /**
+     * Berechnet die Größe einer Zeichenkette in UTF-8.
+     *
+     * @param text
+     *            die Zeichenkette.
+     * @return die Größe in Byte.
+     */
+    private static int utf8Laenge(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            bytes += utf8Laenge(text.charAt(i));
+        }
+        return bytes;
+    }
+
+    /**
+     * Berechnet die Größe eines Zeichens in UTF-8. Surrogate werden mit jeweils zwei Byte gezählt, so dass
+     * ein Surrogat-Paar vier Byte ergibt.
+     *
+     * @param c
+     *            das Zeichen.
+     * @return die Größe in Byte.
+     */
+    private static int utf8Laenge(char c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800 || Character.isSurrogate(c)) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+
+    /**
+     * Wiederverwendbarer Puffer, der die Größe der geschriebenen Zeichen in UTF-8 mitzählt.
+     */
+    private static final class ZaehlenderPuffer extends Writer {
+
+        /** Die geschriebenen Zeichen. */
+        private char[] zeichen = new char[PUFFER_GROESSE];
+
+        /** Anzahl der geschriebenen Zeichen. */
+        private int laenge;
+
+        /** Größe der geschriebenen Zeichen in UTF-8. */
+        private int bytes;
+
+        @Override
+        public void write(int c) {
+            sichereKapazitaet(1);
+            zeichen[laenge++] = (char) c;
+            bytes += utf8Laenge((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sichereKapazitaet(len);
+            System.arraycopy(cbuf, off, zeichen, laenge, len);
+            zaehle(len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            sichereKapazitaet(len);
+            str.getChars(off, off + len, zeichen, laenge);
+            zaehle(len);
+        }
+
+        @Override
+        public void flush() {
+            // Nichts zu tun, die Zeichen liegen bereits im Puffer.
+        }
+
+        @Override
+        public void close() {
+            // Nichts zu tun, der Puffer wird wiederverwendet.
+        }
+
+        @Override
+        public String toString() {
+            return new String(zeichen, 0, laenge);
+        }
+
+        /**
+         * Setzt den Puffer für den nächsten Logeintrag zurück.
+         */
+        private void zuruecksetzen() {
+            laenge = 0;
+            bytes = 0;
+        }
+
+        /**
+         * Gibt einen zu groß gewordenen Puffer frei, damit einzelne große Logeinträge nicht dauerhaft
+         * Speicher belegen.
+         */
+        private void begrenze() {
+            if (zeichen.length > MAX_BEHALTENE_PUFFER_GROESSE) {
+                zeichen = new char[PUFFER_GROESSE];
+                zuruecksetzen();
+            }
+        }
+
+        private void zaehle(int len) {
+            for (int i = laenge; i < laenge + len; i++) {
+                bytes += utf8Laenge(zeichen[i]);
+            }
+            laenge += len;
+        }
+
+        private void sichereKapazitaet(int zusaetzlich) {
+            if (laenge + zusaetzlich > zeichen.length) {
+                zeichen = Arrays.copyOf(zeichen, Math.max(laenge + zusaetzlich, zeichen.length * 2));
+            }
+        }
+    }
+}
@@ -37,6 +37,16 @@ public class BeanGroessePruefer {
         PRIMITIVE_TYPEN_GROESSE = Collections.unmodifiableMap(typen);
     }
 
+    /**
+     * Die je Klasse zwischengespeicherten Layouts der Attribute.
+     */
+    private static final ClassValue<FeldLayout> FELD_LAYOUTS = new ClassValue<FeldLayout>() {
+        @Override
+        protected FeldLayout computeValue(Class<?> klasse) {
+            return ermittleFeldLayout(klasse);
+        }
+    };
+
     /**
      * Prüft die Größe eines Log-Parameters gegen einen Maximalwert.
      *
@@ -50,15 +60,16 @@ public class BeanGroessePruefer {
     }
 
     /**
-     * Ermittelt die Größe eines Log-Parameters in Byte. Bricht ab, wenn die Größe des Beans die Maximalgröße
-     * übersteigt.
+     * Ermittelt die Größe eines Log-Parameters in Byte. Bricht ab, sobald die Größe des Beans die
+     * Maximalgröße übersteigt. Der Aufwand ist damit durch die Maximalgröße begrenzt und nicht durch die Größe
+     * des gesamten Objektgraphen.
      *
      * @param bean           Log-Parameter
      * @param maximalGroesse maximal erlaubte Größe (in Byte)
      * @return {@code true} falls der Parameter innerhalb der erlaubten Größe liegt, {@code false} falls der
      * Parameter zu groß ist.
      */
-    private boolean ermittleGroesseInBytes(Object bean, Long maximalGroesse) {
+    private boolean ermittleGroesseInBytes(Object bean, long maximalGroesse) {
         Set<Object> bereitsGezaehlteBeans = Collections.newSetFromMap(new IdentityHashMap<>());
         long beanGroesse = 0L;
 
@@ -67,81 +78,116 @@ public class BeanGroessePruefer {
             stack.push(bean);
         }
 
-        while (!stack.isEmpty() && beanGroesse <= maximalGroesse) {
+        while (!stack.isEmpty()) {
             Object objekt = stack.pop();
 
             // Ignoriere die Instanz, falls sie:
             // - eine Enum oder Klasse ist (dann liegt sie einmal pro VM im Speicher)
             // - schon einmal gezählt wurde
-            // - null ist, da sie dann nichts zur Größe beiträgt
-            if (objekt != null && !(Enum.class.isAssignableFrom(objekt.getClass())
-                || objekt instanceof Class<?>) && bereitsGezaehlteBeans.add(objekt)) {
-                Class<?> klasse = objekt.getClass();
-                if (PRIMITIVE_TYPEN_GROESSE.containsKey(klasse)) {
-                    beanGroesse += PRIMITIVE_TYPEN_GROESSE.get(klasse);
-                } else if (klasse.isArray()) {
-                    if (PRIMITIVE_TYPEN_GROESSE.containsKey(klasse.getComponentType())) {
-                        beanGroesse +=
-                            PRIMITIVE_TYPEN_GROESSE.get(klasse.getComponentType()) * Array.getLength(objekt);
-                    } else {
-                        for (int i = Array.getLength(objekt) - 1; i >= 0; i--) {
-                            Object childValue = Array.get(objekt, i);
-                            if (childValue != null) {
-                                stack.push(childValue);
-                            }
+            if (objekt instanceof Enum<?> || objekt instanceof Class<?> || !bereitsGezaehlteBeans.add(objekt)) {
+                continue;
+            }
+
+            Class<?> klasse = objekt.getClass();
+            Integer groesse = PRIMITIVE_TYPEN_GROESSE.get(klasse);
+            if (groesse != null) {
+                beanGroesse += groesse;
+            } else if (klasse.isArray()) {
+                Integer elementGroesse = PRIMITIVE_TYPEN_GROESSE.get(klasse.getComponentType());
+                if (elementGroesse != null) {
+                    beanGroesse += (long) elementGroesse * Array.getLength(objekt);
+                } else {
+                    for (int i = Array.getLength(objekt) - 1; i >= 0; i--) {
+                        Object childValue = Array.get(objekt, i);
+                        if (childValue != null) {
+                            stack.push(childValue);
                         }
                     }
-                } else {
-                    for (Field attribut : ermittleAlleInstanzAttribute(objekt)) {
-                        try {
-                            Object attributWert = attribut.get(objekt);
-                            if (attributWert != null) {
-                                if (PRIMITIVE_TYPEN_GROESSE.containsKey(attributWert.getClass())) {
-                                    beanGroesse += PRIMITIVE_TYPEN_GROESSE.get(attributWert.getClass());
-                                } else {
-                                    stack.push(attributWert);
-                                }
+                }
+            } else {
+                FeldLayout layout = FELD_LAYOUTS.get(klasse);
+                beanGroesse += layout.primitiveGroesse;
+                for (Field attribut : layout.referenzAttribute) {
+                    if (beanGroesse > maximalGroesse) {
+                        return false;
+                    }
+                    try {
+                        Object attributWert = attribut.get(objekt);
+                        if (attributWert != null) {
+                            Integer attributGroesse = PRIMITIVE_TYPEN_GROESSE.get(attributWert.getClass());
+                            if (attributGroesse != null) {
+                                beanGroesse += attributGroesse;
+                            } else {
+                                stack.push(attributWert);
                             }
-                        } catch (IllegalAccessException e) {
-                            // Wenn Reflection nicht funktioniert, ist die Größenmessung deaktiviert.
                         }
+                    } catch (IllegalAccessException e) {
+                        // Wenn Reflection nicht funktioniert, ist die Größenmessung deaktiviert.
                     }
                 }
             }
+
+            if (beanGroesse > maximalGroesse) {
+                return false;
+            }
         }
 
-        return beanGroesse <= maximalGroesse;
+        return true;
     }
 
     /**
-     * Ermittelt alle Attribute einer Instanz, die nicht statisch sind. Schaut dazu auch in die Superklassen.
-     * Setzt die Felder alle "accessible", so dass via Reflection darauf zugegriffen werden kann.
+     * Ermittelt das Layout der Attribute einer Klasse. Dazu werden alle nicht-statischen Attribute der Klasse
+     * und ihrer Superklassen ermittelt. Die Größe der Attribute mit primitivem Typ wird aufsummiert, die
+     * übrigen Attribute werden "accessible" gesetzt, so dass via Reflection darauf zugegriffen werden kann.
      *
-     * @param instanz Instanz
-     * @return eine Liste aller nicht-statischen Attribute.
+     * @param klasse Klasse
+     * @return das Layout der Attribute.
      */
-    private List<Field> ermittleAlleInstanzAttribute(Object instanz) {
-        List<Field> fields = new ArrayList<>();
+    private static FeldLayout ermittleFeldLayout(Class<?> klasse) {
+        long primitiveGroesse = 0L;
+        List<Field> referenzAttribute = new ArrayList<>();
 
-        Class<?> clazz = instanz.getClass();
-        while (clazz != null) {
-            for (Field field : Arrays.asList(clazz.getDeclaredFields())) {
+        for (Class<?> clazz = klasse; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
                 // nur nicht-statische Attribute aufnehmen
-                if (!Modifier.isStatic(field.getModifiers())) {
-                    fields.add(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Class<?> typ = field.getType();
+                if (typ.isPrimitive()) {
+                    primitiveGroesse += PRIMITIVE_TYPEN_GROESSE.get(typ);
+                } else if (!typ.isEnum() && typ != Class.class) {
+                    // Enums und Klassen tragen nichts zur Größe bei.
+                    referenzAttribute.add(field);
                 }
             }
-            clazz = clazz.getSuperclass();
         }
 
         // So gibt es nur eine Anfrage an den SecurityManager
         try {
-            AccessibleObject.setAccessible(fields.toArray(new AccessibleObject[fields.size()]), true);
+            AccessibleObject.setAccessible(referenzAttribute.toArray(new AccessibleObject[0]), true);
         } catch (SecurityException e) {
             // Wenn es die Sicherheit nicht erlaubt, ist die Messung deaktiviert.
-            return Collections.emptyList();
+            return new FeldLayout(0L, new Field[0]);
+        }
+        return new FeldLayout(primitiveGroesse, referenzAttribute.toArray(new Field[0]));
+    }
+
+    /**
+     * Das zwischengespeicherte Layout der Attribute einer Klasse.
+     */
+    private static final class FeldLayout {
+
+        /** Summe der Größen aller Attribute mit primitivem Typ. */
+        private final long primitiveGroesse;
+
+        /** Attribute, deren Werte beim Durchlaufen des Objektgraphen einzeln betrachtet werden. */
+        private final Field[] referenzAttribute;
+
+        private FeldLayout(long primitiveGroesse, Field[] referenzAttribute) {
+            this.primitiveGroesse = primitiveGroesse;
+            this.referenzAttribute = referenzAttribute;
         }
-        return fields;
     }
 
 }
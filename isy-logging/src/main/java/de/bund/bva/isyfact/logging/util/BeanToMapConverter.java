@@ -27,14 +27,22 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Function;
 
 import de.bund.bva.isyfact.logging.exceptions.SerialisierungException;
 import de.bund.bva.isyfact.logging.impl.FehlerSchluessel;
@@ -60,7 +68,28 @@ public class BeanToMapConverter implements BeanConverter {
     public static final String EXCLUDED_VALUE = "NICHT_SERIALISIERT";
 
     /**
-     * Konstruktor der Klasse. Initialisiert die übergebenen Properties.
+     * Die lesbaren Properties je Klasse. Die Properties hängen nicht von den Includes und Excludes ab und
+     * werden daher von allen Konvertern gemeinsam genutzt.
+     */
+    private static final ClassValue<Property[]> PROPERTIES = new ClassValue<Property[]>() {
+        @Override
+        protected Property[] computeValue(Class<?> klasse) {
+            return ermittleProperties(klasse);
+        }
+    };
+
+    /** Die anhand der Includes und Excludes ermittelte Art der Konvertierung je Klasse. */
+    private final ClassValue<ConversionStyle> conversionStyles = new ClassValue<ConversionStyle>() {
+        @Override
+        protected ConversionStyle computeValue(Class<?> klasse) {
+            return ermittleConversionStyle(klasse);
+        }
+    };
+
+    /**
+     * Konstruktor der Klasse. Initialisiert die übergebenen Properties. Die Listen werden kopiert, da die Art
+     * der Konvertierung je Klasse zwischengespeichert wird und spätere Änderungen an den Listen daher nicht
+     * mehr berücksichtigt werden könnten.
      * 
      * @param includes
      *            List der zu berücksichtigenden Packages.
@@ -68,8 +97,19 @@ public class BeanToMapConverter implements BeanConverter {
      *            List der zu ignorierenden Packages.
      */
     public BeanToMapConverter(List<String> includes, List<String> excludes) {
-        this.includes = includes;
-        this.excludes = excludes;
+        this.includes = kopiere(includes);
+        this.excludes = kopiere(excludes);
+    }
+
+    /**
+     * Erzeugt eine unveränderliche Kopie einer Liste.
+     * 
+     * @param liste
+     *            die zu kopierende Liste, kann <code>null</code> sein.
+     * @return die Kopie oder <code>null</code>, falls keine Liste übergeben wurde.
+     */
+    private static List<String> kopiere(List<String> liste) {
+        return liste == null ? null : Collections.unmodifiableList(new ArrayList<>(liste));
     }
 
     /** Enum zum bestimmen der Art in der die Verarbeitung einer Property stattfinden soll. */
@@ -122,46 +162,22 @@ public class BeanToMapConverter implements BeanConverter {
 
         propertyMap.put(HASHCODE_KEY, "" + bean.hashCode());
 
-        BeanInfo beanInfo;
-        try {
-            beanInfo = Introspector.getBeanInfo(bean.getClass());
-        } catch (IntrospectionException e) {
-            throw new SerialisierungException(FehlerSchluessel.FEHLER_SERIALISIERUNG_AUFRUFPARAMETER, e);
-        }
-        PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-
-        // Iteration über alle Properties des Beans.
-        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-
-            // Name der Property
-            String name = propertyDescriptor.getName();
-
-            Method readMethod = propertyDescriptor.getReadMethod();
-
-            // Überspringen, falls keine öffentliche Read-Methode für die Property vorhanden ist.
-            if (readMethod == null) {
-                continue;
-            }
+        // Iteration über alle Properties des Beans, die eine öffentliche Read-Methode besitzen.
+        for (Property property : PROPERTIES.get(bean.getClass())) {
 
             // Wert der Property
             Object value;
             try {
-                value = readMethod.invoke(bean);
+                value = property.getter.apply(bean);
             } catch (Exception e) {
                 throw new SerialisierungException(FehlerSchluessel.FEHLER_SERIALISIERUNG_AUFRUFPARAMETER, e);
             }
 
-            // Leerwerte werden nicht übernommen
-            Object converted;
-            if (value == null) {
-                converted = processValue(value, seen);
-            } else {
-                converted = processValue(value, seen);
-            }
+            Object converted = processValue(value, seen);
             // Leerwerte werden nicht übernommen - Null-Werte, die übernommen werden sollen, werden bereits in
             // der Konvertierung zu einem String umgewandelt.
             if (converted != null) {
-                propertyMap.put(name, converted);
+                propertyMap.put(property.name, converted);
             }
         }
 
@@ -325,7 +341,19 @@ public class BeanToMapConverter implements BeanConverter {
             return ConversionStyle.TOSTRING;
         }
 
-        Class<? extends Object> classObj = value.getClass();
+        return conversionStyles.get(value.getClass());
+    }
+
+    /**
+     * Bestimmung in welcher Form Objekte der übergebenen Klasse serialisiert werden sollen. Das Ergebnis wird
+     * je Klasse zwischengespeichert.
+     * 
+     * @param classObj
+     *            die Klasse des zu konvertierenden Werts.
+     * @return die Art der Konvertierung.
+     */
+    private ConversionStyle ermittleConversionStyle(Class<?> classObj) {
+
         String className = classObj.getName();
 
         // Einfache Datentypen werden als String übernommen (Primitives können nicht vorkommen, da diese
@@ -350,6 +378,83 @@ public class BeanToMapConverter implements BeanConverter {
 
     }
 
+    /**
+     * Ermittelt die Properties einer Klasse, die eine öffentliche Read-Methode besitzen.
+     * 
+     * @param klasse
+     *            die Klasse.
+     * @return die Properties der Klasse.
+     */
+    private static Property[] ermittleProperties(Class<?> klasse) {
+        BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(klasse);
+        } catch (IntrospectionException e) {
+            throw new SerialisierungException(FehlerSchluessel.FEHLER_SERIALISIERUNG_AUFRUFPARAMETER, e);
+        }
+
+        List<Property> properties = new ArrayList<>();
+        for (PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
+            Method readMethod = propertyDescriptor.getReadMethod();
+
+            // Überspringen, falls keine öffentliche Read-Methode für die Property vorhanden ist.
+            if (readMethod != null) {
+                properties.add(new Property(propertyDescriptor.getName(), erzeugeGetter(readMethod)));
+            }
+        }
+        return properties.toArray(new Property[0]);
+    }
+
+    /**
+     * Erzeugt einen Getter für eine Read-Methode. Ist die Methode von diesem Konverter aus erreichbar, wird
+     * der Getter über {@link LambdaMetafactory} erzeugt. Ansonsten wird die Methode per Reflection aufgerufen.
+     * 
+     * @param readMethod
+     *            die Read-Methode.
+     * @return der Getter.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> erzeugeGetter(Method readMethod) {
+        if (istErreichbar(readMethod.getDeclaringClass())) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle readMethodHandle = lookup.unreflect(readMethod);
+                CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                    readMethodHandle, readMethodHandle.type().wrap());
+                return (Function<Object, Object>) callSite.getTarget().invoke();
+            } catch (Throwable t) {
+                // Aufruf per Reflection als Rückfallebene
+            }
+        }
+        return bean -> {
+            try {
+                return readMethod.invoke(bean);
+            } catch (ReflectiveOperationException e) {
+                throw new SerialisierungException(FehlerSchluessel.FEHLER_SERIALISIERUNG_AUFRUFPARAMETER, e);
+            }
+        };
+    }
+
+    /**
+     * Prüft, ob eine Klasse öffentlich und über den ClassLoader dieses Konverters sichtbar ist. Nur dann
+     * kann ein über {@link LambdaMetafactory} erzeugter Getter auf sie zugreifen.
+     * 
+     * @param klasse
+     *            die zu prüfende Klasse.
+     * @return <code>true</code>, falls die Klasse erreichbar ist.
+     */
+    private static boolean istErreichbar(Class<?> klasse) {
+        if (!Modifier.isPublic(klasse.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(klasse.getName(), false, BeanToMapConverter.class.getClassLoader()) == klasse;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
     /**
      * Prüft ob die übergebene Klasse in die Serialisierung mit einbezogen (Include) werden soll.
      * 
@@ -390,7 +495,7 @@ public class BeanToMapConverter implements BeanConverter {
     /**
      * Liefert den Wert des Attributs 'includes'.
      * 
-     * @return Wert des Attributs.
+     * @return Wert des Attributs, nicht veränderbar.
      */
     public List<String> getIncludes() {
         return includes;
@@ -399,9 +504,34 @@ public class BeanToMapConverter implements BeanConverter {
     /**
      * Liefert den Wert des Attributs 'excludes'.
      * 
-     * @return Wert des Attributs.
+     * @return Wert des Attributs, nicht veränderbar.
      */
     public List<String> getExcludes() {
         return excludes;
     }
+
+    /**
+     * Eine lesbare Property eines Beans.
+     */
+    private static final class Property {
+
+        /** Name der Property. */
+        private final String name;
+
+        /** Getter für den Wert der Property. */
+        private final Function<Object, Object> getter;
+
+        /**
+         * Konstruktor der Klasse.
+         * 
+         * @param name
+         *            Name der Property.
+         * @param getter
+         *            Getter für den Wert der Property.
+         */
+        private Property(String name, Function<Object, Object> getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+    }
 }
@@ -23,13 +23,21 @@ package de.bund.bva.isyfact.logging.util;
  * #L%
  */
 
+import java.util.Arrays;
+
 import de.bund.bva.isyfact.logging.IsyLoggerFactory;
 import de.bund.bva.isyfact.logging.IsyLoggerStandard;
 import org.slf4j.MDC;
 
 /**
  * Hilfsklasse zum Zugriff auf den MDC.
- * 
+ * <p>
+ * Die Korrelations-IDs werden je Thread in einem Stapel verwaltet, der zu jeder Tiefe die durch Semikolon
+ * getrennten Korrelations-IDs vorhält. Der MDC wird bei jedem Hinzufügen und Entfernen einer Korrelations-ID
+ * sofort aktualisiert, sodass auch Logeinträge, die den MDC direkt lesen (z.B. über {@code %X} oder
+ * {@link MDC#getCopyOfContextMap()}), immer die aktuellen Korrelations-IDs enthalten. Ist der Stapel leer,
+ * wird er aus dem Thread entfernt. Wird der Wert im MDC direkt geändert, wird der Stapel aus dem MDC neu
+ * aufgebaut.
  */
 public final class MdcHelper {
 
@@ -45,6 +53,9 @@ public final class MdcHelper {
     /** Logger der Klasse. */
     private static final IsyLoggerStandard LOG = IsyLoggerFactory.getLogger(MdcHelper.class);
 
+    /** Der Stapel der Korrelations-IDs des aktuellen Threads. */
+    private static final ThreadLocal<KorrelationsIdStapel> STAPEL = new ThreadLocal<>();
+
     /**
      * Privater Konstruktor der Klasse. Verhindert, dass Instanzen der Klasse angelegt werden.
      * 
@@ -60,19 +71,12 @@ public final class MdcHelper {
      * @return die entfernte Korrelations-ID.
      */
     public static String entferneKorrelationsId() {
-        String korrelationsId = MDC.get(MDC_KORRELATIONS_ID);
-        if (korrelationsId == null) {
-            return null;
-        } else if (!korrelationsId.contains(TRENNER)) {
-            MDC.remove(MDC_KORRELATIONS_ID);
-            return korrelationsId;
-        } else {
-            int letztesSemikolon = korrelationsId.lastIndexOf(TRENNER);
-            String korrelationsIdEntfernt = korrelationsId.substring(letztesSemikolon + 1);
-            korrelationsId = korrelationsId.substring(0, letztesSemikolon);
-            MDC.put(MDC_KORRELATIONS_ID, korrelationsId);
-            return korrelationsIdEntfernt;
+        KorrelationsIdStapel stapel = getStapel();
+        String korrelationsId = stapel.entferne();
+        if (stapel.istLeer()) {
+            STAPEL.remove();
         }
+        return korrelationsId;
     }
 
     /**
@@ -80,6 +84,7 @@ public final class MdcHelper {
      */
     public static void entferneKorrelationsIds() {
         MDC.remove(MDC_KORRELATIONS_ID);
+        STAPEL.remove();
     }
 
     /**
@@ -104,15 +109,26 @@ public final class MdcHelper {
      * @return die komplette KorrelationsId.
      */
     public static String pushKorrelationsId(String korrelationsId) {
-        String vorhandeneKorrelationsId = MDC.get(MDC_KORRELATIONS_ID);
-        String neueKorrelationsId;
-        if (vorhandeneKorrelationsId == null) {
-            neueKorrelationsId = korrelationsId;
-        } else {
-            neueKorrelationsId = vorhandeneKorrelationsId + TRENNER + korrelationsId;
+        KorrelationsIdStapel stapel = getStapel();
+        String korrelationsIds = stapel.fuegeHinzu(korrelationsId);
+        if (stapel.istLeer()) {
+            STAPEL.remove();
+        }
+        return korrelationsIds;
+    }
+
+    /**
+     * Liefert den Stapel der Korrelations-IDs des aktuellen Threads und legt ihn bei Bedarf an.
+     * 
+     * @return der Stapel.
+     */
+    private static KorrelationsIdStapel getStapel() {
+        KorrelationsIdStapel stapel = STAPEL.get();
+        if (stapel == null) {
+            stapel = new KorrelationsIdStapel();
+            STAPEL.set(stapel);
         }
-        MDC.put(MDC_KORRELATIONS_ID, neueKorrelationsId);
-        return neueKorrelationsId;
+        return stapel;
     }
 
     /**
@@ -147,5 +163,116 @@ public final class MdcHelper {
     public static void entferneMarkerFachdaten() {
         MDC.remove(MDC_FACHDATEN);
     }
-    
+
+    /**
+     * Stapel der Korrelations-IDs eines Threads. Zu jeder Tiefe wird die zusammengesetzte Korrelations-ID
+     * vorgehalten, sodass beim Entfernen keine Zeichenketten kopiert werden müssen.
+     */
+    private static final class KorrelationsIdStapel {
+
+        /** Die einzelnen Korrelations-IDs. */
+        private String[] ids = new String[8];
+
+        /** Die zusammengesetzten Korrelations-IDs je Tiefe. */
+        private String[] zusammengesetzt = new String[8];
+
+        /** Anzahl der Korrelations-IDs im Stapel. */
+        private int tiefe;
+
+        /** Der zuletzt in den MDC geschriebene Wert oder {@code null}, falls der Schlüssel entfernt wurde. */
+        private String mdcWert;
+
+        private String fuegeHinzu(String korrelationsId) {
+            synchronisiereMitMdc();
+            if (korrelationsId != null) {
+                legeAlle(korrelationsId);
+                schreibeMdc();
+            }
+            return aktuell();
+        }
+
+        private String entferne() {
+            synchronisiereMitMdc();
+            if (tiefe == 0) {
+                return null;
+            }
+            tiefe--;
+            String korrelationsId = ids[tiefe];
+            ids[tiefe] = null;
+            zusammengesetzt[tiefe] = null;
+            schreibeMdc();
+            return korrelationsId;
+        }
+
+        private boolean istLeer() {
+            return tiefe == 0;
+        }
+
+        /**
+         * Schreibt die aktuellen Korrelations-IDs in den MDC bzw. entfernt den Schlüssel bei leerem Stapel.
+         */
+        private void schreibeMdc() {
+            String korrelationsId = aktuell();
+            if (korrelationsId == null) {
+                MDC.remove(MDC_KORRELATIONS_ID);
+            } else {
+                MDC.put(MDC_KORRELATIONS_ID, korrelationsId);
+            }
+            mdcWert = korrelationsId;
+        }
+
+        private String aktuell() {
+            return tiefe == 0 ? null : zusammengesetzt[tiefe - 1];
+        }
+
+        private void lege(String korrelationsId) {
+            if (tiefe == ids.length) {
+                ids = Arrays.copyOf(ids, tiefe * 2);
+                zusammengesetzt = Arrays.copyOf(zusammengesetzt, tiefe * 2);
+            }
+            ids[tiefe] = korrelationsId;
+            zusammengesetzt[tiefe] =
+                tiefe == 0 ? korrelationsId : zusammengesetzt[tiefe - 1] + TRENNER + korrelationsId;
+            tiefe++;
+        }
+
+        /**
+         * Baut den Stapel aus dem MDC neu auf, falls der Wert im MDC nicht über den MdcHelper geändert
+         * wurde. Der Vergleich erfolgt über die Identität, da der MdcHelper immer die Instanz aus
+         * {@link #zusammengesetzt} in den MDC schreibt.
+         */
+        private void synchronisiereMitMdc() {
+            String wert = MDC.get(MDC_KORRELATIONS_ID);
+            if (wert != mdcWert) {
+                leereStapel();
+                mdcWert = wert;
+                if (wert != null) {
+                    legeAlle(wert);
+                    zusammengesetzt[tiefe - 1] = wert;
+                }
+            }
+        }
+
+        /**
+         * Legt die durch Semikolon getrennten Korrelations-IDs einzeln auf den Stapel, damit sie einzeln
+         * entfernt werden können.
+         */
+        private void legeAlle(String korrelationsIds) {
+            int beginn = 0;
+            int trenner;
+            while ((trenner = korrelationsIds.indexOf(TRENNER, beginn)) >= 0) {
+                lege(korrelationsIds.substring(beginn, trenner));
+                beginn = trenner + TRENNER.length();
+            }
+            lege(beginn == 0 ? korrelationsIds : korrelationsIds.substring(beginn));
+        }
+
+        private void leereStapel() {
+            while (tiefe > 0) {
+                tiefe--;
+                ids[tiefe] = null;
+                zusammengesetzt[tiefe] = null;
+            }
+        }
+    }
 }
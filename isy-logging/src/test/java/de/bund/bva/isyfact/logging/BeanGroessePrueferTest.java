@@ -88,10 +88,37 @@ public class BeanGroessePrueferTest extends AbstractLogTest {
         assertFalse(pruefer.pruefeGroesse(container, 49999999L));
     }
 
+    /**
+     * Testet die Zählung primitiver Attribute, auch in Superklassen.
+     */
+    @Test
+    public void testePrimitiveAttribute() {
+        BeanGroessePruefer pruefer = new BeanGroessePruefer();
+
+        // 8 Byte (long) + 4 Byte (int) + 4 Byte (Integer) + 2 Byte (char)
+        UnterContainer container = new UnterContainer();
+        container.zahl = 4711;
+
+        assertTrue(pruefer.pruefeGroesse(container, 18L));
+        assertFalse(pruefer.pruefeGroesse(container, 17L));
+    }
+
     static class Container {
         public byte[] daten;
 
         public Class<?> klasse;
     }
 
-}
\ No newline at end of file
+    static class PrimitivContainer {
+        public long langeZahl;
+
+        public int kurzeZahl;
+    }
+
+    static class UnterContainer extends PrimitivContainer {
+        public Integer zahl;
+
+        public char zeichen;
+    }
+
+}
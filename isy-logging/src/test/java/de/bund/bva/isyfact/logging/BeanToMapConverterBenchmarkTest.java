@@ -0,0 +1,110 @@
+package de.bund.bva.isyfact.logging;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import de.bund.bva.isyfact.logging.hilfsklassen.ReflektiverBeanToMapConverter;
+import de.bund.bva.isyfact.logging.hilfsklassen.TestBeanKomplex;
+import de.bund.bva.isyfact.logging.util.BeanConverter;
+import de.bund.bva.isyfact.logging.util.BeanToMapConverter;
+import de.bund.bva.isyfact.logging.util.LogHelper;
+
+/**
+ * Vergleicht die Konvertierung des {@link BeanToMapConverter} mit einer rein reflektiven Konvertierung, bei
+ * der die Properties bei jedem Aufruf neu ermittelt werden. Die reflektive Konvertierung ist eine Nachbildung
+ * der früheren Implementierung ({@link ReflektiverBeanToMapConverter}), der Vergleich daher eine Näherung.
+ */
+public class BeanToMapConverterBenchmarkTest {
+
+    /** Logger. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(BeanToMapConverterBenchmarkTest.class);
+
+    /** Anzahl der Konvertierungen je Messung. */
+    private static final int ANZAHL_KONVERTIERUNGEN = 2_000;
+
+    /**
+     * Prüft, dass beide Konvertierungen für einen verschachtelten Objektgraphen dasselbe Ergebnis liefern.
+     * Nur dann ist der Vergleich der Laufzeiten aussagekräftig.
+     */
+    @Test
+    public void testKonvertierungVerschachtelterBeans() {
+        TestBeanKomplex bean = new TestBeanKomplex(true);
+
+        Assert.assertEquals(erstelleReflektivenKonverter().convert(bean),
+            LogHelper.erstelleStandardKonverter().convert(bean));
+    }
+
+    /**
+     * Vergleicht die Laufzeiten beider Konvertierungen. Läuft wegen der Abhängigkeit von der Umgebung nicht
+     * im Build mit, sondern wird bei Änderungen am {@link BeanToMapConverter} von Hand ausgeführt.
+     */
+    @Test
+    @Ignore("Benchmark, wird bei Bedarf von Hand ausgeführt.")
+    public void testLaufzeitVerschachtelterBeans() {
+        TestBeanKomplex bean = new TestBeanKomplex(true);
+        BeanConverter reflektiv = erstelleReflektivenKonverter();
+        BeanConverter zwischengespeichert = LogHelper.erstelleStandardKonverter();
+
+        // Die erste Messung wärmt die JVM nur auf und wird verworfen.
+        messe(reflektiv, bean);
+        messe(zwischengespeichert, bean);
+
+        long dauerReflektiv = messe(reflektiv, bean);
+        long dauerZwischengespeichert = messe(zwischengespeichert, bean);
+
+        LOG.debug("{} Konvertierungen: reflektiv (Nachbildung) {} ms, zwischengespeichert {} ms",
+            ANZAHL_KONVERTIERUNGEN, dauerReflektiv / 1_000_000, dauerZwischengespeichert / 1_000_000);
+        Assert.assertTrue("Zwischengespeicherte Konvertierung ist langsamer als die reflektive",
+            dauerZwischengespeichert <= dauerReflektiv);
+    }
+
+    private static BeanConverter erstelleReflektivenKonverter() {
+        List<String> includes = new ArrayList<>();
+        includes.add("de.bund.bva");
+        return new ReflektiverBeanToMapConverter(includes, null);
+    }
+
+    /**
+     * Misst die Dauer der Konvertierungen.
+     *
+     * @param konverter
+     *            der zu verwendende Konverter.
+     * @param bean
+     *            das zu konvertierende Bean.
+     * @return die Dauer in Nanosekunden.
+     */
+    private static long messe(BeanConverter konverter, Object bean) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ANZAHL_KONVERTIERUNGEN; i++) {
+            konverter.convert(bean);
+        }
+        return System.nanoTime() - start;
+    }
+}
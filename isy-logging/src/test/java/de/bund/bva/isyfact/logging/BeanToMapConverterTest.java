@@ -160,6 +160,22 @@ public class BeanToMapConverterTest {
 
     }
 
+    /**
+     * Testet, dass spätere Änderungen an den übergebenen Listen die Konvertierung nicht beeinflussen.
+     */
+    @Test
+    public void testAenderungDerListenNachErzeugung() {
+
+        List<String> excludes = new ArrayList<>();
+        BeanToMapConverter converter = new BeanToMapConverter(null, excludes);
+        excludes.add("de.bund");
+
+        TestBeanEinfach tbe = new TestBeanEinfach();
+        assertEquals(tbe.toString(), converter.convert(tbe));
+        assertTrue(converter.getExcludes().isEmpty());
+
+    }
+
     /**
      * Testet die Konvertierung eines Objects, das excludiert ist.
      */
@@ -0,0 +1,384 @@
+package de.bund.bva.isyfact.logging;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import de.bund.bva.isyfact.logging.appender.IsyAsyncAppender;
+import de.bund.bva.isyfact.logging.appender.IsyAsyncAppenderMXBean;
+import de.bund.bva.isyfact.logging.impl.IsyLocationAwareLoggerImpl;
+import de.bund.bva.isyfact.logging.layout.IsyJacksonJsonFormatter;
+import de.bund.bva.isyfact.logging.layout.IsyJsonLayout;
+
+/**
+ * Tests des {@link IsyAsyncAppender}: Durchsatz beim Schreiben in eine lokale Datei und Verhalten bei
+ * vollem Puffer.
+ */
+public class IsyAsyncAppenderTest {
+
+    /** Logger. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(IsyAsyncAppenderTest.class);
+
+    /** Verzeichnis der Logdateien dieses Tests. */
+    private static final String LOG_VERZEICHNIS = "target/var/log/isy-logging/async/";
+
+    /** Anzahl der schreibenden Threads. */
+    private static final int ANZAHL_THREADS = 4;
+
+    /** Anzahl der Log-Einträge je Thread. */
+    private static final int EINTRAEGE_JE_THREAD = 25_000;
+
+    /** Eigener Logger-Kontext, damit die Konfiguration der übrigen Tests unverändert bleibt. */
+    private LoggerContext context;
+
+    /**
+     * Erzeugt den Logger-Kontext und leert das Verzeichnis der Logdateien.
+     */
+    @Before
+    public void setUp() {
+        context = new LoggerContext();
+        context.setName("IsyAsyncAppenderTest");
+        File verzeichnis = new File(LOG_VERZEICHNIS);
+        verzeichnis.mkdirs();
+        File[] dateien = verzeichnis.listFiles();
+        if (dateien != null) {
+            for (File datei : dateien) {
+                datei.delete();
+            }
+        }
+    }
+
+    /**
+     * Stoppt den Logger-Kontext und damit alle Appender.
+     */
+    @After
+    public void tearDown() {
+        context.stop();
+    }
+
+    /**
+     * Prüft, dass beim Schreiben aus mehreren Threads in eine lokale Datei keine Log-Einträge verloren gehen,
+     * und gibt den Durchsatz im Vergleich zum synchronen Schreiben aus.
+     *
+     * @throws Exception
+     *             falls ein Fehler im Testfall auftritt.
+     */
+    @Test
+    public void testeDurchsatzDatei() throws Exception {
+        int anzahl = ANZAHL_THREADS * EINTRAEGE_JE_THREAD;
+
+        FileAppender<ILoggingEvent> synchronerAppender = erzeugeDateiAppender("synchron");
+        long dauerSynchron = schreibe(erzeugeLogger("synchron", synchronerAppender));
+        synchronerAppender.stop();
+
+        IsyAsyncAppender asyncAppender = erzeugeAsyncAppender("async", erzeugeDateiAppender("async"));
+        long dauerAsynchron = schreibe(erzeugeLogger("async", asyncAppender));
+        asyncAppender.stop();
+
+        LOG.debug("Synchron:  {} Log-Einträge in {} ms", anzahl, dauerSynchron / 1_000_000);
+        LOG.debug("Asynchron: {} Log-Einträge in {} ms ({} Batches)", anzahl, dauerAsynchron / 1_000_000,
+            asyncAppender.getStatistik().getAnzahlBatches());
+
+        Assert.assertEquals(anzahl, zaehleZeilen("synchron"));
+        Assert.assertEquals(anzahl, zaehleZeilen("async"));
+        IsyAsyncAppenderMXBean statistik = asyncAppender.getStatistik();
+        Assert.assertEquals(anzahl, statistik.getAnzahlAngenommen());
+        Assert.assertEquals(anzahl, statistik.getAnzahlGeschrieben());
+        Assert.assertEquals(0, statistik.getAnzahlVerworfen());
+    }
+
+    /**
+     * Prüft, dass bei vollem Puffer DEBUG-Einträge verworfen werden, Einträge der Kategorie JOURNAL jedoch
+     * immer geschrieben werden.
+     */
+    @Test
+    public void testeVerwerfenBeiVollemPuffer() {
+        LangsamerAppender langsamerAppender = new LangsamerAppender();
+        langsamerAppender.setContext(context);
+        langsamerAppender.start();
+        IsyAsyncAppender asyncAppender = new IsyAsyncAppender();
+        asyncAppender.setKapazitaet(16);
+        asyncAppender.setBatchGroesse(4);
+        asyncAppender.setVerwerfbareKategorien("METRIK, JOURNAL");
+        asyncAppender.setMaxFlushZeit(10_000);
+        asyncAppender.setJmx(false);
+        konfiguriereAsyncAppender("verwerfen", asyncAppender, langsamerAppender);
+        IsyLogger logger = erzeugeLogger("verwerfen", asyncAppender);
+
+        int anzahl = 500;
+        for (int i = 0; i < anzahl; i++) {
+            logger.debug("Debug {}", i);
+            logger.info(LogKategorie.JOURNAL, "SCHLUESSEL", "Journal {}", i);
+            logger.info(LogKategorie.METRIK, "SCHLUESSEL", "Metrik {}", i);
+        }
+        asyncAppender.stop();
+
+        IsyAsyncAppenderMXBean statistik = asyncAppender.getStatistik();
+        Assert.assertEquals(anzahl, langsamerAppender.journal.get());
+        Assert.assertTrue(statistik.getAnzahlVerworfen() > 0);
+        Assert.assertTrue(statistik.getAnzahlBlockiert() > 0);
+        Assert.assertEquals(3 * anzahl, statistik.getAnzahlGeschrieben() + statistik.getAnzahlVerworfen());
+        Assert.assertEquals(3 * anzahl, langsamerAppender.journal.get() + langsamerAppender.sonstige.get()
+            + statistik.getAnzahlVerworfen());
+    }
+
+    /**
+     * Prüft, dass die angehängten Appender höchstens einmal je Flush-Intervall geflusht werden und beim
+     * Stoppen die restlichen Log-Einträge geflusht werden.
+     *
+     * @throws Exception
+     *             falls ein Fehler im Testfall auftritt.
+     */
+    @Test
+    public void testeFlushIntervall() throws Exception {
+        ZaehlenderStream stream = new ZaehlenderStream();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> streamAppender = new OutputStreamAppender<>();
+        streamAppender.setContext(context);
+        streamAppender.setName("stream");
+        streamAppender.setEncoder(encoder);
+        streamAppender.setOutputStream(stream);
+        streamAppender.start();
+
+        IsyAsyncAppender asyncAppender = new IsyAsyncAppender();
+        asyncAppender.setBatchGroesse(1);
+        // Das Flush-Intervall ist so lang, dass es während des Tests nicht abläuft.
+        asyncAppender.setFlushIntervall(60_000);
+        asyncAppender.setJmx(false);
+        konfiguriereAsyncAppender("flush", asyncAppender, streamAppender);
+        IsyLogger logger = erzeugeLogger("flush", asyncAppender);
+        IsyAsyncAppenderMXBean statistik = asyncAppender.getStatistik();
+
+        // Der erste Batch wird sofort geflusht.
+        logger.info(LogKategorie.JOURNAL, "SCHLUESSEL", "Journal 0");
+        warteBis(() -> statistik.getAnzahlGeschrieben() == 1 && stream.flushes.get() == 1);
+
+        // Weitere Batches innerhalb des Flush-Intervalls werden geschrieben, aber nicht geflusht.
+        for (int i = 1; i < 10; i++) {
+            logger.info(LogKategorie.JOURNAL, "SCHLUESSEL", "Journal {}", i);
+        }
+        warteBis(() -> statistik.getAnzahlGeschrieben() == 10);
+        Assert.assertEquals(1, stream.flushes.get());
+
+        asyncAppender.stop();
+        Assert.assertTrue(stream.flushes.get() >= 2);
+        Assert.assertEquals(10, stream.toString("UTF-8").split("\\R").length);
+    }
+
+    /**
+     * Prüft, dass die Zähler des Appenders über JMX abgefragt werden können.
+     *
+     * @throws Exception
+     *             falls ein Fehler im Testfall auftritt.
+     */
+    @Test
+    public void testeJmx() throws Exception {
+        IsyAsyncAppender asyncAppender = erzeugeAsyncAppender("jmx", erzeugeDateiAppender("jmx"));
+        IsyLogger logger = erzeugeLogger("jmx", asyncAppender);
+        for (int i = 0; i < 10; i++) {
+            logger.info(LogKategorie.JOURNAL, "SCHLUESSEL", "Journal {}", i);
+        }
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(
+            "de.bund.bva.isyfact.logging:type=IsyAsyncAppender,name=" + ObjectName.quote("jmx"));
+        Assert.assertTrue(mBeanServer.isRegistered(name));
+        Assert.assertEquals(10L, mBeanServer.getAttribute(name, "AnzahlAngenommen"));
+        Assert.assertEquals(IsyAsyncAppender.STANDARD_KAPAZITAET,
+            mBeanServer.getAttribute(name, "Kapazitaet"));
+
+        asyncAppender.stop();
+        Assert.assertFalse(mBeanServer.isRegistered(name));
+        Assert.assertEquals(10, zaehleZeilen("jmx"));
+    }
+
+    /**
+     * Schreibt Log-Einträge der Kategorie JOURNAL aus mehreren Threads.
+     *
+     * @param logger
+     *            der zu verwendende Logger.
+     * @return die Dauer in Nanosekunden.
+     * @throws InterruptedException
+     *             falls das Warten auf die Threads unterbrochen wird.
+     */
+    private static long schreibe(IsyLogger logger) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < ANZAHL_THREADS; t++) {
+            final int threadNummer = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < EINTRAEGE_JE_THREAD; i++) {
+                    logger.info(LogKategorie.JOURNAL, "SCHLUESSEL", "Eintrag {} aus Thread {}", i,
+                        threadNummer);
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private IsyLogger erzeugeLogger(String name, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger(name);
+        logger.setAdditive(false);
+        logger.setLevel(Level.DEBUG);
+        logger.addAppender(appender);
+        return new IsyLocationAwareLoggerImpl(logger);
+    }
+
+    private FileAppender<ILoggingEvent> erzeugeDateiAppender(String name) {
+        IsyJacksonJsonFormatter formatter = new IsyJacksonJsonFormatter();
+        IsyJsonLayout layout = new IsyJsonLayout();
+        layout.setContext(context);
+        layout.setJsonFormatter(formatter);
+        layout.setTimestampFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        layout.setTimestampFormatTimezoneId("UTC");
+        layout.setAppendLineSeparator(true);
+        layout.start();
+
+        LayoutWrappingEncoder<ILoggingEvent> encoder = new LayoutWrappingEncoder<>();
+        encoder.setContext(context);
+        encoder.setLayout(layout);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setFile(LOG_VERZEICHNIS + name + ".log");
+        appender.setAppend(false);
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    private IsyAsyncAppender erzeugeAsyncAppender(String name, Appender<ILoggingEvent> ziel) {
+        return konfiguriereAsyncAppender(name, new IsyAsyncAppender(), ziel);
+    }
+
+    private IsyAsyncAppender konfiguriereAsyncAppender(String name, IsyAsyncAppender asyncAppender,
+        Appender<ILoggingEvent> ziel) {
+        asyncAppender.setContext(context);
+        asyncAppender.setName(name);
+        asyncAppender.addAppender(ziel);
+        asyncAppender.start();
+        Assert.assertTrue(asyncAppender.isStarted());
+        return asyncAppender;
+    }
+
+    /**
+     * Wartet, bis eine Bedingung erfüllt ist, höchstens jedoch zehn Sekunden.
+     *
+     * @param bedingung
+     *            die Bedingung.
+     * @throws InterruptedException
+     *             falls das Warten unterbrochen wird.
+     */
+    private static void warteBis(BooleanSupplier bedingung) throws InterruptedException {
+        long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!bedingung.getAsBoolean()) {
+            Assert.assertTrue("Bedingung nicht innerhalb von 10 s erfüllt.", System.nanoTime() < ende);
+            Thread.sleep(1);
+        }
+    }
+
+    private static int zaehleZeilen(String name) throws IOException {
+        return Files.readAllLines(new File(LOG_VERZEICHNIS + name + ".log").toPath(), StandardCharsets.UTF_8)
+            .size();
+    }
+
+    /**
+     * Appender, der jedes Log-Event verzögert verarbeitet und die Log-Events der Kategorie JOURNAL zählt.
+     */
+    private static class LangsamerAppender extends AppenderBase<ILoggingEvent> {
+
+        /** Anzahl der Log-Events der Kategorie JOURNAL. */
+        private final AtomicInteger journal = new AtomicInteger();
+
+        /** Anzahl der übrigen Log-Events. */
+        private final AtomicInteger sonstige = new AtomicInteger();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (event.getFormattedMessage().startsWith("Journal")) {
+                journal.incrementAndGet();
+            } else {
+                sonstige.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Stream, der die Aufrufe von {@link #flush()} zählt.
+     */
+    private static class ZaehlenderStream extends ByteArrayOutputStream {
+
+        /** Anzahl der Flushes. */
+        private final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public void flush() {
+            flushes.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package de.bund.bva.isyfact.logging;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ *
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.contrib.json.JsonFormatter;
+import de.bund.bva.isyfact.logging.layout.IsyJacksonJsonFormatter;
+import de.bund.bva.isyfact.logging.layout.IsyJsonLayout;
+
+/**
+ * Tests des {@link IsyJsonLayout}: Das Schreiben über den IsyJsonSchreiber und die Rückfallebene über den
+ * konfigurierten JsonFormatter müssen dieselben Logeinträge liefern.
+ */
+public class IsyJsonLayoutTest {
+
+    /** Nachricht mit Umlauten, einem Zeichen aus drei Bytes und Surrogat-Paaren (je vier Bytes). */
+    private static final String NACHRICHT = "Prüfung äöüß € 𝄞 😀 {}";
+
+    /** Eigener Logger-Kontext, damit die Konfiguration der übrigen Tests unverändert bleibt. */
+    private LoggerContext context;
+
+    @Before
+    public void setUp() {
+        context = new LoggerContext();
+        context.setName("IsyJsonLayoutTest");
+    }
+
+    @After
+    public void tearDown() {
+        context.stop();
+    }
+
+    /**
+     * Prüft, dass beide Wege für einen nicht gekürzten Logeintrag mit Nicht-ASCII-Zeichen und Surrogat-Paaren
+     * byte-identische Ausgaben erzeugen.
+     */
+    @Test
+    public void testGleicheAusgabeOhneKuerzung() {
+        ILoggingEvent event = erzeugeEvent(NACHRICHT, "Wert 😀 ü");
+
+        String schreiber = erzeugeLayout(new IsyJacksonJsonFormatter(), 0).doLayout(event);
+        String formatter = erzeugeLayout(rueckfallFormatter(), 0).doLayout(event);
+
+        Assert.assertFalse(schreiber.isEmpty());
+        Assert.assertFalse(schreiber.contains("gekuerzt"));
+        Assert.assertArrayEquals(schreiber.getBytes(StandardCharsets.UTF_8),
+            formatter.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Prüft, dass beide Wege die maximale Länge in Bytes (UTF-8) messen: Der Logeintrag unterschreitet die
+     * maximale Länge in Zeichen, überschreitet sie aber in Bytes.
+     */
+    @Test
+    public void testKuerzungNachUtf8Bytes() {
+        int maxLaenge = 1000;
+        StringBuilder nachricht = new StringBuilder();
+        for (int i = 0; i < 700; i++) {
+            nachricht.append('ü');
+        }
+        ILoggingEvent event = erzeugeEvent(nachricht.toString());
+
+        String schreiber = erzeugeLayout(new IsyJacksonJsonFormatter(), maxLaenge).doLayout(event);
+        String formatter = erzeugeLayout(rueckfallFormatter(), maxLaenge).doLayout(event);
+
+        Assert.assertTrue(schreiber.contains("gekuerzt"));
+        Assert.assertTrue(formatter.contains("gekuerzt"));
+        Assert.assertTrue(schreiber.getBytes(StandardCharsets.UTF_8).length <= maxLaenge);
+        Assert.assertTrue(formatter.getBytes(StandardCharsets.UTF_8).length <= maxLaenge);
+    }
+
+    private ILoggingEvent erzeugeEvent(String nachricht, Object... parameter) {
+        Logger logger = context.getLogger(IsyJsonLayoutTest.class);
+        return new LoggingEvent(Logger.class.getName(), logger, Level.INFO, nachricht, null, parameter);
+    }
+
+    /**
+     * Erzeugt einen JsonFormatter, der kein {@link IsyJacksonJsonFormatter} ist, sodass das Layout die
+     * Rückfallebene verwendet.
+     */
+    private static JsonFormatter rueckfallFormatter() {
+        IsyJacksonJsonFormatter jackson = new IsyJacksonJsonFormatter();
+        return jackson::toJsonString;
+    }
+
+    private IsyJsonLayout erzeugeLayout(JsonFormatter formatter, int maxLaenge) {
+        IsyJsonLayout layout = new IsyJsonLayout();
+        layout.setContext(context);
+        layout.setJsonFormatter(formatter);
+        layout.setTimestampFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        layout.setTimestampFormatTimezoneId("UTC");
+        if (maxLaenge > 0) {
+            layout.setMaxLength(maxLaenge);
+        }
+        layout.start();
+        return layout;
+    }
+}
@@ -25,6 +25,13 @@ package de.bund.bva.isyfact.logging;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -61,4 +68,63 @@ public class IsyLoggerFactoryTest {
         }
 
     }
+
+    /**
+     * Prüft, dass bei gleichzeitiger Erzeugung von Loggern aus vielen Threads für jede Klasse genau ein
+     * Logger erzeugt wird und keine Einträge im Cache verloren gehen.
+     *
+     * @throws Exception
+     *             falls bei der Prüfung ein Fehler aufgetreten ist.
+     */
+    @Test
+    public void nebenlaeufigeErzeugungTest() throws Exception {
+        final Class<?>[] klassen = { java.util.ArrayDeque.class, java.util.BitSet.class,
+                java.util.Calendar.class, java.util.EnumMap.class, java.util.IdentityHashMap.class,
+                java.util.LinkedHashSet.class, java.util.Optional.class, java.util.PriorityQueue.class,
+                java.util.Scanner.class, java.util.StringJoiner.class, java.util.Timer.class,
+                java.util.TreeSet.class, java.util.UUID.class, java.util.Vector.class,
+                java.util.WeakHashMap.class, java.util.zip.CRC32.class };
+        final int anzahlThreads = 16;
+        final int anzahlDurchlaeufe = 1000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(anzahlThreads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<IsyLogger[]>> ergebnisse = new ArrayList<>();
+        for (int i = 0; i < anzahlThreads; i++) {
+            ergebnisse.add(executor.submit(() -> {
+                start.await();
+                IsyLogger[] logger = new IsyLogger[klassen.length];
+                for (int durchlauf = 0; durchlauf < anzahlDurchlaeufe; durchlauf++) {
+                    for (int k = 0; k < klassen.length; k++) {
+                        IsyLogger aktuellerLogger = IsyLoggerFactory.getLogger(klassen[k]);
+                        if (logger[k] == null) {
+                            logger[k] = aktuellerLogger;
+                        } else {
+                            Assert.assertSame(logger[k], aktuellerLogger);
+                        }
+                    }
+                }
+                return logger;
+            }));
+        }
+        start.countDown();
+
+        IsyLogger[] erwartet = null;
+        for (Future<IsyLogger[]> ergebnis : ergebnisse) {
+            IsyLogger[] logger = ergebnis.get(30, TimeUnit.SECONDS);
+            if (erwartet == null) {
+                erwartet = logger;
+            }
+            for (int k = 0; k < klassen.length; k++) {
+                Assert.assertNotNull(logger[k]);
+                Assert.assertSame("Mehrere Logger für " + klassen[k].getName(), erwartet[k], logger[k]);
+            }
+        }
+        executor.shutdown();
+
+        // Nach der Erzeugung liefert die Factory weiterhin dieselben Logger.
+        for (int k = 0; k < klassen.length; k++) {
+            Assert.assertSame(erwartet[k], IsyLoggerFactory.getLogger(klassen[k]));
+        }
+    }
 }
@@ -0,0 +1,131 @@
+package de.bund.bva.isyfact.logging;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import de.bund.bva.isyfact.logging.impl.FachdatenMarker;
+import de.bund.bva.isyfact.logging.impl.IsyLocationAwareLoggerImpl;
+
+/**
+ * Prüft, dass Logaufrufe für nicht aktive Log-Level keine Objekte erzeugen.
+ */
+public class LogLevelAllokationTest {
+
+    /** Anzahl der Logaufrufe je Messung. */
+    private static final int ANZAHL_AUFRUFE = 10_000;
+
+    /** Vorab erzeugte Werte, damit der Aufruf selbst kein varargs-Array erzeugt. */
+    private static final Object[] WERTE = { "wert1", "wert2" };
+
+    /** Vorab erzeugter Datentyp-Marker. */
+    private static final IsyDatentypMarker DATENTYP = new FachdatenMarker();
+
+    /** Der gekapselte Logback-Logger. */
+    private Logger logger;
+
+    /** Der zu prüfende Logger. */
+    private IsyLogger isyLogger;
+
+    /** Das ursprüngliche Log-Level des Logback-Loggers. */
+    private Level urspruenglichesLevel;
+
+    /**
+     * Setzt das Log-Level auf ERROR.
+     */
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        logger = (Logger) LoggerFactory.getLogger(LogLevelAllokationTest.class);
+        urspruenglichesLevel = logger.getLevel();
+        logger.setLevel(Level.ERROR);
+        isyLogger = new IsyLocationAwareLoggerImpl(logger);
+    }
+
+    /**
+     * Setzt das Log-Level zurück.
+     */
+    @After
+    public void tearDown() {
+        if (logger != null) {
+            logger.setLevel(urspruenglichesLevel);
+        }
+    }
+
+    /**
+     * Prüft, dass Aufrufe für nicht aktive Log-Level keine Allokationen verursachen.
+     */
+    @Test
+    public void testKeineAllokationBeiInaktivemLevel() {
+        Runnable logaufrufe = () -> {
+            for (int i = 0; i < ANZAHL_AUFRUFE; i++) {
+                isyLogger.trace("Nachricht {} {}", WERTE);
+                isyLogger.debug("Nachricht {} {}", WERTE);
+                isyLogger.debugFachdaten("Nachricht {} {}", WERTE);
+                isyLogger.debug(DATENTYP, "Nachricht {} {}", WERTE);
+                isyLogger.info(LogKategorie.JOURNAL, "SCHLUESSEL", "Nachricht {} {}", WERTE);
+                isyLogger.warn("SCHLUESSEL", "Nachricht {} {}", WERTE);
+            }
+        };
+        Runnable leererDurchlauf = () -> {
+            for (int i = 0; i < ANZAHL_AUFRUFE; i++) {
+                // Vergleichsmessung ohne Logaufrufe
+            }
+        };
+
+        // Aufwärmen, damit Klassenladen und Initialisierung nicht mitgemessen werden.
+        logaufrufe.run();
+        leererDurchlauf.run();
+
+        long allokationLeer = messeAllokation(leererDurchlauf);
+        long allokationLogaufrufe = messeAllokation(logaufrufe);
+
+        Assert.assertEquals(allokationLeer, allokationLogaufrufe);
+    }
+
+    /**
+     * Misst die vom aktuellen Thread während der Ausführung allokierten Bytes.
+     *
+     * @param aktion
+     *            die auszuführende Aktion.
+     * @return die Anzahl allokierter Bytes.
+     */
+    private static long messeAllokation(Runnable aktion) {
+        com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long vorher = threadMXBean.getThreadAllocatedBytes(threadId);
+        aktion.run();
+        return threadMXBean.getThreadAllocatedBytes(threadId) - vorher;
+    }
+}
@@ -156,6 +156,48 @@ public class MdcHelperTest extends AbstractLogTest {
         Assert.assertEquals("1;2;3", korrelationsid);
     }
     
+    /**
+     * Testet, dass verschachtelte Korrelations-IDs sofort in den MDC übernommen werden und direkte
+     * Änderungen des MDC berücksichtigt werden.
+     */
+    @Test
+    public void testKorrelationsIdVerschachtelt() {
+
+        // Korrelations-ID leeren
+        MdcHelper.entferneKorrelationsIds();
+
+        MdcHelper.pushKorrelationsId("1");
+        Assert.assertEquals("1", MDC.get(MdcHelper.MDC_KORRELATIONS_ID));
+
+        // Verschachtelte Korrelations-IDs werden ebenfalls sofort übernommen.
+        Assert.assertEquals("1;2", MdcHelper.pushKorrelationsId("2"));
+        Assert.assertEquals("1;2", MDC.get(MdcHelper.MDC_KORRELATIONS_ID));
+        Assert.assertEquals("1;2;3", MdcHelper.pushKorrelationsId("3"));
+        Assert.assertEquals("1;2;3", MDC.getCopyOfContextMap().get(MdcHelper.MDC_KORRELATIONS_ID));
+
+        Assert.assertEquals("3", MdcHelper.entferneKorrelationsId());
+        Assert.assertEquals("1;2", MDC.get(MdcHelper.MDC_KORRELATIONS_ID));
+
+        // Direkt im MDC gesetzte Korrelations-IDs werden übernommen.
+        MDC.put(MdcHelper.MDC_KORRELATIONS_ID, "A;B");
+        Assert.assertEquals("A;B;C", MdcHelper.pushKorrelationsId("C"));
+        Assert.assertEquals("C", MdcHelper.entferneKorrelationsId());
+        Assert.assertEquals("A;B", MDC.get(MdcHelper.MDC_KORRELATIONS_ID));
+        Assert.assertEquals("B", MdcHelper.entferneKorrelationsId());
+        Assert.assertEquals("A", MdcHelper.entferneKorrelationsId());
+        Assert.assertNull(MDC.get(MdcHelper.MDC_KORRELATIONS_ID));
+
+        // Ein direkt geleerter MDC leert auch den Stapel.
+        MdcHelper.pushKorrelationsId("D");
+        MdcHelper.pushKorrelationsId("E");
+        MDC.clear();
+        Assert.assertNull(MdcHelper.liesKorrelationsId());
+        Assert.assertNull(MdcHelper.entferneKorrelationsId());
+        Assert.assertEquals("F", MdcHelper.pushKorrelationsId("F"));
+        MdcHelper.entferneKorrelationsIds();
+        Assert.assertNull(MDC.get(MdcHelper.MDC_KORRELATIONS_ID));
+    }
+
     /**
      * Testet das Setzen und Auslesen des MDC-Fachdaten flags.
      */
@@ -0,0 +1,143 @@
+package de.bund.bva.isyfact.logging.hilfsklassen;
+
+/*
+ * #%L
+ * isy-logging
+ * %%
+ * 
+ * %%
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ * #L%
+ */
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.bund.bva.isyfact.logging.util.BeanConverter;
+import de.bund.bva.isyfact.logging.util.BeanToMapConverter;
+
+/**
+ * Vergleichsimplementierung für den Benchmark, die je Bean die Properties per {@link Introspector} ermittelt
+ * und per Reflection liest.
+ * <p>
+ * Achtung: Dies ist eine Nachbildung des Vorgehens des {@link BeanToMapConverter} vor Einführung der
+ * zwischengespeicherten Properties, nicht der frühere Code selbst. Messungen gegen diese Klasse liefern
+ * daher nur einen Näherungswert für den Unterschied zur früheren Implementierung.
+ */
+public class ReflektiverBeanToMapConverter implements BeanConverter {
+
+    /** List mit zu berücksichtigenden Packages. */
+    private final List<String> includes;
+
+    /** List mit zu ignorierenden Packages. */
+    private final List<String> excludes;
+
+    /**
+     * Konstruktor der Klasse.
+     * 
+     * @param includes
+     *            List der zu berücksichtigenden Packages.
+     * @param excludes
+     *            List der zu ignorierenden Packages.
+     */
+    public ReflektiverBeanToMapConverter(List<String> includes, List<String> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    @Override
+    public Object convert(Object bean) {
+        if (bean == null) {
+            return BeanToMapConverter.NULL_STRING;
+        }
+        return processValue(bean, new HashSet<>());
+    }
+
+    private Object processValue(Object value, Set<Object> seen) {
+        if (value == null) {
+            return BeanToMapConverter.NULL_STRING;
+        }
+        Object wert = value;
+        if (wert.getClass().isArray()) {
+            List<Object> valueList = new ArrayList<>();
+            for (int i = 0; i < Array.getLength(wert); i++) {
+                valueList.add(Array.get(wert, i));
+            }
+            wert = valueList;
+        }
+        if (wert instanceof Iterable<?>) {
+            List<Object> liste = new ArrayList<>();
+            for (Object eintrag : (Iterable<?>) wert) {
+                liste.add(processValue(eintrag, seen));
+            }
+            return liste;
+        } else if (wert instanceof Map<?, ?>) {
+            Map<Object, Object> map = new TreeMap<>();
+            for (Map.Entry<?, ?> eintrag : ((Map<?, ?>) wert).entrySet()) {
+                map.put(processValue(eintrag.getKey(), seen), processValue(eintrag.getValue(), seen));
+            }
+            return map;
+        }
+
+        String className = wert.getClass().getName();
+        if (wert.getClass().isEnum()) {
+            return wert.toString();
+        } else if (beginntMit(className, excludes)) {
+            return BeanToMapConverter.EXCLUDED_VALUE;
+        } else if (!beginntMit(className, includes)) {
+            return wert.toString();
+        } else if (seen.contains(wert)) {
+            return "Bereits verarbeitet: " + wert.hashCode();
+        }
+        seen.add(wert);
+
+        Map<String, Object> propertyMap = new TreeMap<>();
+        propertyMap.put(BeanToMapConverter.HASHCODE_KEY, "" + wert.hashCode());
+        try {
+            for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(wert.getClass())
+                .getPropertyDescriptors()) {
+                Method readMethod = propertyDescriptor.getReadMethod();
+                if (readMethod != null) {
+                    propertyMap.put(propertyDescriptor.getName(), processValue(readMethod.invoke(wert), seen));
+                }
+            }
+        } catch (IntrospectionException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+        return propertyMap;
+    }
+
+    private static boolean beginntMit(String className, List<String> praefixe) {
+        if (praefixe != null) {
+            for (String praefix : praefixe) {
+                if (className.startsWith(praefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,7 @@
 package de.bund.bva.isyfact.polling.autoconfigure;
 
+import javax.sql.DataSource;
+
 import de.bund.bva.isyfact.polling.PollingVerwalter;
 import de.bund.bva.isyfact.polling.annotation.PollingAktionInterceptor;
 import de.bund.bva.isyfact.polling.config.IsyPollingProperties;
@@ -7,6 +9,7 @@ import de.bund.bva.isyfact.polling.impl.PollingVerwalterImpl;
 import org.springframework.aop.Advisor;
 import org.springframework.aop.aspectj.AspectJExpressionPointcut;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -26,9 +29,11 @@ public class IsyPollingAutoConfiguration {
     }
 
     @Bean
-    public PollingVerwalter pollingVerwalter(IsyPollingProperties isyPollingProperties) {
+    public PollingVerwalter pollingVerwalter(IsyPollingProperties isyPollingProperties,
+        ObjectProvider<DataSource> dataSource) {
         PollingVerwalterImpl pollingVerwalter = new PollingVerwalterImpl();
         pollingVerwalter.setIsyPollingProperties(isyPollingProperties);
+        pollingVerwalter.setDataSource(dataSource.getIfAvailable());
         return pollingVerwalter;
     }
 
@@ -34,4 +34,10 @@ public class EreignisSchluessel {
     /** Polling Cluster unbekannt. */
     public static final String POLLING_CLUSTER_UNBEKANNT = "EPLPOL00004";
 
+    /** Ein Knoten hat nicht innerhalb des Timeouts geantwortet. */
+    public static final String JMX_ABFRAGE_TIMEOUT = "EPLPOL00005";
+
+    /** Auf die Polling-Lease konnte nicht zugegriffen werden. */
+    public static final String POLLING_LEASE_FEHLER = "EPLPOL00006";
+
 }
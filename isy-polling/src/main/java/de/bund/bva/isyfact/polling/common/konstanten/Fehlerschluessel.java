@@ -52,6 +52,11 @@ public abstract class Fehlerschluessel {
     /** Beim Zugriff auf die MBean-Instanz "{0}" auf dem Server mit der IP-Adresse "{1} ist ein Fehler aufgetreten. */
     public static final String MSG_MBEAN_ZUGRIFF_FEHLER = "POLLI01009";
 
+    /**
+     * Der Polling-Cluster "{0}" wird über die Datenbank koordiniert, es ist aber keine DataSource vorhanden.
+     */
+    public static final String MSG_KEINE_DATASOURCE = "POLLI01010";
+
 }
 
 
@@ -1,5 +1,6 @@
 package de.bund.bva.isyfact.polling.config;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -16,12 +17,18 @@ public class IsyPollingProperties {
 
     private final Jmx jmx = new Jmx();
 
+    private final Lease lease = new Lease();
+
     private final Map<String, Cluster> cluster = new HashMap<>();
 
     public Jmx getJmx() {
         return jmx;
     }
 
+    public Lease getLease() {
+        return lease;
+    }
+
     public Map<String, Cluster> getCluster() {
         return cluster;
     }
@@ -33,6 +40,9 @@ public class IsyPollingProperties {
 
         private String domain = "de.bund.bva.isyfact.polling";
 
+        /** Maximale Wartezeit in Sekunden auf die Antwort eines Knotens. */
+        private int timeout = 5;
+
         public String getDomain() {
             return domain;
         }
@@ -41,6 +51,15 @@ public class IsyPollingProperties {
             this.domain = domain;
         }
 
+        @Min(1)
+        public int getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(int timeout) {
+            this.timeout = timeout;
+        }
+
         public Map<String, Verbindung> getVerbindungen() {
             return verbindungen;
         }
@@ -92,6 +111,59 @@ public class IsyPollingProperties {
         }
     }
 
+    /**
+     * Verfahren, mit dem sich die Knoten eines Polling-Clusters abstimmen.
+     */
+    public enum Koordination {
+
+        /** Abfrage der letzten Polling-Aktivität aller Knoten über JMX. */
+        JMX,
+
+        /** Lease als Zeile in einer Tabelle der Anwendungsdatenbank. */
+        DATENBANK,
+
+        /** Lease als Datei in einem gemeinsamen Verzeichnis. */
+        DATEI
+    }
+
+    public static class Lease {
+
+        /** ID dieses Knotens. Ohne Angabe wird der Name der JVM (PID@Host) verwendet. */
+        private String knotenId;
+
+        /** Name der Tabelle für die Koordination über die Datenbank. */
+        private String tabelle = "POLLING_LEASE";
+
+        /** Verzeichnis für die Koordination über Dateien. */
+        private String verzeichnis = System.getProperty("java.io.tmpdir") + "/isy-polling";
+
+        public String getKnotenId() {
+            return knotenId;
+        }
+
+        public void setKnotenId(String knotenId) {
+            this.knotenId = knotenId;
+        }
+
+        @NotBlank
+        public String getTabelle() {
+            return tabelle;
+        }
+
+        public void setTabelle(String tabelle) {
+            this.tabelle = tabelle;
+        }
+
+        @NotBlank
+        public String getVerzeichnis() {
+            return verzeichnis;
+        }
+
+        public void setVerzeichnis(String verzeichnis) {
+            this.verzeichnis = verzeichnis;
+        }
+    }
+
     public static class Cluster {
         private final List<String> jmxverbindungen = new ArrayList<>();
 
@@ -99,6 +171,14 @@ public class IsyPollingProperties {
 
         private int wartezeit;
 
+        private Koordination koordination = Koordination.JMX;
+
+        /**
+         * Dauer der Lease bei Koordination über Datenbank oder Datei. Sie muss länger sein als der Abstand
+         * zwischen zwei Polling-Aktivitäten und bestimmt, wie schnell ein anderer Knoten übernimmt.
+         */
+        private Duration leasedauer = Duration.ofSeconds(10);
+
         public String getName() {
             return name;
         }
@@ -119,6 +199,22 @@ public class IsyPollingProperties {
             return jmxverbindungen;
         }
 
+        public Koordination getKoordination() {
+            return koordination;
+        }
+
+        public void setKoordination(Koordination koordination) {
+            this.koordination = koordination;
+        }
+
+        public Duration getLeasedauer() {
+            return leasedauer;
+        }
+
+        public void setLeasedauer(Duration leasedauer) {
+            this.leasedauer = leasedauer;
+        }
+
         static class VerbindungsId {
             private String id;
 
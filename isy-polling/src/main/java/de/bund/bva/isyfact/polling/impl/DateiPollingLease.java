@@ -0,0 +1,172 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.polling.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.bund.bva.isyfact.datetime.util.DateTimeUtil;
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.polling.common.konstanten.EreignisSchluessel;
+
+/**
+ * {@link PollingLease}, die in einer Datei gehalten wird. Sie eignet sich für Knoten, die auf demselben
+ * Host laufen oder ein gemeinsames Verzeichnis mit zuverlässigen Dateisperren nutzen.
+ * <br>
+ * Die Datei enthält den Ablaufzeitpunkt und den Inhaber der Lease. Während des Lesens und Schreibens wird
+ * sie gesperrt, sodass Erwerb und Verlängerung atomar erfolgen.
+ *
+ */
+class DateiPollingLease implements PollingLease {
+
+    /** Der Logger dieser Klasse. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(DateiPollingLease.class);
+
+    /**
+     * Sperren je Datei innerhalb der JVM. Dateisperren gelten für die gesamte JVM und schließen sich
+     * gegenseitig nur zwischen Prozessen aus.
+     */
+    private static final ConcurrentMap<Path, Object> SPERREN = new ConcurrentHashMap<>();
+
+    /** Die Datei der Lease. */
+    private final Path datei;
+
+    /** ID dieses Knotens. */
+    private final String knotenId;
+
+    /** Dauer der Lease in Millisekunden. */
+    private final long leasedauer;
+
+    /**
+     * Erzeugt eine neue Lease in einer Datei.
+     *
+     * @param verzeichnis
+     *            Verzeichnis der Lease-Dateien.
+     * @param clusterId
+     *            ID des Polling-Clusters.
+     * @param knotenId
+     *            ID dieses Knotens.
+     * @param leasedauer
+     *            Dauer der Lease.
+     */
+    DateiPollingLease(Path verzeichnis, String clusterId, String knotenId, Duration leasedauer) {
+        this.datei = verzeichnis.resolve(clusterId + ".lease").toAbsolutePath().normalize();
+        this.knotenId = knotenId;
+        this.leasedauer = leasedauer.toMillis();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean erwirb() {
+        synchronized (SPERREN.computeIfAbsent(datei, d -> new Object())) {
+            try {
+                Files.createDirectories(datei.getParent());
+                try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE); FileLock sperre = kanal.lock()) {
+
+                    long jetzt = DateTimeUtil.getClock().millis();
+                    String[] lease = lies(kanal);
+                    if (lease != null && !knotenId.equals(lease[1]) && Long.parseLong(lease[0]) >= jetzt) {
+                        return false;
+                    }
+                    schreibe(kanal, (jetzt + leasedauer) + ";" + knotenId);
+                    return true;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Ohne Zugriff auf die Lease ist nicht sicher, dass kein anderer Knoten pollt.
+                LOG.error(EreignisSchluessel.POLLING_LEASE_FEHLER,
+                    "Die Polling-Lease in " + datei + " konnte nicht erworben werden.", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void gibFrei() {
+        synchronized (SPERREN.computeIfAbsent(datei, d -> new Object())) {
+            if (!Files.exists(datei)) {
+                return;
+            }
+            try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.READ,
+                StandardOpenOption.WRITE); FileLock sperre = kanal.lock()) {
+                String[] lease = lies(kanal);
+                if (lease != null && knotenId.equals(lease[1])) {
+                    schreibe(kanal, "0;" + knotenId);
+                }
+            } catch (IOException e) {
+                LOG.error(EreignisSchluessel.POLLING_LEASE_FEHLER,
+                    "Die Polling-Lease in " + datei + " konnte nicht freigegeben werden.", e);
+            }
+        }
+    }
+
+    /**
+     * Liest Ablaufzeitpunkt und Inhaber aus der Datei.
+     *
+     * @param kanal
+     *            der geöffnete Kanal der Datei.
+     * @return Ablaufzeitpunkt und Inhaber oder null, falls die Datei leer ist.
+     * @throws IOException
+     *             bei einem Fehler beim Lesen.
+     */
+    private static String[] lies(FileChannel kanal) throws IOException {
+        ByteBuffer puffer = ByteBuffer.allocate((int) kanal.size());
+        while (puffer.hasRemaining() && kanal.read(puffer, puffer.position()) >= 0) {
+            // Lesen, bis der Puffer gefüllt ist.
+        }
+        String inhalt = new String(puffer.array(), 0, puffer.position(), StandardCharsets.UTF_8);
+        int trenner = inhalt.indexOf(';');
+        if (trenner < 0) {
+            return null;
+        }
+        return new String[] {inhalt.substring(0, trenner), inhalt.substring(trenner + 1)};
+    }
+
+    /**
+     * Ersetzt den Inhalt der Datei.
+     *
+     * @param kanal
+     *            der geöffnete Kanal der Datei.
+     * @param inhalt
+     *            der neue Inhalt.
+     * @throws IOException
+     *             bei einem Fehler beim Schreiben.
+     */
+    private static void schreibe(FileChannel kanal, String inhalt) throws IOException {
+        ByteBuffer puffer = ByteBuffer.wrap(inhalt.getBytes(StandardCharsets.UTF_8));
+        kanal.truncate(0);
+        while (puffer.hasRemaining()) {
+            kanal.write(puffer, puffer.position());
+        }
+        kanal.force(false);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.polling.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import de.bund.bva.isyfact.datetime.util.DateTimeUtil;
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.polling.common.konstanten.EreignisSchluessel;
+
+/**
+ * {@link PollingLease}, die als Zeile in einer Tabelle der Anwendungsdatenbank gehalten wird. Die Tabelle
+ * muss von der Anwendung angelegt werden:
+ *
+ * <pre>
+ * CREATE TABLE POLLING_LEASE (
+ *     CLUSTER_ID VARCHAR(100) NOT NULL PRIMARY KEY,
+ *     INHABER    VARCHAR(255) NOT NULL,
+ *     ABLAUF     BIGINT       NOT NULL
+ * )
+ * </pre>
+ *
+ * Erwerb und Verlängerung erfolgen mit einem einzigen bedingten UPDATE, das nur greift, wenn die Lease
+ * diesem Knoten gehört oder abgelaufen ist. Die Zeile eines Clusters wird beim ersten Erwerb angelegt.
+ * Die Uhren der Knoten dürfen nur wenig gegenüber der Leasedauer voneinander abweichen.
+ *
+ */
+class DatenbankPollingLease implements PollingLease {
+
+    /** Der Logger dieser Klasse. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(DatenbankPollingLease.class);
+
+    /** Die Datenquelle der Anwendungsdatenbank. */
+    private final DataSource dataSource;
+
+    /** ID des Polling-Clusters. */
+    private final String clusterId;
+
+    /** ID dieses Knotens. */
+    private final String knotenId;
+
+    /** Dauer der Lease in Millisekunden. */
+    private final long leasedauer;
+
+    /** SQL zum Erwerben oder Verlängern der Lease. */
+    private final String sqlErwerben;
+
+    /** SQL zum Anlegen der Lease-Zeile. */
+    private final String sqlAnlegen;
+
+    /** SQL zum Freigeben der Lease. */
+    private final String sqlFreigeben;
+
+    /** Kennzeichen, ob die Zeile des Clusters bereits existiert. */
+    private volatile boolean zeileVorhanden;
+
+    /**
+     * Erzeugt eine neue Lease in der Datenbank.
+     *
+     * @param dataSource
+     *            Datenquelle der Anwendungsdatenbank.
+     * @param tabelle
+     *            Name der Tabelle mit den Leases.
+     * @param clusterId
+     *            ID des Polling-Clusters.
+     * @param knotenId
+     *            ID dieses Knotens.
+     * @param leasedauer
+     *            Dauer der Lease.
+     */
+    DatenbankPollingLease(DataSource dataSource, String tabelle, String clusterId, String knotenId,
+        Duration leasedauer) {
+        this.dataSource = dataSource;
+        this.clusterId = clusterId;
+        this.knotenId = knotenId;
+        this.leasedauer = leasedauer.toMillis();
+
+        sqlErwerben = "UPDATE " + tabelle + " SET INHABER = ?, ABLAUF = ? "
+            + "WHERE CLUSTER_ID = ? AND (INHABER = ? OR ABLAUF < ?)";
+        sqlAnlegen = "INSERT INTO " + tabelle + " (CLUSTER_ID, INHABER, ABLAUF) VALUES (?, ?, ?)";
+        sqlFreigeben = "UPDATE " + tabelle + " SET ABLAUF = 0 WHERE CLUSTER_ID = ? AND INHABER = ?";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean erwirb() {
+        long jetzt = DateTimeUtil.getClock().millis();
+
+        try (Connection verbindung = dataSource.getConnection()) {
+            boolean erworben;
+            try (PreparedStatement update = verbindung.prepareStatement(sqlErwerben)) {
+                update.setString(1, knotenId);
+                update.setLong(2, jetzt + leasedauer);
+                update.setString(3, clusterId);
+                update.setString(4, knotenId);
+                update.setLong(5, jetzt);
+                erworben = update.executeUpdate() == 1;
+            }
+
+            if (!erworben && !zeileVorhanden) {
+                erworben = legeZeileAn(verbindung, jetzt);
+            }
+
+            if (!verbindung.getAutoCommit()) {
+                verbindung.commit();
+            }
+            return erworben;
+        } catch (SQLException e) {
+            // Ohne Zugriff auf die Lease ist nicht sicher, dass kein anderer Knoten pollt.
+            LOG.error(EreignisSchluessel.POLLING_LEASE_FEHLER,
+                "Die Polling-Lease für Cluster " + clusterId + " konnte nicht erworben werden.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Legt die Zeile des Clusters mit diesem Knoten als Inhaber an.
+     *
+     * @param verbindung
+     *            die Datenbankverbindung.
+     * @param jetzt
+     *            der aktuelle Zeitpunkt in Millisekunden.
+     * @return true, falls die Zeile angelegt wurde, false, falls ein anderer Knoten sie bereits angelegt hat.
+     * @throws SQLException
+     *             bei einem Fehler der Datenbank.
+     */
+    private boolean legeZeileAn(Connection verbindung, long jetzt) throws SQLException {
+        try (PreparedStatement insert = verbindung.prepareStatement(sqlAnlegen)) {
+            insert.setString(1, clusterId);
+            insert.setString(2, knotenId);
+            insert.setLong(3, jetzt + leasedauer);
+            insert.executeUpdate();
+            zeileVorhanden = true;
+            return true;
+        } catch (SQLException e) {
+            // SQL-Status 23: Verletzung einer Integritätsbedingung, die Zeile existiert bereits.
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+            if (!verbindung.getAutoCommit()) {
+                verbindung.rollback();
+            }
+            zeileVorhanden = true;
+            return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void gibFrei() {
+        try (Connection verbindung = dataSource.getConnection();
+            PreparedStatement update = verbindung.prepareStatement(sqlFreigeben)) {
+            update.setString(1, clusterId);
+            update.setString(2, knotenId);
+            update.executeUpdate();
+            if (!verbindung.getAutoCommit()) {
+                verbindung.commit();
+            }
+        } catch (SQLException e) {
+            LOG.error(EreignisSchluessel.POLLING_LEASE_FEHLER,
+                "Die Polling-Lease für Cluster " + clusterId + " konnte nicht freigegeben werden.", e);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.polling.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.rmi.server.RMIClientSocketFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.polling.common.konstanten.EreignisSchluessel;
+
+/**
+ * Hält je JMX-Verbindungsparameter eine geöffnete JMX-Verbindung, damit nicht bei jeder Prüfung ein neuer
+ * RMI-Verbindungsaufbau nötig ist.
+ * <br>
+ * Verbindungen werden über {@link #leiheAus(JMXConnectionParameter)} ausgeliehen und über
+ * {@link Ausleihe#close()} zurückgegeben. Je ID wird atomar höchstens ein Platzhalter für eine Verbindung im
+ * Pool abgelegt. Die Verbindung selbst baut die Ausleihe auf, die den Platzhalter angelegt hat, und zwar
+ * außerhalb der Map. Weitere Ausleihen warten unterbrechbar auf diesen Aufbau. Die Suche im Pool blockiert
+ * dadurch nie auf einem Knoten, der nicht antwortet.
+ * <br>
+ * Verworfen wird eine Verbindung, wenn ihr Aufbau oder Zugriff fehlschlägt ({@link Ausleihe#verwirf()})
+ * oder ihr Connector meldet, dass sie geschlossen wurde oder fehlgeschlagen ist. Eine verworfene Verbindung
+ * wird nicht mehr ausgeliehen und geschlossen, sobald alle Ausleihen zurückgegeben sind.
+ *
+ */
+class JMXVerbindungsPool {
+
+    /** Der Logger dieser Klasse. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(JMXVerbindungsPool.class);
+
+    /** JNDI-Eigenschaft für die Socket-Factory, über die die RMI-Registry angesprochen wird. */
+    private static final String JNDI_RMI_SOCKET_FACTORY = "com.sun.jndi.rmi.factory.socket";
+
+    /** Die Verbindungen je ID der JMX-Verbindungsparameter. */
+    private final Map<String, Verbindung> verbindungen = new ConcurrentHashMap<>();
+
+    /** Socket-Factory mit Timeouts für den Verbindungsaufbau. */
+    private final RMIClientSocketFactory socketFactory;
+
+    /**
+     * Erzeugt einen neuen Pool.
+     *
+     * @param timeoutSekunden
+     *            Timeout in Sekunden für den Verbindungsaufbau und das Lesen während des Verbindungsaufbaus.
+     */
+    JMXVerbindungsPool(int timeoutSekunden) {
+        socketFactory = new TimeoutSocketFactory((int) TimeUnit.SECONDS.toMillis(timeoutSekunden));
+    }
+
+    /**
+     * Leiht die Verbindung zu den angegebenen Verbindungsparametern aus. Liegt keine nutzbare Verbindung im
+     * Pool, wird ein Platzhalter abgelegt und die Verbindung beim ersten Aufruf von
+     * {@link Ausleihe#getConnector()} aufgebaut.
+     *
+     * @param verbindungsparameter
+     *            der Verbindungsparameter.
+     * @return die Ausleihe der Verbindung. Sie muss über {@link Ausleihe#close()} zurückgegeben werden.
+     */
+    Ausleihe leiheAus(JMXConnectionParameter verbindungsparameter) {
+        Verbindung neueVerbindung = new Verbindung();
+        Verbindung verbindung = verbindungen.compute(verbindungsparameter.getId(), (id, vorhandene) -> {
+            if (vorhandene != null && vorhandene.leiheAus()) {
+                return vorhandene;
+            }
+            neueVerbindung.leiheAus();
+            return neueVerbindung;
+        });
+        return new Ausleihe(verbindungsparameter, verbindung, verbindung != neueVerbindung);
+    }
+
+    /**
+     * Baut eine Verbindung auf. Meldet ihr Connector, dass sie geschlossen wurde oder fehlgeschlagen ist,
+     * wird sie verworfen. Schlägt der Aufbau fehl, wird sie sofort verworfen.
+     *
+     * @param verbindungsparameter
+     *            der Verbindungsparameter.
+     * @param verbindung
+     *            die aufzubauende Verbindung.
+     */
+    private void verbinde(JMXConnectionParameter verbindungsparameter, Verbindung verbindung) {
+        Map<String, Object> environment = new HashMap<>();
+        if (verbindungsparameter.getEnvironment() != null) {
+            environment.putAll(verbindungsparameter.getEnvironment());
+        }
+        environment.put(JNDI_RMI_SOCKET_FACTORY, socketFactory);
+        try {
+            JMXConnector connector =
+                JMXConnectorFactory.connect(verbindungsparameter.getJmxServiceUrl(), environment);
+            connector.addConnectionNotificationListener((notification, handback) -> {
+                if (JMXConnectionNotification.FAILED.equals(notification.getType())
+                    || JMXConnectionNotification.CLOSED.equals(notification.getType())) {
+                    verwirf(verbindungsparameter.getId(), verbindung);
+                }
+            }, null, null);
+            if (!verbindung.connector.complete(connector)) {
+                // Die Ausleihe wurde während des Aufbaus zurückgegeben und die Verbindung verworfen.
+                schliesse(connector);
+            }
+        } catch (IOException | RuntimeException e) {
+            verbindung.connector.completeExceptionally(e);
+            verwirf(verbindungsparameter.getId(), verbindung);
+        }
+    }
+
+    /**
+     * Entfernt eine Verbindung aus dem Pool. Sie wird geschlossen, sobald sie nicht mehr ausgeliehen ist.
+     *
+     * @param id
+     *            die ID der Verbindungsparameter.
+     * @param verbindung
+     *            die zu verwerfende Verbindung.
+     */
+    private void verwirf(String id, Verbindung verbindung) {
+        if (verbindung.verwirf()) {
+            verbindungen.remove(id, verbindung);
+        }
+        schliesseUnbenutzte(verbindung);
+    }
+
+    /**
+     * Schließt alle Verbindungen des Pools, auch solche, die noch ausgeliehen sind. Verbindungen, die noch
+     * aufgebaut werden, werden nach ihrem Aufbau geschlossen.
+     */
+    void schliesseAlle() {
+        for (Map.Entry<String, Verbindung> eintrag : verbindungen.entrySet()) {
+            if (verbindungen.remove(eintrag.getKey(), eintrag.getValue())) {
+                eintrag.getValue().verwirf();
+                eintrag.getValue().connector.thenAccept(this::schliesse);
+            }
+        }
+    }
+
+    /**
+     * Schließt eine verworfene Verbindung, sofern sie nicht mehr ausgeliehen und noch nicht geschlossen ist.
+     * Wird sie noch aufgebaut, wird sie nach ihrem Aufbau geschlossen.
+     *
+     * @param verbindung
+     *            die Verbindung.
+     */
+    private void schliesseUnbenutzte(Verbindung verbindung) {
+        if (verbindung.istZuSchliessen()) {
+            verbindung.connector.thenAccept(this::schliesse);
+        }
+    }
+
+    /**
+     * Schließt eine Verbindung und protokolliert Fehler dabei.
+     *
+     * @param verbindung
+     *            die zu schließende Verbindung.
+     */
+    private void schliesse(JMXConnector verbindung) {
+        try {
+            verbindung.close();
+        } catch (IOException e) {
+            LOG.error(EreignisSchluessel.JMX_VERBINDUNG_NICHT_GESCHLOSSEN,
+                "JMX-Verbindung konnte nicht geschlossen werden.", e);
+        }
+    }
+
+    /**
+     * Eine Verbindung des Pools mit der Anzahl ihrer laufenden Ausleihen.
+     */
+    private static final class Verbindung {
+
+        /** Der Connector der Verbindung, sobald sie aufgebaut ist. */
+        private final CompletableFuture<JMXConnector> connector = new CompletableFuture<>();
+
+        /** Anzahl der laufenden Ausleihen. */
+        private int ausleihen;
+
+        /** Kennzeichen, ob die Verbindung verworfen wurde und nicht mehr ausgeliehen wird. */
+        private boolean verworfen;
+
+        /** Kennzeichen, ob die Verbindung bereits geschlossen wurde. */
+        private boolean geschlossen;
+
+        /**
+         * Zählt eine Ausleihe, sofern die Verbindung nicht verworfen wurde.
+         *
+         * @return {@code true}, falls die Verbindung ausgeliehen wurde.
+         */
+        synchronized boolean leiheAus() {
+            if (verworfen) {
+                return false;
+            }
+            ausleihen++;
+            return true;
+        }
+
+        synchronized void gibZurueck() {
+            ausleihen--;
+        }
+
+        /**
+         * Kennzeichnet die Verbindung als verworfen.
+         *
+         * @return {@code true}, falls die Verbindung nicht bereits verworfen war.
+         */
+        synchronized boolean verwirf() {
+            boolean bisherNichtVerworfen = !verworfen;
+            verworfen = true;
+            return bisherNichtVerworfen;
+        }
+
+        /**
+         * Prüft, ob die Verbindung verworfen, nicht mehr ausgeliehen und noch nicht geschlossen ist. In diesem
+         * Fall gilt sie ab sofort als geschlossen.
+         *
+         * @return {@code true}, falls die Verbindung jetzt zu schließen ist.
+         */
+        synchronized boolean istZuSchliessen() {
+            if (verworfen && ausleihen == 0 && !geschlossen) {
+                geschlossen = true;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Eine Ausleihe einer Verbindung des Pools. Sie wird mit {@link #close()} zurückgegeben, mehrfaches
+     * Zurückgeben ist ohne Wirkung.
+     */
+    final class Ausleihe implements AutoCloseable {
+
+        /** Die Verbindungsparameter. */
+        private final JMXConnectionParameter verbindungsparameter;
+
+        /** Die ausgeliehene Verbindung. */
+        private final Verbindung verbindung;
+
+        /** Kennzeichen, ob die Verbindung bereits vor der Ausleihe im Pool lag. */
+        private final boolean wiederverwendet;
+
+        /** Kennzeichen, ob die Ausleihe zurückgegeben wurde. */
+        private final AtomicBoolean zurueckgegeben = new AtomicBoolean();
+
+        private Ausleihe(JMXConnectionParameter verbindungsparameter, Verbindung verbindung,
+            boolean wiederverwendet) {
+            this.verbindungsparameter = verbindungsparameter;
+            this.verbindung = verbindung;
+            this.wiederverwendet = wiederverwendet;
+        }
+
+        /**
+         * Liefert den Connector der ausgeliehenen Verbindung. Hat diese Ausleihe den Platzhalter der
+         * Verbindung angelegt, baut sie die Verbindung auf. Andernfalls wartet sie auf den Aufbau.
+         *
+         * @return der Connector.
+         * @throws IOException
+         *             falls die Verbindung nicht aufgebaut werden konnte oder das Warten unterbrochen wurde.
+         */
+        JMXConnector getConnector() throws IOException {
+            if (!wiederverwendet && !verbindung.connector.isDone()) {
+                verbinde(verbindungsparameter, verbindung);
+            }
+            try {
+                return verbindung.connector.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException unterbrochen =
+                    new InterruptedIOException("Warten auf den Verbindungsaufbau wurde unterbrochen.");
+                unterbrochen.initCause(e);
+                throw unterbrochen;
+            } catch (ExecutionException e) {
+                Throwable ursache = e.getCause();
+                if (ursache instanceof IOException) {
+                    throw (IOException) ursache;
+                } else if (ursache instanceof RuntimeException) {
+                    throw (RuntimeException) ursache;
+                }
+                throw new IllegalStateException(ursache);
+            }
+        }
+
+        /**
+         * Liefert, ob die Verbindung bereits vor der Ausleihe im Pool lag und daher inzwischen abgebrochen
+         * sein kann.
+         *
+         * @return {@code true}, falls die Verbindung wiederverwendet wurde.
+         */
+        boolean isWiederverwendet() {
+            return wiederverwendet;
+        }
+
+        /**
+         * Verwirft die ausgeliehene Verbindung. Sie wird geschlossen, sobald alle Ausleihen zurückgegeben
+         * sind.
+         */
+        void verwirf() {
+            JMXVerbindungsPool.this.verwirf(verbindungsparameter.getId(), verbindung);
+        }
+
+        /**
+         * Gibt die Verbindung an den Pool zurück. Wurde die Verbindung von dieser Ausleihe angelegt, aber nie
+         * aufgebaut, wird sie verworfen, damit keine andere Ausleihe auf ihren Aufbau wartet.
+         */
+        @Override
+        public void close() {
+            if (zurueckgegeben.compareAndSet(false, true)) {
+                if (!wiederverwendet && verbindung.connector.completeExceptionally(
+                    new IOException("Die JMX-Verbindung wurde nicht aufgebaut."))) {
+                    verwirf();
+                }
+                verbindung.gibZurueck();
+                schliesseUnbenutzte(verbindung);
+            }
+        }
+    }
+
+    /**
+     * Socket-Factory, die Sockets mit Timeouts für den Verbindungsaufbau und das Lesen erzeugt. Sie wird
+     * für den Zugriff auf die RMI-Registry verwendet, sodass ein Knoten, der Verbindungen annimmt, aber nicht
+     * antwortet, den Verbindungsaufbau nicht unbegrenzt blockiert. Da die RMI-Laufzeit den Lese-Timeout für
+     * den Handshake selbst setzt, wird jeder gesetzte Lese-Timeout auf den Timeout der Factory begrenzt.
+     */
+    private static final class TimeoutSocketFactory implements RMIClientSocketFactory {
+
+        /** Timeout in Millisekunden. */
+        private final int timeoutMillis;
+
+        TimeoutSocketFactory(int timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            Socket socket = new Socket() {
+                @Override
+                public synchronized void setSoTimeout(int timeout) throws SocketException {
+                    super.setSoTimeout(timeout == 0 ? timeoutMillis : Math.min(timeout, timeoutMillis));
+                }
+            };
+            try {
+                socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+                socket.setSoTimeout(timeoutMillis);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            return socket;
+        }
+    }
+}
@@ -50,6 +50,9 @@ class PollingCluster {
     /** MBean-Objekt-Name. Wird aus der Cluster-Id abgeleitet */
     private String mBeanObjektName;
 
+    /** Lease zur Koordination des Clusters oder null, falls die Knoten über JMX abgefragt werden. */
+    private PollingLease lease;
+
     /** Zeitstempel der letzten durchgeführten Polling-Aktivität. */
     private long zeitstempel;
 
@@ -67,9 +70,11 @@ class PollingCluster {
      *          Wartezeit bis zur Übernahme der Polling-Aktivität in Sekunden.
      * @param jmxConnectionParameterListe
      *          Liste mit Verbindungsangaben.
+     * @param lease
+     *          Lease zur Koordination des Clusters oder null, falls die Knoten über JMX abgefragt werden.
      */
     PollingCluster(String jmxDomain, String clusterId, String clusterName, int wartezeit,
-        List<JMXConnectionParameter> jmxConnectionParameterListe) {
+        List<JMXConnectionParameter> jmxConnectionParameterListe, PollingLease lease) {
 
         if (clusterId == null) {
             throw new IllegalArgumentException("Die ClusterId darf nicht leer sein!");
@@ -83,7 +88,8 @@ class PollingCluster {
 
         mBeanObjektName = jmxDomain + ":type=PollingStatus,name=\"Polling-Aktivitaet-" + clusterName + "\"";
 
-        if (wartezeit < 10) {
+        // Die Wartezeit wird nur bei der Abfrage über JMX verwendet.
+        if (lease == null && wartezeit < 10) {
             throw new IllegalArgumentException("Die Wartezeit darf nicht kleiner als 10 Sekunden sein!");
         }
         this.wartezeit = wartezeit;
@@ -92,6 +98,7 @@ class PollingCluster {
             throw new IllegalArgumentException("Die Service-Liste darf nicht leer sein!");
         }
         this.jmxConnectionParameterListe = jmxConnectionParameterListe;
+        this.lease = lease;
     }
 
     /**
@@ -142,6 +149,15 @@ class PollingCluster {
         return mBeanObjektName;
     }
 
+    /**
+     * Liefert die Lease zur Koordination des Clusters.
+     *
+     * @return Lease oder null, falls die Knoten über JMX abgefragt werden.
+     */
+    PollingLease getLease() {
+        return lease;
+    }
+
     /**
      * Liefert den letzten gesetzten Zeitstempel für eine durchgeführte Polling-Aktion.
      *
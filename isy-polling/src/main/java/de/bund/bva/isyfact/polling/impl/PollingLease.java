@@ -0,0 +1,40 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.polling.impl;
+
+/**
+ * Eine zeitlich begrenzte Berechtigung eines Knotens, das Polling in einem Polling-Cluster durchzuführen.
+ * <br>
+ * Der Knoten, der die Lease hält, verlängert sie bei jeder Polling-Aktivität. Läuft sie ab, ohne verlängert
+ * zu werden, kann ein anderer Knoten sie übernehmen. Erwerb und Verlängerung erfolgen atomar, sodass die
+ * Lease zu jedem Zeitpunkt höchstens von einem Knoten gehalten wird.
+ *
+ */
+interface PollingLease {
+
+    /**
+     * Erwirbt die Lease oder verlängert sie, falls dieser Knoten sie bereits hält.
+     *
+     * @return true, falls dieser Knoten die Lease hält, false sonst.
+     */
+    boolean erwirb();
+
+    /**
+     * Gibt die Lease frei, falls dieser Knoten sie hält, damit ein anderer Knoten sie sofort übernehmen kann.
+     */
+    void gibFrei();
+}
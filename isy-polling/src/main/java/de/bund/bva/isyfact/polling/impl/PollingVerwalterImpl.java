@@ -17,11 +17,22 @@
 package de.bund.bva.isyfact.polling.impl;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
@@ -31,9 +42,10 @@ import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
 import javax.management.remote.JMXConnector;
-import javax.management.remote.JMXConnectorFactory;
+import javax.sql.DataSource;
 
 import de.bund.bva.isyfact.polling.config.IsyPollingProperties;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
 import de.bund.bva.isyfact.logging.IsyLogger;
@@ -49,7 +61,7 @@ import de.bund.bva.isyfact.polling.common.konstanten.Fehlerschluessel;
  * Implementierung der Komponente PollingVerwalter.
  *
  */
-public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean {
+public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean, DisposableBean {
 
     /** Der Logger dieser Klasse. */
     private static final IsyLogger LOG = IsyLoggerFactory.getLogger(PollingVerwalter.class);
@@ -63,6 +75,15 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
     /** Zugriff auf die Konfiguration. */
     private IsyPollingProperties isyPollingProperties;
 
+    /** Die geöffneten JMX-Verbindungen zu den Knoten der Polling-Cluster. */
+    private JMXVerbindungsPool verbindungsPool;
+
+    /** Führt die Abfragen der Knoten parallel aus. */
+    private ExecutorService abfrageExecutor;
+
+    /** Datenquelle für Polling-Cluster, die über die Datenbank koordiniert werden. */
+    private DataSource dataSource;
+
     /**
      * Kennzeichen, ob die Anwendung alleine betrieben wird (true) oder ob weitere ClusterKonten vorhanden
      * sind (false).
@@ -90,6 +111,10 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
         this.isyPollingProperties = isyPollingProperties;
     }
 
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -100,31 +125,67 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
             return true;
         }
 
-        // Ermitteln, ob ein anderer Knoten bereits ein Polling durchgeführt hat.
         PollingCluster pollingCluster = getPollingCluster(clusterId);
+
+        // Bei Koordination über eine Lease darf pollen, wer sie erwirbt oder verlängert.
+        if (pollingCluster.getLease() != null) {
+            boolean pollingAktiv = pollingCluster.getLease().erwirb();
+            if (pollingAktiv) {
+                pollingCluster.aktualisiereZeitpunktLetztePollingAktivitaet();
+            }
+            return pollingAktiv;
+        }
+
+        // Ermitteln, ob ein anderer Knoten bereits ein Polling durchgeführt hat. Die Knoten werden parallel
+        // abgefragt, die Prüfung endet mit der ersten Antwort eines aktiven Knotens.
         JMXConnectionParameter[] jmxConnectionParameter = pollingCluster.getJmxConnectionParameter();
         boolean pollingAktiv = true;
-        long zeitraum;
 
+        CompletionService<Long> abfragen = new ExecutorCompletionService<>(abfrageExecutor);
+        Map<Future<Long>, Abfrage> offeneAbfragen = new HashMap<>();
         for (JMXConnectionParameter verbindungsparameter : jmxConnectionParameter) {
+            Abfrage abfrage = new Abfrage(verbindungsparameter);
+            offeneAbfragen.put(abfragen.submit(() -> getZeitraumLetztePollingAktivitaet(abfrage, clusterId,
+                pollingCluster.getMBeanObjektName())), abfrage);
+        }
+
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(isyPollingProperties.getJmx().getTimeout());
+        long ende = System.nanoTime() + timeoutNanos;
+        try {
+            while (pollingAktiv && !offeneAbfragen.isEmpty()) {
+                Future<Long> abfrage = abfragen.poll(ende - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (abfrage == null) {
+                    // Knoten, die nicht rechtzeitig antworten, werden wie nicht erreichbare Knoten behandelt.
+                    for (Abfrage offeneAbfrage : offeneAbfragen.values()) {
+                        JMXConnectionParameter verbindungsparameter = offeneAbfrage.verbindungsparameter;
+                        LOG.warn(EreignisSchluessel.JMX_ABFRAGE_TIMEOUT,
+                            "Der Knoten {} ({}) im Polling-Cluster {} hat nicht innerhalb von {} s "
+                                + "geantwortet.",
+                            verbindungsparameter.getId(), verbindungsparameter.getIpAdressePort(), clusterId,
+                            isyPollingProperties.getJmx().getTimeout());
+                        verwirfHaengendeVerbindung(offeneAbfrage);
+                    }
+                    break;
+                }
 
-            try {
-                zeitraum = getZeitraumLetztePollingAktivitaet(verbindungsparameter, clusterId,
-                    pollingCluster.getMBeanObjektName());
+                JMXConnectionParameter verbindungsparameter =
+                    offeneAbfragen.remove(abfrage).verbindungsparameter;
+                long zeitraum = getErgebnis(abfrage);
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Zeitraum seit letzter Polling-Aktivitaet für Cluster-ID " + clusterId
                         + ", Knoten-ID " + verbindungsparameter.getId() + ", URL "
                         + verbindungsparameter.getJmxServiceUrl() + ": "
                         + (zeitraum == Long.MAX_VALUE ? "nie" : zeitraum + " ms"));
                 }
-            } catch (PollingUeberpruefungTechnicalException e) {
-                LOG.error("PollingUeberpruefungTechnicalException", e);
-                zeitraum = Long.MAX_VALUE;
-            }
-            if (zeitraum < (pollingCluster.getWartezeit() * 1000)) {
-                pollingAktiv = false;
-                break;
+                if (zeitraum < (pollingCluster.getWartezeit() * 1000L)) {
+                    pollingAktiv = false;
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pollingAktiv = false;
+        } finally {
+            offeneAbfragen.keySet().forEach(abfrage -> abfrage.cancel(true));
         }
 
         if (pollingAktiv) {
@@ -133,33 +194,101 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
         return pollingAktiv;
     }
 
+    /**
+     * Verwirft die Verbindung einer Abfrage, die nicht rechtzeitig geantwortet hat, und gibt sie anstelle der
+     * hängenden Abfrage zurück. Die Verbindung wird damit nicht mehr ausgeliehen und geschlossen, sobald sie
+     * von keiner anderen Abfrage mehr verwendet wird. Hängt bereits ihr Aufbau, warten andere Abfragen nicht
+     * länger auf ihn. Da auch das Schließen einer hängenden RMI-Verbindung blockieren kann, geschieht dies im
+     * Hintergrund.
+     *
+     * @param abfrage
+     *            die nicht rechtzeitig beantwortete Abfrage.
+     */
+    private void verwirfHaengendeVerbindung(Abfrage abfrage) {
+        JMXVerbindungsPool.Ausleihe ausleihe = abfrage.ausleihe;
+        if (ausleihe == null) {
+            return;
+        }
+        try {
+            abfrageExecutor.execute(() -> {
+                ausleihe.verwirf();
+                ausleihe.close();
+            });
+        } catch (RejectedExecutionException e) {
+            // Der Executor wurde beendet, der Pool schließt dabei alle Verbindungen.
+        }
+    }
+
+    /**
+     * Liefert das Ergebnis einer abgeschlossenen Abfrage. Technische Fehler bei der Abfrage werden
+     * protokolliert und wie ein Knoten behandelt, der noch nie gepollt hat.
+     *
+     * @param abfrage
+     *            die abgeschlossene Abfrage.
+     * @return Zeitraum in ms seit der letzten Ausführung des Pollings.
+     * @throws InterruptedException
+     *             falls der Thread unterbrochen wurde.
+     */
+    private long getErgebnis(Future<Long> abfrage) throws InterruptedException {
+        try {
+            return abfrage.get();
+        } catch (ExecutionException e) {
+            Throwable ursache = e.getCause();
+            if (ursache instanceof PollingUeberpruefungTechnicalException) {
+                LOG.error("PollingUeberpruefungTechnicalException", ursache);
+                return Long.MAX_VALUE;
+            } else if (ursache instanceof RuntimeException) {
+                throw (RuntimeException) ursache;
+            } else if (ursache instanceof Error) {
+                throw (Error) ursache;
+            }
+            throw new IllegalStateException(ursache);
+        }
+    }
+
     /**
      * Liefert den Zeitraum in Millisekunden, der seit der letzten Ausführung des Pollings im System unter der
      * angegebenen URL vergangen ist.
+     * <br>
+     * Die JMX-Verbindung wird aus dem {@link JMXVerbindungsPool} ausgeliehen. Da eine wiederverwendete
+     * Verbindung inzwischen abgebrochen sein kann, wird ein fehlgeschlagener Zugriff über sie verworfen und
+     * einmalig mit einer neuen Verbindung wiederholt.
      *
-     * @param verbindungsparameter
-     *            des zu prüfenden Systems.
+     * @param abfrage
+     *            die Abfrage des zu prüfenden Systems.
      * @param clusterId
      *            Name des Polling-Clusters.
      * @param mBeanObjektName
      *            Name der MBean
      * @return Zeitraum in ms seit der letzten Ausführung des Pollings.
      */
-    private long getZeitraumLetztePollingAktivitaet(JMXConnectionParameter verbindungsparameter,
-        String clusterId, String mBeanObjektName) {
-
-        long ergebnis = Long.MAX_VALUE;
+    private long getZeitraumLetztePollingAktivitaet(Abfrage abfrage, String clusterId,
+        String mBeanObjektName) {
+        JMXConnectionParameter verbindungsparameter = abfrage.verbindungsparameter;
 
-        JMXConnector jmxc = null;
         try {
-
-            jmxc = JMXConnectorFactory.connect(verbindungsparameter.getJmxServiceUrl(),
-                verbindungsparameter.getEnvironment());
-            MBeanServerConnection mbsc = jmxc.getMBeanServerConnection();
-
             ObjectName mbeanName = new ObjectName(mBeanObjektName);
-            ergebnis = (Long) mbsc.getAttribute(mbeanName, ZEITRAUM_LETZTE_POLLING_AKTIVITAET);
 
+            boolean wiederholen = true;
+            while (true) {
+                try (JMXVerbindungsPool.Ausleihe ausleihe = verbindungsPool.leiheAus(verbindungsparameter)) {
+                    abfrage.ausleihe = ausleihe;
+                    try {
+                        return leseZeitraumLetztePollingAktivitaet(ausleihe.getConnector(), mbeanName);
+                    } catch (IOException e) {
+                        ausleihe.verwirf();
+                        if (!wiederholen || !ausleihe.isWiederverwendet()
+                            || Thread.currentThread().isInterrupted()) {
+                            throw e;
+                        }
+                        LOG.debug("JMX-Verbindung zu {} ist nicht mehr gültig und wird neu aufgebaut.",
+                            verbindungsparameter.getIpAdressePort());
+                        wiederholen = false;
+                    } finally {
+                        abfrage.ausleihe = null;
+                    }
+                }
+            }
         } catch (MalformedObjectNameException e) {
             throw new PollingClusterKonfigurationException(Fehlerschluessel.MSG_MBEAN_OBJEKT_NAME_FEHLERHAFT,
                 mBeanObjektName);
@@ -179,18 +308,23 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
         } catch (MBeanException | ReflectionException e) {
             throw new PollingUeberpruefungTechnicalException(Fehlerschluessel.MSG_MBEAN_ZUGRIFF_FEHLER, e,
                 mBeanObjektName, verbindungsparameter.getIpAdressePort());
-        } finally {
-            try {
-                if (jmxc != null) {
-                    jmxc.close();
-                }
-            } catch (IOException e) {
-                LOG.error(EreignisSchluessel.JMX_VERBINDUNG_NICHT_GESCHLOSSEN,
-                    "JMX-Verbindung konnte nicht geschlossen werden.", e);
-            }
         }
+    }
 
-        return ergebnis;
+    /**
+     * Liest das Attribut "ZeitraumLetztePollingAktivitaet" über eine JMX-Verbindung.
+     *
+     * @param jmxc
+     *            die JMX-Verbindung.
+     * @param mbeanName
+     *            Name der MBean.
+     * @return Zeitraum in ms seit der letzten Ausführung des Pollings.
+     */
+    private long leseZeitraumLetztePollingAktivitaet(JMXConnector jmxc, ObjectName mbeanName)
+        throws IOException, AttributeNotFoundException, InstanceNotFoundException, MBeanException,
+        ReflectionException {
+        MBeanServerConnection mbsc = jmxc.getMBeanServerConnection();
+        return (Long) mbsc.getAttribute(mbeanName, ZEITRAUM_LETZTE_POLLING_AKTIVITAET);
     }
 
     /**
@@ -203,7 +337,13 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
             return;
         }
 
-        getPollingCluster(clusterId).aktualisiereZeitpunktLetztePollingAktivitaet();
+        PollingCluster pollingCluster = getPollingCluster(clusterId);
+        pollingCluster.aktualisiereZeitpunktLetztePollingAktivitaet();
+
+        // Die Polling-Aktivität dient als Heartbeat und verlängert die Lease.
+        if (pollingCluster.getLease() != null) {
+            pollingCluster.getLease().erwirb();
+        }
     }
 
     /**
@@ -225,6 +365,38 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
     @Override
     public void afterPropertiesSet() throws Exception {
         this.pollingClusterMap = lesePollingCluster();
+
+        if (!modusStandalone) {
+            verbindungsPool = new JMXVerbindungsPool(isyPollingProperties.getJmx().getTimeout());
+            AtomicInteger threadNummer = new AtomicInteger();
+            abfrageExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "isy-polling-jmx-" + threadNummer.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        if (abfrageExecutor != null) {
+            abfrageExecutor.shutdownNow();
+        }
+        if (verbindungsPool != null) {
+            verbindungsPool.schliesseAlle();
+        }
+
+        // Gehaltene Leases freigeben, damit ein anderer Knoten ohne Wartezeit übernimmt.
+        if (pollingClusterMap != null) {
+            for (PollingCluster pollingCluster : pollingClusterMap.values()) {
+                if (pollingCluster.getLease() != null) {
+                    pollingCluster.getLease().gibFrei();
+                }
+            }
+        }
     }
 
     /**
@@ -241,30 +413,38 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
             return clusterMap;
         }
 
+        String knotenId = isyPollingProperties.getLease().getKnotenId() != null
+            ? isyPollingProperties.getLease().getKnotenId() : ManagementFactory.getRuntimeMXBean().getName();
+
         isyPollingProperties.getCluster().forEach((clusterId, cluster) -> {
             String clusterName = cluster.getName();
+            PollingLease lease = erzeugeLease(clusterId, cluster, knotenId);
 
             // zugeordnete JMX-Verbindungen ermitteln
             List<JMXConnectionParameter> jmxParameterListe = new ArrayList<>();
-            if (cluster.getJmxverbindungen().isEmpty()) {
-                // Wenn keine speziellen JMX-Verbindungen zugeordnet sind,
-                // werden alle definierten JMX-Verbindungen zugeordnet
-                jmxParameterListe.addAll(jmxVerbindungenMap.values());
-            } else {
-                for (String jmxVerbindung : cluster.getJmxverbindungen()) {
-                    JMXConnectionParameter jmxConnectionParameter = jmxVerbindungenMap.get(jmxVerbindung);
-                    if (jmxConnectionParameter == null) {
-                        throw new PollingClusterKonfigurationException(
-                            Fehlerschluessel.MSG_UNBEKANNTE_VERBINDUNGSZUORDNUNG, jmxVerbindung, clusterId);
+            // Bei Koordination über eine Lease werden keine Knoten über JMX abgefragt.
+            if (lease == null) {
+                if (cluster.getJmxverbindungen().isEmpty()) {
+                    // Wenn keine speziellen JMX-Verbindungen zugeordnet sind,
+                    // werden alle definierten JMX-Verbindungen zugeordnet
+                    jmxParameterListe.addAll(jmxVerbindungenMap.values());
+                } else {
+                    for (String jmxVerbindung : cluster.getJmxverbindungen()) {
+                        JMXConnectionParameter jmxConnectionParameter = jmxVerbindungenMap.get(jmxVerbindung);
+                        if (jmxConnectionParameter == null) {
+                            throw new PollingClusterKonfigurationException(
+                                Fehlerschluessel.MSG_UNBEKANNTE_VERBINDUNGSZUORDNUNG, jmxVerbindung,
+                                clusterId);
+                        }
+                        jmxParameterListe.add(jmxConnectionParameter);
                     }
-                    jmxParameterListe.add(jmxConnectionParameter);
                 }
             }
 
             // Polling-Cluster erzeugen
             PollingCluster pollingCluster = new PollingCluster(isyPollingProperties.getJmx().getDomain(), clusterId, clusterName,
                 cluster.getWartezeit(),
-                jmxParameterListe);
+                jmxParameterListe, lease);
             clusterMap.put(clusterId, pollingCluster);
         });
 
@@ -272,8 +452,42 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
     }
 
     /**
-     * Ermittelt die JMX-Verbindungsparameter aus der Konfiguration. Sind keine JMX-Verbindungen konfiguriert,
-     * wird der Polling-Modus auf "Standalone" gesetzt und eine Warnung in die Log-Ausgabe geschrieben.
+     * Erzeugt die Lease zur Koordination eines Polling-Clusters.
+     *
+     * @param clusterId
+     *            ID des Polling-Clusters.
+     * @param cluster
+     *            Konfiguration des Polling-Clusters.
+     * @param knotenId
+     *            ID dieses Knotens.
+     * @return die Lease oder null, falls die Knoten über JMX abgefragt werden.
+     *
+     * @throws PollingClusterKonfigurationException
+     *             falls für die Koordination über die Datenbank keine DataSource vorhanden ist.
+     */
+    private PollingLease erzeugeLease(String clusterId, IsyPollingProperties.Cluster cluster,
+        String knotenId) {
+        IsyPollingProperties.Lease leaseKonfiguration = isyPollingProperties.getLease();
+        switch (cluster.getKoordination()) {
+        case DATENBANK:
+            if (dataSource == null) {
+                throw new PollingClusterKonfigurationException(Fehlerschluessel.MSG_KEINE_DATASOURCE,
+                    clusterId);
+            }
+            return new DatenbankPollingLease(dataSource, leaseKonfiguration.getTabelle(), clusterId, knotenId,
+                cluster.getLeasedauer());
+        case DATEI:
+            return new DateiPollingLease(Paths.get(leaseKonfiguration.getVerzeichnis()), clusterId, knotenId,
+                cluster.getLeasedauer());
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Ermittelt die JMX-Verbindungsparameter aus der Konfiguration. Sind keine JMX-Verbindungen konfiguriert
+     * und werden alle Polling-Cluster über JMX koordiniert, wird der Polling-Modus auf "Standalone" gesetzt
+     * und eine Warnung in die Log-Ausgabe geschrieben.
      *
      * @return Map mit den VerbindungsParametern.
      *
@@ -283,8 +497,11 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
     private Map<String, JMXConnectionParameter> leseJmxVerbindungen() {
         Map<String, JMXConnectionParameter> jmxConnectionMap = new HashMap<>();
 
-        // Sind keine JMX-Verbindungen konfiguriert, wird der Polling-Modus auf "Standalone" gesetzt.
-        if (isyPollingProperties.getJmx().getVerbindungen().isEmpty()) {
+        // Sind keine JMX-Verbindungen konfiguriert und werden alle Cluster über JMX koordiniert, wird der
+        // Polling-Modus auf "Standalone" gesetzt.
+        boolean nurJmxKoordination = isyPollingProperties.getCluster().values().stream()
+            .allMatch(cluster -> cluster.getKoordination() == IsyPollingProperties.Koordination.JMX);
+        if (isyPollingProperties.getJmx().getVerbindungen().isEmpty() && nurJmxKoordination) {
             modusStandalone = true;
             LOG.warn(EreignisSchluessel.KEIN_JMX_VERBINDUNGS_PARAM,
                 "Für das Polling der Anwendung wurden keine JMX-Verbindungsparameter angegeben! "
@@ -300,4 +517,20 @@ public class PollingVerwalterImpl implements PollingVerwalter, InitializingBean
         });
         return jmxConnectionMap;
     }
+
+    /**
+     * Eine laufende Abfrage eines Knotens.
+     */
+    private static final class Abfrage {
+
+        /** Die Verbindungsparameter des abgefragten Knotens. */
+        private final JMXConnectionParameter verbindungsparameter;
+
+        /** Die Ausleihe der JMX-Verbindung, solange die Abfrage über sie läuft. */
+        private volatile JMXVerbindungsPool.Ausleihe ausleihe;
+
+        Abfrage(JMXConnectionParameter verbindungsparameter) {
+            this.verbindungsparameter = verbindungsparameter;
+        }
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.polling.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import de.bund.bva.isyfact.datetime.test.TestClock;
+import de.bund.bva.isyfact.datetime.util.DateTimeUtil;
+import de.bund.bva.isyfact.polling.common.exception.PollingClusterKonfigurationException;
+import de.bund.bva.isyfact.polling.config.IsyPollingProperties;
+import de.bund.bva.isyfact.polling.config.IsyPollingProperties.Koordination;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests für die Koordination von Polling-Clustern über eine Lease in der Datenbank oder in einer Datei.
+ *
+ */
+public class PollingLeaseTest {
+
+    private static final Duration LEASEDAUER = Duration.ofSeconds(2);
+
+    private TestClock testClock;
+
+    private Path verzeichnis;
+
+    @Before
+    public void setUp() throws IOException {
+        testClock = TestClock.now();
+        DateTimeUtil.setClock(testClock);
+        verzeichnis = Files.createTempDirectory("isy-polling");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        DateTimeUtil.setClock(Clock.systemDefaultZone());
+        try (Stream<Path> dateien = Files.walk(verzeichnis)) {
+            dateien.sorted(Comparator.reverseOrder()).forEach(datei -> datei.toFile().delete());
+        }
+    }
+
+    @Test
+    public void dateiLease() {
+        pruefeLease(new DateiPollingLease(verzeichnis, "CLUSTER1", "KNOTEN-A", LEASEDAUER),
+            new DateiPollingLease(verzeichnis, "CLUSTER1", "KNOTEN-B", LEASEDAUER));
+    }
+
+    @Test
+    public void datenbankLease() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:polling-lease;DB_CLOSE_DELAY=-1");
+        try (Connection verbindung = dataSource.getConnection();
+            Statement statement = verbindung.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS POLLING_LEASE");
+            statement.execute("CREATE TABLE POLLING_LEASE (CLUSTER_ID VARCHAR(100) NOT NULL PRIMARY KEY, "
+                + "INHABER VARCHAR(255) NOT NULL, ABLAUF BIGINT NOT NULL)");
+        }
+
+        pruefeLease(
+            new DatenbankPollingLease(dataSource, "POLLING_LEASE", "CLUSTER1", "KNOTEN-A", LEASEDAUER),
+            new DatenbankPollingLease(dataSource, "POLLING_LEASE", "CLUSTER1", "KNOTEN-B", LEASEDAUER));
+    }
+
+    /**
+     * Zwei Polling-Verwalter teilen sich eine Lease-Datei. Beim Beenden gibt der aktive Verwalter die Lease
+     * frei und der andere übernimmt sofort.
+     */
+    @Test
+    public void pollingVerwalterMitDateiKoordination() throws Exception {
+        PollingVerwalterImpl knotenA = erzeugePollingVerwalter("KNOTEN-A", Koordination.DATEI);
+        PollingVerwalterImpl knotenB = erzeugePollingVerwalter("KNOTEN-B", Koordination.DATEI);
+
+        assertTrue(knotenA.startePolling("CLUSTER1"));
+        assertFalse(knotenB.startePolling("CLUSTER1"));
+
+        testClock.advanceBy(Duration.ofMillis(1500));
+        knotenA.aktualisiereZeitpunktLetztePollingAktivitaet("CLUSTER1");
+        testClock.advanceBy(Duration.ofMillis(1500));
+        assertFalse(knotenB.startePolling("CLUSTER1"));
+
+        knotenA.destroy();
+        assertTrue(knotenB.startePolling("CLUSTER1"));
+        knotenB.destroy();
+    }
+
+    @Test(expected = PollingClusterKonfigurationException.class)
+    public void datenbankKoordinationOhneDataSource() throws Exception {
+        erzeugePollingVerwalter("KNOTEN-A", Koordination.DATENBANK);
+    }
+
+    /**
+     * Prüft, dass die Lease höchstens von einem Knoten gehalten, vom Inhaber verlängert und nach Ablauf
+     * oder Freigabe von einem anderen Knoten übernommen wird.
+     */
+    private void pruefeLease(PollingLease knotenA, PollingLease knotenB) {
+        assertTrue(knotenA.erwirb());
+        assertFalse(knotenB.erwirb());
+
+        // Verlängerung durch den Inhaber
+        testClock.advanceBy(Duration.ofMillis(1500));
+        assertTrue(knotenA.erwirb());
+        testClock.advanceBy(Duration.ofMillis(1500));
+        assertFalse(knotenB.erwirb());
+
+        // Übernahme nach Ablauf
+        testClock.advanceBy(Duration.ofMillis(600));
+        assertTrue(knotenB.erwirb());
+        assertFalse(knotenA.erwirb());
+
+        // Übernahme nach Freigabe
+        knotenB.gibFrei();
+        assertTrue(knotenA.erwirb());
+    }
+
+    private PollingVerwalterImpl erzeugePollingVerwalter(String knotenId,
+        Koordination koordination) throws Exception {
+        IsyPollingProperties properties = new IsyPollingProperties();
+        properties.getLease().setKnotenId(knotenId);
+        properties.getLease().setVerzeichnis(verzeichnis.toString());
+
+        IsyPollingProperties.Cluster cluster = new IsyPollingProperties.Cluster();
+        cluster.setName("Name-Cluster1");
+        cluster.setKoordination(koordination);
+        cluster.setLeasedauer(LEASEDAUER);
+        properties.getCluster().put("CLUSTER1", cluster);
+
+        PollingVerwalterImpl verwalter = new PollingVerwalterImpl();
+        verwalter.setIsyPollingProperties(properties);
+        verwalter.afterPropertiesSet();
+        return verwalter;
+    }
+}
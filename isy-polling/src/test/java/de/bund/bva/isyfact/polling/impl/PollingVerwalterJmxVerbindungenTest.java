@@ -0,0 +1,363 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.polling.impl;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import de.bund.bva.isyfact.polling.config.IsyPollingProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests für die Abfrage der Knoten eines Polling-Clusters über einen lokalen RMI-Connector-Server.
+ *
+ */
+public class PollingVerwalterJmxVerbindungenTest {
+
+    /** Name der MBean des Clusters. */
+    private static final String MBEAN_NAME =
+        "de.bund.bva.isyfact.polling:type=PollingStatus,name=\"Polling-Aktivitaet-Name-Cluster1\"";
+
+    /** Zeitraum, den die MBean als letzte Polling-Aktivität meldet. */
+    private volatile long zeitraum = Long.MAX_VALUE;
+
+    /** Anzahl der vom Connector-Server angenommenen Verbindungen. */
+    private final AtomicInteger geoeffneteVerbindungen = new AtomicInteger();
+
+    private int port;
+
+    private Registry registry;
+
+    private MBeanServer mBeanServer;
+
+    private JMXConnectorServer connectorServer;
+
+    private ServerSocket haengenderKnoten;
+
+    private final List<Socket> haengendeVerbindungen = new CopyOnWriteArrayList<>();
+
+    private PollingVerwalterImpl pollingVerwalter;
+
+    @Before
+    public void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        registry = LocateRegistry.createRegistry(port);
+
+        mBeanServer = MBeanServerFactory.newMBeanServer();
+        mBeanServer.registerMBean(new StandardMBean(new ZeitraumImpl(), ZeitraumMBean.class),
+            new ObjectName(MBEAN_NAME));
+        starteConnectorServer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (pollingVerwalter != null) {
+            pollingVerwalter.destroy();
+        }
+        connectorServer.stop();
+        UnicastRemoteObject.unexportObject(registry, true);
+        if (haengenderKnoten != null) {
+            haengenderKnoten.close();
+        }
+        for (Socket socket : haengendeVerbindungen) {
+            socket.close();
+        }
+    }
+
+    /**
+     * Mehrere Prüfungen verwenden je Knoten dieselbe JMX-Verbindung.
+     */
+    @Test
+    public void verbindungenWerdenWiederverwendet() throws Exception {
+        pollingVerwalter = erzeugePollingVerwalter(port, port, port);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(pollingVerwalter.startePolling("CLUSTER1"));
+        }
+
+        assertEquals(3, geoeffneteVerbindungen.get());
+    }
+
+    /**
+     * Nach einem Neustart des Connector-Servers wird die abgebrochene Verbindung neu aufgebaut.
+     */
+    @Test
+    public void abgebrocheneVerbindungWirdNeuAufgebaut() throws Exception {
+        zeitraum = 0;
+        pollingVerwalter = erzeugePollingVerwalter(port);
+        assertFalse(pollingVerwalter.startePolling("CLUSTER1"));
+
+        connectorServer.stop();
+        starteConnectorServer();
+
+        assertFalse(pollingVerwalter.startePolling("CLUSTER1"));
+        assertEquals(2, geoeffneteVerbindungen.get());
+    }
+
+    /**
+     * Ein aktiver Knoten beendet die Prüfung, ohne auf einen nicht antwortenden Knoten zu warten.
+     */
+    @Test
+    public void aktiverKnotenBeendetPruefungSofort() throws Exception {
+        zeitraum = 0;
+        pollingVerwalter = erzeugePollingVerwalter(starteHaengendenKnoten(), port);
+
+        long start = System.nanoTime();
+        assertFalse(pollingVerwalter.startePolling("CLUSTER1"));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1000);
+    }
+
+    /**
+     * Ein nicht antwortender Knoten wird nach dem Timeout wie ein nicht erreichbarer Knoten behandelt.
+     */
+    @Test
+    public void haengenderKnotenWirdNachTimeoutIgnoriert() throws Exception {
+        pollingVerwalter = erzeugePollingVerwalter(starteHaengendenKnoten(), port);
+
+        long start = System.nanoTime();
+        assertTrue(pollingVerwalter.startePolling("CLUSTER1"));
+        long dauer = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(dauer >= 1000 && dauer < 5000);
+    }
+
+    /**
+     * Gleichzeitige Ausleihen zu denselben Verbindungsparametern bauen nur eine Verbindung auf.
+     */
+    @Test
+    public void gleichzeitigeAusleihenTeilenEineVerbindung() throws Exception {
+        JMXVerbindungsPool pool = new JMXVerbindungsPool(1);
+        JMXConnectionParameter verbindungsparameter = erzeugeVerbindungsparameter();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<JMXConnector>> connectoren = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                connectoren.add(executor.submit(() -> {
+                    start.await();
+                    try (JMXVerbindungsPool.Ausleihe ausleihe = pool.leiheAus(verbindungsparameter)) {
+                        return ausleihe.getConnector();
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (Future<JMXConnector> connector : connectoren) {
+                assertSame(connectoren.get(0).get(), connector.get());
+            }
+            assertEquals(1, geoeffneteVerbindungen.get());
+        } finally {
+            executor.shutdownNow();
+            pool.schliesseAlle();
+        }
+    }
+
+    /**
+     * Eine verworfene Verbindung bleibt nutzbar, bis die letzte Ausleihe zurückgegeben wurde, und wird dann
+     * geschlossen. Die nächste Ausleihe baut eine neue Verbindung auf.
+     */
+    @Test
+    public void verworfeneVerbindungWirdNachLetzterRueckgabeGeschlossen() throws Exception {
+        JMXVerbindungsPool pool = new JMXVerbindungsPool(1);
+        JMXConnectionParameter verbindungsparameter = erzeugeVerbindungsparameter();
+        ObjectName mbeanName = new ObjectName(MBEAN_NAME);
+        try {
+            JMXVerbindungsPool.Ausleihe erste = pool.leiheAus(verbindungsparameter);
+            JMXVerbindungsPool.Ausleihe zweite = pool.leiheAus(verbindungsparameter);
+            assertFalse(erste.isWiederverwendet());
+            assertTrue(zweite.isWiederverwendet());
+            assertSame(erste.getConnector(), zweite.getConnector());
+
+            erste.verwirf();
+            erste.close();
+            zweite.getConnector().getMBeanServerConnection().getAttribute(mbeanName,
+                "ZeitraumLetztePollingAktivitaet");
+
+            zweite.close();
+            try {
+                zweite.getConnector().getConnectionId();
+                fail("Die verworfene Verbindung wurde nicht geschlossen.");
+            } catch (IOException e) {
+                // erwartet
+            }
+
+            try (JMXVerbindungsPool.Ausleihe dritte = pool.leiheAus(verbindungsparameter)) {
+                assertFalse(dritte.isWiederverwendet());
+                assertNotSame(erste.getConnector(), dritte.getConnector());
+            }
+            assertEquals(2, geoeffneteVerbindungen.get());
+        } finally {
+            pool.schliesseAlle();
+        }
+    }
+
+    /**
+     * Ein hängender Verbindungsaufbau blockiert weitere Ausleihen nicht und endet nach dem Timeout.
+     */
+    @Test
+    public void haengenderVerbindungsaufbauBlockiertAusleihenNicht() throws Exception {
+        JMXVerbindungsPool pool = new JMXVerbindungsPool(1);
+        JMXConnectionParameter verbindungsparameter = new JMXConnectionParameter("SERVER0", "localhost",
+            String.valueOf(starteHaengendenKnoten()), null, null);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (JMXVerbindungsPool.Ausleihe erste = pool.leiheAus(verbindungsparameter)) {
+            Future<JMXConnector> aufbau = executor.submit(erste::getConnector);
+            warteBis(() -> !haengendeVerbindungen.isEmpty());
+
+            long start = System.nanoTime();
+            try (JMXVerbindungsPool.Ausleihe zweite = pool.leiheAus(verbindungsparameter)) {
+                assertTrue((System.nanoTime() - start) / 1_000_000 < 500);
+                assertTrue(zweite.isWiederverwendet());
+                zweite.getConnector();
+                fail("Der Verbindungsaufbau zu einem hängenden Knoten war erfolgreich.");
+            } catch (IOException e) {
+                // erwartet
+            }
+            assertTrue((System.nanoTime() - start) / 1_000_000 < 5000);
+            try {
+                aufbau.get();
+                fail("Der Verbindungsaufbau zu einem hängenden Knoten war erfolgreich.");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            executor.shutdownNow();
+            pool.schliesseAlle();
+        }
+    }
+
+    private void starteConnectorServer() throws IOException {
+        connectorServer = JMXConnectorServerFactory.newJMXConnectorServer(
+            new JMXServiceURL("service:jmx:rmi:///jndi/rmi://localhost:" + port + "/jmxrmi"), null,
+            mBeanServer);
+        connectorServer.addNotificationListener((notification, handback) -> {
+            if (JMXConnectionNotification.OPENED.equals(notification.getType())) {
+                geoeffneteVerbindungen.incrementAndGet();
+            }
+        }, null, null);
+        connectorServer.start();
+    }
+
+    /**
+     * Startet einen Knoten, der Verbindungen annimmt, aber nie antwortet.
+     *
+     * @return Port des Knotens.
+     */
+    private int starteHaengendenKnoten() throws IOException {
+        haengenderKnoten = new ServerSocket(0);
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    haengendeVerbindungen.add(haengenderKnoten.accept());
+                }
+            } catch (IOException e) {
+                // Knoten wurde beendet.
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return haengenderKnoten.getLocalPort();
+    }
+
+    private static void warteBis(BooleanSupplier bedingung) throws InterruptedException {
+        long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!bedingung.getAsBoolean()) {
+            assertTrue("Bedingung nicht rechtzeitig erfüllt.", System.nanoTime() < ende);
+            Thread.sleep(10);
+        }
+    }
+
+    private JMXConnectionParameter erzeugeVerbindungsparameter() {
+        return new JMXConnectionParameter("SERVER0", "localhost", String.valueOf(port), null, null);
+    }
+
+    private PollingVerwalterImpl erzeugePollingVerwalter(int... ports) throws Exception {
+        IsyPollingProperties properties = new IsyPollingProperties();
+        properties.getJmx().setTimeout(1);
+
+        IsyPollingProperties.Cluster cluster = new IsyPollingProperties.Cluster();
+        cluster.setName("Name-Cluster1");
+        cluster.setWartezeit(10);
+        properties.getCluster().put("CLUSTER1", cluster);
+
+        for (int i = 0; i < ports.length; i++) {
+            IsyPollingProperties.Jmx.Verbindung verbindung = new IsyPollingProperties.Jmx.Verbindung();
+            verbindung.setHost("localhost");
+            verbindung.setPort(ports[i]);
+            properties.getJmx().getVerbindungen().put("SERVER" + i, verbindung);
+        }
+
+        PollingVerwalterImpl verwalter = new PollingVerwalterImpl();
+        verwalter.setIsyPollingProperties(properties);
+        verwalter.afterPropertiesSet();
+        return verwalter;
+    }
+
+    /**
+     * Schnittstelle der Test-MBean.
+     */
+    public interface ZeitraumMBean {
+
+        long getZeitraumLetztePollingAktivitaet();
+    }
+
+    /**
+     * Test-MBean, die den eingestellten Zeitraum liefert.
+     */
+    private class ZeitraumImpl implements ZeitraumMBean {
+
+        @Override
+        public long getZeitraumLetztePollingAktivitaet() {
+            return zeitraum;
+        }
+    }
+}
@@ -16,11 +16,14 @@
  */
 package de.bund.bva.isyfact.serviceapi.core.serviceimpl;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -30,12 +33,20 @@ import org.springframework.aop.support.AopUtils;
  * Delegiert an eine konkrete Service-Implementierung einer Service- oder Native-GUI-Komponente. Diese Klasse
  * wird genutzt, um in einer teilweise generischen Service-Komponente einen konkret implementierten Kernteil
  * zu nutzen.
+ * <p>
+ * Die Zielmethoden werden bei der Validierung der Konfiguration ermittelt und als {@link MethodHandle} in
+ * einer Dispatch-Tabelle abgelegt, sodass ein Aufruf weder die Zielklasse durchsucht noch über
+ * {@link Method#invoke(Object, Object...)} läuft. Ist die Validierung abgeschaltet, wird eine Methode beim
+ * ersten Aufruf in die Tabelle aufgenommen.
  * 
  */
 public class ServiceImplDelegator implements MethodInterceptor, Validatable {
 
-    /** Methoden-Cache. */
-    private final Map<MethodHashKey, Method> methodCache = new ConcurrentHashMap<MethodHashKey, Method>();
+    /**
+     * Dispatch-Tabelle mit den Aufrufern der Zielmethoden je RemoteBean-Methode und Zielklasse. Die Tabelle
+     * ist unveränderlich und wird beim Hinzufügen von Methoden als Ganzes ersetzt.
+     */
+    private volatile Map<MethodHashKey, MethodHandle> dispatchTabelle = Collections.emptyMap();
 
     /**
      * {@inheritDoc}
@@ -45,18 +56,64 @@ public class ServiceImplDelegator implements MethodInterceptor, Validatable {
         Object target = invocation.getThis();
         Class<?> targetClass = AopUtils.getTargetClass(target);
 
-        Method externeMethode = invocation.getMethod();
-        Method interneMethode = getServiceImplMethod(externeMethode, targetClass);
+        MethodHandle aufrufer = getAufrufer(invocation.getMethod(), targetClass);
 
         // Implementierung aufrufen
+        return (Object) aufrufer.invokeExact(target, invocation.getArguments());
+    }
+
+    /**
+     * Liefert den Aufrufer der Zielmethode aus der Dispatch-Tabelle. Fehlt er, wird er ermittelt und
+     * aufgenommen.
+     * 
+     * @param remoteBeanMethod
+     *            die Service-Methode der RemoteBean-Schnittstelle
+     * @param targetClass
+     *            die Zielklasse des Service-Implementierung, die die Zielmethode implementiert
+     * @return der Aufrufer mit dem Typ {@code (Object, Object[])Object}
+     */
+    MethodHandle getAufrufer(Method remoteBeanMethod, Class<?> targetClass) {
+        MethodHashKey key = new MethodHashKey(remoteBeanMethod, targetClass);
+        MethodHandle aufrufer = dispatchTabelle.get(key);
+        if (aufrufer == null) {
+            aufrufer = erzeugeAufrufer(getServiceImplMethod(remoteBeanMethod, targetClass));
+            nimmAuf(Collections.singletonMap(key, aufrufer));
+        }
+        return aufrufer;
+    }
+
+    /**
+     * Erzeugt den Aufrufer einer Zielmethode. Er erwartet das Target und die Parameter als Array und
+     * liefert das Ergebnis, bei {@code void}-Methoden {@code null}.
+     * 
+     * @param methode
+     *            die Zielmethode
+     * @return der Aufrufer mit dem Typ {@code (Object, Object[])Object}
+     */
+    private static MethodHandle erzeugeAufrufer(Method methode) {
+        int anzahlParameter = methode.getParameterCount();
         try {
-            Object ergebnis = interneMethode.invoke(target, invocation.getArguments());
-            return ergebnis;
-        } catch (InvocationTargetException e) {
-            throw e.getCause();
+            // Varargs-Methoden erhalten ihr Array bereits als letzten Parameter, wie bei Method.invoke.
+            return MethodHandles.lookup().unreflect(methode).asFixedArity()
+                .asType(MethodType.genericMethodType(anzahlParameter + 1))
+                .asSpreader(Object[].class, anzahlParameter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Zielmethode " + methode + " ist nicht aufrufbar", e);
         }
     }
 
+    /**
+     * Nimmt Aufrufer in die Dispatch-Tabelle auf. Bereits vorhandene Einträge bleiben erhalten.
+     * 
+     * @param aufrufer
+     *            die neuen Aufrufer
+     */
+    private synchronized void nimmAuf(Map<MethodHashKey, MethodHandle> aufrufer) {
+        Map<MethodHashKey, MethodHandle> neueTabelle = new HashMap<>(aufrufer);
+        neueTabelle.putAll(dispatchTabelle);
+        dispatchTabelle = Collections.unmodifiableMap(neueTabelle);
+    }
+
     /**
      * Ermittelt die aufzurufende Zielmethode der konkreten Serviceimplementierung. Deren Signatur muss mit
      * der RemoteBean-Methode übereinstimmen, d.h. Name, Parametertypen und Rückgabetyp müssen gleich sein.
@@ -68,12 +125,6 @@ public class ServiceImplDelegator implements MethodInterceptor, Validatable {
      * @return die Methode der target-Bean, die für die Serviceoperation aufzurufen ist
      */
     Method getServiceImplMethod(Method remoteBeanMethod, Class<?> targetClass) {
-        MethodHashKey key = new MethodHashKey(remoteBeanMethod, targetClass);
-        Method method = methodCache.get(key);
-        if (method != null) {
-            return method;
-        }
-
         for (Class<?> intf : targetClass.getInterfaces()) {
             for (Method possibleMatch : intf.getMethods()) {
                 if (remoteBeanMethod.getName().equals(possibleMatch.getName())
@@ -102,13 +153,19 @@ public class ServiceImplDelegator implements MethodInterceptor, Validatable {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Dabei werden die Aufrufer aller Methoden der Schnittstelle in die Dispatch-Tabelle aufgenommen. Fehlt
+     * eine Zielmethode, wird keine Methode aufgenommen.
      */
     public void validateConfiguration(Class<?> remoteBeanInterface, Object target) {
         Class<?> targetClass = AopUtils.getTargetClass(target);
 
+        Map<MethodHashKey, MethodHandle> aufrufer = new HashMap<>();
         for (Method method : remoteBeanInterface.getMethods()) {
-            getServiceImplMethod(method, targetClass);
+            aufrufer.put(new MethodHashKey(method, targetClass),
+                erzeugeAufrufer(getServiceImplMethod(method, targetClass)));
         }
+        nimmAuf(aufrufer);
     }
 
 }
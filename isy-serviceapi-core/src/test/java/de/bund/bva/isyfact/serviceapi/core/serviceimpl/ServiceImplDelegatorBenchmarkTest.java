@@ -0,0 +1,111 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.serviceapi.core.serviceimpl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import de.bund.bva.isyfact.exception.service.TechnicalToException;
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.serviceapi.core.serviceimpl.test.ValidRemoteBean;
+import de.bund.bva.isyfact.serviceapi.core.serviceimpl.test.impl.ValidRemoteBeanImpl;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Vergleicht den Aufwand eines Aufrufs über die Dispatch-Tabelle des {@link ServiceImplDelegator} mit der
+ * Ermittlung der Zielmethode und dem Aufruf über {@link Method#invoke(Object, Object...)} bei jedem Aufruf.
+ * Beide Varianten werden über einen Proxy aufgerufen. Der Benchmark läuft nicht im Build mit.
+ */
+@Ignore("Benchmark, wird bei Bedarf von Hand ausgeführt.")
+public class ServiceImplDelegatorBenchmarkTest {
+
+    /** Logger. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(ServiceImplDelegatorBenchmarkTest.class);
+
+    /** Anzahl der Aufrufe je Messung. */
+    private static final int ANZAHL_AUFRUFE = 100_000;
+
+    /**
+     * Ruft eine Methode mit Parametern über beide Varianten auf. Die Dispatch-Tabelle darf nicht langsamer
+     * sein als die Ermittlung der Zielmethode bei jedem Aufruf.
+     */
+    @Test
+    public void testAufruf() throws TechnicalToException {
+        ValidRemoteBeanImpl bean = new ValidRemoteBeanImpl();
+        ServiceImplDelegator delegator = new ServiceImplDelegator();
+        delegator.validateConfiguration(ValidRemoteBean.class, bean);
+
+        ValidRemoteBean reflection = erzeugeProxy(bean, (MethodInterceptor) aufruf -> {
+            Method zielMethode =
+                delegator.getServiceImplMethod(aufruf.getMethod(), aufruf.getThis().getClass());
+            try {
+                return zielMethode.invoke(aufruf.getThis(), aufruf.getArguments());
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        ValidRemoteBean dispatchTabelle = erzeugeProxy(bean, delegator);
+
+        // Vor der eigentlichen Messung läuft je Variante ein verworfener Durchgang.
+        messe(reflection);
+        messe(dispatchTabelle);
+
+        long dauerReflection = messe(reflection);
+        long dauerDispatchTabelle = messe(dispatchTabelle);
+
+        LOG.debug("{} Aufrufe: Reflection {} ns, Dispatch-Tabelle {} ns je Aufruf", ANZAHL_AUFRUFE,
+            dauerReflection / ANZAHL_AUFRUFE, dauerDispatchTabelle / ANZAHL_AUFRUFE);
+        assertTrue("Aufruf über die Dispatch-Tabelle ist langsamer als über Reflection",
+            dauerDispatchTabelle <= dauerReflection);
+    }
+
+    /**
+     * Erzeugt einen Proxy auf das Bean, dessen Aufrufe der Interceptor ausführt.
+     *
+     * @param bean
+     *            das aufzurufende Bean.
+     * @param interceptor
+     *            der Interceptor, der die Zielmethode aufruft.
+     * @return der Proxy.
+     */
+    private static ValidRemoteBean erzeugeProxy(ValidRemoteBean bean, MethodInterceptor interceptor) {
+        ProxyFactory fac = new ProxyFactory(bean);
+        fac.addAdvice(interceptor);
+        return (ValidRemoteBean) fac.getProxy();
+    }
+
+    /**
+     * Misst die Dauer der Aufrufe.
+     *
+     * @param proxy
+     *            der aufzurufende Proxy.
+     * @return die Dauer in Nanosekunden.
+     */
+    private static long messe(ValidRemoteBean proxy) throws TechnicalToException {
+        long start = System.nanoTime();
+        for (int i = 0; i < ANZAHL_AUFRUFE; i++) {
+            proxy.methodeMitParametern(42, "Test");
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -16,12 +16,16 @@
  */
 package de.bund.bva.isyfact.serviceapi.core.serviceimpl;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 
 import de.bund.bva.isyfact.exception.service.TechnicalToException;
 import de.bund.bva.isyfact.serviceapi.core.serviceimpl.test.RemoteBean;
 import org.junit.Before;
 import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import org.springframework.aop.framework.ProxyFactory;
 import de.bund.bva.isyfact.serviceapi.core.serviceimpl.test.ValidRemoteBean;
 import de.bund.bva.isyfact.serviceapi.core.serviceimpl.test.impl.RemoteBeanImpl;
@@ -47,6 +51,12 @@ public class TestServiceImplDelegator {
 		proxy.eineMethode();
 	}
 	
+	@Test
+	public void testInvokeMitParametern() throws TechnicalToException {
+		delegator.validateConfiguration(ValidRemoteBean.class, bean);
+		proxy.methodeMitParametern(1, "eins");
+	}
+
 	@Test
 	public void testValidateConfiguration(){
 		delegator.validateConfiguration(ValidRemoteBean.class, bean);
@@ -66,4 +76,54 @@ public class TestServiceImplDelegator {
 		proxy.eineMethodeMitException();
 	}
 
+	@Test
+	public void testInvokeMitVarargs() {
+		VarargsRemoteBean proxy = erzeugeProxy(VarargsRemoteBean.class, new VarargsRemoteBeanImpl());
+
+		assertEquals("a,b", proxy.verbinde("a", "b"));
+		assertEquals("", proxy.verbinde());
+	}
+
+	@Test
+	public void testInvokeMitCheckedException() {
+		VarargsRemoteBeanImpl bean = new VarargsRemoteBeanImpl();
+		delegator.validateConfiguration(VarargsRemoteBean.class, bean);
+		VarargsRemoteBean proxy = erzeugeProxy(VarargsRemoteBean.class, bean);
+
+		try {
+			proxy.wirfException();
+		} catch (IOException e) {
+			assertSame(VarargsRemoteBeanImpl.EXCEPTION, e);
+			return;
+		}
+		throw new AssertionError("IOException erwartet");
+	}
+
+	private <T> T erzeugeProxy(Class<T> remoteBean, T bean) {
+		ProxyFactory fac = new ProxyFactory(bean);
+		fac.addAdvice(delegator);
+		return remoteBean.cast(fac.getProxy());
+	}
+
+	public interface VarargsRemoteBean {
+
+		String verbinde(String... werte);
+
+		void wirfException() throws IOException;
+	}
+
+	public static class VarargsRemoteBeanImpl implements VarargsRemoteBean {
+
+		static final IOException EXCEPTION = new IOException("eine simulierte Exception.");
+
+		@Override
+		public String verbinde(String... werte) {
+			return String.join(",", werte);
+		}
+
+		@Override
+		public void wirfException() throws IOException {
+			throw EXCEPTION;
+		}
+	}
 }
@@ -17,26 +17,60 @@
 package de.bund.bva.isyfact.sicherheit.annotation;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.MethodClassKey;
 import org.springframework.util.ClassUtils;
 
 import de.bund.bva.isyfact.sicherheit.common.exception.FehlerhafteServiceKonfigurationRuntimeException;
 
 /**
- * Ermittelt die benötigten Rechte für eine Service-Operation über die Annotation {@link Gesichert}.
+ * Ermittelt die benötigten Rechte für eine Service-Operation über die Annotation {@link Gesichert}. Die
+ * Rechte werden je Methode und Zielklasse einmalig ermittelt und zwischengespeichert, auch wenn die Methode
+ * nicht oder fehlerhaft annotiert ist.
  *
  */
 public class AnnotationSicherheitAttributeSource implements SicherheitAttributeSource {
 
+    /** Markiert im Cache Methoden, die nicht oder ohne gültige Rechte annotiert sind. */
+    private static final String[] KEINE_RECHTE = new String[0];
+
+    /** Die ermittelten Rechte je Methode und Zielklasse. */
+    private final Map<MethodClassKey, String[]> rechteCache = new ConcurrentHashMap<>(1024);
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Das gelieferte Array wird zwischengespeichert und darf nicht verändert werden.
+     */
     @Override
     public String[] getBenoetigeRechte(Method method, Class<?> targetClass) {
-        Gesichert gesichert = ermittleGesichertAnnotation(method, targetClass);
-        pruefeTagKombination(gesichert);
-        return gesichert.value();
+        MethodClassKey schluessel = new MethodClassKey(method, targetClass);
+        String[] rechte = rechteCache.get(schluessel);
+        if (rechte == null) {
+            Gesichert gesichert = ermittleGesichertAnnotation(method, targetClass);
+            rechte = istGueltig(gesichert) ? gesichert.value() : KEINE_RECHTE;
+            rechteCache.put(schluessel, rechte);
+        }
+        if (rechte == KEINE_RECHTE) {
+            throw new FehlerhafteServiceKonfigurationRuntimeException();
+        }
+        return rechte;
     }
 
-    private Gesichert ermittleGesichertAnnotation(Method method, Class<?> targetClass) {
+    /**
+     * Sucht die Annotation {@link Gesichert} zu einer Methode. Wird je Methode und Zielklasse nur einmal
+     * aufgerufen, das Ergebnis wird in {@link #getBenoetigeRechte(Method, Class)} zwischengespeichert.
+     *
+     * @param method
+     *            die aufgerufene Methode.
+     * @param targetClass
+     *            die Zielklasse des Aufrufs.
+     * @return die Annotation oder {@code null}, falls die Methode nicht annotiert ist.
+     */
+    protected Gesichert ermittleGesichertAnnotation(Method method, Class<?> targetClass) {
 
         // Strategie für die Ermittlung der Annotation ist aus AnnotationTransactionAttributeSource
         // übernommen.
@@ -82,17 +116,17 @@ public class AnnotationSicherheitAttributeSource implements SicherheitAttributeS
      *
      * @param gesichert
      *            Angabe, wie die Methode abzusichern ist.
-     * @throws FehlerhafteServiceKonfigurationRuntimeException
-     *             falls kein Recht gefordert wird.
+     * @return {@code true}, falls mindestens ein Recht und keine leeren Rechte gefordert werden.
      */
-    private void pruefeTagKombination(Gesichert gesichert) {
+    private boolean istGueltig(Gesichert gesichert) {
         if (gesichert == null || gesichert.value().length == 0) {
-            throw new FehlerhafteServiceKonfigurationRuntimeException();
+            return false;
         }
         for (String recht : gesichert.value()) {
             if (recht == null || recht.isEmpty()) {
-                throw new FehlerhafteServiceKonfigurationRuntimeException();
+                return false;
             }
         }
+        return true;
     }
 }
@@ -72,11 +72,16 @@ public class GesichertInterceptor implements MethodInterceptor, Ordered {
                 this.sicherheitAttributeSource.getBenoetigeRechte(invocation.getMethod(), targetClass);
 
             // Prüfe, ob der Benutzer alle geforderten Rechte hat.
-            LOG.debugFachdaten("Prüfe auf Rechte {}", join(benoetigeRechte));
+            boolean debug = LOG.isDebugEnabled();
+            if (debug) {
+                LOG.debugFachdaten("Prüfe auf Rechte {}", join(benoetigeRechte));
+            }
             Berechtigungsmanager berechtigungsmanager = this.sicherheit.getBerechtigungsManager();
             for (String recht : benoetigeRechte) {
                 berechtigungsmanager.pruefeRecht(recht);
-                LOG.debugFachdaten("Recht {} vorhanden.", recht);
+                if (debug) {
+                    LOG.debugFachdaten("Recht {} vorhanden.", recht);
+                }
             }
         } catch (SicherheitTechnicalRuntimeException e) {
             throw e;
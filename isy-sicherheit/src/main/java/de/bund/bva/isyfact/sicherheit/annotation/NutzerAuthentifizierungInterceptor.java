@@ -17,7 +17,10 @@
 package de.bund.bva.isyfact.sicherheit.annotation;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.bund.bva.isyfact.sicherheit.Sicherheit;
 import de.bund.bva.isyfact.sicherheit.config.NutzerAuthentifizierungProperties;
@@ -25,6 +28,7 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.MethodClassKey;
 import org.springframework.util.ClassUtils;
 
 import de.bund.bva.isyfact.logging.util.MdcHelper;
@@ -56,6 +60,10 @@ public class NutzerAuthentifizierungInterceptor<K extends AufrufKontext> impleme
     /** Die Querschnittskomponente Sicherheit. */
     private final Sicherheit<K> sicherheit;
 
+    /** Die ermittelten Annotationen je Methode und Zielklasse, leer für Methoden ohne Annotation. */
+    private final Map<MethodClassKey, Optional<NutzerAuthentifizierung>> annotationCache =
+        new ConcurrentHashMap<>(256);
+
     public NutzerAuthentifizierungInterceptor(AufrufKontextVerwalter<K> aufrufKontextVerwalter,
         NutzerAuthentifizierungProperties properties, Sicherheit<K> sicherheit) {
         this.aufrufKontextVerwalter = aufrufKontextVerwalter;
@@ -98,7 +106,13 @@ public class NutzerAuthentifizierungInterceptor<K extends AufrufKontext> impleme
         Class<?> targetClass =
             (invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null);
 
-        NutzerAuthentifizierung ann = ermittleAuthAnnotation(invocation.getMethod(), targetClass);
+        MethodClassKey schluessel = new MethodClassKey(invocation.getMethod(), targetClass);
+        Optional<NutzerAuthentifizierung> annotation = annotationCache.get(schluessel);
+        if (annotation == null) {
+            annotation = Optional.ofNullable(ermittleAuthAnnotation(invocation.getMethod(), targetClass));
+            annotationCache.put(schluessel, annotation);
+        }
+        NutzerAuthentifizierung ann = annotation.orElse(null);
         if (ann == null) {
             throw new AnnotationFehltRuntimeException(NutzerAuthentifizierung.class.getSimpleName(),
                 invocation.getMethod().toString());
@@ -24,4 +24,10 @@ public class EreignisSchluessel {
     /** Initialisiere Sicherheitskomponente mit RollenRechteDatei: {}. */
     public static final String INITIALISIERUNG_SICHERHEIT = "EPLSIC00001";
 
+    /** Die vorzeitige Authentifizierung eines Cache-Eintrags ist fehlgeschlagen. */
+    public static final String VORZEITIGE_AUTHENTIFIZIERUNG_FEHLGESCHLAGEN = "EPLSIC00002";
+
+    /** Der Snapshot des Rollen-Rechte-Mappings konnte nicht geschrieben werden. */
+    public static final String ROLLENRECHTE_SNAPSHOT_NICHT_GESCHRIEBEN = "EPLSIC00003";
+
 }
@@ -8,6 +8,18 @@ public class IsySicherheitConfigurationProperties {
     /** Defaultwert für die maximale Anzahl an Einträgen im Cache (in Memory). **/
     private int maxelements = 10000;
 
+    /**
+     * Zeitraum (in Sekunden) vor Ablauf der Time-to-live, ab dem ein Eintrag beim nächsten Zugriff neu
+     * authentifiziert wird. 0 = deaktiviert.
+     **/
+    private int aktualisierungVorAblauf = 0;
+
+    /**
+     * Datei, in der das gelesene Rollen-Rechte-Mapping binär abgelegt und beim nächsten Start statt der XML
+     * gelesen wird, solange sich die XML nicht ändert. Nicht gesetzt = deaktiviert.
+     **/
+    private String rollenRechteSnapshot;
+
     public int getTtl() {
         return ttl;
     }
@@ -24,4 +36,20 @@ public class IsySicherheitConfigurationProperties {
         this.maxelements = maxelements;
     }
 
+    public int getAktualisierungVorAblauf() {
+        return aktualisierungVorAblauf;
+    }
+
+    public void setAktualisierungVorAblauf(int aktualisierungVorAblauf) {
+        this.aktualisierungVorAblauf = aktualisierungVorAblauf;
+    }
+
+    public String getRollenRechteSnapshot() {
+        return rollenRechteSnapshot;
+    }
+
+    public void setRollenRechteSnapshot(String rollenRechteSnapshot) {
+        this.rollenRechteSnapshot = rollenRechteSnapshot;
+    }
+
 }
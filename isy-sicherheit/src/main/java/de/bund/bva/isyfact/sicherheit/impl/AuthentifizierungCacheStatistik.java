@@ -0,0 +1,75 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.sicherheit.impl;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zählt die Zugriffe auf den Authentifizierungs-Cache von {@link SicherheitImpl}.
+ */
+public class AuthentifizierungCacheStatistik {
+
+    /** Anzahl der Zugriffe, die aus dem Cache beantwortet wurden. */
+    private final LongAdder treffer = new LongAdder();
+
+    /** Anzahl der Zugriffe, für die kein Eintrag im Cache vorhanden war. */
+    private final LongAdder fehlzugriffe = new LongAdder();
+
+    /** Anzahl der Fehlzugriffe, die auf eine bereits laufende Authentifizierung gewartet haben. */
+    private final LongAdder zusammengefassteAufrufe = new LongAdder();
+
+    /** Anzahl der Einträge, die vor Ablauf ihrer Time-to-live neu authentifiziert wurden. */
+    private final LongAdder vorzeitigeAktualisierungen = new LongAdder();
+
+    void zaehleTreffer() {
+        treffer.increment();
+    }
+
+    void zaehleFehlzugriff() {
+        fehlzugriffe.increment();
+    }
+
+    void zaehleZusammengefasstenAufruf() {
+        zusammengefassteAufrufe.increment();
+    }
+
+    void zaehleVorzeitigeAktualisierung() {
+        vorzeitigeAktualisierungen.increment();
+    }
+
+    public long getTreffer() {
+        return treffer.sum();
+    }
+
+    public long getFehlzugriffe() {
+        return fehlzugriffe.sum();
+    }
+
+    /**
+     * Liefert die Anzahl der Fehlzugriffe, die keinen eigenen Aufruf des AccessManagers ausgelöst haben,
+     * weil für denselben Cache-Schlüssel bereits eine Authentifizierung lief.
+     *
+     * @return Anzahl der zusammengefassten Aufrufe.
+     */
+    public long getZusammengefassteAufrufe() {
+        return zusammengefassteAufrufe.sum();
+    }
+
+    public long getVorzeitigeAktualisierungen() {
+        return vorzeitigeAktualisierungen.sum();
+    }
+}
@@ -18,7 +18,6 @@ package de.bund.bva.isyfact.sicherheit.impl;
 
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import de.bund.bva.isyfact.sicherheit.Berechtigungsmanager;
@@ -45,8 +44,17 @@ public class BerechtigungsmanagerImpl implements Berechtigungsmanager {
      */
     private final Set<Rolle> rollen;
 
+    /** Der Index des Mappings, über den {@link #rechteBits} berechnet wurden. */
+    private RollenRechteIndex index;
+
+    /**
+     * Die Rechte die aus den Rollen des aktuellen Benutzers berechnet wurden, als Bitmenge über die Nummern
+     * der Rechte im {@link #index}.
+     */
+    private long[] rechteBits;
+
     /**
-     * Die Rechte die aus den Rollen des aktuellen Benutzers berechnet wurden.
+     * Die Rechte des aktuellen Benutzers als Menge, wird erst bei Bedarf aus {@link #rechteBits} erzeugt.
      */
     private Set<Recht> rechte;
 
@@ -74,8 +82,9 @@ public class BerechtigungsmanagerImpl implements Berechtigungsmanager {
     public Set<Recht> getRechte() {
         if (rechte == null) {
             berechneRechteAusRollen();
+            rechte = Collections.unmodifiableSet(index.alsMenge(rechteBits));
         }
-        return Collections.unmodifiableSet(rechte);
+        return rechte;
     }
 
     /**
@@ -86,24 +95,15 @@ public class BerechtigungsmanagerImpl implements Berechtigungsmanager {
      *             Falls das Mapping der Rollen zu Rechten fehlt
      */
     private void berechneRechteAusRollen() {
-        rechte = new HashSet<>();
-        if (rollen == null) {
+        if (rechteBits != null) {
             return;
         }
         if (mapping == null) {
             throw new RollenRechteMappingException(
                 SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLT);
         }
-
-        for (Rolle rolle : rollen) {
-            List<Recht> rollenRechte = mapping.getRollenRechteMapping().get(rolle);
-
-            if (rollenRechte == null) {
-                // Es wurde eine Rolle angegeben, die nicht zum aktuellen System gehört
-                continue;
-            }
-            rechte.addAll(rollenRechte);
-        }
+        index = mapping.getIndex();
+        rechteBits = index.getRechte(rollen);
     }
 
     /**
@@ -114,12 +114,13 @@ public class BerechtigungsmanagerImpl implements Berechtigungsmanager {
             throw new IllegalArgumentException(new SicherheitFehlertextProvider().getMessage(
                 SicherheitFehlerSchluessel.MSG_PARAMETER_FEHLT, "recht"));
         }
-       
-        RechtImpl rechtImpl = new RechtImpl(recht, null);
-        if (getRechte().contains(rechtImpl)) {
+
+        berechneRechteAusRollen();
+        int nummer = index.getNummer(recht);
+        if (RollenRechteIndex.enthaelt(rechteBits, nummer)) {
             return true;
         } else {
-            if (!mapping.getAlleDefiniertenRechte().contains(rechtImpl)) {
+            if (!index.istDefiniert(nummer)) {
                 throw new RollenRechteMappingException(
                     SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_RECHT_UNDEFINIERT, recht);
             }
@@ -145,13 +146,10 @@ public class BerechtigungsmanagerImpl implements Berechtigungsmanager {
             throw new IllegalArgumentException(new SicherheitFehlertextProvider().getMessage(
                 SicherheitFehlerSchluessel.MSG_PARAMETER_FEHLT, "recht"));
         }
-        if (rechte == null) {
-            berechneRechteAusRollen();
-        }
-        for (Recht aktuellesRecht : rechte) {
-            if (aktuellesRecht.getId().equals(recht)) {
-                return aktuellesRecht;
-            }
+        berechneRechteAusRollen();
+        int nummer = index.getNummer(recht);
+        if (RollenRechteIndex.enthaelt(rechteBits, nummer)) {
+            return index.getRecht(nummer);
         }
         return null;
     }
@@ -164,6 +162,9 @@ public class BerechtigungsmanagerImpl implements Berechtigungsmanager {
      */
     public void setRollenRechteMapping(RollenRechteMapping mapping) {
         this.mapping = mapping;
+        this.index = null;
+        this.rechteBits = null;
+        this.rechte = null;
     }
 
     public Set<Rolle> getRollen() {
@@ -16,6 +16,7 @@
  */
 package de.bund.bva.isyfact.sicherheit.impl;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -72,6 +73,15 @@ public class RechtImpl implements Recht {
         return rechtId;
     }
 
+    /**
+     * Liefert alle Properties des Rechtes.
+     *
+     * @return Die Properties, nicht veränderbar
+     */
+    Map<String, Object> getProperties() {
+        return Collections.unmodifiableMap(rechtProperties);
+    }
+
     /**
      * Zur Berechnung des Hashcodes wird nur die Id verwendet.
      * 
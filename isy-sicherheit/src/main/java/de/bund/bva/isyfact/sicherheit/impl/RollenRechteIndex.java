@@ -0,0 +1,195 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.sicherheit.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.bund.bva.isyfact.sicherheit.Recht;
+import de.bund.bva.isyfact.sicherheit.Rolle;
+
+/**
+ * Kompilierte Form eines {@link RollenRechteMapping}. Jedes definierte Recht erhält eine fortlaufende Nummer,
+ * die Rechte einer Rolle werden als Bitmenge über diese Nummern abgelegt. Die Rechte einer Kombination von
+ * Rollen werden einmalig berechnet und in einem begrenzten Cache gehalten, sodass die Prüfung eines Rechts
+ * nur noch einen Bit-Test erfordert. Der Cache wird ohne Sperre gelesen und bei Erreichen der Obergrenze
+ * vollständig geleert.
+ */
+final class RollenRechteIndex {
+
+    /** Maximale Anzahl der zwischengespeicherten Rollenkombinationen. */
+    static final int MAX_ROLLENKOMBINATIONEN = 1024;
+
+    /** Rechte ohne Bits für Rollenkombinationen, denen keine Rechte zugeordnet sind. */
+    private static final long[] KEINE_RECHTE = new long[0];
+
+    /** Nummer je Id eines definierten Rechts. */
+    private final Map<String, Integer> rechtNummern = new HashMap<>();
+
+    /** Die Rechte, indiziert über ihre Nummer. Die definierten Rechte stehen am Anfang. */
+    private final Recht[] rechte;
+
+    /** Anzahl der in der Anwendung definierten Rechte. */
+    private final int anzahlDefinierteRechte;
+
+    /** Rechte je Rolle als Bitmenge über die Nummern der Rechte. */
+    private final Map<Rolle, long[]> rollenRechte = new HashMap<>();
+
+    /** Rechte je Rollenkombination, Schlüssel sind unveränderliche Kopien der Rollenmengen. */
+    private final Map<Set<Rolle>, long[]> rollenkombinationen = new ConcurrentHashMap<>();
+
+    /**
+     * Kompiliert das übergebene Mapping.
+     *
+     * @param mapping
+     *            das Mapping von Rollen zu Rechten
+     */
+    RollenRechteIndex(RollenRechteMapping mapping) {
+        List<Recht> alleRechte = new ArrayList<>(mapping.getAlleDefiniertenRechte());
+        anzahlDefinierteRechte = alleRechte.size();
+        for (List<Recht> rechteRolle : mapping.getRollenRechteMapping().values()) {
+            alleRechte.addAll(rechteRolle);
+        }
+        for (Recht recht : alleRechte) {
+            rechtNummern.putIfAbsent(recht.getId(), rechtNummern.size());
+        }
+        rechte = new Recht[rechtNummern.size()];
+        for (int i = alleRechte.size() - 1; i >= 0; i--) {
+            rechte[rechtNummern.get(alleRechte.get(i).getId())] = alleRechte.get(i);
+        }
+
+        for (Map.Entry<Rolle, List<Recht>> eintrag : mapping.getRollenRechteMapping().entrySet()) {
+            long[] bits = new long[(rechte.length + 63) >>> 6];
+            for (Recht recht : eintrag.getValue()) {
+                int nummer = rechtNummern.get(recht.getId());
+                bits[nummer >>> 6] |= 1L << nummer;
+            }
+            rollenRechte.put(eintrag.getKey(), bits);
+        }
+    }
+
+    /**
+     * Liefert die Nummer eines Rechts.
+     *
+     * @param rechtId
+     *            die Id des Rechts
+     * @return die Nummer des Rechts oder -1, falls das Recht weder definiert noch einer Rolle zugeordnet
+     *         ist.
+     */
+    int getNummer(String rechtId) {
+        Integer nummer = rechtNummern.get(rechtId);
+        return nummer == null ? -1 : nummer;
+    }
+
+    /**
+     * Prüft, ob ein Recht in der Anwendung definiert ist.
+     *
+     * @param nummer
+     *            die Nummer des Rechts
+     * @return {@code true}, falls das Recht definiert ist.
+     */
+    boolean istDefiniert(int nummer) {
+        return nummer >= 0 && nummer < anzahlDefinierteRechte;
+    }
+
+    /**
+     * Liefert die Rechte einer Kombination von Rollen als Bitmenge. Rollen, die nicht zum Mapping gehören,
+     * werden ignoriert. Die gelieferte Bitmenge darf nicht verändert werden.
+     *
+     * @param rollen
+     *            die Rollen des Benutzers
+     * @return die Rechte als Bitmenge über die Nummern der Rechte.
+     */
+    long[] getRechte(Set<Rolle> rollen) {
+        long[] bits = rollenkombinationen.get(rollen);
+        if (bits != null) {
+            return bits;
+        }
+
+        bits = KEINE_RECHTE;
+        for (Rolle rolle : rollen) {
+            long[] bitsRolle = rollenRechte.get(rolle);
+            if (bitsRolle == null) {
+                // Es wurde eine Rolle angegeben, die nicht zum aktuellen System gehört
+                continue;
+            }
+            if (bits == KEINE_RECHTE) {
+                bits = bitsRolle.clone();
+            } else {
+                for (int i = 0; i < bits.length; i++) {
+                    bits[i] |= bitsRolle[i];
+                }
+            }
+        }
+
+        if (rollenkombinationen.size() >= MAX_ROLLENKOMBINATIONEN) {
+            // Einfacher als eine LRU-Verdrängung und ohne Sperre, die Kombinationen werden neu berechnet.
+            rollenkombinationen.clear();
+        }
+        long[] vorhandeneBits =
+            rollenkombinationen.putIfAbsent(Collections.unmodifiableSet(new HashSet<>(rollen)), bits);
+        return vorhandeneBits == null ? bits : vorhandeneBits;
+    }
+
+    /**
+     * Prüft, ob ein Recht in einer Bitmenge enthalten ist.
+     *
+     * @param bits
+     *            die Bitmenge aus {@link #getRechte(Set)}
+     * @param nummer
+     *            die Nummer des Rechts
+     * @return {@code true}, falls das Recht enthalten ist.
+     */
+    static boolean enthaelt(long[] bits, int nummer) {
+        int wort = nummer >>> 6;
+        return nummer >= 0 && wort < bits.length && (bits[wort] & (1L << nummer)) != 0;
+    }
+
+    /**
+     * Liefert ein Recht.
+     *
+     * @param nummer
+     *            die Nummer des Rechts
+     * @return das Recht.
+     */
+    Recht getRecht(int nummer) {
+        return rechte[nummer];
+    }
+
+    /**
+     * Liefert die Rechte einer Bitmenge als Menge.
+     *
+     * @param bits
+     *            die Bitmenge aus {@link #getRechte(Set)}
+     * @return die Rechte.
+     */
+    Set<Recht> alsMenge(long[] bits) {
+        Set<Recht> menge = new HashSet<>();
+        for (int nummer = 0; nummer < rechte.length; nummer++) {
+            if (enthaelt(bits, nummer)) {
+                menge.add(rechte[nummer]);
+            }
+        }
+        return menge;
+    }
+}
@@ -48,6 +48,11 @@ public class RollenRechteMapping {
      */
     private Set<Recht> alleDefiniertenRechte = new HashSet<>();
 
+    /**
+     * Kompilierte Form des Mappings, wird beim ersten Zugriff erzeugt.
+     */
+    private volatile RollenRechteIndex index;
+
     /**
      * Getter für das Rollen zu Rechte Mapping.
      * 
@@ -65,6 +70,7 @@ public class RollenRechteMapping {
      */
     public void setRollenRechteMapping(Map<Rolle, List<Recht>> rollenRechteMapping) {
         this.rollenRechteMapping = rollenRechteMapping;
+        this.index = null;
     }
 
     /**
@@ -112,5 +118,22 @@ public class RollenRechteMapping {
      */
     public void setAlleDefiniertenRechte(Collection<Recht> collection) {
         this.alleDefiniertenRechte = new HashSet<>(collection);
+        this.index = null;
+    }
+
+    /**
+     * Liefert die kompilierte Form des Mappings. Sie wird beim ersten Zugriff erzeugt und beim Setzen der
+     * Rollen oder Rechte verworfen. Änderungen an der Map aus {@link #getRollenRechteMapping()} werden
+     * danach nicht mehr berücksichtigt.
+     *
+     * @return der Index des Mappings
+     */
+    RollenRechteIndex getIndex() {
+        RollenRechteIndex aktuellerIndex = index;
+        if (aktuellerIndex == null) {
+            aktuellerIndex = new RollenRechteIndex(this);
+            index = aktuellerIndex;
+        }
+        return aktuellerIndex;
     }
 }
@@ -0,0 +1,321 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.sicherheit.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.sicherheit.Recht;
+import de.bund.bva.isyfact.sicherheit.Rolle;
+
+/**
+ * Binäre Abbildung eines {@link RollenRechteMapping} in einer Datei. Die Datei wird beim Lesen vollständig
+ * in einen Puffer auf dem Heap gelesen und ohne XML-Parser dekodiert. Sie wird bewusst nicht in den Speicher
+ * eingeblendet, da eine eingeblendete Datei erst mit der Garbage Collection freigegeben wird und sich unter
+ * Windows bis dahin weder ersetzen noch löschen lässt.
+ * <p>
+ * Der Kopf der Datei enthält neben Kennung und Version die Prüfsumme der RollenRechte-XML, aus der die
+ * Datei erzeugt wurde, sowie Prüfsumme und Länge des Inhalts. Passt die Prüfsumme nicht zur aktuellen
+ * XML oder ist die Datei beschädigt, liefert {@link #lese(long)} {@code null} und die XML muss neu gelesen
+ * werden.
+ */
+final class RollenRechteSnapshot {
+
+    /** Logger. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(RollenRechteSnapshot.class);
+
+    /** Kennung am Anfang der Datei ("ISRR"). */
+    private static final int KENNUNG = 0x49535252;
+
+    /** Version des Dateiformats. */
+    private static final int VERSION = 1;
+
+    /** Länge des Kopfes: Kennung, Version, Prüfsumme der XML, Prüfsumme und Länge des Inhalts. */
+    private static final int KOPF_LAENGE = 4 + 4 + 8 + 8 + 4;
+
+    /** Länge, mit der ein fehlender String ({@code null}) kodiert wird. */
+    private static final int KEIN_STRING = -1;
+
+    /** Die Datei des Snapshots. */
+    private final Path datei;
+
+    /**
+     * Erzeugt den Zugriff auf einen Snapshot.
+     *
+     * @param datei
+     *            Die Datei des Snapshots. Sie muss nicht existieren.
+     */
+    RollenRechteSnapshot(Path datei) {
+        this.datei = datei;
+    }
+
+    /**
+     * Berechnet die Prüfsumme einer RollenRechte-XML.
+     *
+     * @param xml
+     *            Der Inhalt der XML
+     * @return Die Prüfsumme
+     */
+    static long berechnePruefsumme(byte[] xml) {
+        CRC32 crc = new CRC32();
+        crc.update(xml, 0, xml.length);
+        return crc.getValue();
+    }
+
+    /**
+     * Liest das Mapping aus dem Snapshot.
+     *
+     * @param xmlPruefsumme
+     *            Prüfsumme der aktuellen RollenRechte-XML
+     * @return Das Mapping oder {@code null}, falls der Snapshot fehlt, veraltet oder beschädigt ist.
+     */
+    RollenRechteMapping lese(long xmlPruefsumme) {
+        if (!Files.isRegularFile(datei)) {
+            return null;
+        }
+        try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.READ)) {
+            long groesse = kanal.size();
+            if (groesse < KOPF_LAENGE || groesse > Integer.MAX_VALUE) {
+                LOG.debug("Snapshot {} hat eine ungültige Größe.", datei);
+                return null;
+            }
+            ByteBuffer puffer = ByteBuffer.allocate((int) groesse);
+            while (puffer.hasRemaining()) {
+                if (kanal.read(puffer) < 0) {
+                    LOG.debug("Snapshot {} ist unvollständig.", datei);
+                    return null;
+                }
+            }
+            puffer.flip();
+            if (puffer.getInt() != KENNUNG || puffer.getInt() != VERSION) {
+                LOG.debug("Snapshot {} hat ein unbekanntes Format.", datei);
+                return null;
+            }
+            if (puffer.getLong() != xmlPruefsumme) {
+                LOG.debug("Snapshot {} passt nicht zur RollenRechte-XML.", datei);
+                return null;
+            }
+            long inhaltPruefsumme = puffer.getLong();
+            int inhaltLaenge = puffer.getInt();
+            if (inhaltLaenge != groesse - KOPF_LAENGE) {
+                LOG.debug("Snapshot {} ist unvollständig.", datei);
+                return null;
+            }
+            ByteBuffer inhalt = puffer.slice();
+            CRC32 crc = new CRC32();
+            crc.update(inhalt.duplicate());
+            if (crc.getValue() != inhaltPruefsumme) {
+                LOG.debug("Snapshot {} ist beschädigt.", datei);
+                return null;
+            }
+            return dekodiere(inhalt);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException
+            | IllegalArgumentException e) {
+            LOG.debug("Snapshot {} kann nicht gelesen werden: {}", datei, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Schreibt das Mapping in den Snapshot. Die Datei wird zunächst unter einem temporären Namen angelegt
+     * und dann ersetzt, sodass Leser nie eine halb geschriebene Datei sehen.
+     *
+     * @param mapping
+     *            Das Mapping
+     * @param xmlPruefsumme
+     *            Prüfsumme der RollenRechte-XML, aus der das Mapping gelesen wurde
+     * @throws IOException
+     *             Falls die Datei nicht geschrieben werden kann
+     */
+    void schreibe(RollenRechteMapping mapping, long xmlPruefsumme) throws IOException {
+        byte[] inhalt = kodiere(mapping);
+        CRC32 crc = new CRC32();
+        crc.update(inhalt, 0, inhalt.length);
+
+        Path verzeichnis = datei.toAbsolutePath().getParent();
+        Files.createDirectories(verzeichnis);
+        Path temporaer = Files.createTempFile(verzeichnis, datei.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporaer);
+                DataOutputStream daten = new DataOutputStream(out)) {
+                daten.writeInt(KENNUNG);
+                daten.writeInt(VERSION);
+                daten.writeLong(xmlPruefsumme);
+                daten.writeLong(crc.getValue());
+                daten.writeInt(inhalt.length);
+                daten.write(inhalt);
+            }
+            try {
+                Files.move(temporaer, datei, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaer, datei, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaer);
+        }
+        LOG.debug("Snapshot des Rollen-Rechte-Mappings nach {} geschrieben.", datei);
+    }
+
+    /**
+     * Kodiert das Mapping. Die Rechte werden durchnummeriert, die Rollen verweisen über diese Nummern auf
+     * ihre Rechte.
+     */
+    private static byte[] kodiere(RollenRechteMapping mapping) throws IOException {
+        Map<Recht, Integer> nummern = new LinkedHashMap<>();
+        for (Recht recht : mapping.getAlleDefiniertenRechte()) {
+            nummern.putIfAbsent(recht, nummern.size());
+        }
+        int anzahlDefinierteRechte = nummern.size();
+        for (List<Recht> rechte : mapping.getRollenRechteMapping().values()) {
+            for (Recht recht : rechte) {
+                nummern.putIfAbsent(recht, nummern.size());
+            }
+        }
+
+        ByteArrayOutputStream inhalt = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream daten = new DataOutputStream(inhalt);
+        schreibeString(daten, mapping.getAnwendungsId());
+        daten.writeInt(anzahlDefinierteRechte);
+        daten.writeInt(nummern.size());
+        for (Recht recht : nummern.keySet()) {
+            schreibeString(daten, recht.getId());
+            Map<String, Object> properties =
+                recht instanceof RechtImpl ? ((RechtImpl) recht).getProperties() : new HashMap<>();
+            daten.writeInt(properties.size());
+            for (Map.Entry<String, Object> property : properties.entrySet()) {
+                schreibeString(daten, property.getKey());
+                schreibeString(daten, property.getValue() == null ? null : property.getValue().toString());
+            }
+        }
+        daten.writeInt(mapping.getRollenRechteMapping().size());
+        for (Map.Entry<Rolle, List<Recht>> eintrag : mapping.getRollenRechteMapping().entrySet()) {
+            schreibeString(daten, eintrag.getKey().getId());
+            schreibeString(daten, eintrag.getKey().getName());
+            daten.writeInt(eintrag.getValue().size());
+            for (Recht recht : eintrag.getValue()) {
+                daten.writeInt(nummern.get(recht));
+            }
+        }
+        daten.flush();
+        return inhalt.toByteArray();
+    }
+
+    /**
+     * Dekodiert den Inhalt eines Snapshots.
+     */
+    private static RollenRechteMapping dekodiere(ByteBuffer inhalt) {
+        RollenRechteMapping mapping = new RollenRechteMapping();
+        mapping.setAnwendungsId(leseString(inhalt));
+
+        int anzahlDefinierteRechte = inhalt.getInt();
+        Recht[] rechte = new Recht[leseAnzahl(inhalt)];
+        if (anzahlDefinierteRechte < 0 || anzahlDefinierteRechte > rechte.length) {
+            throw new IllegalArgumentException("Ungültige Anzahl definierter Rechte");
+        }
+        for (int i = 0; i < rechte.length; i++) {
+            String id = leseString(inhalt);
+            int anzahlProperties = leseAnzahl(inhalt);
+            Map<String, Object> properties = null;
+            if (anzahlProperties > 0) {
+                properties = new HashMap<>();
+                for (int j = 0; j < anzahlProperties; j++) {
+                    properties.put(leseString(inhalt), leseString(inhalt));
+                }
+            }
+            rechte[i] = new RechtImpl(id, properties);
+        }
+
+        int anzahlRollen = leseAnzahl(inhalt);
+        Map<Rolle, List<Recht>> rollenRechte = new HashMap<>(anzahlRollen * 4 / 3 + 1);
+        for (int i = 0; i < anzahlRollen; i++) {
+            String id = leseString(inhalt);
+            String name = leseString(inhalt);
+            int anzahlRechte = leseAnzahl(inhalt);
+            List<Recht> rechteDerRolle = new ArrayList<>(anzahlRechte);
+            for (int j = 0; j < anzahlRechte; j++) {
+                rechteDerRolle.add(rechte[inhalt.getInt()]);
+            }
+            rollenRechte.put(new RolleImpl(id, name), rechteDerRolle);
+        }
+        if (inhalt.hasRemaining()) {
+            throw new IllegalArgumentException("Unerwartete Daten am Ende des Snapshots");
+        }
+
+        mapping.setRollenRechteMapping(rollenRechte);
+        List<Recht> definierteRechte = new ArrayList<>(anzahlDefinierteRechte);
+        for (int i = 0; i < anzahlDefinierteRechte; i++) {
+            definierteRechte.add(rechte[i]);
+        }
+        mapping.setAlleDefiniertenRechte(definierteRechte);
+        return mapping;
+    }
+
+    private static void schreibeString(DataOutputStream daten, String wert) throws IOException {
+        if (wert == null) {
+            daten.writeInt(KEIN_STRING);
+        } else {
+            byte[] bytes = wert.getBytes(StandardCharsets.UTF_8);
+            daten.writeInt(bytes.length);
+            daten.write(bytes);
+        }
+    }
+
+    private static String leseString(ByteBuffer inhalt) {
+        int laenge = inhalt.getInt();
+        if (laenge == KEIN_STRING) {
+            return null;
+        }
+        if (laenge < 0 || laenge > inhalt.remaining()) {
+            throw new IllegalArgumentException("Ungültige Länge eines Strings: " + laenge);
+        }
+        byte[] bytes = new byte[laenge];
+        inhalt.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Liest eine Anzahl von Einträgen. Jeder Eintrag belegt mindestens vier Bytes, größere Werte können
+     * nur aus einer beschädigten Datei stammen.
+     */
+    private static int leseAnzahl(ByteBuffer inhalt) {
+        int anzahl = inhalt.getInt();
+        if (anzahl < 0 || anzahl > inhalt.remaining() / 4) {
+            throw new IllegalArgumentException("Ungültige Anzahl: " + anzahl);
+        }
+        return anzahl;
+    }
+}
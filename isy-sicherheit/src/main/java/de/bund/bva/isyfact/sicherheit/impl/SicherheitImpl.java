@@ -16,8 +16,16 @@
  */
 package de.bund.bva.isyfact.sicherheit.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import de.bund.bva.isyfact.logging.IsyLogger;
@@ -45,11 +53,22 @@ import org.ehcache.config.builders.ResourcePoolsBuilder;
 import org.ehcache.expiry.Duration;
 import org.ehcache.expiry.Expirations;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.StreamUtils;
 
 /**
  * Diese Klasse dient als Implementierung der Komponente Sicherheit und kann als Bean in anderen Anwendungen
  * und Komponenten verwendet werden. Es wird das Interface Sicherheit implementiert, über welches
  * Berechtigungsmanager instanziiert werden können.
+ * <p>
+ * Ist der Cache aktiviert, werden gleichzeitige Authentifizierungen mit demselben Cache-Schlüssel
+ * zusammengefasst: Nur ein Thread ruft den AccessManager auf, die übrigen warten auf dessen Ergebnis. Mit
+ * {@code isy.sicherheit.cache.aktualisierung-vor-ablauf} wird ein Eintrag kurz vor Ablauf der Time-to-live
+ * vom ersten zugreifenden Thread neu authentifiziert, während die übrigen Threads den bisherigen Eintrag
+ * verwenden.
+ * <p>
+ * Ist {@code isy.sicherheit.cache.rollen-rechte-snapshot} gesetzt, wird das gelesene Rollen-Rechte-Mapping
+ * in dieser Datei binär abgelegt und bei den folgenden Starts von dort geladen, solange sich die XML nicht
+ * ändert.
  *
  * @param <K> Typ des Aufrufkontextes
  * @param <E> Typ des Ergebnisses der Authentifizierung
@@ -77,7 +96,23 @@ public class SicherheitImpl<K extends AufrufKontext, E extends AuthentifzierungE
      * Cache für Authentifizierungsinformationen, so dass der AccessManager entlastet
      * wird.
      */
-    private final Cache<Object, E> authentifizierungCache;
+    private final Cache<Object, CacheEintrag<E>> authentifizierungCache;
+
+    /** Laufende Authentifizierungen je Cache-Schlüssel, auf die gleichzeitige Aufrufe warten. */
+    private final ConcurrentMap<Object, CompletableFuture<E>> laufendeAuthentifizierungen =
+        new ConcurrentHashMap<>();
+
+    /** Zähler für die Zugriffe auf den Cache. */
+    private final AuthentifizierungCacheStatistik cacheStatistik = new AuthentifizierungCacheStatistik();
+
+    /** Kennzeichen, ob Einträge vor Ablauf ihrer Time-to-live neu authentifiziert werden. */
+    private final boolean vorzeitigeAktualisierung;
+
+    /** Zeit (in Nanosekunden) nach dem Laden, ab der ein Eintrag neu authentifiziert wird. */
+    private final long aktualisierungNachNanos;
+
+    /** Snapshot des Rollenrechtemappings, {@code null} falls keiner verwendet wird. */
+    private final RollenRechteSnapshot rollenRechteSnapshot;
 
     /** Das ausgelesene Rollenrechtemapping. */
     private RollenRechteMapping mapping;
@@ -96,6 +131,12 @@ public class SicherheitImpl<K extends AufrufKontext, E extends AuthentifzierungE
         this.aufrufKontextFactory = aufrufKontextFactory;
 
         authentifizierungCache = setupCache(properties);
+        vorzeitigeAktualisierung = properties.getAktualisierungVorAblauf() > 0;
+        aktualisierungNachNanos = TimeUnit.SECONDS
+            .toNanos(Math.max(0, properties.getTtl() - properties.getAktualisierungVorAblauf()));
+        String snapshotPfad = properties.getRollenRechteSnapshot();
+        rollenRechteSnapshot = snapshotPfad == null || snapshotPfad.isEmpty() ? null
+            : new RollenRechteSnapshot(Paths.get(snapshotPfad));
     }
 
     /**
@@ -129,15 +170,15 @@ public class SicherheitImpl<K extends AufrufKontext, E extends AuthentifzierungE
         return erzeugeBerechtigungsmanager(aufrufKontext);
     }
 
-    @SuppressWarnings("unchecked")
-    private Cache<Object, E> setupCache(IsySicherheitConfigurationProperties properties) {
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Cache<Object, CacheEintrag<E>> setupCache(IsySicherheitConfigurationProperties properties) {
         if (properties.getTtl() == 0) {
             cacheAktiviert = false;
             return null;
         } else {
-            CacheConfiguration<Object, AuthentifzierungErgebnis> cacheConfiguration =
+            CacheConfiguration<Object, CacheEintrag> cacheConfiguration =
                 CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, AuthentifzierungErgebnis.class,
+                    .newCacheConfigurationBuilder(Object.class, CacheEintrag.class,
                         ResourcePoolsBuilder.heap(properties.getMaxelements())).withExpiry(
                     Expirations.timeToLiveExpiration(Duration.of(properties.getTtl(), TimeUnit.SECONDS)))
                     .build();
@@ -145,8 +186,7 @@ public class SicherheitImpl<K extends AufrufKontext, E extends AuthentifzierungE
                 CacheManagerBuilder.newCacheManagerBuilder().withCache(CACHE_ALIAS, cacheConfiguration)
                     .build(true);
 
-            return (Cache<Object, E>) cacheManager
-                .getCache(CACHE_ALIAS, Object.class, AuthentifzierungErgebnis.class);
+            return (Cache) cacheManager.getCache(CACHE_ALIAS, Object.class, CacheEintrag.class);
         }
     }
 
@@ -211,14 +251,114 @@ public class SicherheitImpl<K extends AufrufKontext, E extends AuthentifzierungE
 
     private Optional<E> authentifiziereKontextMitCache(K unauthentifizierterAufrufKontext) {
         Object cacheKey = accessManager.erzeugeCacheSchluessel(unauthentifizierterAufrufKontext);
+        if (cacheKey == null) {
+            return authentifiziereKontext(unauthentifizierterAufrufKontext);
+        }
 
-        Optional<E> authentifizierungErgebnis = Optional.ofNullable(authentifizierungCache.get(cacheKey));
+        CacheEintrag<E> eintrag = authentifizierungCache.get(cacheKey);
+        if (eintrag != null) {
+            cacheStatistik.zaehleTreffer();
+            if (vorzeitigeAktualisierung && eintrag.isAktualisierungFaellig()) {
+                return Optional
+                    .of(aktualisiereVorzeitig(cacheKey, unauthentifizierterAufrufKontext, eintrag));
+            }
+            return Optional.of(eintrag.getErgebnis());
+        }
 
-        if (!authentifizierungErgebnis.isPresent()) {
-            authentifizierungErgebnis = authentifiziereKontext(unauthentifizierterAufrufKontext);
-            authentifizierungErgebnis.ifPresent(ergebnis -> authentifizierungCache.put(cacheKey, ergebnis));
+        cacheStatistik.zaehleFehlzugriff();
+        CompletableFuture<E> authentifizierung = new CompletableFuture<>();
+        CompletableFuture<E> laufendeAuthentifizierung =
+            laufendeAuthentifizierungen.putIfAbsent(cacheKey, authentifizierung);
+        if (laufendeAuthentifizierung != null) {
+            cacheStatistik.zaehleZusammengefasstenAufruf();
+            return Optional.ofNullable(warteAuf(laufendeAuthentifizierung));
+        }
+
+        // Eine gerade beendete Authentifizierung kann den Eintrag inzwischen abgelegt haben.
+        eintrag = authentifizierungCache.get(cacheKey);
+        if (eintrag != null) {
+            laufendeAuthentifizierungen.remove(cacheKey, authentifizierung);
+            authentifizierung.complete(eintrag.getErgebnis());
+            return Optional.of(eintrag.getErgebnis());
+        }
+        return Optional.ofNullable(authentifiziereUndCache(cacheKey, unauthentifizierterAufrufKontext,
+            authentifizierung));
+    }
+
+    /**
+     * Authentifiziert einen Eintrag kurz vor Ablauf seiner Time-to-live neu. Läuft bereits eine
+     * Authentifizierung für den Schlüssel, oder schlägt sie fehl, wird der bisherige Eintrag verwendet.
+     *
+     * @param cacheKey                         Schlüssel des Eintrags
+     * @param unauthentifizierterAufrufKontext Aufrufkontext mit den Authentifizierungsdaten
+     * @param eintrag                          der bisherige Eintrag
+     * @return das Ergebnis der Authentifizierung.
+     */
+    private E aktualisiereVorzeitig(Object cacheKey, K unauthentifizierterAufrufKontext,
+        CacheEintrag<E> eintrag) {
+        CompletableFuture<E> authentifizierung = new CompletableFuture<>();
+        if (laufendeAuthentifizierungen.putIfAbsent(cacheKey, authentifizierung) != null) {
+            return eintrag.getErgebnis();
+        }
+
+        cacheStatistik.zaehleVorzeitigeAktualisierung();
+        try {
+            E ergebnis =
+                authentifiziereUndCache(cacheKey, unauthentifizierterAufrufKontext, authentifizierung);
+            return ergebnis != null ? ergebnis : eintrag.getErgebnis();
+        } catch (RuntimeException e) {
+            LOG.warn(EreignisSchluessel.VORZEITIGE_AUTHENTIFIZIERUNG_FEHLGESCHLAGEN,
+                "Vorzeitige Authentifizierung fehlgeschlagen, der Cache-Eintrag wird bis zu seinem Ablauf "
+                    + "weiter verwendet.", e);
+            return eintrag.getErgebnis();
+        }
+    }
+
+    /**
+     * Authentifiziert über den AccessManager, legt das Ergebnis im Cache ab und gibt es an wartende
+     * Aufrufe weiter.
+     *
+     * @param cacheKey                         Schlüssel des Eintrags
+     * @param unauthentifizierterAufrufKontext Aufrufkontext mit den Authentifizierungsdaten
+     * @param authentifizierung                die laufende Authentifizierung, auf die andere Aufrufe warten
+     * @return das Ergebnis der Authentifizierung oder {@code null}.
+     */
+    private E authentifiziereUndCache(Object cacheKey, K unauthentifizierterAufrufKontext,
+        CompletableFuture<E> authentifizierung) {
+        try {
+            E ergebnis = authentifiziereKontext(unauthentifizierterAufrufKontext).orElse(null);
+            if (ergebnis != null) {
+                authentifizierungCache.put(cacheKey,
+                    new CacheEintrag<>(ergebnis, System.nanoTime() + aktualisierungNachNanos));
+            }
+            authentifizierung.complete(ergebnis);
+            return ergebnis;
+        } catch (RuntimeException | Error e) {
+            authentifizierung.completeExceptionally(e);
+            throw e;
+        } finally {
+            laufendeAuthentifizierungen.remove(cacheKey, authentifizierung);
+        }
+    }
+
+    /**
+     * Wartet auf das Ergebnis einer Authentifizierung, die ein anderer Thread durchführt. Fehler werden
+     * unverändert weitergegeben.
+     *
+     * @param authentifizierung die laufende Authentifizierung
+     * @return das Ergebnis der Authentifizierung oder {@code null}.
+     */
+    private E warteAuf(CompletableFuture<E> authentifizierung) {
+        try {
+            return authentifizierung.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
         }
-        return authentifizierungErgebnis;
     }
 
     /**
@@ -265,15 +405,89 @@ public class SicherheitImpl<K extends AufrufKontext, E extends AuthentifzierungE
                 "aufrufKontextVerwalter");
         }
 
-        XmlAccess access = new XmlAccess();
-        this.mapping = access.parseRollenRechteFile(this.rollenRechteDateiPfad);
+        this.mapping = leseRollenRechteMapping();
 
         LOG.debug("Initialisierung der Sicherheitskomponente beendet.");
     }
 
+    /**
+     * Liest das Rollen-Rechte-Mapping. Ist ein Snapshot konfiguriert und passt er zur XML, wird er statt
+     * der XML gelesen. Andernfalls wird die XML gelesen und der Snapshot neu geschrieben.
+     *
+     * @return das Rollen-Rechte-Mapping
+     * @throws IOException
+     *             falls die XML nicht gelesen werden kann
+     */
+    private RollenRechteMapping leseRollenRechteMapping() throws IOException {
+        XmlAccess access = new XmlAccess();
+        if (rollenRechteSnapshot == null) {
+            return access.parseRollenRechteFile(this.rollenRechteDateiPfad);
+        }
+
+        byte[] xml;
+        try (InputStream stream = XmlAccess.class.getResourceAsStream(this.rollenRechteDateiPfad)) {
+            if (stream == null) {
+                throw new IllegalArgumentException("InputStream cannot be null");
+            }
+            xml = StreamUtils.copyToByteArray(stream);
+        }
+        long pruefsumme = RollenRechteSnapshot.berechnePruefsumme(xml);
+
+        RollenRechteMapping snapshotMapping = rollenRechteSnapshot.lese(pruefsumme);
+        if (snapshotMapping != null) {
+            LOG.debug("Rollen-Rechte-Mapping aus Snapshot gelesen.");
+            return snapshotMapping;
+        }
+
+        RollenRechteMapping xmlMapping = access.parseRollenRechte(new ByteArrayInputStream(xml));
+        try {
+            rollenRechteSnapshot.schreibe(xmlMapping, pruefsumme);
+        } catch (IOException e) {
+            LOG.warn(EreignisSchluessel.ROLLENRECHTE_SNAPSHOT_NICHT_GESCHRIEBEN,
+                "Snapshot des Rollen-Rechte-Mappings konnte nicht geschrieben werden.", e);
+        }
+        return xmlMapping;
+    }
+
     @Override
     public Set<Rolle> getAlleRollen() {
         return this.mapping.getRollenRechteMapping().keySet();
     }
 
+    /**
+     * Liefert die Zähler für die Zugriffe auf den Authentifizierungs-Cache.
+     *
+     * @return die Statistik des Caches.
+     */
+    public AuthentifizierungCacheStatistik getCacheStatistik() {
+        return cacheStatistik;
+    }
+
+    /**
+     * Eintrag im Authentifizierungs-Cache.
+     *
+     * @param <E> Typ des Ergebnisses der Authentifizierung
+     */
+    static final class CacheEintrag<E> {
+
+        /** Das Ergebnis der Authentifizierung. */
+        private final E ergebnis;
+
+        /** Zeitpunkt in {@link System#nanoTime()}, ab dem der Eintrag neu authentifiziert wird. */
+        private final long aktualisierungAb;
+
+        CacheEintrag(E ergebnis, long aktualisierungAb) {
+            this.ergebnis = ergebnis;
+            this.aktualisierungAb = aktualisierungAb;
+        }
+
+        E getErgebnis() {
+            return ergebnis;
+        }
+
+        boolean isAktualisierungFaellig() {
+            return System.nanoTime() - aktualisierungAb >= 0;
+        }
+    }
+
 }
@@ -21,25 +21,24 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import de.bund.bva.isyfact.sicherheit.Rolle;
 import de.bund.bva.isyfact.sicherheit.common.exception.RollenRechteMappingException;
 import de.bund.bva.isyfact.sicherheit.common.konstanten.SicherheitFehlerSchluessel;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.xml.sax.SAXException;
 
 import de.bund.bva.isyfact.logging.IsyLogger;
 import de.bund.bva.isyfact.logging.IsyLoggerFactory;
 import de.bund.bva.isyfact.sicherheit.Recht;
 
 /**
- * Diese Klasse ließt ein RollenRechte-XML ein und gibt es aus.
+ * Diese Klasse ließt ein RollenRechte-XML ein und gibt es aus. Die Datei wird mit StAX gelesen, ohne ein
+ * DOM aufzubauen.
  *
  */
 public class XmlAccess {
@@ -47,11 +46,6 @@ public class XmlAccess {
     /** Logger. */
     private static final IsyLogger LOG = IsyLoggerFactory.getLogger(XmlAccess.class);
 
-    /**
-     * In einem ersten Schritt wird eine Übersicht über alle Rechte erstellt.
-     */
-    private HashMap<String, Recht> rechtIdZuRecht = new HashMap<String, Recht>();
-
     /**
      * Name des XML-Elementes in Recht über das die Properties angesprochen werden.
      */
@@ -114,132 +108,145 @@ public class XmlAccess {
      */
     public RollenRechteMapping parseRollenRechteFile(String filename) {
         LOG.debug("Lese Rollen-Rechte-Mapping aus {}.", filename);
-        Document dom;
-        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
         InputStream stream = XmlAccess.class.getResourceAsStream(filename);
+        if (stream == null) {
+            throw new IllegalArgumentException("InputStream cannot be null");
+        }
         try {
-            DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-            dom = documentBuilder.parse(stream);
-            RollenRechteMapping result = parseDocument(dom);
-            result.setAlleDefiniertenRechte(this.rechtIdZuRecht.values());
-            return result;
-        } catch (ParserConfigurationException pce) {
-            throw new RollenRechteMappingException(
-                SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT, pce,
-                "XML-Parser Fehler");
-        } catch (SAXException se) {
+            return parseRollenRechte(stream);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                throw new RollenRechteMappingException(
+                    SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT, e,
+                    "IO-Exception");
+            }
+        }
+    }
+
+    /**
+     * Parst ein RollenRechte-XML aus dem übergebenen Stream. Der Stream wird nicht geschlossen.
+     *
+     * @param stream
+     *            Stream mit dem Inhalt der Datei
+     * @return Die eingelesene Datei als Rollen zu Rechte Mapping
+     * @throws RollenRechteMappingException
+     *             Bei allen Verarbeitungsfehlern
+     */
+    public RollenRechteMapping parseRollenRechte(InputStream stream) {
+        XMLStreamReader reader = null;
+        try {
+            reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+            return parseDocument(reader);
+        } catch (XMLStreamException xse) {
+            // Meldung wie beim früheren DOM-Parser, damit Auswertungen der Fehlertexte weiter greifen.
             throw new RollenRechteMappingException(
-                SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT, se,
+                SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT, xse,
                 "SAX-Exception");
-        } catch (IOException ioe) {
-            throw new RollenRechteMappingException(
-                SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT, ioe,
-                "IO-Exception");
         } finally {
-            if (stream != null) {
+            if (reader != null) {
                 try {
-                    stream.close();
-                } catch (IOException e) {
-                    throw new RollenRechteMappingException(
-                        SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT, e,
-                        "IO-Exception");
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    LOG.debug("Fehler beim Schließen des XML-Parsers: {}", e.getMessage());
                 }
             }
         }
     }
 
     /**
-     * In dieser Methode wird die AnwendungsId aus dem Document extrahiert und ins Mapping gesetzt. Das Parse
-     * der Mappinginformationen von Rollen zu Rechten wird aufgerufen.
+     * In dieser Methode wird die AnwendungsId aus dem Dokument extrahiert und ins Mapping gesetzt. Die Rechte
+     * werden beim Lesen übernommen, die Rollen erst am Ende des Dokuments, da sie auf Rechte verweisen
+     * können, die erst danach definiert werden.
      *
-     * @param doc
-     *            Das geparste Document
+     * @param reader
+     *            Der Parser, positioniert am Anfang des Dokuments
      * @return Das vollständige RollenRechteMapping
      * @throws RollenRechteMappingException
      *             Falls die AnwendungsId fehlt oder es bei den aufgerufenen Methoden zu Fehlern kommt
+     * @throws XMLStreamException
+     *             Falls das Dokument nicht gelesen werden kann
      */
-    private RollenRechteMapping parseDocument(Document doc) {
+    private RollenRechteMapping parseDocument(XMLStreamReader reader) throws XMLStreamException {
+        if (!naechstesKindElement(reader)) {
+            throw new RollenRechteMappingException(
+                SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
+                "Kein Wurzelelement gefunden");
+        }
         RollenRechteMapping ergebnis = new RollenRechteMapping();
-        Element anwendung = doc.getDocumentElement();
-        String anwendungsId = anwendung.getAttribute(ANWENDUNGS_ID);
+        String anwendungsId = leseAttribut(reader, ANWENDUNGS_ID);
         if (anwendungsId.equals("")) {
             throw new RollenRechteMappingException(
                 SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
                 "Es ist keine AnwendungsId gesetzt");
         }
-        erstelleRechteUebersicht(anwendung);
-        ergebnis.setAnwendungsId(anwendungsId);
-        ergebnis.setRollenRechteMapping(getRollenRechtMapping(anwendung));
-        return ergebnis;
-    }
 
-    /**
-     * Durchläuft alle Nodes und ruft für jedes Recht die Methode leseRecht auf. Alle gelesenen Rechte werden
-     * dann in der HashMap rechtIdZuRecht gesetzt.
-     *
-     * @param anwendung
-     *            Das Basis-Element der eingelesenen XML-Datein
-     * @throws RollenRechteMappingException
-     *             Wenn es beim lesen eines Rechtes zu Fehlern kommt
-     */
-    private void erstelleRechteUebersicht(Element anwendung) {
-        Node child = anwendung.getFirstChild();
-        while (child != null) {
-            if (child.getNodeName().contains(RECHTE)) {
-                Element recht = (Element) child;
-                Recht rechtObjekt = leseRecht(recht);
-                this.rechtIdZuRecht.put(rechtObjekt.getId(), rechtObjekt);
+        Map<String, Recht> rechtIdZuRecht = new HashMap<>();
+        List<RollenEintrag> rollen = new ArrayList<>();
+        while (naechstesKindElement(reader)) {
+            String name = reader.getLocalName();
+            if (name.contains(RECHTE)) {
+                Recht rechtObjekt = leseRecht(reader);
+                rechtIdZuRecht.put(rechtObjekt.getId(), rechtObjekt);
+            } else if (name.contains(ROLLEN)) {
+                rollen.add(leseRolle(reader));
+            } else {
+                ueberspringeElement(reader);
             }
-            child = child.getNextSibling();
         }
+
+        ergebnis.setAnwendungsId(anwendungsId);
+        ergebnis.setRollenRechteMapping(getRollenRechtMapping(rollen, rechtIdZuRecht));
+        ergebnis.setAlleDefiniertenRechte(rechtIdZuRecht.values());
+        return ergebnis;
     }
 
     /**
      * Wandelt ein Element das ein Recht hat in eine Instanz des Interfaces Recht um.
      *
-     * @param recht
-     *            Element das ein Recht ist
+     * @param reader
+     *            Der Parser, positioniert auf dem Element des Rechts
      * @return Das Transofmierte Recht
      * @throws RollenRechteMappingException
      *             Wenn das Recht nicht den Erwartungen entspricht
+     * @throws XMLStreamException
+     *             Falls das Dokument nicht gelesen werden kann
      */
-    private Recht leseRecht(Element recht) {
+    private Recht leseRecht(XMLStreamReader reader) throws XMLStreamException {
         String rechtId = null;
         HashMap<String, Object> properties = new HashMap<String, Object>();
-        Node child = recht.getFirstChild();
-        while (child != null) {
-            if (child.getNodeName().contains(RECHT_ID)) {
+        while (naechstesKindElement(reader)) {
+            String name = reader.getLocalName();
+            if (name.contains(RECHT_ID)) {
                 if (rechtId != null) {
                     throw new RollenRechteMappingException(
                         SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
                         "Es wurde eine Rolle mit zwei Referenzen auf RechteIds gefunden");
                 }
-                Element rechtIdElement = (Element) child;
-                rechtId = rechtIdElement.getAttribute(ID_IN_RECHTE_ID);
-                if (rechtId == null || rechtId.equals("")) {
+                rechtId = leseAttribut(reader, ID_IN_RECHTE_ID);
+                if (rechtId.equals("")) {
                     throw new RollenRechteMappingException(
                         SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
                         "Es wurde eine RechtId ohne Id gefunden");
                 }
             }
-            if (child.getNodeName().contains(PROPERTIES)) {
-                Element property = (Element) child;
-                String propertyName = property.getAttribute(PROPERTY_NAME);
-                if (propertyName == null || propertyName.equals("")) {
+            if (name.contains(PROPERTIES)) {
+                String propertyName = leseAttribut(reader, PROPERTY_NAME);
+                if (propertyName.equals("")) {
                     throw new RollenRechteMappingException(
                         SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
                         "Es wurde ein Property ohne Name gefunden");
                 }
-                String propertyValue = property.getAttribute(PROPERTY_VALUE);
-                if (propertyValue == null || propertyValue.equals("")) {
+                String propertyValue = leseAttribut(reader, PROPERTY_VALUE);
+                if (propertyValue.equals("")) {
                     throw new RollenRechteMappingException(
                         SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
                         "Es wurde ein Property ohne Value gefunden");
                 }
                 properties.put(propertyName, propertyValue);
             }
-
-            child = child.getNextSibling();
+            ueberspringeElement(reader);
         }
         if (rechtId == null) {
             throw new RollenRechteMappingException(
@@ -253,66 +260,55 @@ public class XmlAccess {
     }
 
     /**
-     * Liest alle definierten Rollen aus speichert für diese die RollenId und ruft jeweils das Mapping aller
-     * Rechte für diese Rolle auf.
+     * Liest die Id, den Namen und die Ids der Rechte einer Rolle. Geprüft wird die Rolle erst, wenn alle
+     * Rechte bekannt sind.
      *
-     * @param anwendung
-     *            Das Top-Element des RollenRechteMapping
-     * @return Eine HashMaps mit Rechten zu Rollen
-     * @throws RollenRechteMappingException
-     *             Falls bei einem Eintrag die RollenId fehlt, oder keine Rolle definiert wurde
+     * @param reader
+     *            Der Parser, positioniert auf dem Element der Rolle
+     * @return Die gelesene Rolle
+     * @throws XMLStreamException
+     *             Falls das Dokument nicht gelesen werden kann
      */
-    private HashMap<Rolle, List<Recht>> getRollenRechtMapping(Element anwendung) {
-        boolean mindestensEineRolleGefunden = false;
-        HashMap<Rolle, List<Recht>> rollenRechte = new HashMap<Rolle, List<Recht>>();
-        Node child = anwendung.getFirstChild();
-        while (child != null) {
-            if (child.getNodeName().contains(ROLLEN)) {
-                mindestensEineRolleGefunden = true;
-                Element rolle = (Element) child;
-                String rolleId = rolle.getAttribute(ROLLE_ID);
-                if (rolleId == null || rolleId.equals("")) {
-                    throw new RollenRechteMappingException(
-                        SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
-                        "Id der Rolle fehlt");
-                }
-                String rolleName = rolle.getAttribute(ROLLE_NAME);
-                RolleImpl neueRolle = new RolleImpl(rolleId, rolleName);
-                List<Recht> rechte = getRechteFuerRolle(rolle);
-                rollenRechte.put(neueRolle, rechte);
+    private RollenEintrag leseRolle(XMLStreamReader reader) throws XMLStreamException {
+        RollenEintrag rolle =
+            new RollenEintrag(leseAttribut(reader, ROLLE_ID), leseAttribut(reader, ROLLE_NAME));
+        while (naechstesKindElement(reader)) {
+            if (reader.getLocalName().contains(RECHT_ID)) {
+                rolle.rechtIds.add(leseAttribut(reader, ID_IN_RECHTE_ID));
             }
-            child = child.getNextSibling();
+            ueberspringeElement(reader);
         }
-        if (!mindestensEineRolleGefunden) {
-            throw new RollenRechteMappingException(
-                SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
-                "Es wurde keine einzige Rolle gefunden");
-        }
-        return rollenRechte;
+        return rolle;
     }
 
     /**
-     * Liest aus dem Element einer Rolle alle Rechte aus.
+     * Prüft alle gelesenen Rollen und ordnet ihnen ihre Rechte zu.
      *
-     * @param rolle
-     *            Das Element für eine Rolle
-     * @return Eine Liste aller Rechte für diese Rolle
+     * @param rollen
+     *            Die gelesenen Rollen in der Reihenfolge der Datei
+     * @param rechtIdZuRecht
+     *            Alle definierten Rechte
+     * @return Eine HashMaps mit Rechten zu Rollen
      * @throws RollenRechteMappingException
-     *             Falls eine unbekannte RechtId gefunden wird
+     *             Falls bei einem Eintrag die RollenId fehlt, oder keine Rolle definiert wurde
      */
-    private List<Recht> getRechteFuerRolle(Element rolle) {
-        List<Recht> alleRechte = new ArrayList<Recht>();
-        Node child = rolle.getFirstChild();
-        while (child != null) {
-            if (child.getNodeName().contains(RECHT_ID)) {
-                Element rechtId = (Element) child;
-                String idVonRechtId = rechtId.getAttribute(ID_IN_RECHTE_ID);
+    private HashMap<Rolle, List<Recht>> getRollenRechtMapping(List<RollenEintrag> rollen,
+        Map<String, Recht> rechtIdZuRecht) {
+        HashMap<Rolle, List<Recht>> rollenRechte = new HashMap<Rolle, List<Recht>>();
+        for (RollenEintrag rolle : rollen) {
+            if (rolle.id.equals("")) {
+                throw new RollenRechteMappingException(
+                    SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
+                    "Id der Rolle fehlt");
+            }
+            List<Recht> alleRechte = new ArrayList<Recht>();
+            for (String idVonRechtId : rolle.rechtIds) {
                 if (idVonRechtId.equals("")) {
                     throw new RollenRechteMappingException(
                         SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
                         "Recht hat keine Id");
                 }
-                Recht neuesRecht = this.rechtIdZuRecht.get(idVonRechtId);
+                Recht neuesRecht = rechtIdZuRecht.get(idVonRechtId);
                 if (neuesRecht == null) {
                     throw new RollenRechteMappingException(
                         SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
@@ -320,9 +316,89 @@ public class XmlAccess {
                 }
                 alleRechte.add(neuesRecht);
             }
-            child = child.getNextSibling();
+            rollenRechte.put(new RolleImpl(rolle.id, rolle.name), alleRechte);
+        }
+        if (rollen.isEmpty()) {
+            throw new RollenRechteMappingException(
+                SicherheitFehlerSchluessel.MSG_AUTORISIERUNG_ROLLENRECHTEMAPPING_FEHLERHAFT,
+                "Es wurde keine einzige Rolle gefunden");
+        }
+        return rollenRechte;
+    }
+
+    /**
+     * Liest ein Attribut des aktuellen Elements.
+     *
+     * @param reader
+     *            Der Parser, positioniert auf einem Element
+     * @param name
+     *            Name des Attributs
+     * @return Der Wert des Attributs oder der leere String, falls es fehlt.
+     */
+    private static String leseAttribut(XMLStreamReader reader, String name) {
+        String wert = reader.getAttributeValue(null, name);
+        return wert == null ? "" : wert;
+    }
+
+    /**
+     * Geht zum nächsten Kindelement des aktuellen Elements. Text und Kommentare werden übersprungen.
+     *
+     * @param reader
+     *            Der Parser, positioniert auf dem Element oder nach dem vorherigen Kindelement
+     * @return {@code true}, falls der Parser auf einem Kindelement steht, {@code false} am Ende des
+     *         Elements.
+     * @throws XMLStreamException
+     *             Falls das Dokument nicht gelesen werden kann
+     */
+    private static boolean naechstesKindElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int ereignis = reader.next();
+            if (ereignis == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (ereignis == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Überspringt das aktuelle Element mit allen Kindelementen.
+     *
+     * @param reader
+     *            Der Parser, positioniert auf dem Element
+     * @throws XMLStreamException
+     *             Falls das Dokument nicht gelesen werden kann
+     */
+    private static void ueberspringeElement(XMLStreamReader reader) throws XMLStreamException {
+        int tiefe = 1;
+        while (tiefe > 0 && reader.hasNext()) {
+            int ereignis = reader.next();
+            if (ereignis == XMLStreamConstants.START_ELEMENT) {
+                tiefe++;
+            } else if (ereignis == XMLStreamConstants.END_ELEMENT) {
+                tiefe--;
+            }
         }
+    }
+
+    /**
+     * Eine gelesene, noch nicht geprüfte Rolle.
+     */
+    private static class RollenEintrag {
+
+        /** Die Id der Rolle. */
+        private final String id;
+
+        /** Der Name der Rolle. */
+        private final String name;
 
-        return alleRechte;
+        /** Die Ids der Rechte der Rolle. */
+        private final List<String> rechtIds = new ArrayList<>();
+
+        RollenEintrag(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
     }
 }
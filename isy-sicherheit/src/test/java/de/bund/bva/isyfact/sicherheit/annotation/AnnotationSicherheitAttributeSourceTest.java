@@ -16,8 +16,10 @@
  */
 package de.bund.bva.isyfact.sicherheit.annotation;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.bund.bva.isyfact.sicherheit.annotation.bean.Service3Intf;
 import de.bund.bva.isyfact.sicherheit.annotation.bean.ServiceImpl;
@@ -29,6 +31,8 @@ import de.bund.bva.isyfact.sicherheit.annotation.bean.Service3Impl;
 import de.bund.bva.isyfact.sicherheit.annotation.bean.ServiceIntf;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.fail;
 
 public class AnnotationSicherheitAttributeSourceTest {
 
@@ -59,4 +63,31 @@ public class AnnotationSicherheitAttributeSourceTest {
 		assertEquals(Collections.singletonList("Recht_B"), Arrays.asList(rechte));
 	}
 
+	@Test
+	public void testRechteWerdenZwischengespeichert() throws Exception {
+		String[] rechte = source.getBenoetigeRechte(ServiceIntf.class.getMethod("gesichertAmInterface"), ServiceImpl.class);
+		assertSame(rechte, source.getBenoetigeRechte(ServiceIntf.class.getMethod("gesichertAmInterface"), ServiceImpl.class));
+	}
+
+	@Test
+	public void testNichtGesichertWirdZwischengespeichert() throws Exception {
+		AtomicInteger anzahlErmittlungen = new AtomicInteger();
+		source = new AnnotationSicherheitAttributeSource() {
+			@Override
+			protected Gesichert ermittleGesichertAnnotation(Method method, Class<?> targetClass) {
+				anzahlErmittlungen.incrementAndGet();
+				return super.ermittleGesichertAnnotation(method, targetClass);
+			}
+		};
+		for (int i = 0; i < 2; i++) {
+			try {
+				source.getBenoetigeRechte(ServiceImpl.class.getMethod("nichtGesichert"), ServiceImpl.class);
+				fail("Erwartete Exception wird nicht ausgelöst");
+			} catch (FehlerhafteServiceKonfigurationRuntimeException e) {
+				// hier ist alles in Ordnung
+			}
+		}
+		assertEquals(1, anzahlErmittlungen.get());
+	}
+
 }
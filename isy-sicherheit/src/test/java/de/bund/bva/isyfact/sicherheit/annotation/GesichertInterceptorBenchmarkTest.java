@@ -0,0 +1,154 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.sicherheit.annotation;
+
+import java.util.Collections;
+import java.util.Set;
+
+import de.bund.bva.isyfact.aufrufkontext.AufrufKontext;
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.sicherheit.Berechtigungsmanager;
+import de.bund.bva.isyfact.sicherheit.Recht;
+import de.bund.bva.isyfact.sicherheit.Rolle;
+import de.bund.bva.isyfact.sicherheit.Sicherheit;
+import de.bund.bva.isyfact.sicherheit.annotation.bean.ServiceImpl;
+import de.bund.bva.isyfact.sicherheit.annotation.bean.ServiceIntf;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Vergleicht den Aufwand eines gesicherten Aufrufs mit zwischengespeicherten Rechten mit einer Ermittlung
+ * der Rechte über die Annotation bei jedem Aufruf. Der Benchmark läuft nicht im Build mit, sondern wird bei
+ * Änderungen am {@link GesichertInterceptor} oder an der {@link AnnotationSicherheitAttributeSource} von
+ * Hand ausgeführt.
+ */
+@Ignore("Benchmark, wird bei Bedarf von Hand ausgeführt.")
+public class GesichertInterceptorBenchmarkTest {
+
+    /** Logger. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(GesichertInterceptorBenchmarkTest.class);
+
+    /** Anzahl der Aufrufe je Messung. */
+    private static final int ANZAHL_AUFRUFE = 100_000;
+
+    /**
+     * Ruft eine gesicherte Methode über einen Proxy mit und ohne zwischengespeicherte Rechte auf. Die
+     * zwischengespeicherten Rechte dürfen nicht langsamer sein als die Auswertung der Annotation.
+     */
+    @Test
+    public void testGesicherterAufruf() {
+        GesichertInterceptor ohneCache = new GesichertInterceptor(new AllesErlaubt());
+        ohneCache.setSicherheitAttributeSource((method, targetClass) ->
+            new AnnotationSicherheitAttributeSource().getBenoetigeRechte(method, targetClass));
+        ServiceIntf serviceOhneCache = erzeugeProxy(ohneCache);
+        ServiceIntf serviceZwischengespeichert = erzeugeProxy(new GesichertInterceptor(new AllesErlaubt()));
+
+        // Der erste Durchlauf dient nur dem Aufwärmen der JVM.
+        messe(serviceOhneCache);
+        messe(serviceZwischengespeichert);
+
+        long dauerOhneCache = messe(serviceOhneCache);
+        long dauerZwischengespeichert = messe(serviceZwischengespeichert);
+
+        LOG.debug("{} gesicherte Aufrufe: ohne Cache {} ns, zwischengespeichert {} ns je Aufruf",
+            ANZAHL_AUFRUFE, dauerOhneCache / ANZAHL_AUFRUFE, dauerZwischengespeichert / ANZAHL_AUFRUFE);
+        assertTrue("Zwischengespeicherte Rechte sind langsamer als die Auswertung der Annotation",
+            dauerZwischengespeichert <= dauerOhneCache);
+    }
+
+    /**
+     * Erzeugt einen Proxy, der Aufrufe über den Interceptor absichert.
+     *
+     * @param interceptor
+     *            der zu verwendende Interceptor.
+     * @return der Proxy.
+     */
+    private static ServiceIntf erzeugeProxy(GesichertInterceptor interceptor) {
+        ProxyFactory fac = new ProxyFactory(new ServiceImpl());
+        fac.addAdvice(interceptor);
+        return (ServiceIntf) fac.getProxy();
+    }
+
+    /**
+     * Misst die Dauer der Aufrufe.
+     *
+     * @param service
+     *            der abgesicherte Service.
+     * @return die Dauer in Nanosekunden.
+     */
+    private static long messe(ServiceIntf service) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ANZAHL_AUFRUFE; i++) {
+            service.gesichertDurch_RechtAundB();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Sicherheit, deren Berechtigungsmanager alle Rechte gewährt.
+     */
+    private static class AllesErlaubt implements Sicherheit<AufrufKontext>, Berechtigungsmanager {
+
+        @Override
+        public Berechtigungsmanager getBerechtigungsManager() {
+            return this;
+        }
+
+        @Override
+        public Berechtigungsmanager getBerechtigungsManagerUndAuthentifiziere(
+            AufrufKontext unauthentifizierterAufrufKontext) {
+            return this;
+        }
+
+        @Override
+        public Set<Rolle> getAlleRollen() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public void leereCache() {
+        }
+
+        @Override
+        public Set<Recht> getRechte() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean hatRecht(String recht) {
+            return true;
+        }
+
+        @Override
+        public void pruefeRecht(String recht) {
+        }
+
+        @Override
+        public Recht getRecht(String recht) {
+            return null;
+        }
+
+        @Override
+        public Set<Rolle> getRollen() {
+            return Collections.emptySet();
+        }
+    }
+}
@@ -33,6 +33,7 @@ import de.bund.bva.isyfact.aufrufkontext.impl.AufrufKontextImpl;
 import de.bund.bva.isyfact.aufrufkontext.impl.AufrufKontextVerwalterImpl;
 import de.bund.bva.isyfact.sicherheit.Berechtigungsmanager;
 import de.bund.bva.isyfact.sicherheit.Recht;
+import de.bund.bva.isyfact.sicherheit.Rolle;
 import de.bund.bva.isyfact.sicherheit.common.exception.RollenRechteMappingException;
 
 import static org.junit.Assert.*;
@@ -184,6 +185,37 @@ public class BerechtigungsmanagerTest {
         }
     }
 
+    @Test
+    public void testRollenkombinationWirdWiederverwendet() {
+        BerechtigungsmanagerImpl ac = new BerechtigungsmanagerImpl(new String[] { "Rolle_A", "Rolle_C" });
+        BerechtigungsmanagerImpl ca = new BerechtigungsmanagerImpl(new String[] { "Rolle_C", "Rolle_A" });
+        ac.setRollenRechteMapping(this.mapping);
+        ca.setRollenRechteMapping(this.mapping);
+        assertTrue(ac.hatRecht("Recht_A"));
+        assertTrue(ca.hatRecht("Recht_C"));
+
+        RollenRechteIndex index = this.mapping.getIndex();
+        assertSame(index.getRechte(ac.getRollen()), index.getRechte(ca.getRollen()));
+        assertNotSame(index.getRechte(ac.getRollen()),
+            index.getRechte(new BerechtigungsmanagerImpl(new String[] { "Rolle_A" }).getRollen()));
+    }
+
+    @Test
+    public void testRollenkombinationenSindBegrenzt() {
+        RollenRechteIndex index = this.mapping.getIndex();
+        Set<Rolle> ac = new BerechtigungsmanagerImpl(new String[] { "Rolle_A", "Rolle_C" }).getRollen();
+        long[] bits = index.getRechte(ac);
+
+        for (int i = 0; i < RollenRechteIndex.MAX_ROLLENKOMBINATIONEN; i++) {
+            String[] rollen = { "Rolle_A", "Rolle_" + i };
+            index.getRechte(new BerechtigungsmanagerImpl(rollen).getRollen());
+        }
+
+        long[] neuBerechnet = index.getRechte(ac);
+        assertNotSame(bits, neuBerechnet);
+        assertArrayEquals(bits, neuBerechnet);
+    }
+
     @Test
     public void testKeineRollen() {
         new BerechtigungsmanagerImpl(null);
@@ -0,0 +1,262 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.sicherheit.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.bund.bva.isyfact.aufrufkontext.impl.AufrufKontextImpl;
+import de.bund.bva.isyfact.aufrufkontext.impl.AufrufKontextVerwalterImpl;
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.sicherheit.Recht;
+import de.bund.bva.isyfact.sicherheit.Rolle;
+import de.bund.bva.isyfact.sicherheit.accessmgr.AuthentifzierungErgebnis;
+import de.bund.bva.isyfact.sicherheit.config.IsySicherheitConfigurationProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testet das Schreiben und Lesen des binären Snapshots eines Rollen-Rechte-Mappings, auch beim Start der
+ * {@link SicherheitImpl}. Ein von Hand auszuführender Benchmark vergleicht die Ladezeit mit dem Parsen der
+ * XML.
+ */
+public class RollenRechteSnapshotTest {
+
+    /** Logger. */
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(RollenRechteSnapshotTest.class);
+
+    /** Anzahl der Rechte im erzeugten Mapping. */
+    private static final int ANZAHL_RECHTE = 2_000;
+
+    /** Anzahl der Rollen im erzeugten Mapping. */
+    private static final int ANZAHL_ROLLEN = 5_000;
+
+    /** Pfad der RollenRechte-XML für die Tests mit der {@link SicherheitImpl}. */
+    private static final String ROLLENRECHTE_PFAD = "/resources/sicherheit/rollenrechte.xml";
+
+    /** Rolle, die nur im Snapshot und nicht in der XML enthalten ist. */
+    private static final Rolle SNAPSHOT_ROLLE = new RolleImpl("Rolle_Snapshot");
+
+    /** Anzahl der Ladevorgänge je Messung. */
+    private static final int ANZAHL_MESSUNGEN = 10;
+
+    private Path verzeichnis;
+
+    private Path datei;
+
+    private byte[] xml;
+
+    private long pruefsumme;
+
+    @Before
+    public void setUp() throws IOException {
+        verzeichnis = Files.createTempDirectory("rollenrechte");
+        datei = verzeichnis.resolve("rollenrechte.snapshot");
+        xml = erzeugeXml().getBytes(StandardCharsets.UTF_8);
+        pruefsumme = RollenRechteSnapshot.berechnePruefsumme(xml);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(datei);
+        Files.deleteIfExists(verzeichnis);
+    }
+
+    @Test
+    public void testSnapshotEntsprichtXml() throws IOException {
+        RollenRechteMapping ausXml = parse();
+        new RollenRechteSnapshot(datei).schreibe(ausXml, pruefsumme);
+
+        RollenRechteMapping ausSnapshot = new RollenRechteSnapshot(datei).lese(pruefsumme);
+
+        assertNotNull(ausSnapshot);
+        assertGleich(ausXml, ausSnapshot);
+    }
+
+    @Test
+    public void testFehlenderSnapshot() {
+        assertNull(new RollenRechteSnapshot(datei).lese(pruefsumme));
+    }
+
+    @Test
+    public void testVeralteterSnapshot() throws IOException {
+        new RollenRechteSnapshot(datei).schreibe(parse(), pruefsumme);
+
+        assertNull(new RollenRechteSnapshot(datei).lese(pruefsumme + 1));
+    }
+
+    @Test
+    public void testBeschaedigterSnapshot() throws IOException {
+        new RollenRechteSnapshot(datei).schreibe(parse(), pruefsumme);
+        byte[] inhalt = Files.readAllBytes(datei);
+        inhalt[inhalt.length / 2] ^= 0x5A;
+        Files.write(datei, inhalt);
+
+        assertNull(new RollenRechteSnapshot(datei).lese(pruefsumme));
+    }
+
+    @Test
+    public void testAbgeschnittenerSnapshot() throws IOException {
+        new RollenRechteSnapshot(datei).schreibe(parse(), pruefsumme);
+        byte[] inhalt = Files.readAllBytes(datei);
+        byte[] abgeschnitten = new byte[inhalt.length - 100];
+        System.arraycopy(inhalt, 0, abgeschnitten, 0, abgeschnitten.length);
+        Files.write(datei, abgeschnitten);
+
+        assertNull(new RollenRechteSnapshot(datei).lese(pruefsumme));
+    }
+
+    @Test
+    public void testSicherheitImplVerwendetSnapshot() throws Exception {
+        long xmlPruefsumme = RollenRechteSnapshot.berechnePruefsumme(
+            Files.readAllBytes(Paths.get(getClass().getResource(ROLLENRECHTE_PFAD).toURI())));
+        RollenRechteSnapshot snapshot = new RollenRechteSnapshot(datei);
+
+        // Ohne Snapshot wird die XML gelesen und der Snapshot geschrieben.
+        assertFalse(erzeugeSicherheit().getAlleRollen().contains(SNAPSHOT_ROLLE));
+        RollenRechteMapping geschrieben = snapshot.lese(xmlPruefsumme);
+        assertNotNull(geschrieben);
+
+        // Ein passender Snapshot ersetzt die XML. Die zusätzliche Rolle gibt es nur im Snapshot.
+        Map<Rolle, List<Recht>> rollenRechte = new HashMap<>(geschrieben.getRollenRechteMapping());
+        rollenRechte.put(SNAPSHOT_ROLLE, new ArrayList<>());
+        geschrieben.setRollenRechteMapping(rollenRechte);
+        snapshot.schreibe(geschrieben, xmlPruefsumme);
+        assertTrue(erzeugeSicherheit().getAlleRollen().contains(SNAPSHOT_ROLLE));
+
+        // Ein veralteter Snapshot wird ignoriert und aus der XML neu geschrieben.
+        snapshot.schreibe(geschrieben, xmlPruefsumme + 1);
+        assertFalse(erzeugeSicherheit().getAlleRollen().contains(SNAPSHOT_ROLLE));
+        RollenRechteMapping neuGeschrieben = snapshot.lese(xmlPruefsumme);
+        assertNotNull(neuGeschrieben);
+        assertFalse(neuGeschrieben.getRollenRechteMapping().containsKey(SNAPSHOT_ROLLE));
+    }
+
+    /**
+     * Vergleicht das Laden des Mappings aus der XML und aus dem Snapshot. Der Snapshot darf nicht langsamer
+     * geladen werden als die XML. Wird nicht im Build, sondern bei Bedarf von Hand ausgeführt.
+     */
+    @Test
+    @Ignore("Benchmark, wird bei Bedarf von Hand ausgeführt.")
+    public void testLadezeit() throws IOException {
+        RollenRechteSnapshot snapshot = new RollenRechteSnapshot(datei);
+        snapshot.schreibe(parse(), pruefsumme);
+
+        // Die erste Runde bleibt ungewertet.
+        messeXml();
+        messeSnapshot(snapshot);
+
+        long dauerXml = messeXml();
+        long dauerSnapshot = messeSnapshot(snapshot);
+
+        LOG.debug("Laden von {} Rollen und {} Rechten: XML {} µs, Snapshot {} µs", ANZAHL_ROLLEN,
+            ANZAHL_RECHTE, dauerXml / ANZAHL_MESSUNGEN / 1000, dauerSnapshot / ANZAHL_MESSUNGEN / 1000);
+        assertTrue("Snapshot wird langsamer geladen als die XML", dauerSnapshot <= dauerXml);
+    }
+
+    private long messeXml() {
+        long start = System.nanoTime();
+        for (int i = 0; i < ANZAHL_MESSUNGEN; i++) {
+            parse();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long messeSnapshot(RollenRechteSnapshot snapshot) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ANZAHL_MESSUNGEN; i++) {
+            assertNotNull(snapshot.lese(RollenRechteSnapshot.berechnePruefsumme(xml)));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private SicherheitImpl<?, ?> erzeugeSicherheit() throws Exception {
+        IsySicherheitConfigurationProperties properties = new IsySicherheitConfigurationProperties();
+        properties.setRollenRechteSnapshot(datei.toString());
+        SicherheitImpl<AufrufKontextImpl, AuthentifzierungErgebnis> sicherheit = new SicherheitImpl<>(
+            ROLLENRECHTE_PFAD, new AufrufKontextVerwalterImpl<>(), null, null, properties);
+        sicherheit.afterPropertiesSet();
+        return sicherheit;
+    }
+
+    private RollenRechteMapping parse() {
+        return new XmlAccess().parseRollenRechte(new ByteArrayInputStream(xml));
+    }
+
+    private static void assertGleich(RollenRechteMapping erwartet, RollenRechteMapping tatsaechlich) {
+        assertEquals(erwartet.getAnwendungsId(), tatsaechlich.getAnwendungsId());
+        assertEquals(erwartet.getAlleDefiniertenRechte(), tatsaechlich.getAlleDefiniertenRechte());
+        Map<String, Recht> rechte = new HashMap<>();
+        for (Recht recht : tatsaechlich.getAlleDefiniertenRechte()) {
+            rechte.put(recht.getId(), recht);
+        }
+        for (Recht recht : erwartet.getAlleDefiniertenRechte()) {
+            assertEquals(((RechtImpl) recht).getProperties(),
+                ((RechtImpl) rechte.get(recht.getId())).getProperties());
+        }
+        assertEquals(erwartet.getRollenRechteMapping().size(), tatsaechlich.getRollenRechteMapping().size());
+        for (Map.Entry<Rolle, List<Recht>> eintrag : erwartet.getRollenRechteMapping().entrySet()) {
+            assertEquals(eintrag.getValue(), tatsaechlich.getRollenRechteMapping().get(eintrag.getKey()));
+        }
+    }
+
+    /**
+     * Erzeugt eine RollenRechte-XML, in der jede Rolle zehn Rechte enthält.
+     */
+    private static String erzeugeXml() {
+        StringBuilder xml = new StringBuilder(1024 * 1024);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<tns:Anwendung AnwendungsId=\"Testanwendung\" ")
+            .append("xmlns:tns=\"http://www.example.org/RollenRechteSchema\">\n");
+        for (int i = 0; i < ANZAHL_RECHTE; i++) {
+            xml.append("  <tns:rechte><tns:rechtId Id=\"Recht_").append(i).append("\"/>");
+            if (i % 10 == 0) {
+                xml.append("<tns:properties PropertyName=\"Stufe\" PropertyValue=\"").append(i % 3)
+                    .append("\"/>");
+            }
+            xml.append("</tns:rechte>\n");
+        }
+        for (int i = 0; i < ANZAHL_ROLLEN; i++) {
+            xml.append("  <tns:rollen RolleId=\"Rolle_").append(i).append("\" RolleName=\"Rolle ü")
+                .append(i).append("\">");
+            for (int j = 0; j < 10; j++) {
+                xml.append("<tns:rechtId Id=\"Recht_").append((i * 7 + j * 31) % ANZAHL_RECHTE)
+                    .append("\"/>");
+            }
+            xml.append("</tns:rollen>\n");
+        }
+        xml.append("</tns:Anwendung>\n");
+        return xml.toString();
+    }
+}
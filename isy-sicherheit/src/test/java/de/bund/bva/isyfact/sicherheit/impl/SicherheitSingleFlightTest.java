@@ -0,0 +1,217 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.sicherheit.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.bund.bva.isyfact.aufrufkontext.impl.AufrufKontextFactoryImpl;
+import de.bund.bva.isyfact.aufrufkontext.impl.AufrufKontextImpl;
+import de.bund.bva.isyfact.aufrufkontext.impl.AufrufKontextVerwalterImpl;
+import de.bund.bva.isyfact.sicherheit.accessmgr.AccessManager;
+import de.bund.bva.isyfact.sicherheit.accessmgr.test.TestAuthentifizierungErgebnis;
+import de.bund.bva.isyfact.sicherheit.common.exception.AuthentifizierungTechnicalException;
+import de.bund.bva.isyfact.sicherheit.config.IsySicherheitConfigurationProperties;
+
+public class SicherheitSingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final ZaehlenderAccessManager accessManager = new ZaehlenderAccessManager();
+
+    @After
+    public void tearDown() {
+        accessManager.freigabe.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void gleichzeitigeAuthentifizierungenWerdenZusammengefasst() throws Exception {
+        SicherheitImpl<AufrufKontextImpl, TestAuthentifizierungErgebnis> sicherheit =
+            erzeugeSicherheit(60, 0);
+        int anzahlThreads = 8;
+
+        List<Future<?>> aufrufe = new ArrayList<>();
+        for (int i = 0; i < anzahlThreads; i++) {
+            aufrufe.add(executor.submit(() -> sicherheit.getBerechtigungsManagerUndAuthentifiziere(
+                erzeugeAufrufKontext())));
+        }
+        assertTrue(accessManager.gestartet.await(5, TimeUnit.SECONDS));
+        // Warten, bis alle übrigen Threads auf die laufende Authentifizierung warten.
+        long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sicherheit.getCacheStatistik().getZusammengefassteAufrufe() < anzahlThreads - 1
+            && System.nanoTime() < ende) {
+            Thread.sleep(10);
+        }
+        accessManager.freigabe.countDown();
+        for (Future<?> aufruf : aufrufe) {
+            aufruf.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, accessManager.aufrufe.get());
+        assertEquals(anzahlThreads - 1, sicherheit.getCacheStatistik().getZusammengefassteAufrufe());
+        assertEquals(anzahlThreads, sicherheit.getCacheStatistik().getFehlzugriffe());
+    }
+
+    @Test
+    public void fehlerWirdAnWartendeAufrufeWeitergegeben() throws Exception {
+        SicherheitImpl<AufrufKontextImpl, TestAuthentifizierungErgebnis> sicherheit =
+            erzeugeSicherheit(60, 0);
+        accessManager.fehler = new AuthentifizierungTechnicalException("test");
+
+        Future<?> erster = executor.submit(() -> sicherheit.getBerechtigungsManagerUndAuthentifiziere(
+            erzeugeAufrufKontext()));
+        assertTrue(accessManager.gestartet.await(5, TimeUnit.SECONDS));
+        Future<?> zweiter = executor.submit(() -> sicherheit.getBerechtigungsManagerUndAuthentifiziere(
+            erzeugeAufrufKontext()));
+        long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sicherheit.getCacheStatistik().getZusammengefassteAufrufe() < 1 && System.nanoTime() < ende) {
+            Thread.sleep(10);
+        }
+        accessManager.freigabe.countDown();
+
+        assertFehler(erster);
+        assertFehler(zweiter);
+        assertEquals(1, accessManager.aufrufe.get());
+    }
+
+    @Test
+    public void eintragWirdVorAblaufNeuAuthentifiziert() throws Exception {
+        SicherheitImpl<AufrufKontextImpl, TestAuthentifizierungErgebnis> sicherheit =
+            erzeugeSicherheit(2, 1);
+        accessManager.freigabe.countDown();
+
+        sicherheit.getBerechtigungsManagerUndAuthentifiziere(erzeugeAufrufKontext());
+        sicherheit.getBerechtigungsManagerUndAuthentifiziere(erzeugeAufrufKontext());
+        assertEquals(1, accessManager.aufrufe.get());
+
+        // Nach einer Sekunde liegt der Eintrag im Zeitraum vor Ablauf der Time-to-live.
+        Thread.sleep(1100);
+        accessManager.fehler = new AuthentifizierungTechnicalException("test");
+        sicherheit.getBerechtigungsManagerUndAuthentifiziere(erzeugeAufrufKontext());
+        assertEquals("Fehlgeschlagene vorzeitige Authentifizierung verwendet den bisherigen Eintrag", 2,
+            accessManager.aufrufe.get());
+
+        accessManager.fehler = null;
+        sicherheit.getBerechtigungsManagerUndAuthentifiziere(erzeugeAufrufKontext());
+        sicherheit.getBerechtigungsManagerUndAuthentifiziere(erzeugeAufrufKontext());
+        assertEquals(3, accessManager.aufrufe.get());
+        assertEquals(2, sicherheit.getCacheStatistik().getVorzeitigeAktualisierungen());
+        assertEquals(1, sicherheit.getCacheStatistik().getFehlzugriffe());
+    }
+
+    private SicherheitImpl<AufrufKontextImpl, TestAuthentifizierungErgebnis> erzeugeSicherheit(int ttl,
+        int aktualisierungVorAblauf) {
+        IsySicherheitConfigurationProperties properties = new IsySicherheitConfigurationProperties();
+        properties.setTtl(ttl);
+        properties.setAktualisierungVorAblauf(aktualisierungVorAblauf);
+        return new SicherheitImpl<>("/resources/sicherheit/rollenrechte.xml",
+            new AufrufKontextVerwalterImpl<>(), new AufrufKontextFactoryImpl<>(), accessManager, properties);
+    }
+
+    private static AufrufKontextImpl erzeugeAufrufKontext() {
+        AufrufKontextImpl aufrufKontext = new AufrufKontextImpl();
+        aufrufKontext.setDurchfuehrenderBenutzerKennung("nutzer");
+        aufrufKontext.setDurchfuehrenderBenutzerPasswort("passwort");
+        aufrufKontext.setDurchfuehrendeBehoerde("behoerde");
+        return aufrufKontext;
+    }
+
+    private static void assertFehler(Future<?> aufruf) throws Exception {
+        try {
+            aufruf.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AuthentifizierungTechnicalException);
+            return;
+        }
+        throw new AssertionError("Authentifizierung hätte fehlschlagen müssen");
+    }
+
+    /**
+     * AccessManager, der seine Aufrufe zählt und die Authentifizierung bis zur Freigabe blockiert.
+     */
+    private static class ZaehlenderAccessManager
+        implements AccessManager<AufrufKontextImpl, TestAuthentifizierungErgebnis> {
+
+        private final AtomicInteger aufrufe = new AtomicInteger();
+
+        private final CountDownLatch gestartet = new CountDownLatch(1);
+
+        private final CountDownLatch freigabe = new CountDownLatch(1);
+
+        private volatile AuthentifizierungTechnicalException fehler;
+
+        @Override
+        public TestAuthentifizierungErgebnis authentifiziere(
+            AufrufKontextImpl unauthentifizierterAufrufKontext) {
+            aufrufe.incrementAndGet();
+            gestartet.countDown();
+            try {
+                freigabe.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fehler != null) {
+                throw fehler;
+            }
+            TestAuthentifizierungErgebnis ergebnis = new TestAuthentifizierungErgebnis();
+            ergebnis.setRollen(new String[] { "Rolle_A" });
+            return ergebnis;
+        }
+
+        @Override
+        public void logout(TestAuthentifizierungErgebnis authentifzierungErgebnis) {
+        }
+
+        @Override
+        public boolean pingAccessManager() {
+            return true;
+        }
+
+        @Override
+        public boolean pingAccessManagerByLoginLogout(AufrufKontextImpl unauthentifizierterAufrufKontext) {
+            return true;
+        }
+
+        @Override
+        public void befuelleAufrufkontext(AufrufKontextImpl aufrufKontext,
+            TestAuthentifizierungErgebnis authentifzierungErgebnis) {
+            aufrufKontext.setRolle(authentifzierungErgebnis.getRollen());
+            aufrufKontext.setRollenErmittelt(true);
+        }
+
+        @Override
+        public Object erzeugeCacheSchluessel(AufrufKontextImpl aufrufKontext) {
+            return aufrufKontext.getDurchfuehrenderBenutzerKennung() + "/"
+                + aufrufKontext.getDurchfuehrenderBenutzerPasswort() + "/"
+                + aufrufKontext.getDurchfuehrendeBehoerde();
+        }
+    }
+}
@@ -16,6 +16,9 @@
  */
 package de.bund.bva.isyfact.sicherheit.impl;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
 import de.bund.bva.isyfact.sicherheit.Recht;
 import de.bund.bva.isyfact.sicherheit.common.exception.RollenRechteMappingException;
 import de.bund.bva.isyfact.sicherheit.impl.RollenRechteMapping;
@@ -126,4 +129,15 @@ public class XmlAccessTest {
 	public void testRechtOhneIdElementInRolle(){
 		xmlAccess.parseRollenRechteFile(ROLLEN_RECHTE_XML_PATH + "rollenrechte_RechteOhneIdElementInRolle.xml");
 	}
+
+	@Test
+	public void testFehlerhaftesXml(){
+		byte[] xml = "<tns:Anwendung AnwendungsId=\"Test\"><tns:rollen".getBytes(StandardCharsets.UTF_8);
+		try {
+			xmlAccess.parseRollenRechte(new ByteArrayInputStream(xml));
+			fail("RollenRechteMappingException erwartet");
+		} catch (RollenRechteMappingException e) {
+			assertTrue(e.getMessage().contains("SAX-Exception"));
+		}
+	}
 }
@@ -9,9 +9,15 @@ import de.bund.bva.isyfact.task.impl.TaskSchedulerImpl;
 import de.bund.bva.isyfact.task.konfiguration.HostHandler;
 import de.bund.bva.isyfact.task.konfiguration.TaskKonfigurationVerwalter;
 import de.bund.bva.isyfact.task.konfiguration.impl.LocalHostHandlerImpl;
+import de.bund.bva.isyfact.task.model.TaskMetriken;
+import de.bund.bva.isyfact.task.model.impl.MicrometerTaskMetriken;
+import de.bund.bva.isyfact.task.model.impl.NoOpTaskMetriken;
 import de.bund.bva.isyfact.task.sicherheit.AuthenticatorFactory;
 import de.bund.bva.isyfact.task.sicherheit.impl.IsySicherheitAuthenticatorFactory;
 import de.bund.bva.isyfact.task.sicherheit.impl.NoOpAuthenticatorFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -31,8 +37,31 @@ public class IsyTaskAutoConfiguration {
 
     @Bean
     public TaskScheduler taskScheduler(IsyTaskConfigurationProperties configurationProperties,
-        TaskKonfigurationVerwalter taskKonfigurationVerwalter, HostHandler hostHandler) {
-        return new TaskSchedulerImpl(configurationProperties, taskKonfigurationVerwalter, hostHandler);
+        TaskKonfigurationVerwalter taskKonfigurationVerwalter, HostHandler hostHandler,
+        TaskMetriken taskMetriken) {
+        return new TaskSchedulerImpl(configurationProperties, taskKonfigurationVerwalter, hostHandler,
+            taskMetriken);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(TaskMetriken.class)
+    public TaskMetriken noOpTaskMetriken() {
+        return new NoOpTaskMetriken();
+    }
+
+    /**
+     * Stellt die Messwerte der Tasks als Micrometer-Metriken bereit, wenn Micrometer vorhanden ist.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerTaskMetrikenConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(TaskMetriken.class)
+        public TaskMetriken micrometerTaskMetriken(ObjectProvider<MeterRegistry> meterRegistry) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            return registry != null ? new MicrometerTaskMetriken(registry) : new NoOpTaskMetriken();
+        }
     }
 
     @Bean
@@ -12,6 +12,19 @@ import org.springframework.validation.annotation.Validated;
 @Validated
 public class IsyTaskConfigurationProperties {
 
+    /**
+     * Modelle, nach denen die Ausführungen der Tasks auf Threads verteilt werden. Die Zeitpunkte der
+     * Ausführungen verwaltet in beiden Fällen ein gemeinsamer Scheduling-Thread.
+     */
+    public enum Ausfuehrungsmodell {
+
+        /** Ein Thread-Pool mit fester Größe ({@code amountOfThreads}). */
+        THREAD_POOL,
+
+        /** Ein Work-Stealing-Pool ({@link java.util.concurrent.ForkJoinPool}) mit {@code amountOfThreads} Threads. */
+        WORK_STEALING
+    }
+
     private final Map<String, TaskConfig> tasks = new HashMap<>();
 
     private final Default standard = new Default();
@@ -50,6 +63,12 @@ public class IsyTaskConfigurationProperties {
 
         private Duration fixedDelay;
 
+        private String cron;
+
+        private TaskKonfiguration.Nachholmodus nachholmodus;
+
+        private Duration sitzungsdauer;
+
         public String getBenutzer() {
             return benutzer;
         }
@@ -121,11 +140,37 @@ public class IsyTaskConfigurationProperties {
         public void setFixedDelay(Duration fixedDelay) {
             this.fixedDelay = fixedDelay;
         }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public TaskKonfiguration.Nachholmodus getNachholmodus() {
+            return nachholmodus;
+        }
+
+        public void setNachholmodus(TaskKonfiguration.Nachholmodus nachholmodus) {
+            this.nachholmodus = nachholmodus;
+        }
+
+        public Duration getSitzungsdauer() {
+            return sitzungsdauer;
+        }
+
+        public void setSitzungsdauer(Duration sitzungsdauer) {
+            this.sitzungsdauer = sitzungsdauer;
+        }
     }
 
     public static class Default {
         int amountOfThreads = 100;
 
+        private Ausfuehrungsmodell ausfuehrungsmodell = Ausfuehrungsmodell.THREAD_POOL;
+
         private String dateTimePattern = "dd.MM.yyyy HH:mm:ss.SSS";
 
         private String benutzer;
@@ -136,6 +181,12 @@ public class IsyTaskConfigurationProperties {
 
         private String host;
 
+        /**
+         * Dauer, für die eine Authentifizierung über mehrere Ausführungen eines Tasks wiederverwendet wird.
+         * {@link Duration#ZERO} authentifiziert vor jeder Ausführung.
+         */
+        private Duration sitzungsdauer = Duration.ZERO;
+
         @Min(1)
         public int getAmountOfThreads() {
             return amountOfThreads;
@@ -145,6 +196,14 @@ public class IsyTaskConfigurationProperties {
             this.amountOfThreads = amountOfThreads;
         }
 
+        public Ausfuehrungsmodell getAusfuehrungsmodell() {
+            return ausfuehrungsmodell;
+        }
+
+        public void setAusfuehrungsmodell(Ausfuehrungsmodell ausfuehrungsmodell) {
+            this.ausfuehrungsmodell = ausfuehrungsmodell;
+        }
+
         @NotBlank
         public String getDateTimePattern() {
             return dateTimePattern;
@@ -185,6 +244,14 @@ public class IsyTaskConfigurationProperties {
         public void setHost(String host) {
             this.host = host;
         }
+
+        public Duration getSitzungsdauer() {
+            return sitzungsdauer;
+        }
+
+        public void setSitzungsdauer(Duration sitzungsdauer) {
+            this.sitzungsdauer = sitzungsdauer;
+        }
     }
 
     public static class Watchdog {
@@ -0,0 +1,290 @@
+package de.bund.bva.isyfact.task.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.bund.bva.isyfact.datetime.util.DateTimeUtil;
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.task.konfiguration.CronAusdruck;
+import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration.Ausfuehrungsplan;
+import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration.Nachholmodus;
+import de.bund.bva.isyfact.task.konstanten.Ereignisschluessel;
+import de.bund.bva.isyfact.task.model.TaskMetriken;
+import de.bund.bva.isyfact.task.model.TaskRunner;
+import de.bund.bva.isyfact.util.spring.MessageSourceHolder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Steuert die Ausführungen eines eingereihten Tasks. Der gemeinsame Scheduling-Thread löst die Ausführungen
+ * nur aus, ausgeführt wird der Task auf dem Executor für die Ausführungen. Eine Ausführung läuft nie parallel
+ * zu einer anderen Ausführung desselben Tasks. Fallen bei {@link Ausfuehrungsplan#FIXED_RATE} Zeitpunkte
+ * in eine laufende Ausführung, oder werden bei {@link Ausfuehrungsplan#CRON} Zeitpunkte verpasst, bestimmt
+ * der {@link Nachholmodus}, ob sie übersprungen, zu einer Ausführung zusammengefasst oder alle nachgeholt
+ * werden.
+ * <p>
+ * Das Ende der Ausführungen wird über {@link #getErgebnis()} gemeldet. Der {@link CompletableFuture} wird
+ * regulär abgeschlossen, wenn ein einmaliger Task ausgeführt wurde oder ein Cron-Ausdruck keinen Zeitpunkt
+ * mehr liefert, mit dem Fehler, wenn eine Ausführung fehlschlägt, und abgebrochen, wenn die Ausführungen
+ * abgebrochen werden.
+ */
+class TaskAusfuehrung {
+
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(TaskAusfuehrung.class);
+
+    private final TaskRunner taskRunner;
+
+    private final Ausfuehrungsplan ausfuehrungsplan;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Executor ausfuehrungsExecutor;
+
+    private final TaskMetriken taskMetriken;
+
+    private final CompletableFuture<Void> ergebnis = new CompletableFuture<>();
+
+    private final AtomicBoolean laeuft = new AtomicBoolean();
+
+    /** Anzahl der Zeitpunkte, die bei {@link Ausfuehrungsplan#FIXED_RATE} in eine laufende Ausführung fielen. */
+    private final AtomicInteger ueberlaeufe = new AtomicInteger();
+
+    private long fixedDelayMillis;
+
+    private CronAusdruck cronAusdruck;
+
+    private Nachholmodus nachholmodus;
+
+    /** Der Zeitpunkt der nächsten bzw. laufenden Ausführung nach {@link #cronAusdruck}. */
+    private volatile LocalDateTime geplanteAusfuehrung;
+
+    private volatile ScheduledFuture<?> ausloeser;
+
+    TaskAusfuehrung(TaskRunner taskRunner, ScheduledExecutorService scheduler, Executor ausfuehrungsExecutor,
+        TaskMetriken taskMetriken) {
+        this.taskRunner = taskRunner;
+        this.ausfuehrungsplan = taskRunner.getTaskKonfiguration().getAusfuehrungsplan();
+        this.scheduler = scheduler;
+        this.ausfuehrungsExecutor = ausfuehrungsExecutor;
+        this.taskMetriken = taskMetriken;
+    }
+
+    /**
+     * Reiht eine einmalige Ausführung ein.
+     *
+     * @param delayMillis Verzögerung bis zur Ausführung in Millisekunden
+     */
+    void planeEinmalig(long delayMillis) {
+        ausloeser = scheduler.schedule(this::loeseAus, delayMillis, MILLISECONDS);
+    }
+
+    /**
+     * Reiht Ausführungen mit fester Rate ein.
+     *
+     * @param initialDelayMillis Verzögerung bis zur ersten Ausführung in Millisekunden
+     * @param fixedRateMillis    Abstand zwischen den Startzeitpunkten in Millisekunden
+     * @param nachholmodus       der Umgang mit Zeitpunkten, die in eine laufende Ausführung fallen. Ohne
+     *                           Nachholmodus werden wie bei
+     *                           {@link ScheduledExecutorService#scheduleAtFixedRate} alle nachgeholt.
+     */
+    void planeMitFesterRate(long initialDelayMillis, long fixedRateMillis, Nachholmodus nachholmodus) {
+        this.nachholmodus = nachholmodus != null ? nachholmodus : Nachholmodus.ALLE;
+        ausloeser = scheduler.scheduleAtFixedRate(this::loeseAus, initialDelayMillis, fixedRateMillis,
+            MILLISECONDS);
+    }
+
+    /**
+     * Reiht Ausführungen mit fester Verzögerung ein.
+     *
+     * @param initialDelayMillis Verzögerung bis zur ersten Ausführung in Millisekunden
+     * @param fixedDelayMillis   Abstand zwischen dem Ende einer Ausführung und dem Start der nächsten in
+     *                           Millisekunden
+     */
+    void planeMitFesterVerzoegerung(long initialDelayMillis, long fixedDelayMillis) {
+        this.fixedDelayMillis = fixedDelayMillis;
+        ausloeser = scheduler.schedule(this::loeseAus, initialDelayMillis, MILLISECONDS);
+    }
+
+    /**
+     * Reiht Ausführungen zu den Zeitpunkten eines Cron-Ausdrucks ein. Verpasste Zeitpunkte werden nach
+     * jeder Ausführung erkannt und gemäß dem Nachholmodus nachgeholt.
+     *
+     * @param cronAusdruck der Cron-Ausdruck
+     * @param nachholmodus der Umgang mit verpassten Zeitpunkten. Ohne Nachholmodus wird einmal nachgeholt.
+     */
+    void planeNachCron(CronAusdruck cronAusdruck, Nachholmodus nachholmodus) {
+        this.cronAusdruck = cronAusdruck;
+        this.nachholmodus = nachholmodus != null ? nachholmodus : Nachholmodus.EINMAL;
+        ZonedDateTime jetzt = DateTimeUtil.zonedDateTimeNow();
+        planeCronAusfuehrung(cronAusdruck.naechsteAusfuehrung(jetzt.toLocalDateTime()), jetzt);
+    }
+
+    /**
+     * Bricht alle ausstehenden Ausführungen ab. Eine laufende Ausführung wird nicht unterbrochen.
+     */
+    void abbrechen() {
+        ScheduledFuture<?> aktuellerAusloeser = ausloeser;
+        if (aktuellerAusloeser != null) {
+            aktuellerAusloeser.cancel(false);
+        }
+        ergebnis.cancel(false);
+    }
+
+    boolean isPeriodisch() {
+        return ausfuehrungsplan != Ausfuehrungsplan.ONCE;
+    }
+
+    TaskRunner getTaskRunner() {
+        return taskRunner;
+    }
+
+    CompletableFuture<Void> getErgebnis() {
+        return ergebnis;
+    }
+
+    /**
+     * Wird vom Scheduling-Thread aufgerufen und übergibt die Ausführung an den Executor, sofern nicht
+     * bereits eine Ausführung läuft.
+     */
+    private void loeseAus() {
+        if (ergebnis.isDone()) {
+            return;
+        }
+        if (!laeuft.compareAndSet(false, true)) {
+            zeichneUeberlaufAuf();
+            return;
+        }
+        long ausgeloest = System.nanoTime();
+        try {
+            ausfuehrungsExecutor.execute(() -> fuehreAus(ausgeloest));
+        } catch (RejectedExecutionException e) {
+            // Der Executor wurde heruntergefahren.
+            laeuft.set(false);
+            abbrechen();
+        }
+    }
+
+    private void zeichneUeberlaufAuf() {
+        String taskId = taskRunner.getTaskKonfiguration().getTaskId();
+        String nachricht =
+            MessageSourceHolder.getMessage(Ereignisschluessel.TASK_UEBERLAUF, taskId, nachholmodus);
+        LOG.warn(Ereignisschluessel.TASK_UEBERLAUF, nachricht);
+        taskMetriken.zeichneUeberlaufAuf(taskId);
+
+        if (nachholmodus != Nachholmodus.UEBERSPRINGEN) {
+            ueberlaeufe.incrementAndGet();
+        }
+    }
+
+    private void fuehreAus(long ausgeloest) {
+        taskMetriken.zeichneWarteschlangenVerzoegerungAuf(taskRunner.getTaskKonfiguration().getTaskId(),
+            System.nanoTime() - ausgeloest);
+        try {
+            taskRunner.run();
+        } catch (Throwable t) {
+            laeuft.set(false);
+            ScheduledFuture<?> aktuellerAusloeser = ausloeser;
+            if (aktuellerAusloeser != null) {
+                aktuellerAusloeser.cancel(false);
+            }
+            ergebnis.completeExceptionally(t);
+            return;
+        }
+        laeuft.set(false);
+        if (ergebnis.isDone()) {
+            return;
+        }
+
+        switch (ausfuehrungsplan) {
+        case ONCE:
+            ergebnis.complete(null);
+            break;
+        case FIXED_RATE:
+            int verpasst = ueberlaeufe.getAndSet(0);
+            if (verpasst > 0) {
+                // Bei EINMAL werden alle Überläufe zu einer Ausführung zusammengefasst.
+                if (nachholmodus == Nachholmodus.ALLE) {
+                    ueberlaeufe.addAndGet(verpasst - 1);
+                }
+                loeseAus();
+            }
+            break;
+        case FIXED_DELAY:
+            try {
+                ausloeser = scheduler.schedule(this::loeseAus, fixedDelayMillis, MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Der Scheduling-Thread wurde heruntergefahren.
+                ergebnis.cancel(false);
+            }
+            break;
+        case CRON:
+            planeNaechsteCronAusfuehrung();
+            break;
+        }
+    }
+
+    private void planeNaechsteCronAusfuehrung() {
+        ZonedDateTime jetztMitZone = DateTimeUtil.zonedDateTimeNow();
+        LocalDateTime jetzt = jetztMitZone.toLocalDateTime();
+        LocalDateTime naechsteAusfuehrung = cronAusdruck.naechsteAusfuehrung(geplanteAusfuehrung);
+
+        if (naechsteAusfuehrung != null && !naechsteAusfuehrung.isAfter(jetzt)) {
+            switch (nachholmodus) {
+            case UEBERSPRINGEN:
+                naechsteAusfuehrung = cronAusdruck.naechsteAusfuehrung(jetzt);
+                break;
+            case EINMAL:
+                // Nur der letzte verpasste Zeitpunkt wird ausgeführt, danach geht es nach jetzt weiter.
+                LocalDateTime folgende = cronAusdruck.naechsteAusfuehrung(naechsteAusfuehrung);
+                while (folgende != null && !folgende.isAfter(jetzt)) {
+                    naechsteAusfuehrung = folgende;
+                    folgende = cronAusdruck.naechsteAusfuehrung(folgende);
+                }
+                break;
+            case ALLE:
+                // Die verpassten Zeitpunkte werden der Reihe nach ohne Verzögerung ausgeführt.
+                break;
+            }
+        }
+
+        planeCronAusfuehrung(naechsteAusfuehrung, jetztMitZone);
+    }
+
+    private void planeCronAusfuehrung(LocalDateTime zeitpunkt, ZonedDateTime jetzt) {
+        if (zeitpunkt == null) {
+            ergebnis.complete(null);
+            return;
+        }
+        geplanteAusfuehrung = zeitpunkt;
+        long delayMillis = berechneVerzoegerung(jetzt, zeitpunkt);
+        try {
+            ausloeser = scheduler.schedule(this::loeseAus, delayMillis, MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Der Scheduling-Thread wurde heruntergefahren.
+            ergebnis.cancel(false);
+        }
+    }
+
+    /**
+     * Berechnet die Verzögerung bis zu einem Zeitpunkt des Cron-Ausdrucks. Der Zeitpunkt wird in der
+     * Zeitzone der Uhr von {@link DateTimeUtil} interpretiert, damit Zeitumstellungen berücksichtigt
+     * werden. Ein Zeitpunkt in der Lücke der Umstellung auf Sommerzeit wird um die Länge der Lücke
+     * verschoben, bei doppelt vorkommenden Zeitpunkten gilt der frühere.
+     *
+     * @param jetzt     der aktuelle Zeitpunkt mit Zeitzone
+     * @param zeitpunkt der Zeitpunkt der Ausführung
+     * @return die Verzögerung in Millisekunden, nie negativ
+     */
+    static long berechneVerzoegerung(ZonedDateTime jetzt, LocalDateTime zeitpunkt) {
+        return Math.max(0, Duration.between(jetzt, zeitpunkt.atZone(jetzt.getZone())).toMillis());
+    }
+}
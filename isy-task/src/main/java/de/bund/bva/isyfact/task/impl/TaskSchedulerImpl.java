@@ -3,14 +3,15 @@ package de.bund.bva.isyfact.task.impl;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 
 import de.bund.bva.isyfact.datetime.util.DateTimeUtil;
 import de.bund.bva.isyfact.logging.IsyLogger;
@@ -19,24 +20,33 @@ import de.bund.bva.isyfact.logging.LogKategorie;
 import de.bund.bva.isyfact.task.TaskScheduler;
 import de.bund.bva.isyfact.task.config.IsyTaskConfigurationProperties;
 import de.bund.bva.isyfact.task.exception.HostNotApplicableException;
+import de.bund.bva.isyfact.task.konfiguration.CronAusdruck;
 import de.bund.bva.isyfact.task.konfiguration.HostHandler;
 import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration;
 import de.bund.bva.isyfact.task.konfiguration.TaskKonfigurationVerwalter;
 import de.bund.bva.isyfact.task.konstanten.Ereignisschluessel;
 import de.bund.bva.isyfact.task.konstanten.FehlerSchluessel;
 import de.bund.bva.isyfact.task.model.Task;
+import de.bund.bva.isyfact.task.model.TaskMetriken;
 import de.bund.bva.isyfact.task.model.TaskRunner;
+import de.bund.bva.isyfact.task.model.impl.NoOpTaskMetriken;
 import de.bund.bva.isyfact.task.model.impl.TaskRunnerImpl;
 import de.bund.bva.isyfact.util.spring.MessageSourceHolder;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Implementierung von {@link TaskScheduler}, bei der die Tasks als Spring-Beans bereitgestellt
  * und per {@link IsyTaskConfigurationProperties} konfiguriert werden.
+ * <p>
+ * Die Zeitpunkte der Ausführungen verwaltet ein gemeinsamer Scheduling-Thread, die Tasks selbst laufen auf
+ * einem Executor, der über {@link IsyTaskConfigurationProperties.Ausfuehrungsmodell} gewählt oder im
+ * Konstruktor übergeben wird. Das Ende der Ausführungen eines Tasks wird über Callbacks verarbeitet:
+ * Fehlgeschlagene Tasks werden sofort neu eingereiht, weitere Neustarts desselben Tasks erfolgen frühestens
+ * nach dem Restart-Intervall des Watchdogs.
  */
 public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware {
     private final IsyTaskConfigurationProperties configurationProperties;
@@ -47,11 +57,18 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
 
     private final ScheduledExecutorService scheduledExecutorService;
 
+    private final ExecutorService ausfuehrungsExecutorService;
+
+    private final TaskMetriken taskMetriken;
+
     private final List<TaskRunner> zuStartendeTasks = Collections.synchronizedList(new ArrayList<>());
 
     private final List<TaskRunner> laufendeTasks = Collections.synchronizedList(new ArrayList<>());
 
-    private final Map<String, ScheduledFuture<?>> scheduledFutures = new HashMap<>();
+    private final Map<String, TaskAusfuehrung> taskAusfuehrungen = new ConcurrentHashMap<>();
+
+    /** Zeitpunkt des letzten Neustarts je Task nach {@link System#nanoTime()}. */
+    private final Map<String, Long> letzteNeustarts = new ConcurrentHashMap<>();
 
     private static final IsyLogger LOG = IsyLoggerFactory.getLogger(TaskSchedulerImpl.class);
 
@@ -68,12 +85,57 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
      */
     public TaskSchedulerImpl(IsyTaskConfigurationProperties configurationProperties, TaskKonfigurationVerwalter taskKonfigurationVerwalter,
         HostHandler hostHandler) {
+        this(configurationProperties, taskKonfigurationVerwalter, hostHandler, new NoOpTaskMetriken());
+    }
+
+    /**
+     * Erstelle eine {@link TaskScheduler}-Instanz, die Messwerte zu den Ausführungen der Tasks aufzeichnet.
+     *
+     * @param configurationProperties    {@link IsyTaskConfigurationProperties} zur Konfiguration des TaskScheduler
+     * @param taskKonfigurationVerwalter {@link TaskKonfigurationVerwalter} der die Konfiguration der Tasks
+     *                                   bereitstellt
+     * @param hostHandler                {@link HostHandler} zur Überprüfung des Hosts, auf dem die Tasks ausgeführt werden
+     *                                   sollen
+     * @param taskMetriken               {@link TaskMetriken} zur Aufzeichnung der Messwerte
+     */
+    public TaskSchedulerImpl(IsyTaskConfigurationProperties configurationProperties, TaskKonfigurationVerwalter taskKonfigurationVerwalter,
+        HostHandler hostHandler, TaskMetriken taskMetriken) {
+        this(configurationProperties, taskKonfigurationVerwalter, hostHandler,
+            erzeugeAusfuehrungsExecutor(configurationProperties.getDefault()), taskMetriken);
+    }
+
+    /**
+     * Erstelle eine {@link TaskScheduler}-Instanz, deren Tasks auf dem übergebenen Executor ausgeführt werden.
+     *
+     * @param configurationProperties     {@link IsyTaskConfigurationProperties} zur Konfiguration des TaskScheduler
+     * @param taskKonfigurationVerwalter  {@link TaskKonfigurationVerwalter} der die Konfiguration der Tasks
+     *                                    bereitstellt
+     * @param hostHandler                 {@link HostHandler} zur Überprüfung des Hosts, auf dem die Tasks ausgeführt
+     *                                    werden sollen
+     * @param ausfuehrungsExecutorService der Executor, auf dem die Tasks ausgeführt werden. Er wird beim
+     *                                    Herunterfahren des TaskSchedulers ebenfalls heruntergefahren.
+     * @param taskMetriken                {@link TaskMetriken} zur Aufzeichnung der Messwerte
+     */
+    public TaskSchedulerImpl(IsyTaskConfigurationProperties configurationProperties, TaskKonfigurationVerwalter taskKonfigurationVerwalter,
+        HostHandler hostHandler, ExecutorService ausfuehrungsExecutorService, TaskMetriken taskMetriken) {
         this.configurationProperties = configurationProperties;
         this.taskKonfigurationVerwalter = taskKonfigurationVerwalter;
         this.hostHandler = hostHandler;
-        int initialNumberOfThreads = configurationProperties.getDefault().getAmountOfThreads();
+        this.ausfuehrungsExecutorService = ausfuehrungsExecutorService;
+        this.taskMetriken = taskMetriken;
+
+        scheduledExecutorService =
+            Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "isy-task-scheduler"));
+    }
 
-        scheduledExecutorService = Executors.newScheduledThreadPool(initialNumberOfThreads);
+    private static ExecutorService erzeugeAusfuehrungsExecutor(IsyTaskConfigurationProperties.Default standard) {
+        switch (standard.getAusfuehrungsmodell()) {
+        case WORK_STEALING:
+            return Executors.newWorkStealingPool(standard.getAmountOfThreads());
+        case THREAD_POOL:
+        default:
+            return Executors.newFixedThreadPool(standard.getAmountOfThreads());
+        }
     }
 
     @Override
@@ -95,7 +157,7 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
 
         TaskRunner taskRunner = null;
         if (hostHandler.isHostApplicable(taskKonfiguration.getHostname())) {
-            taskRunner = new TaskRunnerImpl(task, taskKonfiguration);
+            taskRunner = new TaskRunnerImpl(task, taskKonfiguration, taskMetriken);
         }
         return taskRunner;
     }
@@ -106,10 +168,10 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
 
     @Override
     public synchronized void start() {
-        starteTasks(true);
+        starteTasks();
     }
 
-    private void starteTasks(boolean starteWatchdog) {
+    private synchronized void starteTasks() {
         for (TaskRunner taskRunner : zuStartendeTasks) {
             switch (taskRunner.getTaskKonfiguration().getAusfuehrungsplan()) {
             case ONCE:
@@ -121,11 +183,16 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
             case FIXED_DELAY:
                 scheduleWithFixedDelay(taskRunner);
                 break;
+            case CRON:
+                scheduleNachCron(taskRunner);
+                break;
             }
             String id = taskRunner.getTaskKonfiguration().getTaskId();
+            TaskAusfuehrung taskAusfuehrung = taskAusfuehrungen.get(id);
 
-            if (starteWatchdog && scheduledFutures.containsKey(id)) {
-                new Thread(new CompletionWatchdog(id)).start();
+            if (taskAusfuehrung != null && taskAusfuehrung.getTaskRunner() == taskRunner) {
+                taskAusfuehrung.getErgebnis().whenComplete(
+                    (ergebnis, fehler) -> new CompletionWatchdog(id, taskAusfuehrung).beiBeendigung(fehler));
             }
 
         }
@@ -133,7 +200,7 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
     }
 
     private synchronized void schedule(TaskRunner taskRunner) {
-        ScheduledFuture<?> scheduledFuture = null;
+        TaskAusfuehrung taskAusfuehrung = null;
         String taskId = taskRunner.getTaskKonfiguration().getTaskId();
 
         try {
@@ -141,16 +208,17 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
                 Duration delay = Duration.between(DateTimeUtil.localDateTimeNow(),
                     taskRunner.getTaskKonfiguration().getExecutionDateTime());
                 LOG.debug("Reihe TaskRunner {} ein (delay: {})", taskId, delay);
-                scheduledFuture =
-                    scheduledExecutorService.schedule(taskRunner, delay.toMillis(), MILLISECONDS);
+                taskAusfuehrung = erzeugeTaskAusfuehrung(taskRunner);
+                taskAusfuehrung.planeEinmalig(delay.toMillis());
             } else if (taskRunner.getTaskKonfiguration().getInitialDelay() != null) {
                 LOG.debug("Reihe TaskRunner {} ein (delay: {})", taskId,
                     taskRunner.getTaskKonfiguration().getInitialDelay());
-                scheduledFuture = scheduledExecutorService
-                    .schedule(taskRunner, taskRunner.getTaskKonfiguration().getInitialDelay().toMillis(),
-                        MILLISECONDS);
+                taskAusfuehrung = erzeugeTaskAusfuehrung(taskRunner);
+                taskAusfuehrung.planeEinmalig(taskRunner.getTaskKonfiguration().getInitialDelay().toMillis());
+            }
+            if (taskAusfuehrung != null) {
+                taskAusfuehrungen.put(taskId, taskAusfuehrung);
             }
-            scheduledFutures.put(taskId, scheduledFuture);
             laufendeTasks.add(taskRunner);
         } catch (Exception e) {
             taskRunner.getTask().zeichneFehlgeschlageneAusfuehrungAuf(e);
@@ -168,12 +236,12 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
 
         LOG.debug("Reihe TaskRunner {} ein (initial-delay: {}, fixed-rate: {})", taskId, initialDelay,
             fixedRate);
-        ScheduledFuture<?> scheduledFuture = null;
 
         try {
-            scheduledFuture = scheduledExecutorService
-                .scheduleAtFixedRate(taskRunner, initialDelay.toMillis(), fixedRate.toMillis(), MILLISECONDS);
-            scheduledFutures.put(taskId, scheduledFuture);
+            TaskAusfuehrung taskAusfuehrung = erzeugeTaskAusfuehrung(taskRunner);
+            taskAusfuehrung.planeMitFesterRate(initialDelay.toMillis(), fixedRate.toMillis(),
+                taskRunner.getTaskKonfiguration().getNachholmodus());
+            taskAusfuehrungen.put(taskId, taskAusfuehrung);
             laufendeTasks.add(taskRunner);
         } catch (Exception e) {
             taskRunner.getTask().zeichneFehlgeschlageneAusfuehrungAuf(e);
@@ -191,12 +259,30 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
 
         LOG.debug("Reihe TaskRunner {} ein (initial-delay: {}, fixed-delay: {})", taskId, initialDelay,
             fixedDelay);
-        ScheduledFuture<?> scheduledFuture = null;
         try {
-            scheduledFuture = scheduledExecutorService
-                .scheduleWithFixedDelay(taskRunner, initialDelay.toMillis(), fixedDelay.toMillis(),
-                    MILLISECONDS);
-            scheduledFutures.put(taskId, scheduledFuture);
+            TaskAusfuehrung taskAusfuehrung = erzeugeTaskAusfuehrung(taskRunner);
+            taskAusfuehrung.planeMitFesterVerzoegerung(initialDelay.toMillis(), fixedDelay.toMillis());
+            taskAusfuehrungen.put(taskId, taskAusfuehrung);
+            laufendeTasks.add(taskRunner);
+        } catch (Exception e) {
+            taskRunner.getTask().zeichneFehlgeschlageneAusfuehrungAuf(e);
+
+            String msg = MessageSourceHolder
+                .getMessage(FehlerSchluessel.TASK_KONNTE_NICHT_EINGEREIHT_WERDEN, taskId);
+            LOG.error(FehlerSchluessel.TASK_KONNTE_NICHT_EINGEREIHT_WERDEN, msg, e);
+        }
+    }
+
+    private synchronized void scheduleNachCron(TaskRunner taskRunner) {
+        CronAusdruck cronAusdruck = taskRunner.getTaskKonfiguration().getCronAusdruck();
+        TaskKonfiguration.Nachholmodus nachholmodus = taskRunner.getTaskKonfiguration().getNachholmodus();
+        String taskId = taskRunner.getTaskKonfiguration().getTaskId();
+
+        LOG.debug("Reihe TaskRunner {} ein (cron: {}, nachholmodus: {})", taskId, cronAusdruck, nachholmodus);
+        try {
+            TaskAusfuehrung taskAusfuehrung = erzeugeTaskAusfuehrung(taskRunner);
+            taskAusfuehrung.planeNachCron(cronAusdruck, nachholmodus);
+            taskAusfuehrungen.put(taskId, taskAusfuehrung);
             laufendeTasks.add(taskRunner);
         } catch (Exception e) {
             taskRunner.getTask().zeichneFehlgeschlageneAusfuehrungAuf(e);
@@ -207,65 +293,92 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
         }
     }
 
+    private TaskAusfuehrung erzeugeTaskAusfuehrung(TaskRunner taskRunner) {
+        return new TaskAusfuehrung(taskRunner, scheduledExecutorService, ausfuehrungsExecutorService,
+            taskMetriken);
+    }
 
     @Override
     public boolean shutdownMitTimeout(long seconds) throws InterruptedException {
+        long ende = System.nanoTime() + SECONDS.toNanos(seconds);
+
+        // Periodische Tasks werden abgebrochen, bereits eingereihte einmalige Tasks noch ausgeführt.
+        for (TaskAusfuehrung taskAusfuehrung : taskAusfuehrungen.values()) {
+            if (taskAusfuehrung.isPeriodisch()) {
+                taskAusfuehrung.abbrechen();
+            }
+        }
         scheduledExecutorService.shutdown();
-        return scheduledExecutorService.awaitTermination(seconds, SECONDS);
-    }
+        boolean beendet = scheduledExecutorService.awaitTermination(ende - System.nanoTime(), NANOSECONDS);
 
-    private class CompletionWatchdog implements Runnable {
+        ausfuehrungsExecutorService.shutdown();
+        return ausfuehrungsExecutorService.awaitTermination(ende - System.nanoTime(), NANOSECONDS) && beendet;
+    }
 
-        private boolean stop = false;
+    /**
+     * Verarbeitet das Ende der Ausführungen eines Tasks. Wird als Callback der {@link TaskAusfuehrung}
+     * aufgerufen und blockiert keinen Thread.
+     */
+    private class CompletionWatchdog {
 
         private final String taskId;
 
-        CompletionWatchdog(String taskId) {
+        private final TaskAusfuehrung taskAusfuehrung;
+
+        CompletionWatchdog(String taskId, TaskAusfuehrung taskAusfuehrung) {
             this.taskId = taskId;
+            this.taskAusfuehrung = taskAusfuehrung;
         }
 
-        @Override
-        public void run() {
-            ScheduledFuture<?> taskFuture = scheduledFutures.get(taskId);
+        void beiBeendigung(Throwable fehler) {
+            if (fehler instanceof CompletionException && fehler.getCause() != null) {
+                fehler = fehler.getCause();
+            }
+
+            if (fehler == null) {
+                entferneLaufendenTask();
+            } else if (fehler instanceof CancellationException) {
+                String nachricht =
+                    MessageSourceHolder.getMessage(Ereignisschluessel.TASK_WURDE_ABGEBROCHEN, taskId);
+                LOG.info(LogKategorie.JOURNAL, Ereignisschluessel.TASK_WURDE_ABGEBROCHEN,
+                    DateTimeUtil.localDateTimeNow() + " " + nachricht);
+
+                entferneLaufendenTask();
+            } else {
+                String nachricht = MessageSourceHolder
+                    .getMessage(Ereignisschluessel.TASK_WURDE_FEHLERHAFT_BEENDET, taskId, fehler.toString());
+                LOG.warn(Ereignisschluessel.TASK_WURDE_FEHLERHAFT_BEENDET, nachricht);
+
+                if (scheduledExecutorService.isShutdown()) {
+                    entferneLaufendenTask();
+                    return;
+                }
 
-            do {
                 try {
-                    taskFuture.get();
-
-                    entferneLaufendenTask(taskId);
-
-                    stop = true;
-                } catch (CancellationException e) {
-                    String nachricht =
-                        MessageSourceHolder.getMessage(Ereignisschluessel.TASK_WURDE_ABGEBROCHEN, taskId);
-                    LOG.info(LogKategorie.JOURNAL, Ereignisschluessel.TASK_WURDE_ABGEBROCHEN,
-                        DateTimeUtil.localDateTimeNow() + " " + nachricht);
-
-                    entferneLaufendenTask(taskId);
-
-                    stop = true;
-                } catch (ExecutionException e) {
-                    String nachricht = MessageSourceHolder
-                        .getMessage(Ereignisschluessel.TASK_WURDE_FEHLERHAFT_BEENDET, taskId, e.getMessage());
-                    LOG.warn(Ereignisschluessel.TASK_WURDE_FEHLERHAFT_BEENDET, nachricht);
-
-                    if (scheduledExecutorService.isShutdown()) {
-                        break;
-                    }
-
-                    addTask(taskId);
-                    starteTasks(false);
-                    taskFuture = scheduledFutures.get(taskId);
-
-                    try {
-                        SECONDS.sleep(configurationProperties.getWatchdog().getRestartInterval().getSeconds());
-                    } catch (InterruptedException ie) {
-                        stop = true;
-                    }
-                } catch (InterruptedException e) {
-                    stop = true;
+                    scheduledExecutorService.schedule(this::starteNeu, berechneVerzoegerung(), NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    entferneLaufendenTask();
                 }
-            } while (!stop);
+            }
+        }
+
+        /**
+         * Der erste Neustart erfolgt sofort, jeder weitere frühestens nach dem Restart-Intervall.
+         */
+        private long berechneVerzoegerung() {
+            Long letzterNeustart = letzteNeustarts.get(taskId);
+            if (letzterNeustart == null) {
+                return 0;
+            }
+            long restartInterval = configurationProperties.getWatchdog().getRestartInterval().toNanos();
+            return Math.max(0, letzterNeustart + restartInterval - System.nanoTime());
+        }
+
+        private void starteNeu() {
+            letzteNeustarts.put(taskId, System.nanoTime());
+            entferneLaufendenTask();
+            addTask(taskId);
+            starteTasks();
         }
 
         private void addTask(String id) {
@@ -277,9 +390,9 @@ public class TaskSchedulerImpl implements TaskScheduler, ApplicationContextAware
             }
         }
 
-        private void entferneLaufendenTask(String taskId) {
-            scheduledFutures.remove(taskId);
-            laufendeTasks.removeIf(t -> t.getTaskKonfiguration().getTaskId().equals(taskId));
+        private void entferneLaufendenTask() {
+            taskAusfuehrungen.remove(taskId, taskAusfuehrung);
+            laufendeTasks.remove(taskAusfuehrung.getTaskRunner());
         }
     }
 
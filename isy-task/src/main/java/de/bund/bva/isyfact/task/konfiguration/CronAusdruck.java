@@ -0,0 +1,240 @@
+package de.bund.bva.isyfact.task.konfiguration;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.util.Objects;
+
+/**
+ * Vorkompilierter Cron-Ausdruck mit den fünf Feldern Minute, Stunde, Tag, Monat und Wochentag, z.B.
+ * {@code 0 2 * * *} für jede Nacht um 02:00 Uhr.
+ * <p>
+ * Jedes Feld unterstützt {@code *}, einzelne Werte, Bereiche ({@code 8-17}), Listen ({@code 1,15}) und
+ * Schrittweiten ({@code *}{@code /15}, {@code 0-30/10}). Wochentage werden mit 0 bis 7 angegeben, wobei 0
+ * und 7 für Sonntag stehen. Sind Tag und Wochentag beide eingeschränkt, genügt wie bei Cron üblich die
+ * Übereinstimmung eines der beiden Felder.
+ * <p>
+ * Die Felder werden beim Parsen in Bitmasken übersetzt. Die Berechnung des nächsten Zeitpunkts springt
+ * mit Bit-Operationen zum nächsten passenden Wert und erzeugt außer dem Ergebnis keine Objekte.
+ */
+public final class CronAusdruck {
+
+    /**
+     * Maximale Anzahl an Jahren, die nach einem Zeitpunkt gesucht wird. Acht Jahre decken auch den
+     * 29. Februar über ein Jahrhundert ohne Schaltjahr hinweg ab.
+     */
+    private static final int MAX_JAHRE = 8;
+
+    /** Versatz je Monat zur Berechnung des Wochentags nach Sakamoto. */
+    private static final int[] WOCHENTAG_VERSATZ = {0, 3, 2, 5, 0, 3, 5, 1, 4, 6, 2, 4};
+
+    private final String ausdruck;
+
+    private final long minuten;
+
+    private final long stunden;
+
+    private final long tage;
+
+    private final long monate;
+
+    private final long wochentage;
+
+    private final boolean tageUndWochentageEingeschraenkt;
+
+    private CronAusdruck(String ausdruck, long minuten, long stunden, long tage, long monate, long wochentage,
+        boolean tageUndWochentageEingeschraenkt) {
+        this.ausdruck = ausdruck;
+        this.minuten = minuten;
+        this.stunden = stunden;
+        this.tage = tage;
+        this.monate = monate;
+        this.wochentage = wochentage;
+        this.tageUndWochentageEingeschraenkt = tageUndWochentageEingeschraenkt;
+    }
+
+    /**
+     * Parst einen Cron-Ausdruck.
+     *
+     * @param ausdruck der Cron-Ausdruck mit fünf durch Leerzeichen getrennten Feldern
+     * @return der vorkompilierte {@link CronAusdruck}
+     * @throws IllegalArgumentException wenn der Ausdruck ungültig ist
+     */
+    public static CronAusdruck parse(String ausdruck) {
+        Objects.requireNonNull(ausdruck);
+
+        String[] felder = ausdruck.trim().split("\\s+");
+        if (felder.length != 5) {
+            throw new IllegalArgumentException(
+                "Cron-Ausdruck '" + ausdruck + "' muss aus fünf Feldern bestehen");
+        }
+
+        long wochentage = parseFeld(ausdruck, felder[4], 0, 7);
+        if ((wochentage & 1L << 7) != 0) {
+            wochentage = wochentage & ~(1L << 7) | 1L;
+        }
+
+        return new CronAusdruck(ausdruck, parseFeld(ausdruck, felder[0], 0, 59),
+            parseFeld(ausdruck, felder[1], 0, 23), parseFeld(ausdruck, felder[2], 1, 31),
+            parseFeld(ausdruck, felder[3], 1, 12), wochentage,
+            !felder[2].startsWith("*") && !felder[4].startsWith("*"));
+    }
+
+    private static long parseFeld(String ausdruck, String feld, int min, int max) {
+        long bits = 0;
+
+        for (String teil : feld.split(",")) {
+            try {
+                int schrittweite = 1;
+                String bereich = teil;
+                int schrittPosition = teil.indexOf('/');
+                if (schrittPosition >= 0) {
+                    schrittweite = Integer.parseInt(teil.substring(schrittPosition + 1));
+                    bereich = teil.substring(0, schrittPosition);
+                }
+
+                int von;
+                int bis;
+                if ("*".equals(bereich)) {
+                    von = min;
+                    bis = max;
+                } else {
+                    int bereichPosition = bereich.indexOf('-');
+                    if (bereichPosition >= 0) {
+                        von = Integer.parseInt(bereich.substring(0, bereichPosition));
+                        bis = Integer.parseInt(bereich.substring(bereichPosition + 1));
+                    } else {
+                        von = Integer.parseInt(bereich);
+                        bis = schrittPosition >= 0 ? max : von;
+                    }
+                }
+
+                if (schrittweite < 1 || von < min || bis > max || von > bis) {
+                    throw new IllegalArgumentException(
+                        "Ungültiges Feld '" + feld + "' im Cron-Ausdruck '" + ausdruck + "'");
+                }
+                for (int wert = von; wert <= bis; wert += schrittweite) {
+                    bits |= 1L << wert;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                    "Ungültiges Feld '" + feld + "' im Cron-Ausdruck '" + ausdruck + "'", e);
+            }
+        }
+
+        return bits;
+    }
+
+    /**
+     * Berechnet den ersten Zeitpunkt dieses Ausdrucks, der echt nach dem übergebenen Zeitpunkt liegt.
+     *
+     * @param nach der Zeitpunkt, nach dem gesucht wird
+     * @return der nächste Zeitpunkt (volle Minute) oder {@code null}, wenn es innerhalb der nächsten Jahre
+     * keinen passenden Zeitpunkt gibt
+     */
+    public LocalDateTime naechsteAusfuehrung(LocalDateTime nach) {
+        int jahr = nach.getYear();
+        int monat = nach.getMonthValue();
+        int tag = nach.getDayOfMonth();
+        int stunde = nach.getHour();
+        int minute = nach.getMinute() + 1;
+        int letztesJahr = jahr + MAX_JAHRE;
+
+        while (jahr <= letztesJahr) {
+            int naechsterMonat = naechstesBit(monate, monat);
+            if (naechsterMonat < 0) {
+                jahr++;
+                monat = 1;
+                tag = 1;
+                stunde = 0;
+                minute = 0;
+                continue;
+            }
+            if (naechsterMonat != monat) {
+                monat = naechsterMonat;
+                tag = 1;
+                stunde = 0;
+                minute = 0;
+            }
+
+            int naechsterTag = naechsterTag(jahr, monat, tag);
+            if (naechsterTag < 0) {
+                monat++;
+                tag = 1;
+                stunde = 0;
+                minute = 0;
+                continue;
+            }
+            if (naechsterTag != tag) {
+                tag = naechsterTag;
+                stunde = 0;
+                minute = 0;
+            }
+
+            int naechsteStunde = naechstesBit(stunden, stunde);
+            if (naechsteStunde < 0) {
+                tag++;
+                stunde = 0;
+                minute = 0;
+                continue;
+            }
+            if (naechsteStunde != stunde) {
+                stunde = naechsteStunde;
+                minute = 0;
+            }
+
+            int naechsteMinute = naechstesBit(minuten, minute);
+            if (naechsteMinute < 0) {
+                stunde++;
+                minute = 0;
+                continue;
+            }
+
+            return LocalDateTime.of(jahr, monat, tag, stunde, naechsteMinute);
+        }
+
+        return null;
+    }
+
+    private int naechsterTag(int jahr, int monat, int ab) {
+        int laenge = Month.of(monat).length(Year.isLeap(jahr));
+        int wochentag = wochentag(jahr, monat, ab);
+
+        for (int tag = ab; tag <= laenge; tag++) {
+            boolean tagPasst = (tage & 1L << tag) != 0;
+            boolean wochentagPasst = (wochentage & 1L << wochentag) != 0;
+            if (tageUndWochentageEingeschraenkt ? tagPasst || wochentagPasst : tagPasst && wochentagPasst) {
+                return tag;
+            }
+            wochentag = (wochentag + 1) % 7;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gibt das kleinste gesetzte Bit ab der übergebenen Position zurück oder -1, wenn es keines gibt.
+     */
+    private static int naechstesBit(long bits, int ab) {
+        if (ab >= Long.SIZE) {
+            return -1;
+        }
+        long rest = bits & -1L << ab;
+        return rest == 0 ? -1 : Long.numberOfTrailingZeros(rest);
+    }
+
+    /**
+     * Berechnet den Wochentag eines Datums (0 = Sonntag).
+     */
+    private static int wochentag(int jahr, int monat, int tag) {
+        if (monat < 3) {
+            jahr--;
+        }
+        return (jahr + jahr / 4 - jahr / 100 + jahr / 400 + WOCHENTAG_VERSATZ[monat - 1] + tag) % 7;
+    }
+
+    @Override
+    public String toString() {
+        return ausdruck;
+    }
+}
@@ -10,7 +10,26 @@ import de.bund.bva.isyfact.task.sicherheit.Authenticator;
  */
 public class TaskKonfiguration {
 
-    public enum Ausfuehrungsplan {ONCE, FIXED_RATE, FIXED_DELAY}
+    public enum Ausfuehrungsplan {ONCE, FIXED_RATE, FIXED_DELAY, CRON}
+
+    /**
+     * Legt fest, wie mit Zeitpunkten umgegangen wird, die verpasst wurden, weil eine Ausführung zu lange lief
+     * oder die Uhr gesprungen ist. Gilt für {@link Ausfuehrungsplan#CRON} und {@link Ausfuehrungsplan#FIXED_RATE}.
+     * Ist kein Nachholmodus gesetzt, gilt bei {@link Ausfuehrungsplan#CRON} {@link #EINMAL} und bei
+     * {@link Ausfuehrungsplan#FIXED_RATE} wie bei {@link java.util.concurrent.ScheduledExecutorService}
+     * {@link #ALLE}.
+     */
+    public enum Nachholmodus {
+
+        /** Verpasste Zeitpunkte werden übersprungen. */
+        UEBERSPRINGEN,
+
+        /** Verpasste Zeitpunkte werden zu einer einzigen sofortigen Ausführung zusammengefasst. */
+        EINMAL,
+
+        /** Jeder verpasste Zeitpunkt wird durch eine eigene Ausführung nachgeholt. */
+        ALLE
+    }
 
     private String taskId;
 
@@ -24,6 +43,10 @@ public class TaskKonfiguration {
 
     private Duration fixedDelay;
 
+    private CronAusdruck cronAusdruck;
+
+    private Nachholmodus nachholmodus;
+
     private String hostname;
 
     private Authenticator authenticator;
@@ -52,6 +75,14 @@ public class TaskKonfiguration {
         this.fixedDelay = fixedDelay;
     }
 
+    public void setCronAusdruck(CronAusdruck cronAusdruck) {
+        this.cronAusdruck = cronAusdruck;
+    }
+
+    public void setNachholmodus(Nachholmodus nachholmodus) {
+        this.nachholmodus = nachholmodus;
+    }
+
     public void setHostname(String hostname) {
         this.hostname = hostname;
     }
@@ -84,6 +115,14 @@ public class TaskKonfiguration {
         return fixedDelay;
     }
 
+    public CronAusdruck getCronAusdruck() {
+        return cronAusdruck;
+    }
+
+    public Nachholmodus getNachholmodus() {
+        return nachholmodus;
+    }
+
     public String getHostname() {
         return hostname;
     }
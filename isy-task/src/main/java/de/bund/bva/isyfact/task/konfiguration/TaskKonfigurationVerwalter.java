@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
+import de.bund.bva.isyfact.datetime.util.DateTimeUtil;
 import de.bund.bva.isyfact.logging.IsyLogger;
 import de.bund.bva.isyfact.logging.IsyLoggerFactory;
 import de.bund.bva.isyfact.logging.LogKategorie;
@@ -61,6 +62,8 @@ public class TaskKonfigurationVerwalter {
         taskKonfiguration.setInitialDelay(configurationProperties.getTasks().get(taskId).getInitialDelay());
         taskKonfiguration.setFixedRate(configurationProperties.getTasks().get(taskId).getFixedRate());
         taskKonfiguration.setFixedDelay(configurationProperties.getTasks().get(taskId).getFixedDelay());
+        taskKonfiguration.setCronAusdruck(getCronAusdruck(taskId));
+        taskKonfiguration.setNachholmodus(configurationProperties.getTasks().get(taskId).getNachholmodus());
 
         pruefeTaskKonfiguration(taskKonfiguration);
 
@@ -97,6 +100,14 @@ public class TaskKonfigurationVerwalter {
             taskKonfiguration.getAusfuehrungsplan().equals(TaskKonfiguration.Ausfuehrungsplan.FIXED_DELAY)
                 && taskKonfiguration.getFixedDelay() == null) {
             throw new TaskKonfigurationInvalidException("FixedDelay ist null");
+        } else if (taskKonfiguration.getAusfuehrungsplan().equals(TaskKonfiguration.Ausfuehrungsplan.CRON)) {
+            if (taskKonfiguration.getCronAusdruck() == null) {
+                throw new TaskKonfigurationInvalidException("Cron-Ausdruck ist null");
+            } else if (taskKonfiguration.getCronAusdruck().naechsteAusfuehrung(DateTimeUtil.localDateTimeNow())
+                == null) {
+                throw new TaskKonfigurationInvalidException(
+                    "Cron-Ausdruck " + taskKonfiguration.getCronAusdruck() + " liefert keinen Zeitpunkt");
+            }
         }
     }
 
@@ -120,6 +131,20 @@ public class TaskKonfigurationVerwalter {
         }
     }
 
+    private CronAusdruck getCronAusdruck(String taskId) {
+        String cron = configurationProperties.getTasks().get(taskId).getCron();
+
+        if (cron != null) {
+            try {
+                return CronAusdruck.parse(cron);
+            } catch (IllegalArgumentException e) {
+                throw new TaskKonfigurationInvalidException(e.getMessage());
+            }
+        } else {
+            return null;
+        }
+    }
+
     private String getHostname(String taskId) {
         String host = configurationProperties.getTasks().get(taskId).getHost();
 
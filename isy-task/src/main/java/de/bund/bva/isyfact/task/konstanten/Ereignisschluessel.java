@@ -9,4 +9,8 @@ public abstract class Ereignisschluessel {
 
     public static final String TASK_WURDE_FEHLERHAFT_BEENDET = "ISYTA10002";
 
+    public static final String TASK_UEBERLAUF = "ISYTA10004";
+
+    public static final String AUTHENTIFIZIERUNG_NICHT_ERNEUERT = "ISYTA10005";
+
 }
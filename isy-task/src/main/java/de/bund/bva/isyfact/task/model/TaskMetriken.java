@@ -0,0 +1,49 @@
+package de.bund.bva.isyfact.task.model;
+
+/**
+ * Nimmt Messwerte zu den Ausführungen der Tasks auf. Alle Dauern werden in Nanosekunden übergeben.
+ */
+public interface TaskMetriken {
+
+    /**
+     * Zeichnet die Dauer der Anmeldung vor einer Ausführung auf. Schlägt die Anmeldung fehl, wird der Task
+     * nicht ausgeführt und keine Ausführung aufgezeichnet.
+     *
+     * @param taskId      die ID des Tasks
+     * @param dauerNanos  die Dauer der Anmeldung
+     * @param erfolgreich ob die Anmeldung erfolgreich war
+     */
+    void zeichneAnmeldungAuf(String taskId, long dauerNanos, boolean erfolgreich);
+
+    /**
+     * Zeichnet die Dauer einer Ausführung ohne An- und Abmeldung auf.
+     *
+     * @param taskId      die ID des Tasks
+     * @param dauerNanos  die Dauer der Ausführung
+     * @param erfolgreich ob die Ausführung erfolgreich war
+     */
+    void zeichneAusfuehrungAuf(String taskId, long dauerNanos, boolean erfolgreich);
+
+    /**
+     * Zeichnet die Dauer der Abmeldung nach einer Ausführung auf.
+     *
+     * @param taskId     die ID des Tasks
+     * @param dauerNanos die Dauer der Abmeldung
+     */
+    void zeichneAbmeldungAuf(String taskId, long dauerNanos);
+
+    /**
+     * Zeichnet auf, dass ein Ausführungszeitpunkt in eine noch laufende Ausführung gefallen ist.
+     *
+     * @param taskId die ID des Tasks
+     */
+    void zeichneUeberlaufAuf(String taskId);
+
+    /**
+     * Zeichnet die Zeit auf, die eine ausgelöste Ausführung auf einen freien Thread gewartet hat.
+     *
+     * @param taskId            die ID des Tasks
+     * @param verzoegerungNanos die Wartezeit
+     */
+    void zeichneWarteschlangenVerzoegerungAuf(String taskId, long verzoegerungNanos);
+}
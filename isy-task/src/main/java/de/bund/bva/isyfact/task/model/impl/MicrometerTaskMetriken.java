@@ -0,0 +1,114 @@
+package de.bund.bva.isyfact.task.model.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.bund.bva.isyfact.task.model.TaskMetriken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Implementierung von {@link TaskMetriken}, die die Messwerte je Task als Micrometer-Metriken mit dem Tag
+ * {@code task} bereitstellt:
+ * <ul>
+ * <li>{@code isy.task.ausfuehrung}: Dauer der Ausführungen als Histogramm, getrennt nach {@code ergebnis},</li>
+ * <li>{@code isy.task.anmeldung}: Dauer der Anmeldungen, getrennt nach {@code ergebnis},</li>
+ * <li>{@code isy.task.abmeldung}: Dauer der Abmeldungen,</li>
+ * <li>{@code isy.task.ueberlauf}: Ausführungszeitpunkte, die in eine laufende Ausführung gefallen sind,</li>
+ * <li>{@code isy.task.warteschlange.verzoegerung}: Wartezeit der letzten Ausführung auf einen Thread.</li>
+ * </ul>
+ */
+public class MicrometerTaskMetriken implements TaskMetriken {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Messwerte> messwerte = new ConcurrentHashMap<>();
+
+    public MicrometerTaskMetriken(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void zeichneAnmeldungAuf(String taskId, long dauerNanos, boolean erfolgreich) {
+        Messwerte messwerteTask = getMesswerte(taskId);
+        (erfolgreich ? messwerteTask.anmeldungErfolgreich : messwerteTask.anmeldungFehlerhaft)
+            .record(dauerNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void zeichneAusfuehrungAuf(String taskId, long dauerNanos, boolean erfolgreich) {
+        Messwerte messwerteTask = getMesswerte(taskId);
+        (erfolgreich ? messwerteTask.ausfuehrungErfolgreich : messwerteTask.ausfuehrungFehlerhaft)
+            .record(dauerNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void zeichneAbmeldungAuf(String taskId, long dauerNanos) {
+        getMesswerte(taskId).abmeldung.record(dauerNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void zeichneUeberlaufAuf(String taskId) {
+        getMesswerte(taskId).ueberlaeufe.increment();
+    }
+
+    @Override
+    public void zeichneWarteschlangenVerzoegerungAuf(String taskId, long verzoegerungNanos) {
+        getMesswerte(taskId).warteschlangenVerzoegerung.set(verzoegerungNanos);
+    }
+
+    private Messwerte getMesswerte(String taskId) {
+        return messwerte.computeIfAbsent(taskId, Messwerte::new);
+    }
+
+    /**
+     * Die Metriken eines Tasks. Sie werden beim ersten Messwert des Tasks registriert.
+     */
+    private class Messwerte {
+
+        private final Timer anmeldungErfolgreich;
+
+        private final Timer anmeldungFehlerhaft;
+
+        private final Timer ausfuehrungErfolgreich;
+
+        private final Timer ausfuehrungFehlerhaft;
+
+        private final Timer abmeldung;
+
+        private final Counter ueberlaeufe;
+
+        private final AtomicLong warteschlangenVerzoegerung = new AtomicLong();
+
+        Messwerte(String taskId) {
+            anmeldungErfolgreich = erzeugeAnmeldungTimer(taskId, "erfolgreich");
+            anmeldungFehlerhaft = erzeugeAnmeldungTimer(taskId, "fehlerhaft");
+            ausfuehrungErfolgreich = erzeugeAusfuehrungTimer(taskId, "erfolgreich");
+            ausfuehrungFehlerhaft = erzeugeAusfuehrungTimer(taskId, "fehlerhaft");
+            abmeldung = Timer.builder("isy.task.abmeldung").tag("task", taskId)
+                .description("Dauer der Abmeldung nach den Ausführungen des Tasks").register(meterRegistry);
+            ueberlaeufe = Counter.builder("isy.task.ueberlauf").tag("task", taskId)
+                .description("Ausführungszeitpunkte, die in eine laufende Ausführung des Tasks gefallen sind")
+                .register(meterRegistry);
+            TimeGauge.builder("isy.task.warteschlange.verzoegerung", warteschlangenVerzoegerung,
+                TimeUnit.NANOSECONDS, AtomicLong::doubleValue).tag("task", taskId)
+                .description("Wartezeit der letzten Ausführung des Tasks auf einen freien Thread")
+                .register(meterRegistry);
+        }
+
+        private Timer erzeugeAnmeldungTimer(String taskId, String ergebnis) {
+            return Timer.builder("isy.task.anmeldung").tag("task", taskId).tag("ergebnis", ergebnis)
+                .description("Dauer der Anmeldung vor den Ausführungen des Tasks").register(meterRegistry);
+        }
+
+        private Timer erzeugeAusfuehrungTimer(String taskId, String ergebnis) {
+            return Timer.builder("isy.task.ausfuehrung").tag("task", taskId).tag("ergebnis", ergebnis)
+                .description("Dauer der Ausführungen des Tasks ohne An- und Abmeldung")
+                .publishPercentileHistogram().register(meterRegistry);
+        }
+    }
+}
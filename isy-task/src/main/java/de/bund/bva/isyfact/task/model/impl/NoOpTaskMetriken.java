@@ -0,0 +1,34 @@
+package de.bund.bva.isyfact.task.model.impl;
+
+import de.bund.bva.isyfact.task.model.TaskMetriken;
+
+/**
+ * Implementierung von {@link TaskMetriken}, die keine Messwerte aufnimmt.
+ */
+public class NoOpTaskMetriken implements TaskMetriken {
+
+    @Override
+    public void zeichneAnmeldungAuf(String taskId, long dauerNanos, boolean erfolgreich) {
+        // leer
+    }
+
+    @Override
+    public void zeichneAusfuehrungAuf(String taskId, long dauerNanos, boolean erfolgreich) {
+        // leer
+    }
+
+    @Override
+    public void zeichneAbmeldungAuf(String taskId, long dauerNanos) {
+        // leer
+    }
+
+    @Override
+    public void zeichneUeberlaufAuf(String taskId) {
+        // leer
+    }
+
+    @Override
+    public void zeichneWarteschlangenVerzoegerungAuf(String taskId, long verzoegerungNanos) {
+        // leer
+    }
+}
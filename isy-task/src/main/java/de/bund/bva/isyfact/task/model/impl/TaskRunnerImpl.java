@@ -5,19 +5,28 @@ import java.util.UUID;
 import de.bund.bva.isyfact.logging.util.MdcHelper;
 import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration;
 import de.bund.bva.isyfact.task.model.Task;
+import de.bund.bva.isyfact.task.model.TaskMetriken;
 import de.bund.bva.isyfact.task.model.TaskRunner;
 import de.bund.bva.isyfact.task.sicherheit.Authenticator;
 
 public class TaskRunnerImpl implements TaskRunner {
+
     private final Task task;
 
     private final TaskKonfiguration taskKonfiguration;
 
     private final Authenticator authenticator;
 
+    private final TaskMetriken taskMetriken;
+
     public TaskRunnerImpl(Task task, TaskKonfiguration taskKonfiguration) {
+        this(task, taskKonfiguration, new NoOpTaskMetriken());
+    }
+
+    public TaskRunnerImpl(Task task, TaskKonfiguration taskKonfiguration, TaskMetriken taskMetriken) {
         this.task = task;
         this.taskKonfiguration = taskKonfiguration;
+        this.taskMetriken = taskMetriken;
         authenticator = taskKonfiguration.getAuthenticator();
     }
 
@@ -27,22 +36,48 @@ public class TaskRunnerImpl implements TaskRunner {
             return;
         }
 
+        String taskId = taskKonfiguration.getTaskId();
         try {
             MdcHelper.pushKorrelationsId(UUID.randomUUID().toString());
-            authenticator.login();
-
-            task.execute();
+            meldeAn(taskId);
+            long beginn = System.nanoTime();
+            try {
+                task.execute();
+            } catch (Exception e) {
+                taskMetriken.zeichneAusfuehrungAuf(taskId, System.nanoTime() - beginn, false);
+                throw e;
+            }
+            taskMetriken.zeichneAusfuehrungAuf(taskId, System.nanoTime() - beginn, true);
 
             task.zeichneErfolgreicheAusfuehrungAuf();
         } catch (Exception e) {
+            authenticator.verwirfAuthentifizierung();
             task.zeichneFehlgeschlageneAusfuehrungAuf(e);
             throw e;
         } finally {
+            long beginn = System.nanoTime();
             authenticator.logout();
+            taskMetriken.zeichneAbmeldungAuf(taskId, System.nanoTime() - beginn);
             MdcHelper.entferneKorrelationsId();
         }
     }
 
+    /**
+     * Meldet den Task an und zeichnet die Dauer der Anmeldung auf. Eine fehlgeschlagene Anmeldung wird nur
+     * als Anmeldung, nicht als Ausführung aufgezeichnet.
+     *
+     * @param taskId die ID des Tasks
+     */
+    private void meldeAn(String taskId) {
+        long beginn = System.nanoTime();
+        try {
+            authenticator.login();
+        } catch (RuntimeException e) {
+            taskMetriken.zeichneAnmeldungAuf(taskId, System.nanoTime() - beginn, false);
+            throw e;
+        }
+        taskMetriken.zeichneAnmeldungAuf(taskId, System.nanoTime() - beginn, true);
+    }
 
     @Override
     public Task getTask() {
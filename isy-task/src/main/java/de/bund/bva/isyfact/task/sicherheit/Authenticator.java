@@ -17,4 +17,13 @@ public interface Authenticator {
      * Logout nach Beendigung des Tasks.
      */
     void logout();
+
+    /**
+     * Verwirft eine für weitere Ausführungen vorgehaltene Authentifizierung, sodass der nächste Login neu
+     * authentifiziert. Wird aufgerufen, wenn eine Ausführung fehlschlägt, z.B. weil die Authentifizierung
+     * beim AccessManager abgelaufen ist. Standardmäßig wird keine Authentifizierung vorgehalten.
+     */
+    default void verwirfAuthentifizierung() {
+        // leer
+    }
 }
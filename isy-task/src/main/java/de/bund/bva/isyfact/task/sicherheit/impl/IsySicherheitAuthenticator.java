@@ -1,22 +1,52 @@
 package de.bund.bva.isyfact.task.sicherheit.impl;
 
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
 import de.bund.bva.isyfact.logging.util.MdcHelper;
+import de.bund.bva.isyfact.task.konstanten.Ereignisschluessel;
 import de.bund.bva.isyfact.task.sicherheit.Authenticator;
 import de.bund.bva.isyfact.aufrufkontext.AufrufKontext;
 import de.bund.bva.isyfact.aufrufkontext.AufrufKontextFactory;
 import de.bund.bva.isyfact.aufrufkontext.AufrufKontextVerwalter;
 import de.bund.bva.isyfact.sicherheit.Sicherheit;
+import de.bund.bva.isyfact.util.spring.MessageSourceHolder;
 
 /**
  * Implementierung von {@link Authenticator} für die Verwendung von isy-sicherheit.
+ * <p>
+ * Ist eine Sitzungsdauer gesetzt, wird der authentifizierte {@link AufrufKontext} für die folgenden
+ * Ausführungen wiederverwendet, bis die Sitzungsdauer abläuft oder eine Ausführung fehlschlägt. Läuft die
+ * Sitzung im letzten Viertel ihrer Dauer, stößt der Logout eine vorzeitige Erneuerung im Hintergrund an.
+ * Bis zu deren Abschluss wird die bisherige Sitzung weiterverwendet. Weder die Ausführung noch die folgende
+ * Ausführung warten dadurch auf den AccessManager.
  */
 public class IsySicherheitAuthenticator implements Authenticator {
+    private static final IsyLogger LOG = IsyLoggerFactory.getLogger(IsySicherheitAuthenticator.class);
+
     private String username;
     private String password;
     private String behoerdenkennzeichen;
     private Sicherheit<AufrufKontext> sicherheit;
     private AufrufKontextFactory<AufrufKontext> aufrufKontextFactory;
     private AufrufKontextVerwalter<AufrufKontext> aufrufKontextVerwalter;
+    private final long sitzungsdauerNanos;
+    private final Executor erneuerungsExecutor;
+
+    /** Der authentifizierte Aufrufkontext, der wiederverwendet wird, oder {@code null}. */
+    private AufrufKontext sitzung;
+
+    /** Ende der Sitzung in {@link System#nanoTime()}. */
+    private long sitzungsende;
+
+    /** Wird bei jedem Ersetzen oder Verwerfen der Sitzung erhöht. */
+    private long sitzungsnummer;
+
+    /** Kennzeichen, ob eine vorzeitige Erneuerung der Sitzung läuft. */
+    private boolean erneuerungLaeuft;
 
     /**
      *  Erstellt eine Instanz eines {@link Authenticator} für isy-sicherheit.
@@ -35,27 +65,119 @@ public class IsySicherheitAuthenticator implements Authenticator {
             AufrufKontextVerwalter<AufrufKontext> aufrufKontextVerwalter,
             AufrufKontextFactory<AufrufKontext> aufrufKontextFactory,
             Sicherheit<AufrufKontext> sicherheit) {
+        this(username, password, behoerdenkennzeichen, aufrufKontextVerwalter, aufrufKontextFactory, sicherheit,
+            Duration.ZERO, Runnable::run);
+    }
+
+    /**
+     *  Erstellt eine Instanz eines {@link Authenticator} für isy-sicherheit, die eine Authentifizierung über
+     *  mehrere Ausführungen wiederverwendet.
+     *
+     * @param username der Benutzername
+     * @param password das Passwort
+     * @param behoerdenkennzeichen das Behördenkennzeichen
+     * @param aufrufKontextVerwalter der {@link AufrufKontextVerwalter}
+     * @param aufrufKontextFactory die {@link AufrufKontextFactory}
+     * @param sicherheit die {@link Sicherheit}
+     * @param sitzungsdauer die Dauer, für die eine Authentifizierung wiederverwendet wird.
+     *                      {@link Duration#ZERO} authentifiziert bei jedem Login.
+     * @param erneuerungsExecutor führt die vorzeitige Erneuerung der Sitzung im Hintergrund aus
+     */
+    public IsySicherheitAuthenticator(
+            String username,
+            String password,
+            String behoerdenkennzeichen,
+            AufrufKontextVerwalter<AufrufKontext> aufrufKontextVerwalter,
+            AufrufKontextFactory<AufrufKontext> aufrufKontextFactory,
+            Sicherheit<AufrufKontext> sicherheit,
+            Duration sitzungsdauer,
+            Executor erneuerungsExecutor) {
         this.username = username;
         this.password = password;
         this.behoerdenkennzeichen = behoerdenkennzeichen;
         this.sicherheit = sicherheit;
         this.aufrufKontextFactory = aufrufKontextFactory;
         this.aufrufKontextVerwalter = aufrufKontextVerwalter;
+        this.sitzungsdauerNanos = sitzungsdauer.toNanos();
+        this.erneuerungsExecutor = erneuerungsExecutor;
     }
 
     @Override
     public synchronized void login() {
-         AufrufKontext kontext = aufrufKontextFactory.erzeugeAufrufKontext();
-         aufrufKontextVerwalter.setAufrufKontext(kontext);
-         kontext.setDurchfuehrenderBenutzerKennung(username);
-         kontext.setDurchfuehrenderBenutzerPasswort(password);
-         kontext.setDurchfuehrendeBehoerde(behoerdenkennzeichen);
-        kontext.setKorrelationsId(MdcHelper.liesKorrelationsId());
-         sicherheit.getBerechtigungsManagerUndAuthentifiziere(kontext);
+        if (sitzung != null && sitzungsende - System.nanoTime() > 0) {
+            sitzung.setKorrelationsId(MdcHelper.liesKorrelationsId());
+            aufrufKontextVerwalter.setAufrufKontext(sitzung);
+        } else {
+            sitzung = null;
+            sitzungsnummer++;
+            merkeSitzung(authentifiziere(MdcHelper.liesKorrelationsId()));
+        }
     }
 
     @Override
     public synchronized void logout() {
+        if (sitzung != null && !erneuerungLaeuft
+            && sitzungsende - System.nanoTime() < sitzungsdauerNanos / 4) {
+            starteErneuerung(MdcHelper.liesKorrelationsId());
+        }
         aufrufKontextVerwalter.setAufrufKontext(null);
     }
+
+    @Override
+    public synchronized void verwirfAuthentifizierung() {
+        sitzung = null;
+        sitzungsnummer++;
+    }
+
+    private void starteErneuerung(String korrelationsId) {
+        long erneuerteSitzung = sitzungsnummer;
+        erneuerungLaeuft = true;
+        try {
+            erneuerungsExecutor.execute(() -> erneuere(erneuerteSitzung, korrelationsId));
+        } catch (RejectedExecutionException e) {
+            erneuerungLaeuft = false;
+        }
+    }
+
+    /**
+     * Erneuert die Sitzung. Wird im Thread des Erneuerungs-Executors ausgeführt. Die neue Sitzung ersetzt die
+     * bisherige nur, wenn diese inzwischen weder verworfen noch ersetzt wurde.
+     */
+    private void erneuere(long erneuerteSitzung, String korrelationsId) {
+        AufrufKontext kontext = null;
+        try {
+            kontext = authentifiziere(korrelationsId);
+        } catch (RuntimeException e) {
+            LOG.warn(Ereignisschluessel.AUTHENTIFIZIERUNG_NICHT_ERNEUERT, MessageSourceHolder
+                .getMessage(Ereignisschluessel.AUTHENTIFIZIERUNG_NICHT_ERNEUERT, username), e);
+        } finally {
+            aufrufKontextVerwalter.setAufrufKontext(null);
+            synchronized (this) {
+                erneuerungLaeuft = false;
+                if (sitzungsnummer == erneuerteSitzung) {
+                    sitzung = null;
+                    sitzungsnummer++;
+                    merkeSitzung(kontext);
+                }
+            }
+        }
+    }
+
+    private AufrufKontext authentifiziere(String korrelationsId) {
+        AufrufKontext kontext = aufrufKontextFactory.erzeugeAufrufKontext();
+        aufrufKontextVerwalter.setAufrufKontext(kontext);
+        kontext.setDurchfuehrenderBenutzerKennung(username);
+        kontext.setDurchfuehrenderBenutzerPasswort(password);
+        kontext.setDurchfuehrendeBehoerde(behoerdenkennzeichen);
+        kontext.setKorrelationsId(korrelationsId);
+        sicherheit.getBerechtigungsManagerUndAuthentifiziere(kontext);
+        return kontext;
+    }
+
+    private void merkeSitzung(AufrufKontext kontext) {
+        if (kontext != null && sitzungsdauerNanos > 0) {
+            sitzung = kontext;
+            sitzungsende = System.nanoTime() + sitzungsdauerNanos;
+        }
+    }
 }
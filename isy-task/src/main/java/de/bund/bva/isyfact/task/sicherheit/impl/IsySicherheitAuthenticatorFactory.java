@@ -1,5 +1,9 @@
 package de.bund.bva.isyfact.task.sicherheit.impl;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import de.bund.bva.isyfact.aufrufkontext.AufrufKontext;
 import de.bund.bva.isyfact.aufrufkontext.AufrufKontextFactory;
 import de.bund.bva.isyfact.aufrufkontext.AufrufKontextVerwalter;
@@ -12,11 +16,12 @@ import de.bund.bva.isyfact.task.konstanten.HinweisSchluessel;
 import de.bund.bva.isyfact.task.sicherheit.Authenticator;
 import de.bund.bva.isyfact.task.sicherheit.AuthenticatorFactory;
 import de.bund.bva.isyfact.util.spring.MessageSourceHolder;
+import org.springframework.beans.factory.DisposableBean;
 
 /**
  * Erzeugt Authenticator-Instanzen für die Verwendung von isy-sicherheit.
  */
-public class IsySicherheitAuthenticatorFactory implements AuthenticatorFactory {
+public class IsySicherheitAuthenticatorFactory implements AuthenticatorFactory, DisposableBean {
     private static final IsyLogger LOG = IsyLoggerFactory.getLogger(IsySicherheitAuthenticatorFactory.class);
 
     private final IsyTaskConfigurationProperties configurationProperties;
@@ -27,6 +32,13 @@ public class IsySicherheitAuthenticatorFactory implements AuthenticatorFactory {
 
     private final AufrufKontextVerwalter<AufrufKontext> aufrufKontextVerwalter;
 
+    /** Erneuert die Sitzungen aller erzeugten Authenticator-Instanzen im Hintergrund. */
+    private final ExecutorService erneuerungsExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "isy-task-sitzungserneuerung");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * Erstellt eine neue Instanz.
      *
@@ -59,7 +71,7 @@ public class IsySicherheitAuthenticatorFactory implements AuthenticatorFactory {
                 configurationProperties.getTasks().get(taskId).getBenutzer(),
                 configurationProperties.getTasks().get(taskId).getPasswort(),
                 configurationProperties.getTasks().get(taskId).getBhkz(), aufrufKontextVerwalter,
-                aufrufKontextFactory, sicherheit);
+                aufrufKontextFactory, sicherheit, getSitzungsdauer(taskId), erneuerungsExecutor);
         } else if (useStandardCredentials()) {
             String nachricht = MessageSourceHolder
                 .getMessage(HinweisSchluessel.VERWENDE_STANDARD_KONFIGURATION, "benutzer, passwort, bhkz");
@@ -68,7 +80,7 @@ public class IsySicherheitAuthenticatorFactory implements AuthenticatorFactory {
                 configurationProperties.getDefault().getBenutzer(),
                 configurationProperties.getDefault().getPasswort(),
                 configurationProperties.getDefault().getBhkz(), aufrufKontextVerwalter,
-                aufrufKontextFactory, sicherheit);
+                aufrufKontextFactory, sicherheit, getSitzungsdauer(taskId), erneuerungsExecutor);
         } else {
             LOG.info(LogKategorie.SICHERHEIT, HinweisSchluessel.VERWENDE_KEINE_AUTHENTIFIZIERUNG,
                 MessageSourceHolder.getMessage(HinweisSchluessel.VERWENDE_KEINE_AUTHENTIFIZIERUNG));
@@ -76,6 +88,19 @@ public class IsySicherheitAuthenticatorFactory implements AuthenticatorFactory {
         }
     }
 
+    /**
+     * Beendet die Erneuerung der Sitzungen.
+     */
+    @Override
+    public void destroy() {
+        erneuerungsExecutor.shutdownNow();
+    }
+
+    private Duration getSitzungsdauer(String taskId) {
+        Duration sitzungsdauer = configurationProperties.getTasks().get(taskId).getSitzungsdauer();
+        return sitzungsdauer != null ? sitzungsdauer : configurationProperties.getDefault().getSitzungsdauer();
+    }
+
     private boolean useTaskSpecificCredentials(String taskId) {
         return configurationProperties.getTasks().get(taskId).getBenutzer() != null
             && configurationProperties.getTasks().get(taskId).getPasswort() != null
@@ -0,0 +1,115 @@
+package de.bund.bva.isyfact.task;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.BooleanSupplier;
+
+import de.bund.bva.isyfact.task.config.IsyTaskConfigurationProperties;
+import de.bund.bva.isyfact.task.config.IsyTaskConfigurationProperties.Ausfuehrungsmodell;
+import de.bund.bva.isyfact.task.impl.TaskSchedulerImpl;
+import de.bund.bva.isyfact.task.konfiguration.HostHandler;
+import de.bund.bva.isyfact.task.konfiguration.TaskKonfigurationVerwalter;
+import de.bund.bva.isyfact.task.model.TaskMonitor;
+import de.bund.bva.isyfact.task.test.config.TestConfig;
+import de.bund.bva.isyfact.task.test.config.TestTaskExceptionConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.rules.SpringClassRule;
+import org.springframework.test.context.junit4.rules.SpringMethodRule;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Prüft den Neustart fehlgeschlagener Tasks für jedes {@link Ausfuehrungsmodell}. Das Restart-Intervall ist
+ * bewusst lang gewählt: Es begrenzt nur weitere Neustarts, der erste Neustart erfolgt sofort.
+ */
+@RunWith(Parameterized.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@SpringBootTest(classes = {TestConfig.class, TestTaskExceptionConfig.class }, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {"isy.logging.anwendung.name=test",
+                  "isy.logging.anwendung.typ=test",
+                  "isy.logging.anwendung.version=test",
+                  "logging.level.root=info",
+                  "isy.task.tasks.taskMitException.benutzer=TestUser1",
+                  "isy.task.tasks.taskMitException.passwort=TestPasswort1",
+                  "isy.task.tasks.taskMitException.bhkz=BHKZ1",
+                  "isy.task.tasks.taskMitException.ausfuehrung=FIXED_RATE",
+                  "isy.task.tasks.taskMitException.initial-delay=1s",
+                  "isy.task.tasks.taskMitException.fixed-rate=3s",
+                  "isy.task.watchdog.restart-interval=60s"})
+public class TestCompletionWatchdogNeustart {
+
+    @ClassRule
+    public static final SpringClassRule SPRING_CLASS_RULE = new SpringClassRule();
+
+    @Rule
+    public final SpringMethodRule springMethodRule = new SpringMethodRule();
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> ausfuehrungsmodelle() {
+        return Arrays.asList(new Object[][] {
+            { Ausfuehrungsmodell.THREAD_POOL },
+            { Ausfuehrungsmodell.WORK_STEALING } });
+    }
+
+    @Parameterized.Parameter
+    public Ausfuehrungsmodell ausfuehrungsmodell;
+
+    @Autowired
+    private IsyTaskConfigurationProperties configurationProperties;
+
+    @Autowired
+    private TaskKonfigurationVerwalter taskKonfigurationVerwalter;
+
+    @Autowired
+    private HostHandler hostHandler;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private TaskMonitor taskMonitor;
+
+    private TaskSchedulerImpl taskScheduler;
+
+    @Before
+    public void setup() throws Exception {
+        configurationProperties.getDefault().setHost(InetAddress.getLocalHost().getHostName());
+        configurationProperties.getDefault().setAusfuehrungsmodell(ausfuehrungsmodell);
+
+        taskScheduler = new TaskSchedulerImpl(configurationProperties, taskKonfigurationVerwalter, hostHandler);
+        taskScheduler.setApplicationContext(applicationContext);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        taskScheduler.shutdownMitTimeout(10);
+    }
+
+    @Test
+    public void taskMitExceptionWirdSofortNeuGestartet() throws Exception {
+        taskScheduler.starteKonfigurierteTasks();
+
+        warteBis(taskMonitor::isLetzteAusfuehrungErfolgreich);
+    }
+
+    private static void warteBis(BooleanSupplier bedingung) throws InterruptedException {
+        long ende = System.nanoTime() + SECONDS.toNanos(30);
+        while (!bedingung.getAsBoolean()) {
+            assertTrue("Bedingung wurde nicht innerhalb von 30 Sekunden erfüllt.", System.nanoTime() < ende);
+            MILLISECONDS.sleep(50);
+        }
+    }
+}
@@ -102,6 +102,17 @@ public class TestTaskKonfiguration extends AbstractTaskTest {
         taskKonfigurationVerwalter.pruefeTaskKonfiguration(taskKonfiguration);
     }
 
+    @Test(expected = TaskKonfigurationInvalidException.class)
+    public void ausfuehrungCronCronAusdruckNichtGesetzt() throws Exception {
+        TaskKonfiguration taskKonfiguration = getTestTaskKonfiguration();
+
+        taskKonfiguration.setAusfuehrungsplan(TaskKonfiguration.Ausfuehrungsplan.CRON);
+        taskKonfiguration.setNachholmodus(TaskKonfiguration.Nachholmodus.EINMAL);
+        taskKonfiguration.setCronAusdruck(null);
+
+        taskKonfigurationVerwalter.pruefeTaskKonfiguration(taskKonfiguration);
+    }
+
     @Test(expected = TaskKonfigurationInvalidException.class)
     public void getTaskKonfigurationPrueftKonfiguration() throws Exception {
         taskKonfigurationVerwalter.getTaskKonfiguration("test");
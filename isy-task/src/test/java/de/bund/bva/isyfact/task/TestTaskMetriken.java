@@ -0,0 +1,91 @@
+package de.bund.bva.isyfact.task;
+
+import java.net.InetAddress;
+import java.util.function.BooleanSupplier;
+
+import de.bund.bva.isyfact.task.config.IsyTaskConfigurationProperties;
+import de.bund.bva.isyfact.task.test.config.TestConfig;
+import de.bund.bva.isyfact.task.test.config.TestTaskMetrikenConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@SpringBootTest(classes = {TestConfig.class, TestTaskMetrikenConfig.class }, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {"isy.logging.anwendung.name=test",
+                  "isy.logging.anwendung.typ=test",
+                  "isy.logging.anwendung.version=test",
+                  "isy.task.tasks.langsamerTask.benutzer=TestUser1",
+                  "isy.task.tasks.langsamerTask.passwort=TestPasswort1",
+                  "isy.task.tasks.langsamerTask.bhkz=BHKZ1",
+                  "isy.task.tasks.langsamerTask.ausfuehrung=FIXED_RATE",
+                  "isy.task.tasks.langsamerTask.fixed-rate=1s",
+                  "isy.task.tasks.langsamerTask.nachholmodus=UEBERSPRINGEN"})
+public class TestTaskMetriken extends AbstractTaskTest {
+
+    @Autowired
+    private IsyTaskConfigurationProperties configurationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setup() throws Exception {
+        configurationProperties.getDefault().setHost(InetAddress.getLocalHost().getHostName());
+    }
+
+    @Test
+    public void ueberlaeufeWerdenUebersprungenUndGemessen() throws Exception {
+        // Der Task läuft 5 Sekunden bei einer Rate von einer Sekunde.
+        taskScheduler.starteKonfigurierteTasks();
+
+        warteBis(() -> zaehle("isy.task.ausfuehrung", "erfolgreich") >= 1
+            && zaehle("isy.task.ueberlauf", null) >= 1);
+
+        taskScheduler.shutdownMitTimeout(10);
+
+        // Nach dem Herunterfahren läuft keine Ausführung mehr, sodass die Zähler zueinander passen.
+        double ausfuehrungen = zaehle("isy.task.ausfuehrung", "erfolgreich");
+        assertTrue(ausfuehrungen >= 1);
+        assertEquals(0, zaehle("isy.task.ausfuehrung", "fehlerhaft"), 0);
+        assertEquals(ausfuehrungen, zaehle("isy.task.anmeldung", "erfolgreich"), 0);
+        assertEquals(0, zaehle("isy.task.anmeldung", "fehlerhaft"), 0);
+        assertEquals(ausfuehrungen, zaehle("isy.task.abmeldung", null), 0);
+        assertNotNull(meterRegistry.find("isy.task.warteschlange.verzoegerung").tag("task", "langsamerTask")
+            .timeGauge());
+    }
+
+    /**
+     * Liefert die Anzahl der Messwerte eines Timers oder den Stand eines Zählers für den Task.
+     */
+    private double zaehle(String name, String ergebnis) {
+        Search suche = meterRegistry.find(name).tag("task", "langsamerTask");
+        if (ergebnis != null) {
+            suche = suche.tag("ergebnis", ergebnis);
+        }
+        Timer timer = suche.timer();
+        if (timer != null) {
+            return timer.count();
+        }
+        Counter counter = suche.counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void warteBis(BooleanSupplier bedingung) throws InterruptedException {
+        long ende = System.nanoTime() + SECONDS.toNanos(30);
+        while (!bedingung.getAsBoolean()) {
+            assertTrue("Bedingung wurde nicht innerhalb von 30 Sekunden erfüllt.", System.nanoTime() < ende);
+            MILLISECONDS.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package de.bund.bva.isyfact.task.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.bund.bva.isyfact.datetime.test.TestClock;
+import de.bund.bva.isyfact.datetime.util.DateTimeUtil;
+import de.bund.bva.isyfact.task.konfiguration.CronAusdruck;
+import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration;
+import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration.Nachholmodus;
+import de.bund.bva.isyfact.task.model.Task;
+import de.bund.bva.isyfact.task.model.TaskRunner;
+import de.bund.bva.isyfact.task.model.impl.NoOpTaskMetriken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestCronAusfuehrung {
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private ScheduledExecutorService scheduler;
+
+    private ExecutorService ausfuehrungsExecutor;
+
+    @Before
+    public void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        ausfuehrungsExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+        ausfuehrungsExecutor.shutdownNow();
+        DateTimeUtil.setClock(Clock.systemDefaultZone());
+    }
+
+    @Test
+    public void naechsteAusfuehrung() {
+        CronAusdruck jedeNacht = CronAusdruck.parse("0 2 * * *");
+        assertEquals(LocalDateTime.of(2020, 1, 1, 2, 0),
+            jedeNacht.naechsteAusfuehrung(LocalDateTime.of(2020, 1, 1, 1, 59, 30)));
+        assertEquals(LocalDateTime.of(2020, 1, 2, 2, 0),
+            jedeNacht.naechsteAusfuehrung(LocalDateTime.of(2020, 1, 1, 2, 0)));
+
+        // Freitag nach Dienstschluss -> Montag 08:00
+        assertEquals(LocalDateTime.of(2020, 1, 6, 8, 0), CronAusdruck.parse("*/15 8-17 * * 1-5")
+            .naechsteAusfuehrung(LocalDateTime.of(2020, 1, 3, 17, 50)));
+
+        // Tag oder Wochentag: der 1. des Monats oder Sonntag
+        assertEquals(LocalDateTime.of(2020, 1, 5, 12, 0),
+            CronAusdruck.parse("0 12 1 * 7").naechsteAusfuehrung(LocalDateTime.of(2020, 1, 1, 12, 0)));
+
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0),
+            CronAusdruck.parse("0 0 29 2 *").naechsteAusfuehrung(LocalDateTime.of(2020, 3, 1, 0, 0)));
+        assertNull(CronAusdruck.parse("0 0 30 2 *").naechsteAusfuehrung(LocalDateTime.of(2020, 1, 1, 0, 0)));
+    }
+
+    @Test
+    public void verzoegerungBeiUmstellungAufSommerzeit() {
+        // 29.03.2020: In Berlin springt die Uhr um 02:00 auf 03:00.
+        DateTimeUtil.setClock(TestClock.at(LocalDateTime.of(2020, 3, 29, 1, 0), BERLIN));
+
+        assertEquals(Duration.ofHours(1).toMillis(), TaskAusfuehrung
+            .berechneVerzoegerung(DateTimeUtil.zonedDateTimeNow(), LocalDateTime.of(2020, 3, 29, 3, 0)));
+        // 02:30 liegt in der Lücke und wird auf 03:30 verschoben.
+        assertEquals(Duration.ofMinutes(90).toMillis(), TaskAusfuehrung
+            .berechneVerzoegerung(DateTimeUtil.zonedDateTimeNow(), LocalDateTime.of(2020, 3, 29, 2, 30)));
+        assertEquals(Duration.ofHours(23).toMillis(), TaskAusfuehrung
+            .berechneVerzoegerung(DateTimeUtil.zonedDateTimeNow(), LocalDateTime.of(2020, 3, 30, 1, 0)));
+    }
+
+    @Test
+    public void verzoegerungBeiUmstellungAufWinterzeit() {
+        // 25.10.2020: In Berlin springt die Uhr um 03:00 auf 02:00 zurück.
+        DateTimeUtil.setClock(TestClock.at(LocalDateTime.of(2020, 10, 25, 1, 0), BERLIN));
+
+        assertEquals(Duration.ofHours(3).toMillis(), TaskAusfuehrung
+            .berechneVerzoegerung(DateTimeUtil.zonedDateTimeNow(), LocalDateTime.of(2020, 10, 25, 3, 0)));
+        // 02:30 kommt doppelt vor, es gilt das frühere Vorkommen.
+        assertEquals(Duration.ofMinutes(90).toMillis(), TaskAusfuehrung
+            .berechneVerzoegerung(DateTimeUtil.zonedDateTimeNow(), LocalDateTime.of(2020, 10, 25, 2, 30)));
+        assertEquals(Duration.ofHours(25).toMillis(), TaskAusfuehrung
+            .berechneVerzoegerung(DateTimeUtil.zonedDateTimeNow(), LocalDateTime.of(2020, 10, 26, 1, 0)));
+    }
+
+    @Test
+    public void verzoegerungNachUhrsprungNieNegativ() {
+        DateTimeUtil.setClock(TestClock.at(LocalDateTime.of(2020, 1, 1, 3, 0), BERLIN));
+
+        assertEquals(0, TaskAusfuehrung
+            .berechneVerzoegerung(DateTimeUtil.zonedDateTimeNow(), LocalDateTime.of(2020, 1, 1, 2, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ungueltigerAusdruck() {
+        CronAusdruck.parse("61 * * * *");
+    }
+
+    @Test
+    public void verpassteAusfuehrungenUeberspringen() throws Exception {
+        assertEquals(1, zaehleAusfuehrungenNachUhrsprung(Nachholmodus.UEBERSPRINGEN));
+    }
+
+    @Test
+    public void verpassteAusfuehrungenEinmalNachholen() throws Exception {
+        assertEquals(2, zaehleAusfuehrungenNachUhrsprung(Nachholmodus.EINMAL));
+    }
+
+    @Test
+    public void verpassteAusfuehrungenAlleNachholen() throws Exception {
+        assertEquals(4, zaehleAusfuehrungenNachUhrsprung(Nachholmodus.ALLE));
+    }
+
+    /**
+     * Führt einen Task jede Nacht um 02:00 aus. Während der ersten Ausführung springt die Uhr um drei Tage
+     * weiter, sodass die Zeitpunkte der drei folgenden Nächte verpasst werden.
+     */
+    private int zaehleAusfuehrungenNachUhrsprung(Nachholmodus nachholmodus) throws InterruptedException {
+        TestClock uhr = TestClock.at(LocalDateTime.of(2020, 1, 1, 1, 59, 59, 900_000_000));
+        DateTimeUtil.setClock(uhr);
+
+        AtomicInteger ausfuehrungen = new AtomicInteger();
+        TaskAusfuehrung taskAusfuehrung = new TaskAusfuehrung(new CronTaskRunner(() -> {
+            if (ausfuehrungen.incrementAndGet() == 1) {
+                uhr.advanceBy(Duration.ofDays(3).plusMinutes(1));
+            }
+        }), scheduler, ausfuehrungsExecutor, new NoOpTaskMetriken());
+
+        taskAusfuehrung.planeNachCron(CronAusdruck.parse("0 2 * * *"), nachholmodus);
+        SECONDS.sleep(1);
+        taskAusfuehrung.abbrechen();
+
+        return ausfuehrungen.get();
+    }
+
+    private static class CronTaskRunner implements TaskRunner {
+
+        private final Runnable runnable;
+
+        private final TaskKonfiguration taskKonfiguration = new TaskKonfiguration();
+
+        CronTaskRunner(Runnable runnable) {
+            this.runnable = runnable;
+            taskKonfiguration.setTaskId("cronTask");
+            taskKonfiguration.setAusfuehrungsplan(TaskKonfiguration.Ausfuehrungsplan.CRON);
+        }
+
+        @Override
+        public void run() {
+            runnable.run();
+        }
+
+        @Override
+        public Task getTask() {
+            return null;
+        }
+
+        @Override
+        public TaskKonfiguration getTaskKonfiguration() {
+            return taskKonfiguration;
+        }
+    }
+}
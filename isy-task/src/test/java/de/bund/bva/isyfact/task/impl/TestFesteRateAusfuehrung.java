@@ -0,0 +1,119 @@
+package de.bund.bva.isyfact.task.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration;
+import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration.Nachholmodus;
+import de.bund.bva.isyfact.task.model.Task;
+import de.bund.bva.isyfact.task.model.TaskRunner;
+import de.bund.bva.isyfact.task.model.impl.NoOpTaskMetriken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestFesteRateAusfuehrung {
+
+    private ScheduledExecutorService scheduler;
+
+    private ExecutorService ausfuehrungsExecutor;
+
+    @Before
+    public void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        ausfuehrungsExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+        ausfuehrungsExecutor.shutdownNow();
+    }
+
+    @Test
+    public void ohneNachholmodusWerdenAlleUeberlaeufeNachgeholt() throws Exception {
+        // Entspricht dem Verhalten von ScheduledExecutorService#scheduleAtFixedRate.
+        assertEquals(4, zaehleAusfuehrungenNachUeberlauf(null));
+    }
+
+    @Test
+    public void ueberlaeufeEinmalNachholen() throws Exception {
+        assertEquals(2, zaehleAusfuehrungenNachUeberlauf(Nachholmodus.EINMAL));
+    }
+
+    @Test
+    public void ueberlaeufeUeberspringen() throws Exception {
+        assertEquals(1, zaehleAusfuehrungenNachUeberlauf(Nachholmodus.UEBERSPRINGEN));
+    }
+
+    /**
+     * Führt einen Task jede Sekunde aus. Die erste Ausführung endet erst, nachdem drei Zeitpunkte in sie
+     * gefallen sind. Gezählt werden die Ausführungen bis kurz vor dem nächsten regulären Zeitpunkt.
+     */
+    private int zaehleAusfuehrungenNachUeberlauf(Nachholmodus nachholmodus) throws InterruptedException {
+        CountDownLatch ueberlaeufe = new CountDownLatch(3);
+        CountDownLatch freigabe = new CountDownLatch(1);
+        AtomicInteger ausfuehrungen = new AtomicInteger();
+
+        TaskAusfuehrung taskAusfuehrung = new TaskAusfuehrung(new FesteRateTaskRunner(() -> {
+            if (ausfuehrungen.incrementAndGet() == 1) {
+                try {
+                    freigabe.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }), scheduler, ausfuehrungsExecutor, new NoOpTaskMetriken() {
+            @Override
+            public void zeichneUeberlaufAuf(String taskId) {
+                ueberlaeufe.countDown();
+            }
+        });
+
+        taskAusfuehrung.planeMitFesterRate(0, SECONDS.toMillis(1), nachholmodus);
+        assertTrue(ueberlaeufe.await(10, SECONDS));
+        // Der Überlauf wird erst nach der Aufzeichnung der Metrik vermerkt.
+        MILLISECONDS.sleep(100);
+        freigabe.countDown();
+        MILLISECONDS.sleep(400);
+        taskAusfuehrung.abbrechen();
+
+        return ausfuehrungen.get();
+    }
+
+    private static class FesteRateTaskRunner implements TaskRunner {
+
+        private final Runnable runnable;
+
+        private final TaskKonfiguration taskKonfiguration = new TaskKonfiguration();
+
+        FesteRateTaskRunner(Runnable runnable) {
+            this.runnable = runnable;
+            taskKonfiguration.setTaskId("festeRateTask");
+            taskKonfiguration.setAusfuehrungsplan(TaskKonfiguration.Ausfuehrungsplan.FIXED_RATE);
+        }
+
+        @Override
+        public void run() {
+            runnable.run();
+        }
+
+        @Override
+        public Task getTask() {
+            return null;
+        }
+
+        @Override
+        public TaskKonfiguration getTaskKonfiguration() {
+            return taskKonfiguration;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package de.bund.bva.isyfact.task.model.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.bund.bva.isyfact.task.konfiguration.TaskKonfiguration;
+import de.bund.bva.isyfact.task.model.AbstractTask;
+import de.bund.bva.isyfact.task.sicherheit.Authenticator;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestTaskRunnerImpl {
+
+    private final AufzeichnendeTaskMetriken taskMetriken = new AufzeichnendeTaskMetriken();
+
+    @Test
+    public void erfolgreicheAusfuehrung() {
+        erzeugeTaskRunner(new TestAuthenticator(false), false).run();
+
+        assertEquals(asList("anmeldung:true", "ausfuehrung:true", "abmeldung"), taskMetriken.messwerte);
+    }
+
+    @Test
+    public void fehlgeschlageneAusfuehrung() {
+        TestAuthenticator authenticator = new TestAuthenticator(false);
+        try {
+            erzeugeTaskRunner(authenticator, true).run();
+            fail("Der Fehler des Tasks wurde nicht weitergereicht.");
+        } catch (IllegalStateException e) {
+            // erwartet
+        }
+
+        assertEquals(asList("anmeldung:true", "ausfuehrung:false", "abmeldung"), taskMetriken.messwerte);
+        assertEquals(1, authenticator.verworfen);
+    }
+
+    @Test
+    public void fehlgeschlageneAnmeldungIstKeineAusfuehrung() {
+        TestAuthenticator authenticator = new TestAuthenticator(true);
+        try {
+            erzeugeTaskRunner(authenticator, false).run();
+            fail("Der Fehler der Anmeldung wurde nicht weitergereicht.");
+        } catch (IllegalStateException e) {
+            // erwartet
+        }
+
+        assertEquals(asList("anmeldung:false", "abmeldung"), taskMetriken.messwerte);
+        assertEquals(1, authenticator.verworfen);
+    }
+
+    private TaskRunnerImpl erzeugeTaskRunner(Authenticator authenticator, boolean taskSchlaegtFehl) {
+        TaskKonfiguration taskKonfiguration = new TaskKonfiguration();
+        taskKonfiguration.setTaskId("testTask");
+        taskKonfiguration.setAuthenticator(authenticator);
+        AbstractTask task = new AbstractTask() {
+            @Override
+            public void execute() {
+                if (taskSchlaegtFehl) {
+                    throw new IllegalStateException("Task fehlgeschlagen");
+                }
+            }
+        };
+        return new TaskRunnerImpl(task, taskKonfiguration, taskMetriken);
+    }
+
+    private static class TestAuthenticator implements Authenticator {
+
+        private final boolean anmeldungSchlaegtFehl;
+
+        private int verworfen;
+
+        TestAuthenticator(boolean anmeldungSchlaegtFehl) {
+            this.anmeldungSchlaegtFehl = anmeldungSchlaegtFehl;
+        }
+
+        @Override
+        public void login() {
+            if (anmeldungSchlaegtFehl) {
+                throw new IllegalStateException("Anmeldung fehlgeschlagen");
+            }
+        }
+
+        @Override
+        public void logout() {
+            // leer
+        }
+
+        @Override
+        public void verwirfAuthentifizierung() {
+            verworfen++;
+        }
+    }
+
+    private static class AufzeichnendeTaskMetriken extends NoOpTaskMetriken {
+
+        private final List<String> messwerte = new ArrayList<>();
+
+        @Override
+        public void zeichneAnmeldungAuf(String taskId, long dauerNanos, boolean erfolgreich) {
+            messwerte.add("anmeldung:" + erfolgreich);
+        }
+
+        @Override
+        public void zeichneAusfuehrungAuf(String taskId, long dauerNanos, boolean erfolgreich) {
+            messwerte.add("ausfuehrung:" + erfolgreich);
+        }
+
+        @Override
+        public void zeichneAbmeldungAuf(String taskId, long dauerNanos) {
+            messwerte.add("abmeldung");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package de.bund.bva.isyfact.task.sicherheit.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.bund.bva.isyfact.aufrufkontext.AufrufKontext;
+import de.bund.bva.isyfact.aufrufkontext.AufrufKontextFactory;
+import de.bund.bva.isyfact.aufrufkontext.AufrufKontextVerwalter;
+import de.bund.bva.isyfact.aufrufkontext.impl.AufrufKontextImpl;
+import de.bund.bva.isyfact.sicherheit.Sicherheit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestIsySicherheitAuthenticator {
+
+    @Mock
+    private Sicherheit<AufrufKontext> sicherheit;
+
+    @Mock
+    private AufrufKontextFactory<AufrufKontext> aufrufKontextFactory;
+
+    @Mock
+    private AufrufKontextVerwalter<AufrufKontext> aufrufKontextVerwalter;
+
+    private final List<Runnable> erneuerungen = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        when(aufrufKontextFactory.erzeugeAufrufKontext()).thenAnswer(invocation -> new AufrufKontextImpl());
+    }
+
+    @Test
+    public void sitzungWirdWiederverwendet() {
+        IsySicherheitAuthenticator authenticator = erzeugeAuthenticator(Duration.ofHours(1));
+
+        for (int i = 0; i < 3; i++) {
+            authenticator.login();
+            authenticator.logout();
+        }
+
+        verify(sicherheit, times(1)).getBerechtigungsManagerUndAuthentifiziere(any(AufrufKontext.class));
+    }
+
+    @Test
+    public void verworfeneSitzungWirdNeuAuthentifiziert() {
+        IsySicherheitAuthenticator authenticator = erzeugeAuthenticator(Duration.ofHours(1));
+
+        authenticator.login();
+        authenticator.verwirfAuthentifizierung();
+        authenticator.logout();
+        authenticator.login();
+        authenticator.logout();
+
+        verify(sicherheit, times(2)).getBerechtigungsManagerUndAuthentifiziere(any(AufrufKontext.class));
+    }
+
+    @Test
+    public void ohneSitzungsdauerWirdJedesMalAuthentifiziert() {
+        IsySicherheitAuthenticator authenticator = erzeugeAuthenticator(Duration.ZERO);
+
+        for (int i = 0; i < 3; i++) {
+            authenticator.login();
+            authenticator.logout();
+        }
+
+        verify(sicherheit, times(3)).getBerechtigungsManagerUndAuthentifiziere(any(AufrufKontext.class));
+    }
+
+    @Test
+    public void sitzungWirdImHintergrundErneuert() throws Exception {
+        IsySicherheitAuthenticator authenticator = erzeugeAuthenticator(Duration.ofSeconds(1));
+
+        authenticator.login();
+        MILLISECONDS.sleep(850);
+        authenticator.logout();
+
+        // Der Logout wartet nicht auf die Erneuerung.
+        verify(sicherheit, times(1)).getBerechtigungsManagerUndAuthentifiziere(any(AufrufKontext.class));
+        assertEquals(1, erneuerungen.size());
+
+        erneuerungen.get(0).run();
+        verify(sicherheit, times(2)).getBerechtigungsManagerUndAuthentifiziere(any(AufrufKontext.class));
+
+        // Die ursprüngliche Sitzung ist abgelaufen, die erneuerte wird verwendet.
+        MILLISECONDS.sleep(250);
+        authenticator.login();
+        authenticator.logout();
+
+        verify(sicherheit, times(2)).getBerechtigungsManagerUndAuthentifiziere(any(AufrufKontext.class));
+        assertEquals(1, erneuerungen.size());
+    }
+
+    @Test
+    public void verworfeneSitzungWirdNichtDurchErneuerungErsetzt() throws Exception {
+        IsySicherheitAuthenticator authenticator = erzeugeAuthenticator(Duration.ofSeconds(1));
+
+        authenticator.login();
+        MILLISECONDS.sleep(850);
+        authenticator.logout();
+        authenticator.verwirfAuthentifizierung();
+        erneuerungen.get(0).run();
+
+        authenticator.login();
+        authenticator.logout();
+
+        verify(sicherheit, times(3)).getBerechtigungsManagerUndAuthentifiziere(any(AufrufKontext.class));
+    }
+
+    private IsySicherheitAuthenticator erzeugeAuthenticator(Duration sitzungsdauer) {
+        return new IsySicherheitAuthenticator("benutzer", "passwort", "bhkz", aufrufKontextVerwalter,
+            aufrufKontextFactory, sicherheit, sitzungsdauer, erneuerungen::add);
+    }
+}
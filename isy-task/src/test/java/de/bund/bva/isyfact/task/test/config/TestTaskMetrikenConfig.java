@@ -0,0 +1,21 @@
+package de.bund.bva.isyfact.task.test.config;
+
+import de.bund.bva.isyfact.task.TestTask1;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TestTaskMetrikenConfig {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public TestTask1 langsamerTask() {
+        return new TestTask1();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.ueberwachung.common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.bund.bva.isyfact.logging.IsyLogger;
+import de.bund.bva.isyfact.logging.IsyLoggerFactory;
+import de.bund.bva.isyfact.serviceapi.annotations.FachlicherFehler;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Vorberechneter Plan für die Prüfung eines Objekts auf fachliche Fehler. Der Plan wird je Klasse einmalig
+ * erstellt und in einem {@link ClassValue} zwischengespeichert.
+ * <p>
+ * Ein Plan enthält nur die Felder der Klasse und ihrer Oberklassen, über die ein mit {@link FachlicherFehler}
+ * annotiertes Objekt erreichbar sein kann. Felder, deren deklarierter Typ keine fachlichen Fehler enthalten
+ * kann (z.B. primitive Typen, Enums, Arrays oder finale Klassen ohne Fehlerobjekte), werden bereits bei der
+ * Erstellung des Plans verworfen. Die Felder werden über {@link MethodHandle}s gelesen.
+ */
+final class FachlicheFehlerPruefplan {
+
+    /**
+     * Logger.
+     */
+    private static final IsyLogger LOGISY = IsyLoggerFactory.getLogger(FachlicheFehlerPruefplan.class);
+
+    /**
+     * Signatur der Getter für Felder.
+     */
+    private static final MethodType GETTER_TYP = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Die zwischengespeicherten Pläne je Klasse.
+     */
+    private static final ClassValue<FachlicheFehlerPruefplan> PLAENE = new ClassValue<FachlicheFehlerPruefplan>() {
+        @Override
+        protected FachlicheFehlerPruefplan computeValue(Class<?> klasse) {
+            return erstellePlan(klasse);
+        }
+    };
+
+    /**
+     * Gibt an, ob die Klasse selbst mit {@link FachlicherFehler} annotiert ist.
+     */
+    private final boolean fachlicherFehler;
+
+    /**
+     * Die zu prüfenden Felder.
+     */
+    private final FeldPruefung[] feldPruefungen;
+
+    private FachlicheFehlerPruefplan(boolean fachlicherFehler, FeldPruefung[] feldPruefungen) {
+        this.fachlicherFehler = fachlicherFehler;
+        this.feldPruefungen = feldPruefungen;
+    }
+
+    /**
+     * Liefert den Prüfplan für eine Klasse.
+     *
+     * @param klasse die Klasse.
+     * @return der Prüfplan der Klasse.
+     */
+    static FachlicheFehlerPruefplan fuer(Class<?> klasse) {
+        return PLAENE.get(klasse);
+    }
+
+    /**
+     * Prüft ein Objekt anhand des Plans auf fachliche Fehler. Untergeordnete Objekte werden mit ihrem
+     * jeweiligen Plan bis zur angegebenen maximalen Tiefe geprüft.
+     *
+     * @param objekt   das zu prüfende Objekt.
+     * @param tiefe    die aktuelle Tiefe in der Objektstruktur.
+     * @param maxTiefe die maximale Tiefe, bis zu der untergeordnete Objekte geprüft werden.
+     * @return <code>true</code> wenn Fehler gefunden, ansonsten <code>false</code>
+     */
+    boolean pruefe(Object objekt, int tiefe, int maxTiefe) {
+        for (FeldPruefung feldPruefung : feldPruefungen) {
+            Object wert = feldPruefung.leseWert(objekt);
+            if (wert == null) {
+                continue;
+            }
+
+            if (feldPruefung.fehlerliste) {
+                if (!((Collection<?>) wert).isEmpty()) {
+                    // Fachliche Fehler in Fehlerliste gefunden
+                    return true;
+                }
+            } else {
+                FachlicheFehlerPruefplan plan = fuer(wert.getClass());
+                if (plan.fachlicherFehler) {
+                    // Fachliches Fehlerobjekt gefunden
+                    return true;
+                }
+                if (plan.feldPruefungen.length > 0) {
+                    if (tiefe + 1 > maxTiefe) {
+                        LOGISY.trace("Max. Tiefe erreicht, prüfe nicht weiter auf fachliche Fehler");
+                    } else if (plan.pruefe(wert, tiefe + 1, maxTiefe)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Erstellt den Prüfplan für eine Klasse.
+     *
+     * @param klasse die Klasse.
+     * @return der Prüfplan.
+     */
+    private static FachlicheFehlerPruefplan erstellePlan(Class<?> klasse) {
+        List<FeldPruefung> feldPruefungen = new ArrayList<>();
+
+        // Die Klassen-Hierachie nach oben durchlaufen
+        for (Class<?> aktuelleKlasse = klasse; aktuelleKlasse != null && aktuelleKlasse != Object.class;
+             aktuelleKlasse = aktuelleKlasse.getSuperclass()) {
+            for (Field field : aktuelleKlasse.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    // Statische Felder gehören nicht zur Objektstruktur
+                    continue;
+                }
+                boolean fehlerliste = istFehlerliste(field);
+                if (fehlerliste || (!istCollection(field) && kannFehlerEnthalten(field.getType(), new HashSet<>()))) {
+                    MethodHandle getter = erstelleGetter(field);
+                    if (getter != null) {
+                        feldPruefungen.add(new FeldPruefung(getter, fehlerliste));
+                    }
+                }
+            }
+        }
+
+        LOGISY.trace("Prüfplan für Klasse {} erstellt, {} relevante Felder gefunden.", klasse.getName(),
+            feldPruefungen.size());
+        return new FachlicheFehlerPruefplan(klasse.isAnnotationPresent(FachlicherFehler.class),
+            feldPruefungen.toArray(new FeldPruefung[0]));
+    }
+
+    /**
+     * Prüft, ob über einen Wert des angegebenen Typs ein fachlicher Fehler erreichbar sein kann. Bei nicht
+     * finalen Typen kann der konkrete Typ des Werts erst zur Laufzeit ermittelt werden, sie werden daher
+     * immer als relevant betrachtet.
+     *
+     * @param typ     der deklarierte Typ.
+     * @param besucht die bei dieser Prüfung bereits besuchten Typen.
+     * @return <code>true</code>, falls ein fachlicher Fehler erreichbar sein kann.
+     */
+    private static boolean kannFehlerEnthalten(Class<?> typ, Set<Class<?>> besucht) {
+        if (typ.isAnnotationPresent(FachlicherFehler.class)) {
+            return true;
+        }
+        if (ClassUtils.isPrimitiveOrWrapper(typ) || typ.isEnum() || typ.isArray()) {
+            return false;
+        }
+        if (!Modifier.isFinal(typ.getModifiers())) {
+            return true;
+        }
+        if (!besucht.add(typ)) {
+            return false;
+        }
+        for (Class<?> klasse = typ; klasse != null && klasse != Object.class; klasse = klasse.getSuperclass()) {
+            for (Field field : klasse.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                if (istFehlerliste(field)
+                    || (!istCollection(field) && kannFehlerEnthalten(field.getType(), besucht))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prüft, ob ein Feld eine Collection ist, deren Elementtyp mit {@link FachlicherFehler} annotiert ist.
+     *
+     * @param field das Feld.
+     * @return <code>true</code>, falls das Feld eine Fehlerliste ist.
+     */
+    private static boolean istFehlerliste(Field field) {
+        if (!istCollection(field) || !(field.getGenericType() instanceof ParameterizedType)) {
+            return false;
+        }
+        Type typArgument = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+        return typArgument instanceof Class && ((Class<?>) typArgument).isAnnotationPresent(FachlicherFehler.class);
+    }
+
+    /**
+     * Prüft, ob der deklarierte Typ eines Felds eine {@link Collection} ist.
+     *
+     * @param field das Feld.
+     * @return <code>true</code>, falls das Feld eine Collection ist.
+     */
+    private static boolean istCollection(Field field) {
+        return Collection.class.isAssignableFrom(field.getType());
+    }
+
+    /**
+     * Erstellt einen Getter für ein Feld.
+     *
+     * @param field das Feld.
+     * @return der Getter oder <code>null</code>, falls das Feld nicht gelesen werden kann.
+     */
+    private static MethodHandle erstelleGetter(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYP);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Nichts tun, Feld wird ignoriert
+            LOGISY.debug("Feldzugriffsfehler: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Die Prüfung eines einzelnen Felds.
+     */
+    private static final class FeldPruefung {
+
+        /** Getter für das Feld. */
+        private final MethodHandle getter;
+
+        /** Gibt an, ob das Feld eine Fehlerliste ist. */
+        private final boolean fehlerliste;
+
+        private FeldPruefung(MethodHandle getter, boolean fehlerliste) {
+            this.getter = getter;
+            this.fehlerliste = fehlerliste;
+        }
+
+        private Object leseWert(Object objekt) {
+            try {
+                return (Object) getter.invokeExact(objekt);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+}
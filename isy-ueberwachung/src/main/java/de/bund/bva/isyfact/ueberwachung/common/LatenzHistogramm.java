@@ -0,0 +1,130 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * The Federal Office of Administration (Bundesverwaltungsamt, BVA)
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * License). You may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package de.bund.bva.isyfact.ueberwachung.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-freies Histogramm für Aufrufdauern mit log-linearer Bucket-Aufteilung (analog zu HdrHistogram).
+ * <p>
+ * Werte kleiner als {@link #UNTERBUCKETS} werden exakt gezählt. Größere Werte werden je Zweierpotenz in
+ * {@link #UNTERBUCKETS} gleich breite Buckets einsortiert, wodurch der relative Fehler eines ermittelten
+ * Perzentils höchstens 1/{@link #UNTERBUCKETS} beträgt.
+ */
+final class LatenzHistogramm {
+
+    /** Anzahl Bits für die lineare Unterteilung einer Zweierpotenz. */
+    private static final int UNTERBUCKET_BITS = 4;
+
+    /** Anzahl der linearen Buckets je Zweierpotenz. */
+    static final int UNTERBUCKETS = 1 << UNTERBUCKET_BITS;
+
+    /** Anzahl der Buckets, um alle positiven long-Werte abzudecken. */
+    private static final int ANZAHL_BUCKETS = (64 - UNTERBUCKET_BITS) * UNTERBUCKETS;
+
+    /** Zähler je Bucket. */
+    private final AtomicLongArray buckets = new AtomicLongArray(ANZAHL_BUCKETS);
+
+    /** Der größte bisher erfasste Wert. */
+    private final AtomicLong maximum = new AtomicLong();
+
+    /**
+     * Erfasst einen Wert im Histogramm. Negative Werte werden als 0 gezählt.
+     *
+     * @param wert der zu erfassende Wert.
+     */
+    void erfasse(long wert) {
+        long normiert = Math.max(0, wert);
+        buckets.incrementAndGet(bucketIndex(normiert));
+
+        long bisherigesMaximum = maximum.get();
+        while (normiert > bisherigesMaximum && !maximum.compareAndSet(bisherigesMaximum, normiert)) {
+            bisherigesMaximum = maximum.get();
+        }
+    }
+
+    /**
+     * Liefert den größten erfassten Wert.
+     *
+     * @return der größte erfasste Wert oder 0, falls noch kein Wert erfasst wurde.
+     */
+    long getMaximum() {
+        return maximum.get();
+    }
+
+    /**
+     * Ermittelt das angegebene Perzentil. Geliefert wird die Obergrenze des Buckets, in dem das Perzentil
+     * liegt, höchstens jedoch der größte erfasste Wert.
+     *
+     * @param perzentil das Perzentil zwischen 0 und 100.
+     * @return der Wert des Perzentils oder 0, falls noch kein Wert erfasst wurde.
+     */
+    long getPerzentil(double perzentil) {
+        long[] anzahlen = new long[ANZAHL_BUCKETS];
+        long gesamt = 0;
+        for (int i = 0; i < ANZAHL_BUCKETS; i++) {
+            anzahlen[i] = buckets.get(i);
+            gesamt += anzahlen[i];
+        }
+        if (gesamt == 0) {
+            return 0;
+        }
+
+        long ziel = Math.max(1, (long) Math.ceil(perzentil / 100.0 * gesamt));
+        long kumuliert = 0;
+        for (int i = 0; i < ANZAHL_BUCKETS; i++) {
+            kumuliert += anzahlen[i];
+            if (kumuliert >= ziel) {
+                return Math.min(obergrenze(i), getMaximum());
+            }
+        }
+        return getMaximum();
+    }
+
+    /**
+     * Berechnet den Bucket-Index für einen nicht-negativen Wert.
+     *
+     * @param wert der Wert.
+     * @return der Index des Buckets.
+     */
+    static int bucketIndex(long wert) {
+        if (wert < UNTERBUCKETS) {
+            return (int) wert;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(wert);
+        int unterbucket = (int) (wert >>> (exponent - UNTERBUCKET_BITS));
+        return (exponent - UNTERBUCKET_BITS + 1) * UNTERBUCKETS + unterbucket - UNTERBUCKETS;
+    }
+
+    /**
+     * Berechnet den größten Wert, der in den Bucket mit dem angegebenen Index fällt.
+     *
+     * @param index der Index des Buckets.
+     * @return der größte Wert des Buckets.
+     */
+    static long obergrenze(int index) {
+        if (index < UNTERBUCKETS) {
+            return index;
+        }
+        int exponent = index / UNTERBUCKETS + UNTERBUCKET_BITS - 1;
+        long unterbucket = index % UNTERBUCKETS + UNTERBUCKETS;
+        int verschiebung = exponent - UNTERBUCKET_BITS;
+        long untergrenze = unterbucket << verschiebung;
+        return untergrenze + (1L << verschiebung) - 1;
+    }
+}
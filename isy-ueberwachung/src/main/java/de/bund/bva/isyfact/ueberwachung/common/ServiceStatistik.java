@@ -16,30 +16,21 @@
  */
 package de.bund.bva.isyfact.ueberwachung.common;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import de.bund.bva.isyfact.datetime.util.DateTimeUtil;
 import de.bund.bva.isyfact.logging.IsyLogger;
 import de.bund.bva.isyfact.logging.IsyLoggerFactory;
 import de.bund.bva.isyfact.exception.service.BusinessToException;
-import de.bund.bva.isyfact.serviceapi.annotations.FachlicherFehler;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.util.ClassUtils;
 
 /**
  * Diese Klasse implementiert eine Überwachungs-MBean für Services. Sie liefert die Überwachungsoptionen,
@@ -52,6 +43,18 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
      */
     private static final int ANZAHL_AUFRUFE_FUER_DURCHSCHNITT = 10;
 
+    /**
+     * Anzahl der Minuten, die im Ringpuffer des Zeitfensters vorgehalten werden. Neben der aktuellen und der
+     * letzten Minute werden zwei weitere Minuten vorgehalten. Aufrufe, die bis zu zwei Minuten verspätet
+     * gezählt werden, landen so in ihrer eigenen Minute und nicht in der aktuellen oder der letzten.
+     */
+    private static final int ANZAHL_MINUTEN_IM_ZEITFENSTER = 4;
+
+    /**
+     * Anzahl Millisekunden pro Minute.
+     */
+    private static final long MILLIS_PRO_MINUTE = 60_000L;
+
     /**
      * Logger.
      */
@@ -70,51 +73,27 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
     private boolean fachlicheFehlerpruefung;
 
     /**
-     * Dauern der letzten Such-Aufrufe (in Millisekunden).
-     */
-    private List<Long> letzteSuchdauern = new LinkedList<>();
-
-    /**
-     * Merker für die Minute, in der Werte der letzten Minute ermittelt wurden.
-     */
-    private volatile LocalDateTime letzteMinute = DateTimeUtil.localDateTimeNow();
-
-    /**
-     * Anzahl der nicht fehlerhaften Aufrufe, die in der durch letzteMinute bezeichneten Minute durchgeführt
-     * wurden.
-     */
-    private volatile int anzahlAufrufeLetzteMinute;
-
-    /**
-     * Anzahl der nicht fehlerhaften Aufrufe, die in der aktuellen Minute durchgeführt wurden.
+     * Dauern der letzten Such-Aufrufe (in Millisekunden) als Ringpuffer.
      */
-    private volatile int anzahlAufrufeAktuelleMinute;
+    private final AtomicLongArray letzteSuchdauern = new AtomicLongArray(ANZAHL_AUFRUFE_FUER_DURCHSCHNITT);
 
     /**
-     * Anzahl der Aufrufe, die in der durch letzteMinute bezeichneten Minute durchgeführt wurden, bei denen
-     * ein techinscher Fehler aufgetreten ist.
+     * Anzahl der bisher in {@link #letzteSuchdauern} geschriebenen Dauern. Bestimmt die nächste
+     * Schreibposition im Ringpuffer.
      */
-    private volatile int anzahlFehlerLetzteMinute;
+    private final AtomicLong anzahlSuchdauern = new AtomicLong();
 
     /**
-     * Anzahl der Aufrufe, die in der aktuellen Minute durchgeführt wurden, bei denen ein techinscher Fehler
-     * aufgetreten ist.
+     * Ringpuffer mit den Zählern der letzten Minuten. Der Index einer Minute ergibt sich aus der Minute seit
+     * der Epoche modulo {@link #ANZAHL_MINUTEN_IM_ZEITFENSTER}.
      */
-    private volatile int anzahlFehlerAktuelleMinute;
+    private final AtomicReferenceArray<MinutenStatistik> zeitfenster =
+        new AtomicReferenceArray<>(ANZAHL_MINUTEN_IM_ZEITFENSTER);
 
     /**
-     * Die Anzahl der fachlichen Fehler in der aktuellen Minute. Ein fachlicher Fehler liegt vor, wenn
-     * entweder eine Exception vom Typ PlusBusinessException geworfen wurde oder die zurückgegebene
-     * Fehlerliste Einträge enthielt.
+     * Merker für die zuletzt beobachtete Minute (seit der Epoche).
      */
-    private volatile int anzahlFachlicheFehlerLetzteMinute;
-
-    /**
-     * Die Anzahl der fachlichen Fehler in der letzten Minute. Ein fachlicher Fehler liegt vor, wenn entweder
-     * eine Exception vom Typ PlusBusinessException geworfen wurde oder die zurückgegebene Fehlerliste
-     * Einträge enthielt.
-     */
-    private volatile int anzahlFachlicheFehlerAktuelleMinute;
+    private final AtomicLong letzteMinute = new AtomicLong(getAktuelleMinute());
 
     public ServiceStatistik(MeterRegistry meterRegistry, Tags tags) {
         Gauge.builder("anzahlAufrufe.LetzteMinute", this, ServiceStatistik::getAnzahlAufrufeLetzteMinute)
@@ -136,15 +115,35 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
             .tags(tags)
             .description("Liefert die durchschnittliche Dauer der letzten 10 Aufrufe in ms")
             .register(meterRegistry);
+
+        Gauge.builder("dauer.p50.LetzteMinute", this, statistik -> statistik.getDauerPerzentilLetzteMinute(50))
+            .tags(tags)
+            .description("Liefert den Median der Dauer der Aufrufe in der letzten Minute in ms")
+            .register(meterRegistry);
+
+        Gauge.builder("dauer.p95.LetzteMinute", this, statistik -> statistik.getDauerPerzentilLetzteMinute(95))
+            .tags(tags)
+            .description("Liefert das 95. Perzentil der Dauer der Aufrufe in der letzten Minute in ms")
+            .register(meterRegistry);
+
+        Gauge.builder("dauer.p99.LetzteMinute", this, statistik -> statistik.getDauerPerzentilLetzteMinute(99))
+            .tags(tags)
+            .description("Liefert das 99. Perzentil der Dauer der Aufrufe in der letzten Minute in ms")
+            .register(meterRegistry);
+
+        Gauge.builder("dauer.max.LetzteMinute", this, ServiceStatistik::getMaximaleDauerLetzteMinute)
+            .tags(tags)
+            .description("Liefert die maximale Dauer der Aufrufe in der letzten Minute in ms")
+            .register(meterRegistry);
     }
 
     /**
      * Berechnet die aktuelle Minute der Systemzeit.
      *
-     * @return Der Minuten-Anteil der aktuellen Systemzeit
+     * @return Die Anzahl der seit der Epoche vergangenen Minuten der aktuellen Systemzeit.
      */
-    private static LocalDateTime getAktuelleMinute() {
-        return DateTimeUtil.localDateTimeNow().truncatedTo(ChronoUnit.MINUTES);
+    private static long getAktuelleMinute() {
+        return Math.floorDiv(DateTimeUtil.getClock().millis(), MILLIS_PRO_MINUTE);
     }
 
     /**
@@ -168,50 +167,80 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
      * @param fachlichErfolgreich Kennzeichen, ob der Aufruf fachlich erfolgreich war (<code>true</code>) oder ein fachlicher
      *                            Fehler aufgetreten ist (<code>false</code>).
      */
-    public synchronized void zaehleAufruf(long dauer, boolean erfolgreich, boolean fachlichErfolgreich) {
-        aktualisiereZeitfenster();
-        anzahlAufrufeAktuelleMinute++;
+    public void zaehleAufruf(long dauer, boolean erfolgreich, boolean fachlichErfolgreich) {
+        MinutenStatistik minute = getMinutenStatistik(aktualisiereZeitfenster());
+        minute.anzahlAufrufe.increment();
 
         if (!erfolgreich) {
-            anzahlFehlerAktuelleMinute++;
+            minute.anzahlFehler.increment();
         }
 
         if (!fachlichErfolgreich) {
-            anzahlFachlicheFehlerAktuelleMinute++;
+            minute.anzahlFachlicheFehler.increment();
         }
 
-        if (letzteSuchdauern.size() == ANZAHL_AUFRUFE_FUER_DURCHSCHNITT) {
-            letzteSuchdauern.remove(ANZAHL_AUFRUFE_FUER_DURCHSCHNITT - 1);
-        }
+        minute.dauern.erfasse(dauer);
 
-        letzteSuchdauern.add(0, dauer);
+        long position = anzahlSuchdauern.getAndIncrement();
+        letzteSuchdauern.set((int) (position % ANZAHL_AUFRUFE_FUER_DURCHSCHNITT), dauer);
     }
 
     /**
-     * Diese Methode veranlasst, dass das Zeitfenster für die Zähler der Fehler und Aufrufe in der aktuellen
-     * und letzten Minute aktualisiert wird. Falls eine Minute verstrichen ist, werden die Werte der aktuellen
-     * Minute in die der Zähler für die letzte Minute kopiert. Die Zähler für die aktuelle Minute werden auf 0
-     * gesetzt. Die Methode sorg dafür, dass dieser Vorgang nur einmal pro Minute ausgeführt werden kann.
+     * Diese Methode veranlasst, dass das Zeitfenster für die Zähler der Fehler und Aufrufe aktualisiert wird.
+     * Schreitet die Zeit voran, wird lediglich der Merker für die Minute gesetzt, veraltete Einträge im
+     * Ringpuffer werden beim nächsten Zugriff ersetzt. Wird die Uhr zurückgestellt, werden alle Einträge
+     * verworfen. Die Methode kommt ohne Sperre aus und schreibt höchstens einmal pro Minute.
+     *
+     * @return Die aktuelle Minute seit der Epoche.
      */
-    private synchronized void aktualisiereZeitfenster() {
-        LocalDateTime aktuelleMinute = getAktuelleMinute();
-        if (!aktuelleMinute.isEqual(letzteMinute)) {
-            if (ChronoUnit.MINUTES.between(letzteMinute, aktuelleMinute) > 1) {
-                // keine infos von letzter Minute
-                anzahlAufrufeLetzteMinute = 0;
-                anzahlFehlerLetzteMinute = 0;
-                anzahlFachlicheFehlerLetzteMinute = 0;
-            } else {
-                anzahlAufrufeLetzteMinute = anzahlAufrufeAktuelleMinute;
-                anzahlFehlerLetzteMinute = anzahlFehlerAktuelleMinute;
-                anzahlFachlicheFehlerLetzteMinute = anzahlFachlicheFehlerAktuelleMinute;
+    private long aktualisiereZeitfenster() {
+        long aktuelleMinute = getAktuelleMinute();
+        long bekannteMinute = letzteMinute.get();
+        if (aktuelleMinute != bekannteMinute && letzteMinute.compareAndSet(bekannteMinute, aktuelleMinute)
+            && aktuelleMinute < bekannteMinute) {
+            for (int i = 0; i < ANZAHL_MINUTEN_IM_ZEITFENSTER; i++) {
+                zeitfenster.set(i, null);
             }
+        }
+        return aktuelleMinute;
+    }
 
-            anzahlAufrufeAktuelleMinute = 0;
-            anzahlFehlerAktuelleMinute = 0;
-            anzahlFachlicheFehlerAktuelleMinute = 0;
-            letzteMinute = aktuelleMinute;
+    /**
+     * Liefert die Zähler für die angegebene Minute aus dem Zeitfenster. Falls der Eintrag im Ringpuffer noch zu
+     * einer älteren Minute gehört, wird er ohne Sperre durch einen neuen Eintrag ersetzt. Dies geschieht nur
+     * einmal pro Minute.
+     *
+     * @param minute Die Minute seit der Epoche.
+     * @return Die Zähler für die Minute.
+     */
+    private MinutenStatistik getMinutenStatistik(long minute) {
+        int index = (int) Math.floorMod(minute, (long) ANZAHL_MINUTEN_IM_ZEITFENSTER);
+        MinutenStatistik statistik = zeitfenster.get(index);
+        while (statistik == null || statistik.minute < minute) {
+            MinutenStatistik neueStatistik = new MinutenStatistik(minute);
+            if (zeitfenster.compareAndSet(index, statistik, neueStatistik)) {
+                return neueStatistik;
+            }
+            statistik = zeitfenster.get(index);
         }
+        return statistik;
+    }
+
+    /**
+     * Liefert die Zähler der letzten vollständigen Minute.
+     *
+     * @return Die Zähler der letzten Minute oder <code>null</code>, falls in der letzten Minute keine Aufrufe
+     * gezählt wurden.
+     */
+    private MinutenStatistik getLetzteMinute() {
+        long vorherigeMinute = aktualisiereZeitfenster() - 1;
+        MinutenStatistik statistik =
+            zeitfenster.get((int) Math.floorMod(vorherigeMinute, (long) ANZAHL_MINUTEN_IM_ZEITFENSTER));
+        if (statistik == null || statistik.minute != vorherigeMinute) {
+            // keine infos von letzter Minute
+            return null;
+        }
+        return statistik;
     }
 
     /**
@@ -221,20 +250,40 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
      * @return Die durchschnittliche Dauer der letzten 10 Aufrufe in ms.
      */
     private long getDurchschnittsDauerLetzteAufrufe() {
+        // Explizit keine Synchronisierung, um die Anwendungsperformance
+        // nicht zu verschlechtern.
+        int anzahl = (int) Math.min(anzahlSuchdauern.get(), ANZAHL_AUFRUFE_FUER_DURCHSCHNITT);
         long result = 0;
-        if (!letzteSuchdauern.isEmpty()) {
-            // Kopiere Liste um konkurrierende Änderungen zu vermeiden
-            // Explizit keine Synchronisierung, um die Anwendungsperformance
-            // nicht zu verschlechtern.
-            Long[] dauern = letzteSuchdauern.toArray(new Long[0]);
-            for (long dauer : dauern) {
-                result += dauer;
+        if (anzahl > 0) {
+            for (int i = 0; i < anzahl; i++) {
+                result += letzteSuchdauern.get(i);
             }
-            result /= letzteSuchdauern.size();
+            result /= anzahl;
         }
         return result;
     }
 
+    /**
+     * Liefert ein Perzentil der Dauer der in der letzten Minute gezählten Aufrufe.
+     *
+     * @param perzentil Das Perzentil zwischen 0 und 100.
+     * @return Das Perzentil der Dauer in ms oder 0, falls in der letzten Minute keine Aufrufe gezählt wurden.
+     */
+    private long getDauerPerzentilLetzteMinute(double perzentil) {
+        MinutenStatistik statistik = getLetzteMinute();
+        return statistik == null ? 0 : statistik.dauern.getPerzentil(perzentil);
+    }
+
+    /**
+     * Liefert die maximale Dauer der in der letzten Minute gezählten Aufrufe.
+     *
+     * @return Die maximale Dauer in ms oder 0, falls in der letzten Minute keine Aufrufe gezählt wurden.
+     */
+    private long getMaximaleDauerLetzteMinute() {
+        MinutenStatistik statistik = getLetzteMinute();
+        return statistik == null ? 0 : statistik.dauern.getMaximum();
+    }
+
     /**
      * Liefert die Anzahl der in der letzten Minute gezählten Aufrufe, bei denen kein Fehler aufgetreten ist.
      * Definiert eine Methode für das Management-Interface dieser MBean.
@@ -242,8 +291,8 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
      * @return Die Anzahl der in der letzten Minute gezählten Aufrufe, bei denen kein Fehler aufgetreten ist.
      */
     private int getAnzahlAufrufeLetzteMinute() {
-        aktualisiereZeitfenster();
-        return anzahlAufrufeLetzteMinute;
+        MinutenStatistik statistik = getLetzteMinute();
+        return statistik == null ? 0 : statistik.anzahlAufrufe.intValue();
     }
 
     /**
@@ -253,8 +302,8 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
      * @return Die Anzahl der in der letzten Minute gezählten Aufrufe, bei denen ein Fehler aufgetreten ist.
      */
     private int getAnzahlFehlerLetzteMinute() {
-        aktualisiereZeitfenster();
-        return anzahlFehlerLetzteMinute;
+        MinutenStatistik statistik = getLetzteMinute();
+        return statistik == null ? 0 : statistik.anzahlFehler.intValue();
     }
 
     /**
@@ -265,13 +314,13 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
      * aufgetreten ist.
      */
     private int getAnzahlFachlicheFehlerLetzteMinute() {
-        aktualisiereZeitfenster();
-        return anzahlFachlicheFehlerLetzteMinute;
+        MinutenStatistik statistik = getLetzteMinute();
+        return statistik == null ? 0 : statistik.anzahlFachlicheFehler.intValue();
     }
 
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
-        Instant start = DateTimeUtil.getClock().instant();
+        long start = DateTimeUtil.getClock().millis();
         boolean erfolgreich = false;
         boolean fachlichErfolgreich = false;
 
@@ -289,7 +338,7 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
             erfolgreich = true;
             throw t;
         } finally {
-            long aufrufDauer = ChronoUnit.MILLIS.between(start, DateTimeUtil.getClock().instant());
+            long aufrufDauer = DateTimeUtil.getClock().millis() - start;
             zaehleAufruf(aufrufDauer, erfolgreich, fachlichErfolgreich);
         }
     }
@@ -309,7 +358,8 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
      * Durchsucht eine Klasse nach Fehlerobjekten, die nicht null sind, oder Fehlercollections, die nicht leer
      * sind. Fehlerobjekten sind mit {link FachlicherFehler} annotiert.
      *
-     * Durchsucht Oberklassen & untergeordnete Objektstrukturen ebenfalls rekursiv.
+     * Durchsucht Oberklassen & untergeordnete Objektstrukturen ebenfalls rekursiv. Die zu durchsuchenden
+     * Felder werden je Klasse einmalig ermittelt (siehe {@link FachlicheFehlerPruefplan}).
      *
      * @param result Das Objekt
      * @param clazz  Die Klasse des Objekts durchsucht werden soll (optional). Kann leergelassen werden beim
@@ -325,80 +375,17 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
             return false;
         }
 
+        if (result == null) {
+            return false;
+        }
+
         // Wenn keine Klasse übergeben, selber ermitteln
         Class<?> clazzToScan = clazz;
         if (clazzToScan == null) {
             clazzToScan = result.getClass();
         }
 
-        List<Field> objectFields = Arrays.stream(clazzToScan.getDeclaredFields())
-                                         .filter(field -> !ClassUtils.isPrimitiveOrWrapper(field.getType()) && !field.getType().isEnum())
-                                         .collect(Collectors.toList());
-
-        LOGISY.trace("{} Analysiere Objekt {} (Klasse {}) {} Felder gefunden.",
-            String.join("", Collections.nCopies(tiefe, "-")), result.toString(), clazzToScan.getSimpleName(),
-            objectFields.size());
-
-        boolean fehlerGefunden = false;
-
-        for (Field field : objectFields) {
-            LOGISY.trace("{} {}.{}, Type {}", String.join("", Collections.nCopies(tiefe, "-")),
-                clazzToScan.getSimpleName(), field.getName(), field.getType().getSimpleName());
-            field.setAccessible(true);
-            try {
-                // Prüfe einzelne Klassenfelder (non-Collection) auf annotierten Typ und Vorhandensein
-                if (fieldIsNotACollection(field)) {
-                    Object fieldObject = field.get(result);
-
-                    if (fieldObject != null) {
-                        if (fieldObject.getClass().isAnnotationPresent(FachlicherFehler.class)) {
-                            // Fachliches Fehlerobjekt gefunden
-                            return true;
-                        }
-
-                        // Wenn kein String, dann prüfe rekursiv Objektstruktur
-                        if (fieldObject.getClass() != String.class) {
-                            fehlerGefunden = pruefeObjektAufFehler(fieldObject, null, tiefe + 1) || fehlerGefunden;
-                        }
-                    }
-                } else {
-                    // Collection, prüfen ob fachliche Fehlerliste
-                    ParameterizedType type = (ParameterizedType) field.getGenericType();
-                    Class<?> collectionTypeArgument = (Class<?>) type.getActualTypeArguments()[0];
-                    if (collectionTypeArgument.isAnnotationPresent(FachlicherFehler.class)) {
-                        // Ist Fehlerliste, prüfen ob nicht leer
-                        Collection<?> collection = (Collection<?>) field.get(result);
-                        if (collection != null && !collection.isEmpty()) {
-                            // Fachliche Fehler in Fehlerliste gefunden
-                            return true;
-                        }
-                    }
-                }
-            } catch (IllegalAccessException e) {
-                // Nichts tun, Feld wird ignoriert
-                LOGISY.debug("Feldzugriffsfehler: {}", e.getMessage());
-            }
-        }
-
-        // Die Klassen-Hierachie rekursiv nach oben prüfen
-        if (typeHasSuperClass(clazzToScan)) {
-            LOGISY.trace("{}> Climb up class hierarchy! Source {}, Target {}",
-                String.join("", Collections.nCopies(tiefe, "-")), clazzToScan.getSimpleName(),
-                clazzToScan.getSuperclass());
-            fehlerGefunden =
-                // Aufruf mit gleicher Tiefe, da Vererbung nach oben durchlaufen wird
-                pruefeObjektAufFehler(result, clazzToScan.getSuperclass(), tiefe) || fehlerGefunden;
-        }
-
-        return fehlerGefunden;
-    }
-
-    private boolean typeHasSuperClass(Class clazz) {
-        return clazz.getSuperclass() != null && !clazz.getSuperclass().equals(Object.class);
-    }
-
-    private boolean fieldIsNotACollection(Field field) {
-        return !Collection.class.isAssignableFrom(field.getType());
+        return FachlicheFehlerPruefplan.fuer(clazzToScan).pruefe(result, tiefe, MAXTIEFE);
     }
 
     @Override
@@ -407,4 +394,30 @@ public class ServiceStatistik implements MethodInterceptor, InitializingBean {
             " mit erweiterter fachlicher Fehlerprüfung " :
             "") + " initialisiert.");
     }
+
+    /**
+     * Die Zähler einer einzelnen Minute im Zeitfenster. Die Zähler sind als {@link LongAdder} umgesetzt, damit
+     * parallele Aufrufe nicht um eine gemeinsame Speicherstelle konkurrieren.
+     */
+    private static final class MinutenStatistik {
+
+        /** Die Minute seit der Epoche, zu der die Zähler gehören. */
+        private final long minute;
+
+        /** Anzahl der Aufrufe. */
+        private final LongAdder anzahlAufrufe = new LongAdder();
+
+        /** Anzahl der Aufrufe, bei denen ein technischer Fehler aufgetreten ist. */
+        private final LongAdder anzahlFehler = new LongAdder();
+
+        /** Anzahl der Aufrufe, bei denen ein fachlicher Fehler aufgetreten ist. */
+        private final LongAdder anzahlFachlicheFehler = new LongAdder();
+
+        /** Verteilung der Dauern der Aufrufe. */
+        private final LatenzHistogramm dauern = new LatenzHistogramm();
+
+        private MinutenStatistik(long minute) {
+            this.minute = minute;
+        }
+    }
 }
@@ -158,4 +158,41 @@ public class TestServiceStatistik {
         assertEquals(durchschnittsDauerLetzteZehnAufrufeReferenz, durchschnittsDauerLetzteZehnAufrufe.value(), 0.0);
         LOG.info(LogKategorie.JOURNAL, EreignisSchluessel.PLUEB00001, "Prüfungen für 2. Minute erfolgreich");
     }
+
+    /**
+     * Testet die Perzentile und die maximale Dauer der Aufrufe der letzten Minute.
+     */
+    @Test
+    public void testDauerPerzentileLetzteMinute() {
+        LOG.debug("Setze Zeit auf Anfang einer vollen Minute");
+        DateTimeUtil.setClock(TestClock.at(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).plusHours(1)));
+
+        for (long dauer = 1; dauer <= 100; dauer++) {
+            serviceStatistik.zaehleAufruf(dauer, true, true);
+        }
+
+        Gauge p50 = meterRegistry.get("dauer.p50.LetzteMinute").gauge();
+        Gauge p95 = meterRegistry.get("dauer.p95.LetzteMinute").gauge();
+        Gauge p99 = meterRegistry.get("dauer.p99.LetzteMinute").gauge();
+        Gauge max = meterRegistry.get("dauer.max.LetzteMinute").gauge();
+
+        // the statistics from the current minute are not yet populated
+        assertEquals(0, p50.value(), 0.0);
+        assertEquals(0, max.value(), 0.0);
+
+        LOG.debug("Stelle Uhr um 1 Minute nach vorn");
+        ((TestClock) DateTimeUtil.getClock()).advanceBy(Duration.ofMinutes(1));
+
+        // Das Histogramm hat einen relativen Fehler von hoechstens 1/16.
+        assertEquals(50, p50.value(), 50 / 16.0);
+        assertEquals(95, p95.value(), 95 / 16.0);
+        assertEquals(99, p99.value(), 99 / 16.0);
+        assertEquals(100, max.value(), 0.0);
+
+        LOG.debug("Stelle Uhr um 1 weitere Minute nach vorn");
+        ((TestClock) DateTimeUtil.getClock()).advanceBy(Duration.ofMinutes(1));
+
+        assertEquals(0, p99.value(), 0.0);
+        assertEquals(0, max.value(), 0.0);
+    }
 }